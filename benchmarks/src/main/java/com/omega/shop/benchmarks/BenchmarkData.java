@@ -0,0 +1,84 @@
+package com.omega.shop.benchmarks;
+
+import com.omega.shop.dto.CartItem;
+import com.omega.shop.dto.ShoppingCart;
+import com.omega.shop.entity.Category;
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.OrderItem;
+import com.omega.shop.entity.Product;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генерация детерминированных данных для бенчмарков (фиксированное зерно)
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static Product product(long id, Random random) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Товар " + id);
+        product.setPrice(price(random));
+        product.setQuantity(1 + random.nextInt(500));
+        product.setImagePath(id + ".jpg");
+        return product;
+    }
+
+    static ShoppingCart cart(int items) {
+        Random random = new Random(42);
+        ShoppingCart cart = new ShoppingCart();
+        for (long id = 1; id <= items; id++) {
+            cart.addItem(new CartItem(product(id, random), 1 + random.nextInt(5)));
+        }
+        return cart;
+    }
+
+    static Order order(int lines) {
+        Random random = new Random(42);
+        Order order = new Order();
+        for (long id = 1; id <= lines; id++) {
+            order.addItem(OrderItem.fromProduct(product(id, random), 1 + random.nextInt(5)));
+        }
+        return order;
+    }
+
+    /**
+     * Цепочка категорий заданной глубины; возвращается самая глубокая
+     */
+    static Category categoryChain(int depth) {
+        Category current = null;
+        for (long id = 1; id <= depth; id++) {
+            Category category = new Category();
+            category.setId(id);
+            category.setName("Категория " + id);
+            category.setParent(current);
+            current = category;
+        }
+        return current;
+    }
+
+    /**
+     * Строки агрегирующего запроса отчёта: sellerId, имя, email, количество, сумма
+     */
+    static List<Object[]> reportRows(int rows) {
+        Random random = new Random(42);
+        List<Object[]> result = new ArrayList<>(rows);
+        for (long id = 1; id <= rows; id++) {
+            // Драйвер возвращает суммы то как BigDecimal, то как Double - проверяем обе ветки
+            Object amount = id % 2 == 0 ? price(random).multiply(BigDecimal.valueOf(100)) : random.nextDouble() * 100_000;
+            result.add(new Object[]{id, "seller" + id, "seller" + id + "@omega.kg", (long) random.nextInt(10_000), amount});
+        }
+        return result;
+    }
+
+    private static BigDecimal price(Random random) {
+        return BigDecimal.valueOf(100 + random.nextInt(200_000)).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    }
+}
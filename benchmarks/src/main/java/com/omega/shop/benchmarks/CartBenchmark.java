@@ -0,0 +1,80 @@
+package com.omega.shop.benchmarks;
+
+import com.omega.shop.dto.CartItem;
+import com.omega.shop.dto.ShoppingCart;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Корзина: итоги, пересчитываемые на каждой странице с мини-корзиной,
+ * и сериализация сессионного бина (репликация/сохранение сессий)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int items;
+
+    private ShoppingCart cart;
+    private byte[] serialized;
+
+    @Setup
+    public void setUp() throws IOException {
+        cart = BenchmarkData.cart(items);
+        serialized = serialize();
+    }
+
+    @Benchmark
+    public BigDecimal totalPrice() {
+        return cart.getTotalPrice();
+    }
+
+    @Benchmark
+    public int totalItems() {
+        return cart.getTotalItems();
+    }
+
+    @Benchmark
+    public List<CartItem> items() {
+        return cart.getItems();
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cart);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public Object deserialize() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(serialized))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.omega.shop.benchmarks;
+
+import com.omega.shop.entity.Category;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Полный путь категории - вызывается для каждой строки дерева категорий в админке
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CategoryPathBenchmark {
+
+    @Param({"1", "5", "20", "100"})
+    private int depth;
+
+    private Category leaf;
+
+    @Setup
+    public void setUp() {
+        leaf = BenchmarkData.categoryChain(depth);
+    }
+
+    @Benchmark
+    public String fullPath() {
+        return leaf.getFullPath();
+    }
+}
@@ -0,0 +1,136 @@
+package com.omega.shop.benchmarks;
+
+import com.omega.shop.service.DispatchPlanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Автоназначение курьеров: план на пачку и минута работы диспетчера при потоке {@code ordersPerMinute}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DispatchBenchmark {
+
+    private static final int STREETS = 300;
+    private static final int CAPACITY = 5;
+    private static final int BATCH = 200;
+    /**
+     * Проходов в минуту при интервале 5 с
+     */
+    private static final int PASSES = 12;
+
+    @Param({"1000", "5000"})
+    private int ordersPerMinute;
+
+    @Param({"100", "1000"})
+    private int couriers;
+
+    private final DispatchPlanner planner = new DispatchPlanner(CAPACITY);
+    private List<DispatchPlanner.CourierLoad> loads;
+    private List<DispatchPlanner.PendingOrder> batch;
+    private List<DispatchPlanner.PendingOrder> minute;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        loads = new ArrayList<>(couriers);
+        for (long id = 1; id <= couriers; id++) {
+            List<String> active = new ArrayList<>();
+            for (int i = random.nextInt(CAPACITY); i > 0; i--) {
+                active.add(address(random));
+            }
+            loads.add(new DispatchPlanner.CourierLoad(id, active.size(), active));
+        }
+        minute = new ArrayList<>(ordersPerMinute);
+        for (long id = 1; id <= ordersPerMinute; id++) {
+            minute.add(new DispatchPlanner.PendingOrder(id, address(random)));
+        }
+        batch = minute.subList(0, Math.min(BATCH, minute.size()));
+    }
+
+    /**
+     * Один проход с пачкой по умолчанию
+     */
+    @Benchmark
+    public List<DispatchPlanner.Assignment> planBatch() {
+        return planner.plan(loads, batch);
+    }
+
+    /**
+     * Заказы минуты приходят равными частями на каждый проход. Проход, как DispatchService, берёт пачки
+     * по 200 самых старых заказов, пока пачка распределяется целиком; остальные ждут следующего прохода.
+     * Между проходами каждый курьер завершает одну доставку.
+     */
+    @Benchmark
+    public int simulateMinute() {
+        List<ArrayDeque<String>> active = new ArrayList<>(couriers);
+        for (DispatchPlanner.CourierLoad load : loads) {
+            active.add(new ArrayDeque<>(load.activeAddresses()));
+        }
+        List<DispatchPlanner.PendingOrder> backlog = new ArrayList<>();
+        int perPass = ordersPerMinute / PASSES;
+        int assigned = 0;
+        for (int pass = 0; pass < PASSES; pass++) {
+            backlog.addAll(minute.subList(pass * perPass, (pass + 1) * perPass));
+            List<DispatchPlanner.Assignment> plan;
+            do {
+                List<DispatchPlanner.CourierLoad> current = new ArrayList<>(couriers);
+                for (int i = 0; i < couriers; i++) {
+                    current.add(new DispatchPlanner.CourierLoad((long) i + 1, active.get(i).size(), active.get(i)));
+                }
+                List<DispatchPlanner.PendingOrder> chunk = backlog.subList(0, Math.min(BATCH, backlog.size()));
+                plan = planner.plan(current, chunk);
+                Set<Long> done = new HashSet<>(plan.size() * 2);
+                for (DispatchPlanner.Assignment assignment : plan) {
+                    active.get((int) (assignment.courierId() - 1)).add(address(assignment.orderId()));
+                    done.add(assignment.orderId());
+                }
+                chunk.removeIf(order -> done.contains(order.orderId()));
+                assigned += plan.size();
+            } while (plan.size() == BATCH);
+            active.forEach(ArrayDeque::pollFirst);
+        }
+        return assigned;
+    }
+
+    private static String address(Random random) {
+        return "г. Бишкек, ул. " + street(random.nextInt(STREETS)) + ", д. " + (1 + random.nextInt(200));
+    }
+
+    /**
+     * Название улицы без цифр: цифра в адресе - начало номера дома
+     */
+    private static String street(int index) {
+        StringBuilder name = new StringBuilder("Улица ");
+        do {
+            name.append((char) ('А' + index % 32));
+            index /= 32;
+        } while (index > 0);
+        return name.toString();
+    }
+
+    private String address(Long orderId) {
+        return minute.get((int) (orderId - 1)).deliveryAddress();
+    }
+}
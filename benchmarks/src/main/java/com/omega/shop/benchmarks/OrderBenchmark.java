@@ -0,0 +1,55 @@
+package com.omega.shop.benchmarks;
+
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.OrderItem;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Пересчёт сумм заказа при оформлении
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+
+    @Param({"1", "10", "100"})
+    private int lines;
+
+    private Order order;
+
+    @Setup
+    public void setUp() {
+        order = BenchmarkData.order(lines);
+    }
+
+    @Benchmark
+    public BigDecimal calculateTotalAmount() {
+        order.calculateTotalAmount();
+        return order.getTotalAmount();
+    }
+
+    @Benchmark
+    public void recalculateTotalPrice(Blackhole blackhole) {
+        for (OrderItem item : order.getItems()) {
+            item.recalculateTotalPrice();
+            blackhole.consume(item.getTotalPrice());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.omega.shop.benchmarks;
+
+import com.omega.shop.dto.SalesReportDto;
+import com.omega.shop.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Преобразование строк агрегирующего запроса в строки отчёта о продажах
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReportMappingBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    private int rows;
+
+    private List<Object[]> data;
+
+    @Setup
+    public void setUp() {
+        data = BenchmarkData.reportRows(rows);
+    }
+
+    @Benchmark
+    public List<SalesReportDto> mapRows() {
+        return data.stream()
+                .map(ReportService::mapSellerRow)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,319 @@
+package com.omega.shop.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Генератор синтетических данных через COPY FROM STDIN.
+ * <p>
+ * При {@code scale=1.0}: 100 тыс. товаров в дереве категорий глубиной 5, 20 тыс. покупателей,
+ * 200 продавцов, 100 курьеров, 1 млн заказов и около 5 млн позиций. Идентификаторы назначаются
+ * явно (после текущего максимума), последовательности сдвигаются в конце. Данные детерминированы:
+ * позиции заказа генерируются дважды с одним и тем же зерном - для суммы заказа и для самих строк,
+ * поэтому заказы и позиции можно загружать отдельными COPY без хранения в памяти.
+ */
+@Slf4j
+class DataGenerator {
+
+    static final String PASSWORD = "loadtest";
+    static final String USER_PREFIX = "lt_";
+
+    private static final int ROOT_CATEGORIES = 8;
+    private static final int CATEGORY_BRANCHING = 3;
+    private static final int CATEGORY_DEPTH = 5;
+    private static final int FLUSH_SIZE = 1 << 20;
+    private static final DateTimeFormatter TIMESTAMP = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+    private static final String[] WORDS = {
+            "Холодильник", "Пылесос", "Телевизор", "Смартфон", "Ноутбук", "Чайник", "Утюг", "Микроволновка",
+            "Кофемашина", "Блендер", "Фен", "Кондиционер", "Стиральная", "Посудомоечная", "Монитор", "Планшет"
+    };
+
+    private final DataSource dataSource;
+    private final double scale;
+    private final LocalDateTime now = LocalDateTime.now().withNano(0);
+
+    DataGenerator(DataSource dataSource, double scale) {
+        this.dataSource = dataSource;
+        this.scale = scale;
+    }
+
+    void generate() throws SQLException {
+        int customers = scaled(20_000, 10);
+        int sellers = scaled(200, 2);
+        int couriers = scaled(100, 2);
+        int products = scaled(100_000, 100);
+        int orders = scaled(1_000_000, 100);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(true);
+            String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+
+            long started = System.currentTimeMillis();
+            long userBase = nextId(connection, "users");
+            copy(connection, "users", "id,username,email,phone,password,role,is_active,created_at,updated_at",
+                    1L + sellers + couriers + customers, (i, row) -> {
+                        String role;
+                        String name;
+                        if (i == 0) {
+                            role = "ADMIN";
+                            name = USER_PREFIX + "admin";
+                        } else if (i <= sellers) {
+                            role = "SELLER";
+                            name = USER_PREFIX + "seller_" + i;
+                        } else if (i <= sellers + couriers) {
+                            role = "COURIER";
+                            name = USER_PREFIX + "courier_" + (i - sellers);
+                        } else {
+                            role = "CLIENT";
+                            name = USER_PREFIX + "client_" + (i - sellers - couriers);
+                        }
+                        row.append(userBase + i).append(',').append(name).append(',')
+                                .append(name).append("@loadtest.omega").append(',')
+                                .append("+996").append(500_000_000 + i).append(',')
+                                .append(passwordHash).append(',').append(role).append(",true,")
+                                .append(timestamp(now)).append(',').append(timestamp(now));
+                    });
+            long sellerBase = userBase + 1;
+            long courierBase = sellerBase + sellers;
+            long customerBase = courierBase + couriers;
+            log.info("Пользователи: {} (за {} мс)", 1 + sellers + couriers + customers, System.currentTimeMillis() - started);
+
+            started = System.currentTimeMillis();
+            List<Long> leafCategories = generateCategories(connection);
+            log.info("Категории: листьев {} (за {} мс)", leafCategories.size(), System.currentTimeMillis() - started);
+
+            started = System.currentTimeMillis();
+            long productBase = nextId(connection, "products");
+            long[] priceCents = new long[products];
+            Random productRandom = new Random(42);
+            for (int i = 0; i < products; i++) {
+                priceCents[i] = 500 + productRandom.nextInt(20_000_000);
+            }
+            copy(connection, "products",
+                    "id,name,description,price,quantity,image_path,category_id,seller_id,is_active,created_at,updated_at",
+                    products, (i, row) -> {
+                        int index = (int) i;
+                        row.append(productBase + i).append(',')
+                                .append(WORDS[index % WORDS.length]).append(" модель ").append(i).append(',')
+                                .append("Описание товара ").append(i).append(',')
+                                .append(money(priceCents[index])).append(',')
+                                .append(index % 50 == 0 ? 0 : 10_000).append(',')
+                                .append(',')
+                                .append(leafCategories.get(index % leafCategories.size())).append(',')
+                                .append(sellerBase + index % sellers).append(',')
+                                .append(index % 97 != 0).append(',')
+                                .append(timestamp(now.minusDays(index % 365))).append(',')
+                                .append(timestamp(now.minusDays(index % 30)));
+                    });
+            log.info("Товары: {} (за {} мс)", products, System.currentTimeMillis() - started);
+
+            started = System.currentTimeMillis();
+            long orderBase = nextId(connection, "orders");
+            copy(connection, "orders",
+                    "id,user_id,status,total_amount,phone,delivery_address,courier_id,delivery_status,"
+                            + "created_at,updated_at,ready_for_delivery_at,courier_assigned_at,delivered_at",
+                    orders, (i, row) -> {
+                        Random random = orderRandom(i);
+                        long total = 0;
+                        int lines = 1 + random.nextInt(9);
+                        for (int line = 0; line < lines; line++) {
+                            int product = random.nextInt(products);
+                            total += priceCents[product] * (1 + random.nextInt(3));
+                        }
+                        int statusRoll = random.nextInt(100);
+                        LocalDateTime created = now.minusMinutes(random.nextInt(365 * 24 * 60));
+                        String status;
+                        String deliveryStatus;
+                        boolean withCourier;
+                        if (statusRoll < 70) {
+                            status = "DELIVERED";
+                            deliveryStatus = "DELIVERED";
+                            withCourier = true;
+                        } else if (statusRoll < 75) {
+                            status = "CANCELLED";
+                            deliveryStatus = "CANCELLED";
+                            withCourier = false;
+                        } else if (statusRoll < 85) {
+                            status = "NEW";
+                            deliveryStatus = "NOT_ASSIGNED";
+                            withCourier = false;
+                        } else if (statusRoll < 91) {
+                            status = "IN_PROGRESS";
+                            deliveryStatus = "NOT_ASSIGNED";
+                            withCourier = false;
+                        } else if (statusRoll < 95) {
+                            status = "READY_FOR_DELIVERY";
+                            deliveryStatus = "READY";
+                            withCourier = false;
+                        } else {
+                            status = "READY_FOR_DELIVERY";
+                            deliveryStatus = "ASSIGNED";
+                            withCourier = true;
+                        }
+                        row.append(orderBase + i).append(',')
+                                .append(customerBase + random.nextInt(customers)).append(',')
+                                .append(status).append(',')
+                                .append(money(total)).append(',')
+                                .append("(+996)-555-").append(String.format("%03d-%03d", i % 1000, (i / 1000) % 1000)).append(',')
+                                .append("г. Бишкек ул. Нагрузочная ").append(1 + i % 300).append(',')
+                                .append(withCourier ? String.valueOf(courierBase + random.nextInt(couriers)) : "").append(',')
+                                .append(deliveryStatus).append(',')
+                                .append(timestamp(created)).append(',')
+                                .append(timestamp(created.plusHours(2))).append(',')
+                                .append(statusRoll < 70 || statusRoll >= 91 ? timestamp(created.plusHours(1)) : "").append(',')
+                                .append(withCourier ? timestamp(created.plusHours(2)) : "").append(',')
+                                .append(statusRoll < 70 ? timestamp(created.plusDays(1)) : "");
+                    });
+            log.info("Заказы: {} (за {} мс)", orders, System.currentTimeMillis() - started);
+
+            started = System.currentTimeMillis();
+            long itemBase = nextId(connection, "order_items");
+            long[] itemId = {itemBase};
+            // Позиции пишутся построчно по заказам; число строк заранее неизвестно, поэтому
+            // «строкой» COPY здесь выступает заказ целиком
+            copy(connection, "order_items", "id,order_id,product_id,product_name,price,quantity,image_path,total_price",
+                    orders, (i, row) -> {
+                        Random random = orderRandom(i);
+                        int lines = 1 + random.nextInt(9);
+                        for (int line = 0; line < lines; line++) {
+                            int product = random.nextInt(products);
+                            int quantity = 1 + random.nextInt(3);
+                            if (line > 0) {
+                                row.append('\n');
+                            }
+                            row.append(itemId[0]++).append(',')
+                                    .append(orderBase + i).append(',')
+                                    .append(productBase + product).append(',')
+                                    .append(WORDS[product % WORDS.length]).append(" модель ").append(product).append(',')
+                                    .append(money(priceCents[product])).append(',')
+                                    .append(quantity).append(',')
+                                    .append(',')
+                                    .append(money(priceCents[product] * quantity));
+                        }
+                    });
+            log.info("Позиции заказов: {} (за {} мс)", itemId[0] - itemBase, System.currentTimeMillis() - started);
+
+            for (String table : List.of("users", "categories", "products", "orders", "order_items")) {
+                resetSequence(connection, table);
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE");
+            }
+        }
+    }
+
+    /**
+     * Дерево категорий: ROOT_CATEGORIES корней, у каждого узла CATEGORY_BRANCHING детей.
+     * Родитель всегда вставляется раньше потомков (обход по уровням), поэтому внешний ключ
+     * проверяется в рамках того же COPY.
+     */
+    private List<Long> generateCategories(Connection connection) throws SQLException {
+        long base = nextId(connection, "categories");
+        List<long[]> nodes = new ArrayList<>(); // {id, parentId}
+        List<Long> level = new ArrayList<>();
+        for (int i = 0; i < ROOT_CATEGORIES; i++) {
+            long id = base + nodes.size();
+            nodes.add(new long[]{id, 0});
+            level.add(id);
+        }
+        for (int depth = 1; depth < CATEGORY_DEPTH; depth++) {
+            List<Long> next = new ArrayList<>();
+            for (long parent : level) {
+                for (int i = 0; i < CATEGORY_BRANCHING; i++) {
+                    long id = base + nodes.size();
+                    nodes.add(new long[]{id, parent});
+                    next.add(id);
+                }
+            }
+            level = next;
+        }
+
+        copy(connection, "categories", "id,name,description,parent_id,created_at", nodes.size(), (i, row) -> {
+            long[] node = nodes.get((int) i);
+            row.append(node[0]).append(',')
+                    .append(USER_PREFIX).append(WORDS[(int) (i % WORDS.length)]).append(' ').append(node[0]).append(',')
+                    .append("Синтетическая категория").append(',')
+                    .append(node[1] != 0 ? String.valueOf(node[1]) : "").append(',')
+                    .append(timestamp(now));
+        });
+        return level;
+    }
+
+    @FunctionalInterface
+    private interface RowWriter {
+        void write(long index, StringBuilder row);
+    }
+
+    private void copy(Connection connection, String table, String columns, long rows, RowWriter writer)
+            throws SQLException {
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                .copyIn("COPY " + table + " (" + columns + ") FROM STDIN WITH (FORMAT csv)");
+        StringBuilder buffer = new StringBuilder(FLUSH_SIZE + 4096);
+        try {
+            for (long i = 0; i < rows; i++) {
+                writer.write(i, buffer);
+                buffer.append('\n');
+                if (buffer.length() >= FLUSH_SIZE) {
+                    write(copyIn, buffer);
+                }
+            }
+            write(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private long nextId(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT COALESCE(MAX(id), 0) + 1 FROM " + table)) {
+            resultSet.next();
+            return resultSet.getLong(1);
+        }
+    }
+
+    private void resetSequence(Connection connection, String table) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SELECT setval(pg_get_serial_sequence('" + table + "', 'id'), "
+                    + "(SELECT COALESCE(MAX(id), 1) FROM " + table + "))");
+        }
+    }
+
+    private Random orderRandom(long index) {
+        return new Random(0x5DEECE66DL ^ index);
+    }
+
+    private int scaled(int full, int minimum) {
+        return Math.max(minimum, (int) Math.round(full * scale));
+    }
+
+    private static String money(long cents) {
+        return (cents / 100) + "." + String.format("%02d", cents % 100);
+    }
+
+    private static String timestamp(LocalDateTime value) {
+        return TIMESTAMP.format(value);
+    }
+}
@@ -0,0 +1,60 @@
+package com.omega.shop.loadtest;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Параметры запуска в формате {@code --ключ=значение}.
+ *
+ * @param scale       множитель объёма данных (1.0 - 100 тыс. товаров, 1 млн заказов, 5 млн позиций)
+ * @param skipData    не генерировать данные (база уже наполнена)
+ * @param jdbcUrl     внешняя база PostgreSQL; без неё запускается встроенная
+ * @param users       число одновременных виртуальных пользователей
+ * @param duration    длительность прогона сценариев
+ * @param warmup      прогрев перед замером
+ * @param reportFile  JSON-отчёт (null - только вывод в консоль)
+ * @param profiles    профили Spring приложения, например {@code prod}
+ * @param appLogging  оставить настройки логирования и SQL приложения (для сравнения профилей);
+ *                    по умолчанию логирование приглушается
+ */
+record LoadTestOptions(double scale,
+                       boolean skipData,
+                       String jdbcUrl,
+                       String jdbcUsername,
+                       String jdbcPassword,
+                       int users,
+                       Duration duration,
+                       Duration warmup,
+                       String reportFile,
+                       String profiles,
+                       boolean appLogging) {
+
+    static LoadTestOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("Неизвестный аргумент: " + arg);
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                values.put(arg.substring(2), "true");
+            } else {
+                values.put(arg.substring(2, separator), arg.substring(separator + 1));
+            }
+        }
+
+        return new LoadTestOptions(
+                Double.parseDouble(values.getOrDefault("scale", "0.01")),
+                Boolean.parseBoolean(values.getOrDefault("skip-data", "false")),
+                values.get("jdbc-url"),
+                values.getOrDefault("jdbc-username", "postgres"),
+                values.getOrDefault("jdbc-password", "postgres"),
+                Integer.parseInt(values.getOrDefault("users", "50")),
+                Duration.parse("PT" + values.getOrDefault("duration", "60s").toUpperCase()),
+                Duration.parse("PT" + values.getOrDefault("warmup", "15s").toUpperCase()),
+                values.get("report"),
+                values.get("profiles"),
+                Boolean.parseBoolean(values.getOrDefault("app-logging", "false")));
+    }
+}
@@ -0,0 +1,123 @@
+package com.omega.shop.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.omega.shop.Application;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import javax.sql.DataSource;
+import java.io.File;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Точка входа нагрузочного прогона:
+ * <ol>
+ *     <li>поднимает встроенный PostgreSQL (или подключается к {@code --jdbc-url});</li>
+ *     <li>запускает приложение на случайном порту - Flyway создаёт схему;</li>
+ *     <li>наполняет базу {@link DataGenerator} в объёме {@code --scale};</li>
+ *     <li>прогоняет сценарии {@link ScenarioRunner} и печатает задержки по шагам.</li>
+ * </ol>
+ * <pre>
+ * java -jar target/store-loadtest-0.0.1-SNAPSHOT.jar --scale=0.1 --users=100 --duration=120s --report=target/loadtest.json
+ * </pre>
+ * Сравнение профилей с их собственными настройками логирования:
+ * {@code --app-logging} и {@code --app-logging --profiles=prod}.
+ */
+@Slf4j
+public class LoadTestRunner {
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+
+        EmbeddedPostgres postgres = null;
+        String jdbcUrl = options.jdbcUrl();
+        String username = options.jdbcUsername();
+        String password = options.jdbcPassword();
+        if (jdbcUrl == null) {
+            postgres = EmbeddedPostgres.builder().start();
+            jdbcUrl = postgres.getJdbcUrl("postgres", "postgres");
+            password = "";
+            log.info("Запущен встроенный PostgreSQL: {}", jdbcUrl);
+        }
+
+        // Передаются как аргументы командной строки: они приоритетнее application.yaml
+        String[] applicationArgs = applicationProperties(options, jdbcUrl, username, password).entrySet().stream()
+                .map(entry -> "--" + entry.getKey() + "=" + entry.getValue())
+                .toArray(String[]::new);
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(Application.class)
+                .run(applicationArgs);
+        try {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            DataSource dataSource = context.getBean(DataSource.class);
+
+            if (!options.skipData()) {
+                log.info("Генерация данных, scale={}", options.scale());
+                new DataGenerator(dataSource, options.scale()).generate();
+            }
+
+            ScenarioRunner runner = new ScenarioRunner(URI.create("http://localhost:" + port), options);
+            runner.loadFixture(dataSource);
+            Map<String, Map<String, Object>> summary = runner.run();
+
+            print(summary);
+            if (options.reportFile() != null) {
+                File report = new File(options.reportFile());
+                Files.createDirectories(report.getAbsoluteFile().getParentFile().toPath());
+                new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(report, summary);
+                log.info("Отчёт сохранён: {}", report.getAbsolutePath());
+            }
+        } finally {
+            context.close();
+            if (postgres != null) {
+                postgres.close();
+            }
+        }
+    }
+
+    private static Map<String, Object> applicationProperties(LoadTestOptions options, String jdbcUrl,
+                                                             String username, String password) throws Exception {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.datasource.url", jdbcUrl);
+        properties.put("spring.datasource.username", username);
+        properties.put("spring.datasource.password", password);
+        properties.put("server.port", 0);
+        // Callback с заглушками для миграций, рассчитанных на конкретную базу разработки
+        properties.put("spring.flyway.locations", "classpath:db/migration,classpath:db/loadtest");
+        properties.put("omega.upload.dir", Files.createTempDirectory("omega-loadtest").toString());
+        // Все виртуальные пользователи входят с одного адреса
+        properties.put("omega.security.login-throttle.enabled", false);
+        if (options.profiles() != null) {
+            properties.put("spring.profiles.active", options.profiles());
+        }
+        if (options.appLogging()) {
+            properties.put("logging.level.com.omega.shop.loadtest", "INFO");
+            return properties;
+        }
+        // Подробное логирование SQL и запросов исказит результаты
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("spring.jpa.properties.hibernate.format_sql", false);
+        properties.put("logging.level.root", "WARN");
+        properties.put("logging.level.com.omega.shop", "WARN");
+        properties.put("logging.level.com.omega.shop.loadtest", "INFO");
+        properties.put("logging.level.org.springframework.web", "WARN");
+        properties.put("logging.level.org.springframework.security", "WARN");
+        properties.put("logging.level.org.hibernate.SQL", "WARN");
+        properties.put("logging.level.org.hibernate.type.descriptor.sql.BasicBinder", "WARN");
+        return properties;
+    }
+
+    private static void print(Map<String, Map<String, Object>> summary) {
+        System.out.printf("%n%-22s %9s %7s %10s %9s %9s %9s %9s%n",
+                "шаг", "запросов", "ошибок", "запр/с", "p50, мс", "p90, мс", "p99, мс", "max, мс");
+        summary.forEach((step, values) -> System.out.printf("%-22s %9d %7d %10.1f %9.1f %9.1f %9.1f %9.1f%n",
+                step, values.get("requests"), values.get("errors"), values.get("throughput"),
+                values.get("p50"), values.get("p90"), values.get("p99"), values.get("max")));
+    }
+}
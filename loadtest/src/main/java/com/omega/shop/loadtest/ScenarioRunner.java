@@ -0,0 +1,296 @@
+package com.omega.shop.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.sql.DataSource;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сценарии нагрузки. Каждый виртуальный пользователь работает в своём виртуальном потоке
+ * с собственной сессией и на всё время прогона получает роль:
+ * <ul>
+ *     <li>гость - каталог, поиск, карточка товара (55%);</li>
+ *     <li>покупатель - корзина и оформление заказа (20%);</li>
+ *     <li>продавец - подтверждение, подготовка и передача курьеру (10%);</li>
+ *     <li>курьер - начало и завершение доставки (10%);</li>
+ *     <li>администратор - отчёт о продажах (5%).</li>
+ * </ul>
+ * Ответ считается успешным при статусе 200 для страниц и AJAX-запросов и 302 для форм.
+ */
+@Slf4j
+class ScenarioRunner {
+
+    private static final int LOGIN_ATTEMPTS = 5;
+    private static final String[] SEARCH_TERMS = {"Холодильник", "Пылесос", "модель 1", "Ноутбук", "Фен", "нет-такого"};
+
+    private final URI baseUri;
+    private final LoadTestOptions options;
+    private final StepStats stats = new StepStats();
+
+    private List<Long> productIds;
+    private List<String> clients;
+    private List<String> sellers;
+    private List<String> couriers;
+    private List<Long> courierIds;
+
+    ScenarioRunner(URI baseUri, LoadTestOptions options) {
+        this.baseUri = baseUri;
+        this.options = options;
+    }
+
+    /**
+     * Прочитать из базы пользователей и товары, созданные генератором
+     */
+    void loadFixture(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            productIds = longs(connection, "SELECT id FROM products WHERE is_active AND quantity > 100 ORDER BY random() LIMIT 5000");
+            clients = usernames(connection, "CLIENT");
+            sellers = usernames(connection, "SELLER");
+            couriers = usernames(connection, "COURIER");
+            courierIds = longs(connection, "SELECT id FROM users WHERE role = 'COURIER' AND username LIKE '"
+                    + DataGenerator.USER_PREFIX + "%'");
+        }
+        if (productIds.isEmpty() || clients.isEmpty() || sellers.isEmpty() || couriers.isEmpty()) {
+            throw new IllegalStateException("В базе нет синтетических данных - запустите без --skip-data");
+        }
+    }
+
+    Map<String, Map<String, Object>> run() throws InterruptedException {
+        long warmupEnd = System.nanoTime() + options.warmup().toNanos();
+        long end = warmupEnd + options.duration().toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < options.users(); i++) {
+                int user = i;
+                executor.submit(() -> virtualUser(user, end));
+            }
+            TimeUnit.NANOSECONDS.sleep(Math.max(warmupEnd - System.nanoTime(), 0));
+            stats.reset();
+            log.info("Прогрев завершён, замер {} с на {} пользователях", options.duration().toSeconds(), options.users());
+        }
+        return stats.summary();
+    }
+
+    private void virtualUser(int user, long end) {
+        ShopClient client = new ShopClient(baseUri);
+        int role = user % 20;
+        try {
+            if (role == 0) {
+                login(client, DataGenerator.USER_PREFIX + "admin");
+            } else if (role <= 2) {
+                login(client, pick(sellers));
+            } else if (role <= 4) {
+                login(client, pick(couriers));
+            } else if (role <= 8) {
+                login(client, pick(clients));
+            }
+
+            while (System.nanoTime() < end) {
+                if (role == 0) {
+                    admin(client);
+                } else if (role <= 2) {
+                    seller(client);
+                } else if (role <= 4) {
+                    courier(client);
+                } else if (role <= 8) {
+                    buyer(client);
+                } else {
+                    guest(client);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("Виртуальный пользователь {} остановлен: {}", user, e.toString());
+        }
+    }
+
+    private void guest(ShopClient client) throws Exception {
+        browse(client, pick(productIds));
+    }
+
+    /**
+     * Каталог, поиск и карточка товара; возвращает карточку или null при ошибке
+     */
+    private HttpResponse<String> browse(ShopClient client, long productId) throws Exception {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        page(client, "catalog", "/catalog?page=" + random.nextInt(50));
+        page(client, "search", "/catalog?search=" + encode(SEARCH_TERMS[random.nextInt(SEARCH_TERMS.length)]));
+        return page(client, "product", "/product/" + productId);
+    }
+
+    private void buyer(ShopClient client) throws Exception {
+        long productId = pick(productIds);
+        HttpResponse<String> product = browse(client, productId);
+        if (product == null) {
+            return;
+        }
+        ajax(client, "cart-add", "/cart/add", Map.of(
+                "productId", String.valueOf(productId),
+                "quantity", "1",
+                "_csrf", ShopClient.csrf(product.body())));
+        HttpResponse<String> checkout = page(client, "checkout-page", "/checkout");
+        if (checkout == null) {
+            return;
+        }
+        form(client, "checkout", "/checkout", Map.of(
+                "phone", "(+996)-555-123-456",
+                "deliveryAddress", "г. Бишкек ул. Нагрузочная 1",
+                "cardNumber", "4111 1111 1111 1111",
+                "cvv", "123",
+                "_csrf", ShopClient.csrf(checkout.body())));
+    }
+
+    private void seller(ShopClient client) throws Exception {
+        HttpResponse<String> list = page(client, "seller-new-orders", "/seller/orders/new");
+        List<Long> ids = list != null ? ShopClient.ids(list.body(), "/seller/orders/") : List.of();
+        if (ids.isEmpty() && list != null) {
+            // Взятых заказов нет - берём следующие из очереди
+            form(client, "seller-claim", "/seller/orders/claim", Map.of("_csrf", ShopClient.csrf(list.body())));
+            list = page(client, "seller-new-orders", "/seller/orders/new");
+            ids = list != null ? ShopClient.ids(list.body(), "/seller/orders/") : List.of();
+        }
+        if (ids.isEmpty()) {
+            pause();
+            return;
+        }
+        long orderId = pick(ids);
+        HttpResponse<String> details = page(client, "seller-order", "/seller/orders/" + orderId);
+        if (details == null) {
+            return;
+        }
+        String token = ShopClient.csrf(details.body());
+        form(client, "seller-confirm", "/seller/orders/" + orderId + "/confirm", Map.of("_csrf", token));
+        form(client, "seller-prepare", "/seller/orders/" + orderId + "/prepare",
+                Map.of("invoiceNumber", "LT-" + orderId, "_csrf", token));
+        form(client, "seller-assign", "/seller/orders/" + orderId + "/assign-courier",
+                Map.of("courierId", String.valueOf(pick(courierIds)), "_csrf", token));
+    }
+
+    private void courier(ShopClient client) throws Exception {
+        HttpResponse<String> list = page(client, "courier-deliveries", "/courier/deliveries?status=ASSIGNED");
+        List<Long> ids = list != null ? ShopClient.ids(list.body(), "/courier/deliveries/") : List.of();
+        if (ids.isEmpty()) {
+            pause();
+            return;
+        }
+        long orderId = pick(ids);
+        HttpResponse<String> details = page(client, "courier-delivery", "/courier/deliveries/" + orderId);
+        if (details == null) {
+            return;
+        }
+        String token = ShopClient.csrf(details.body());
+        form(client, "courier-start", "/courier/deliveries/" + orderId + "/start", Map.of("_csrf", token));
+        form(client, "courier-complete", "/courier/deliveries/" + orderId + "/complete", Map.of("_csrf", token));
+    }
+
+    private void admin(ShopClient client) throws Exception {
+        page(client, "admin-report", "/admin/reports?days=" + (7 + ThreadLocalRandom.current().nextInt(60)));
+    }
+
+    /**
+     * Вход с повтором: при перегрузке пул BCrypt отклоняет попытку, как отклонил бы её у живого пользователя
+     */
+    private void login(ShopClient client, String username) throws Exception {
+        for (int attempt = 1; attempt <= LOGIN_ATTEMPTS; attempt++) {
+            long started = System.nanoTime();
+            boolean success = client.login(username, DataGenerator.PASSWORD);
+            stats.record("login", System.nanoTime() - started, success);
+            if (success) {
+                return;
+            }
+            Thread.sleep(1000L * attempt);
+        }
+        throw new IllegalStateException("Не удалось войти как " + username);
+    }
+
+    /**
+     * GET страницы; при ошибке возвращает null
+     */
+    private HttpResponse<String> page(ShopClient client, String step, String path) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = client.get(path);
+        } finally {
+            boolean success = response != null && response.statusCode() == 200;
+            stats.record(step, System.nanoTime() - started, success);
+        }
+        return response.statusCode() == 200 ? response : null;
+    }
+
+    private void form(ShopClient client, String step, String path, Map<String, String> form) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = client.post(path, form);
+        } finally {
+            boolean success = response != null && response.statusCode() == 302
+                    && !response.headers().firstValue("Location").orElse("").contains("error");
+            stats.record(step, System.nanoTime() - started, success);
+        }
+    }
+
+    /**
+     * POST AJAX-обработчика: успех - статус 200
+     */
+    private void ajax(ShopClient client, String step, String path, Map<String, String> form) throws Exception {
+        long started = System.nanoTime();
+        HttpResponse<String> response = null;
+        try {
+            response = client.post(path, form);
+        } finally {
+            stats.record(step, System.nanoTime() - started, response != null && response.statusCode() == 200);
+        }
+    }
+
+    private void pause() throws InterruptedException {
+        // Очередь пуста - не нагружаем сервер пустыми опросами
+        Thread.sleep(200);
+    }
+
+    private static <T> T pick(List<T> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> usernames(Connection connection, String role) throws SQLException {
+        List<String> result = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery("SELECT username FROM users WHERE role = '" + role
+                     + "' AND username LIKE '" + DataGenerator.USER_PREFIX + "%' LIMIT 5000")) {
+            while (resultSet.next()) {
+                result.add(resultSet.getString(1));
+            }
+        }
+        return result;
+    }
+
+    private static List<Long> longs(Connection connection, String sql) throws SQLException {
+        List<Long> result = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(sql)) {
+            while (resultSet.next()) {
+                result.add(resultSet.getLong(1));
+            }
+        }
+        return result;
+    }
+}
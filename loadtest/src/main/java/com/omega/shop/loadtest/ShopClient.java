@@ -0,0 +1,93 @@
+package com.omega.shop.loadtest;
+
+import java.io.IOException;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * HTTP-клиент одного виртуального пользователя: собственная сессия (cookie),
+ * без автоматических переходов по редиректам - ответ 302 на POST формы считается успехом.
+ */
+class ShopClient {
+
+    private static final Pattern CSRF = Pattern.compile("name=\"_csrf\"[^>]*?value=\"([^\"]+)\"");
+
+    private final URI baseUri;
+    private final HttpClient client;
+
+    ShopClient(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newBuilder()
+                .cookieHandler(new CookieManager())
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    HttpResponse<String> get(String path) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .GET()
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    HttpResponse<String> post(String path, Map<String, String> form) throws IOException, InterruptedException {
+        StringJoiner body = new StringJoiner("&");
+        form.forEach((name, value) -> body.add(encode(name) + "=" + encode(value)));
+        HttpRequest request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    /**
+     * Войти через форму логина. Успех - редирект не на страницу логина
+     * (там оказываются и при ошибке, и при перегрузке {@code ?busy=true}).
+     */
+    boolean login(String username, String password) throws IOException, InterruptedException {
+        String token = csrf(get("/login").body());
+        HttpResponse<String> response = post("/login", Map.of(
+                "username", username, "password", password, "_csrf", token));
+        String location = response.headers().firstValue("Location").orElse("");
+        return response.statusCode() == 302 && !location.contains("/login");
+    }
+
+    /**
+     * CSRF-токен из скрытого поля формы
+     */
+    static String csrf(String html) {
+        Matcher matcher = CSRF.matcher(html);
+        return matcher.find() ? matcher.group(1) : "";
+    }
+
+    /**
+     * Идентификаторы из ссылок вида {@code prefix/123}
+     */
+    static List<Long> ids(String html, String prefix) {
+        Matcher matcher = Pattern.compile(Pattern.quote(prefix) + "(\\d+)\"").matcher(html);
+        List<Long> ids = new ArrayList<>();
+        while (matcher.find()) {
+            ids.add(Long.parseLong(matcher.group(1)));
+        }
+        return ids;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,80 @@
+package com.omega.shop.loadtest;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Задержки и ошибки по шагам сценариев.
+ * Задержки хранятся целиком (в микросекундах) - при объёмах нагрузочного прогона это
+ * единицы мегабайт, зато перцентили точные.
+ */
+class StepStats {
+
+    private final Map<String, Step> steps = new ConcurrentHashMap<>();
+    private volatile long startedAt = System.nanoTime();
+
+    void record(String step, long nanos, boolean success) {
+        steps.computeIfAbsent(step, key -> new Step()).record(nanos / 1000, success);
+    }
+
+    /**
+     * Сбросить накопленное (после прогрева)
+     */
+    void reset() {
+        steps.clear();
+        startedAt = System.nanoTime();
+    }
+
+    /**
+     * Итоги по шагам в порядке имён: число запросов, ошибки, пропускная способность и перцентили
+     */
+    Map<String, Map<String, Object>> summary() {
+        double seconds = (System.nanoTime() - startedAt) / 1e9;
+        Map<String, Map<String, Object>> result = new LinkedHashMap<>();
+        steps.entrySet().stream()
+                .sorted(Map.Entry.comparingByKey())
+                .forEach(entry -> result.put(entry.getKey(), entry.getValue().summary(seconds)));
+        return result;
+    }
+
+    private static final class Step {
+
+        private long[] latencies = new long[1024];
+        private int count;
+        private int errors;
+
+        synchronized void record(long micros, boolean success) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = micros;
+            if (!success) {
+                errors++;
+            }
+        }
+
+        synchronized Map<String, Object> summary(double seconds) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("requests", count);
+            summary.put("errors", errors);
+            summary.put("throughput", Math.round(count / seconds * 10) / 10.0);
+            summary.put("p50", millis(sorted, 0.50));
+            summary.put("p90", millis(sorted, 0.90));
+            summary.put("p99", millis(sorted, 0.99));
+            summary.put("max", count > 0 ? sorted[count - 1] / 1000.0 : 0.0);
+            return summary;
+        }
+
+        private static double millis(long[] sorted, double quantile) {
+            if (sorted.length == 0) {
+                return 0.0;
+            }
+            int index = (int) Math.ceil(quantile * sorted.length) - 1;
+            return sorted[Math.max(index, 0)] / 1000.0;
+        }
+    }
+}
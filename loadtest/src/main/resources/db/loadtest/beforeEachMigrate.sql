@@ -0,0 +1,11 @@
+-- V12 распределяет товары между продавцами с жёстко заданными ID 35 и 37, которых нет
+-- в чистой базе. Для нагрузочного прогона создаём их заранее (callback Flyway, только в loadtest).
+DO $$
+BEGIN
+    IF to_regclass('public.users') IS NOT NULL THEN
+        INSERT INTO users (id, username, email, password, role, is_active)
+        VALUES (35, 'legacy_seller_35', 'legacy35@loadtest.omega', '-', 'SELLER', FALSE),
+               (37, 'legacy_seller_37', 'legacy37@loadtest.omega', '-', 'SELLER', FALSE)
+        ON CONFLICT (id) DO NOTHING;
+    END IF;
+END $$;
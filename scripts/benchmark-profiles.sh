@@ -0,0 +1,46 @@
+#!/usr/bin/env bash
+# Сравнение пропускной способности и p99 с настройками по умолчанию и в профиле prod.
+# Логирование не переопределяется: измеряется именно цена отладочного вывода и
+# повторного разбора шаблонов. Вывод приложения идёт в файл, как у сервиса под systemd/Docker.
+# Требуется: собранный jar (mvn -DskipTests package), запущенный PostgreSQL и wrk.
+#
+#   ./scripts/benchmark-profiles.sh [длительность] [соединения]
+#
+set -euo pipefail
+
+DURATION=${1:-60s}
+CONNECTIONS=${2:-200}
+THREADS=${THREADS:-8}
+PORT=${PORT:-8080}
+JAR=$(ls target/store-*-exec.jar | head -n 1)
+URLS=("/catalog" "/catalog?search=a" "/product/1")
+
+run_profile() {
+    local name=$1
+    local profiles=$2
+    echo "=== Профиль: $name ==="
+    java -jar "$JAR" --spring.profiles.active="$profiles" --server.port="$PORT" \
+        > "target/bench-profile-$name.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' RETURN
+
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+    # Прогрев JIT и кэшей
+    wrk -t"$THREADS" -c50 -d15s "http://localhost:$PORT${URLS[0]}" > /dev/null
+
+    local before
+    before=$(stat -c %s "target/bench-profile-$name.log")
+    for url in "${URLS[@]}"; do
+        echo "--- $url"
+        wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency "http://localhost:$PORT$url" \
+            | grep -E "Requests/sec|99%|Non-2xx|Socket errors"
+    done
+    echo "--- записано в лог: $(( ($(stat -c %s "target/bench-profile-$name.log") - before) / 1024 )) КБ"
+
+    kill $pid
+    wait $pid 2>/dev/null || true
+}
+
+run_profile default default
+run_profile prod prod
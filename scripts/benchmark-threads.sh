@@ -0,0 +1,42 @@
+#!/usr/bin/env bash
+# Сравнение пропускной способности и p99 в режимах платформенных и виртуальных потоков.
+# Требуется: собранный jar (mvn -DskipTests package), запущенный PostgreSQL и wrk.
+#
+#   ./scripts/benchmark-threads.sh [длительность] [соединения]
+#
+set -euo pipefail
+
+DURATION=${1:-60s}
+CONNECTIONS=${2:-400}
+THREADS=${THREADS:-8}
+PORT=${PORT:-8080}
+JAR=$(ls target/store-*-exec.jar | head -n 1)
+URLS=("/catalog" "/catalog?search=a" "/product/1")
+
+run_mode() {
+    local mode=$1
+    local profiles=$2
+    echo "=== Режим: $mode ==="
+    java -jar "$JAR" --spring.profiles.active="$profiles" --server.port="$PORT" \
+        --logging.level.root=WARN --logging.level.com.omega.shop=WARN \
+        > "target/bench-$mode.log" 2>&1 &
+    local pid=$!
+    trap 'kill $pid 2>/dev/null || true' RETURN
+
+    until curl -sf "http://localhost:$PORT/actuator/health" > /dev/null; do sleep 1; done
+
+    # Прогрев JIT и кэшей
+    wrk -t"$THREADS" -c50 -d15s "http://localhost:$PORT${URLS[0]}" > /dev/null
+
+    for url in "${URLS[@]}"; do
+        echo "--- $url"
+        wrk -t"$THREADS" -c"$CONNECTIONS" -d"$DURATION" --latency "http://localhost:$PORT$url" \
+            | grep -E "Requests/sec|99%|Non-2xx|Socket errors"
+    done
+
+    kill $pid
+    wait $pid 2>/dev/null || true
+}
+
+run_mode platform default
+run_mode virtual virtual-threads
@@ -0,0 +1,63 @@
+package com.omega.shop.cache;
+
+/**
+ * Компактное сообщение об инвалидации: сущность и идентификатор.
+ * На проводе кодируется как {@code p:42}.
+ * <p>
+ * Версии у сообщения нет: получатель только удаляет записи кэша, а повторное или запоздавшее
+ * удаление безопасно - запись будет построена заново из актуальных данных.
+ */
+public record CacheInvalidation(Entity entity, Long id) {
+
+    public enum Entity {
+        PRODUCT("p"),
+        CATEGORY("c"),
+        USER("u");
+
+        private final String code;
+
+        Entity(String code) {
+            this.code = code;
+        }
+
+        public String getCode() {
+            return code;
+        }
+
+        static Entity fromCode(String code) {
+            for (Entity entity : values()) {
+                if (entity.code.equals(code)) {
+                    return entity;
+                }
+            }
+            throw new IllegalArgumentException("Неизвестный тип сущности: " + code);
+        }
+    }
+
+    /**
+     * Ключ для схлопывания повторных инвалидаций одной и той же сущности
+     */
+    public String key() {
+        return entity.code + ":" + id;
+    }
+
+    public String encode() {
+        return key();
+    }
+
+    /**
+     * Разобрать сообщение. Третья часть ({@code p:42:1697712000000}) - версия от узлов прежней
+     * версии приложения; во время поэтапного обновления она принимается и игнорируется.
+     */
+    public static CacheInvalidation decode(String message) {
+        String[] parts = message.split(":");
+        if (parts.length != 2 && parts.length != 3) {
+            throw new IllegalArgumentException("Некорректное сообщение инвалидации: " + message);
+        }
+        try {
+            return new CacheInvalidation(Entity.fromCode(parts[0]), Long.parseLong(parts[1]));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Некорректное сообщение инвалидации: " + message);
+        }
+    }
+}
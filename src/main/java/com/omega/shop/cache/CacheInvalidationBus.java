@@ -0,0 +1,245 @@
+package com.omega.shop.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Шина межузловой инвалидации кэшей поверх PostgreSQL LISTEN/NOTIFY.
+ * <p>
+ * Изменения регистрируются после фиксации транзакции, схлопываются в окне {@code coalesce-window}
+ * (повторные изменения одной сущности дают одно сообщение) и отправляются одним NOTIFY.
+ * Каждый узел слушает канал на выделенном соединении; после потери соединения узел
+ * переподключается и публикует полную очистку локальных кэшей, так как часть сообщений
+ * могла быть пропущена. Для не-PostgreSQL баз шина работает только локально.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CacheInvalidationBus implements SmartLifecycle {
+
+    // Предел размера payload у NOTIFY - 8000 байт, оставляем запас
+    private static final int MAX_PAYLOAD_LENGTH = 7000;
+
+    // Имя канала подставляется в LISTEN без кавычек: только простой идентификатор PostgreSQL
+    private static final Pattern CHANNEL_NAME = Pattern.compile("[a-z_][a-z0-9_]{0,62}");
+
+    private final ApplicationEventPublisher eventPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final DataSourceProperties dataSourceProperties;
+    private final String nodeId = UUID.randomUUID().toString().substring(0, 8);
+    private final Map<String, CacheInvalidation> pending = new ConcurrentHashMap<>();
+
+    @Value("${omega.cache.invalidation.enabled:true}")
+    private boolean enabled;
+
+    @Value("${omega.cache.invalidation.channel:omega_cache_invalidation}")
+    private String channel;
+
+    @Value("${omega.cache.invalidation.coalesce-window:50}")
+    private long coalesceWindowMs;
+
+    @Value("${omega.cache.invalidation.reconnect-delay:2000}")
+    private long reconnectDelayMs;
+
+    private ScheduledExecutorService executor;
+    private volatile boolean running;
+    private volatile boolean remoteEnabled;
+
+    /**
+     * Зарегистрировать изменение сущности.
+     * Внутри транзакции инвалидация откладывается до фиксации, при откате - отбрасывается.
+     */
+    public void invalidate(CacheInvalidation.Entity entity, Long id) {
+        CacheInvalidation invalidation = new CacheInvalidation(entity, id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(invalidation);
+                }
+            });
+        } else {
+            dispatch(invalidation);
+        }
+    }
+
+    private void dispatch(CacheInvalidation invalidation) {
+        eventPublisher.publishEvent(new CacheInvalidationEvent(List.of(invalidation), false, false));
+        if (remoteEnabled) {
+            pending.put(invalidation.key(), invalidation);
+        }
+    }
+
+    /**
+     * Отправить накопленные инвалидации другим узлам
+     */
+    private void flushPending() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        List<String> messages = new ArrayList<>();
+        for (String key : List.copyOf(pending.keySet())) {
+            CacheInvalidation invalidation = pending.remove(key);
+            if (invalidation != null) {
+                messages.add(invalidation.encode());
+            }
+        }
+
+        StringBuilder payload = new StringBuilder(nodeId).append('|');
+        int prefixLength = payload.length();
+        for (String message : messages) {
+            if (payload.length() + message.length() + 1 > MAX_PAYLOAD_LENGTH) {
+                notify(payload.toString());
+                payload.setLength(prefixLength);
+            }
+            if (payload.length() > prefixLength) {
+                payload.append(',');
+            }
+            payload.append(message);
+        }
+        if (payload.length() > prefixLength) {
+            notify(payload.toString());
+        }
+    }
+
+    private void notify(String payload) {
+        try {
+            jdbcTemplate.queryForObject("SELECT pg_notify(?, ?)", Object.class, channel, payload);
+        } catch (Exception e) {
+            log.warn("Не удалось отправить инвалидацию кэша: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Цикл прослушивания канала на выделенном соединении
+     */
+    private void listenLoop() {
+        boolean reconnect = false;
+        while (running) {
+            try (Connection connection = openListenConnection()) {
+                if (reconnect) {
+                    log.info("Соединение LISTEN восстановлено, полная очистка локальных кэшей");
+                    eventPublisher.publishEvent(CacheInvalidationEvent.flush());
+                }
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(1000);
+                    if (notifications != null) {
+                        for (PGNotification notification : notifications) {
+                            handleNotification(notification.getParameter());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Соединение LISTEN потеряно: {}. Повтор через {} мс", e.getMessage(), reconnectDelayMs);
+                reconnect = true;
+                sleep(reconnectDelayMs);
+            }
+        }
+    }
+
+    private Connection openListenConnection() throws SQLException {
+        Connection connection = DriverManager.getConnection(
+                dataSourceProperties.determineUrl(),
+                dataSourceProperties.determineUsername(),
+                dataSourceProperties.determinePassword());
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("LISTEN " + channel);
+        }
+        return connection;
+    }
+
+    private void handleNotification(String payload) {
+        int separator = payload.indexOf('|');
+        if (separator < 0 || payload.substring(0, separator).equals(nodeId)) {
+            return; // Собственные сообщения уже обработаны локально
+        }
+
+        List<CacheInvalidation> invalidations = new ArrayList<>();
+        for (String message : payload.substring(separator + 1).split(",")) {
+            try {
+                invalidations.add(CacheInvalidation.decode(message));
+            } catch (IllegalArgumentException e) {
+                log.warn("Пропущено сообщение инвалидации: {}", e.getMessage());
+            }
+        }
+
+        if (!invalidations.isEmpty()) {
+            eventPublisher.publishEvent(new CacheInvalidationEvent(invalidations, false, true));
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public void start() {
+        String url = dataSourceProperties.determineUrl();
+        remoteEnabled = enabled && url != null && url.startsWith("jdbc:postgresql:");
+        if (remoteEnabled && !CHANNEL_NAME.matcher(channel).matches()) {
+            throw new IllegalStateException("Некорректное имя канала инвалидации кэшей: " + channel);
+        }
+        running = true;
+
+        if (!remoteEnabled) {
+            log.info("Межузловая инвалидация кэшей отключена, используется только локальная");
+            return;
+        }
+
+        executor = Executors.newScheduledThreadPool(2, runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushPending, coalesceWindowMs, coalesceWindowMs, TimeUnit.MILLISECONDS);
+        executor.execute(this::listenLoop);
+        log.info("Шина инвалидации кэшей запущена (узел {}, канал {})", nodeId, channel);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (executor != null) {
+            flushPending();
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+}
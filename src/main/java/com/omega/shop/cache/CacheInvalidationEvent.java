@@ -0,0 +1,23 @@
+package com.omega.shop.cache;
+
+import java.util.List;
+
+/**
+ * Локальное событие инвалидации кэшей.
+ * Публикуется как для изменений на этом узле, так и для сообщений, пришедших от других узлов.
+ * При {@code flushAll = true} (например, после переподключения к БД, когда часть сообщений
+ * могла быть потеряна) локальные кэши должны быть очищены полностью.
+ */
+public record CacheInvalidationEvent(List<CacheInvalidation> invalidations, boolean flushAll, boolean remote) {
+
+    public static CacheInvalidationEvent flush() {
+        return new CacheInvalidationEvent(List.of(), true, true);
+    }
+
+    /**
+     * Затрагивает ли событие указанный тип сущности
+     */
+    public boolean affects(CacheInvalidation.Entity entity) {
+        return flushAll || invalidations.stream().anyMatch(i -> i.entity() == entity);
+    }
+}
@@ -0,0 +1,107 @@
+package com.omega.shop.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.event.EventListener;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Отрендеренные фрагменты шаблонов ({@code th:cache}, см. {@link FragmentCacheDialect}).
+ * <p>
+ * Ключ задаёт шаблон и включает версию данных фрагмента, например
+ * {@code product-card:42:2024-03-01T12:00}: после изменения товара ключ другой,
+ * а старая запись вытесняется как давно не использованная (LRU по числу записей и объёму).
+ * Категории версии не имеют, их названия выводятся во многих фрагментах,
+ * поэтому изменение любой категории очищает кэш целиком.
+ */
+public class FragmentCache {
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, String> fragments = new LinkedHashMap<>(256, 0.75f, true);
+    private final int maxEntries;
+    private final long maxChars;
+    private final Counter hits;
+    private final Counter misses;
+
+    private long chars;
+
+    public FragmentCache(int maxEntries, long maxChars, MeterRegistry registry) {
+        this.maxEntries = maxEntries;
+        this.maxChars = maxChars;
+        this.hits = result(registry, "hit");
+        this.misses = result(registry, "miss");
+        Gauge.builder("omega.fragment.cache.size", this, FragmentCache::size)
+                .description("Фрагментов шаблонов в кэше")
+                .register(registry);
+    }
+
+    /**
+     * HTML фрагмента или null
+     */
+    public String get(String key) {
+        lock.lock();
+        try {
+            String html = fragments.get(key);
+            (html != null ? hits : misses).increment();
+            return html;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void put(String key, String html) {
+        if (html.length() > maxChars / 10) {
+            return;
+        }
+        lock.lock();
+        try {
+            String previous = fragments.put(key, html);
+            chars += html.length() - (previous != null ? previous.length() : 0);
+            Iterator<Map.Entry<String, String>> eldest = fragments.entrySet().iterator();
+            while ((fragments.size() > maxEntries || chars > maxChars) && eldest.hasNext()) {
+                chars -= eldest.next().getValue().length();
+                eldest.remove();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            fragments.clear();
+            chars = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return fragments.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.flushAll() || event.affects(CacheInvalidation.Entity.CATEGORY)) {
+            clear();
+        }
+    }
+
+    private static Counter result(MeterRegistry registry, String result) {
+        return Counter.builder("omega.fragment.cache.requests")
+                .description("Обращения к кэшу фрагментов шаблонов")
+                .tag("result", result)
+                .register(registry);
+    }
+}
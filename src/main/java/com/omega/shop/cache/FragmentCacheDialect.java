@@ -0,0 +1,108 @@
+package com.omega.shop.cache;
+
+import org.thymeleaf.context.ITemplateContext;
+import org.thymeleaf.dialect.AbstractProcessorDialect;
+import org.thymeleaf.engine.AttributeName;
+import org.thymeleaf.engine.TemplateManager;
+import org.thymeleaf.engine.TemplateModel;
+import org.thymeleaf.exceptions.TemplateProcessingException;
+import org.thymeleaf.inline.NoOpInliner;
+import org.thymeleaf.model.IModel;
+import org.thymeleaf.model.IProcessableElementTag;
+import org.thymeleaf.processor.IProcessor;
+import org.thymeleaf.processor.element.AbstractAttributeModelProcessor;
+import org.thymeleaf.processor.element.IElementModelStructureHandler;
+import org.thymeleaf.standard.StandardDialect;
+import org.thymeleaf.standard.expression.StandardExpressions;
+import org.thymeleaf.templatemode.TemplateMode;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Set;
+
+/**
+ * Атрибут {@code th:cache="'product-card:' + ${product.id} + ':' + ${product.updatedAt}"}:
+ * элемент вместе с содержимым рендерится один раз на ключ, дальше вставляется готовый HTML из {@link FragmentCache}.
+ * <p>
+ * Ключ должен включать всё, от чего зависит разметка фрагмента: версию данных и, например,
+ * роль пользователя, если внутри есть {@code sec:authorize}. Фрагменты с формами POST не кэшируются:
+ * в них CSRF-токен конкретной сессии. Без бина {@link FragmentCache} атрибут просто удаляется.
+ */
+public class FragmentCacheDialect extends AbstractProcessorDialect {
+
+    // После th:each (200), чтобы ключ видел переменную итерации, и до th:if (300)
+    private static final int PRECEDENCE = 250;
+
+    private final FragmentCache cache;
+
+    public FragmentCacheDialect(FragmentCache cache) {
+        super("Omega Fragment Cache", "th", StandardDialect.PROCESSOR_PRECEDENCE);
+        this.cache = cache;
+    }
+
+    @Override
+    public Set<IProcessor> getProcessors(String dialectPrefix) {
+        return Set.of(new CacheAttributeProcessor(dialectPrefix, cache));
+    }
+
+    private static final class CacheAttributeProcessor extends AbstractAttributeModelProcessor {
+
+        private final FragmentCache cache;
+
+        private CacheAttributeProcessor(String dialectPrefix, FragmentCache cache) {
+            super(TemplateMode.HTML, dialectPrefix, null, false, "cache", true, PRECEDENCE, true);
+            this.cache = cache;
+        }
+
+        @Override
+        protected void doProcess(ITemplateContext context, IModel model, AttributeName attributeName,
+                                 String attributeValue, IElementModelStructureHandler structureHandler) {
+            if (cache == null) {
+                return;
+            }
+            Object key = StandardExpressions.getExpressionParser(context.getConfiguration())
+                    .parseExpression(context, attributeValue)
+                    .execute(context);
+            if (key == null) {
+                return;
+            }
+
+            String html = cache.get(key.toString());
+            if (html == null) {
+                html = render(context, model, attributeName);
+                if (isShareable(html)) {
+                    cache.put(key.toString(), html);
+                }
+            }
+            model.reset();
+            model.add(context.getModelFactory().createText(html));
+            // Готовый HTML не должен разбираться повторно: [[...]] из данных не выражение
+            structureHandler.setInliner(NoOpInliner.INSTANCE);
+        }
+
+        /**
+         * Отрендерить элемент в текущем контексте (с переменными итерации и фрагмента)
+         */
+        private static String render(ITemplateContext context, IModel model, AttributeName attributeName) {
+            IProcessableElementTag first = (IProcessableElementTag) model.get(0);
+            model.replace(0, context.getModelFactory().removeAttribute(first, attributeName));
+
+            StringWriter markup = new StringWriter();
+            try {
+                model.write(markup);
+            } catch (IOException e) {
+                throw new TemplateProcessingException("Не удалось сериализовать фрагмент для th:cache", e);
+            }
+            TemplateManager templateManager = context.getConfiguration().getTemplateManager();
+            TemplateModel template = templateManager.parseString(context.getTemplateData(), markup.toString(),
+                    first.getLine(), first.getCol(), context.getTemplateMode(), true);
+            StringWriter html = new StringWriter();
+            templateManager.process(template, context, html);
+            return html.toString();
+        }
+
+        private static boolean isShareable(String html) {
+            return !html.contains("name=\"_csrf\"") && !html.contains(";jsessionid=");
+        }
+    }
+}
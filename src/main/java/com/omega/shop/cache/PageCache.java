@@ -0,0 +1,317 @@
+package com.omega.shop.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кэш целых HTML-страниц для анонимных посетителей (см. {@link PageCacheFilter}).
+ * <p>
+ * Страница хранится сжатой gzip и помечена суррогатными ключами ({@code product:42},
+ * {@code category:7}, {@code categories}). Изменение товара или категории удаляет ровно
+ * те страницы, на которых они показаны. Новые товары появляются в списках по истечении {@code ttl}.
+ * <ul>
+ *     <li>свежая страница ({@code ttl}) отдаётся из кэша;</li>
+ *     <li>устаревшая, но моложе {@code ttl + staleWhileRevalidate}, тоже отдаётся из кэша,
+ *     а перерисовывает её только один запрос;</li>
+ *     <li>при промахе одновременные запросы одной страницы ждут единственную отрисовку
+ *     (не дольше {@code coalesceTimeout}).</li>
+ * </ul>
+ * Отрисовка, начатая до удаления её ключей, в кэш не попадает - иначе вернулась бы устаревшая страница.
+ */
+@Slf4j
+public class PageCache {
+
+    /**
+     * Атрибут запроса с суррогатными ключами страницы ({@code Set<String>})
+     */
+    public static final String TAGS_ATTRIBUTE = PageCache.class.getName() + ".TAGS";
+
+    public static final String TAG_CATEGORIES = "categories";
+
+    private final Map<String, CachedPage> pages = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> keysByTag = new ConcurrentHashMap<>();
+    private final Map<String, Long> purgedAt = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<CachedPage>> rendering = new ConcurrentHashMap<>();
+
+    private final long ttlNanos;
+    private final long staleNanos;
+    private final long maxBytes;
+    private final int maxEntries;
+    private final Duration coalesceTimeout;
+    private final MeterRegistry registry;
+
+    private long totalBytes;
+    private long clearedAt = System.nanoTime();
+
+    public PageCache(Duration ttl, Duration staleWhileRevalidate, long maxBytes, int maxEntries,
+                     Duration coalesceTimeout, MeterRegistry registry) {
+        this.ttlNanos = ttl.toNanos();
+        this.staleNanos = staleWhileRevalidate.toNanos();
+        this.maxBytes = maxBytes;
+        this.maxEntries = maxEntries;
+        this.coalesceTimeout = coalesceTimeout;
+        this.registry = registry;
+
+        Gauge.builder("omega.page.cache.size", pages, Map::size)
+                .description("Страниц в кэше")
+                .register(registry);
+        Gauge.builder("omega.page.cache.bytes", this, PageCache::bytes)
+                .description("Объём кэша страниц (сжатый)")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Страница из кэша, если её ещё можно отдавать (свежая или в окне stale-while-revalidate)
+     */
+    public CachedPage get(String key, long now) {
+        CachedPage page = pages.get(key);
+        if (page == null) {
+            return null;
+        }
+        if (now - page.staleUntil() > 0) {
+            remove(key, page);
+            return null;
+        }
+        return page;
+    }
+
+    /**
+     * Занять отрисовку страницы. Если её уже рисует другой запрос, возвращается
+     * не-ведущий билет, по которому можно дождаться результата.
+     */
+    public RenderTicket claim(String key) {
+        CompletableFuture<CachedPage> own = new CompletableFuture<>();
+        CompletableFuture<CachedPage> existing = rendering.putIfAbsent(key, own);
+        return existing == null ? new RenderTicket(key, own, true) : new RenderTicket(key, existing, false);
+    }
+
+    /**
+     * Завершить отрисовку: разбудить ожидающих и освободить ключ
+     *
+     * @param page сохранённая страница или null, если страница не кэшируется
+     */
+    public void release(RenderTicket ticket, CachedPage page) {
+        if (ticket.leader()) {
+            rendering.remove(ticket.key(), ticket.future());
+            ticket.future().complete(page);
+        }
+    }
+
+    /**
+     * Дождаться чужой отрисовки
+     *
+     * @return страница или null, если она не кэшируется или ожидание истекло
+     */
+    public CachedPage await(RenderTicket ticket) {
+        try {
+            return ticket.future().get(coalesceTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException | ExecutionException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * Сохранить отрисованную страницу
+     *
+     * @param renderStarted момент начала отрисовки ({@link System#nanoTime()})
+     * @return сохранённая страница или null, если её ключи удалялись во время отрисовки
+     */
+    public synchronized CachedPage put(String key, byte[] html, String contentType, Set<String> tags,
+                                       long renderStarted) {
+        if (clearedAt - renderStarted >= 0) {
+            return null;
+        }
+        for (String tag : tags) {
+            Long purged = purgedAt.get(tag);
+            if (purged != null && purged - renderStarted >= 0) {
+                return null;
+            }
+        }
+
+        long now = System.nanoTime();
+        CachedPage page = new CachedPage(gzip(html), html.length, contentType, Set.copyOf(tags),
+                now, now + ttlNanos, now + ttlNanos + staleNanos);
+        CachedPage previous = pages.put(key, page);
+        if (previous != null) {
+            unindex(key, previous);
+        }
+        totalBytes += page.gzip().length;
+        for (String tag : page.tags()) {
+            keysByTag.computeIfAbsent(tag, t -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        if (totalBytes > maxBytes || pages.size() > maxEntries) {
+            evictOldest();
+        }
+        return page;
+    }
+
+    /**
+     * Удалить страницы с указанными суррогатными ключами
+     */
+    public synchronized void purge(Set<String> tags) {
+        long now = System.nanoTime();
+        int removed = 0;
+        for (String tag : tags) {
+            purgedAt.put(tag, now);
+            Set<String> keys = keysByTag.remove(tag);
+            if (keys == null) {
+                continue;
+            }
+            for (String key : keys) {
+                CachedPage page = pages.remove(key);
+                if (page != null) {
+                    unindex(key, page);
+                    removed++;
+                }
+            }
+        }
+        // Метки удаления нужны, только пока идут начатые до него отрисовки
+        if (purgedAt.size() > 10_000) {
+            long horizon = now - TimeUnit.MINUTES.toNanos(5);
+            purgedAt.values().removeIf(at -> at - horizon < 0);
+        }
+        if (removed > 0) {
+            log.debug("Из кэша страниц удалено {} страниц по ключам {}", removed, tags);
+        }
+    }
+
+    public synchronized void clear() {
+        pages.clear();
+        keysByTag.clear();
+        totalBytes = 0;
+        // Отрисовки, начатые до очистки, не должны попасть в кэш
+        clearedAt = System.nanoTime();
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.flushAll()) {
+            clear();
+            return;
+        }
+        Set<String> tags = new HashSet<>();
+        for (CacheInvalidation invalidation : event.invalidations()) {
+            switch (invalidation.entity()) {
+                case PRODUCT -> tags.add("product:" + invalidation.id());
+                case CATEGORY -> {
+                    tags.add("category:" + invalidation.id());
+                    tags.add(TAG_CATEGORIES);
+                }
+                default -> {
+                }
+            }
+        }
+        if (!tags.isEmpty()) {
+            purge(tags);
+        }
+    }
+
+    public void record(String result) {
+        Counter.builder("omega.page.cache.requests")
+                .description("Запросы к кэшу страниц")
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+
+    synchronized long bytes() {
+        return totalBytes;
+    }
+
+    private synchronized void remove(String key, CachedPage page) {
+        if (pages.remove(key, page)) {
+            unindex(key, page);
+        }
+    }
+
+    private void unindex(String key, CachedPage page) {
+        totalBytes -= page.gzip().length;
+        for (String tag : page.tags()) {
+            Set<String> keys = keysByTag.get(tag);
+            if (keys != null) {
+                keys.remove(key);
+                if (keys.isEmpty()) {
+                    keysByTag.remove(tag, keys);
+                }
+            }
+        }
+    }
+
+    /**
+     * Вытеснить самые старые страницы до 90% от предела
+     */
+    private void evictOldest() {
+        List<Map.Entry<String, CachedPage>> entries = new ArrayList<>(pages.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().storedAt()));
+        for (Map.Entry<String, CachedPage> entry : entries) {
+            if (totalBytes <= maxBytes * 0.9 && pages.size() <= maxEntries * 0.9) {
+                break;
+            }
+            if (pages.remove(entry.getKey(), entry.getValue())) {
+                unindex(entry.getKey(), entry.getValue());
+            }
+        }
+    }
+
+    static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] gunzip(byte[] data) {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(data))) {
+            return gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Сохранённая страница; моменты времени - {@link System#nanoTime()}
+     */
+    public record CachedPage(byte[] gzip, int length, String contentType, Set<String> tags,
+                             long storedAt, long freshUntil, long staleUntil) {
+
+        public boolean isFresh(long now) {
+            return freshUntil - now > 0;
+        }
+
+        public byte[] html() {
+            return gunzip(gzip);
+        }
+    }
+
+    public record RenderTicket(String key, CompletableFuture<CachedPage> future, boolean leader) {
+    }
+}
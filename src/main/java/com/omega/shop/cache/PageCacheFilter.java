@@ -0,0 +1,248 @@
+package com.omega.shop.cache;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Отдаёт анонимным посетителям {@code /catalog} и {@code /product/{id}} из {@link PageCache}.
+ * <p>
+ * Стоит после Spring Security, поэтому знает, аутентифицирован ли запрос (в том числе через remember-me);
+ * страницы пользователей не кэшируются. Ключ кэша - путь и отсортированные известные параметры
+ * без значений по умолчанию, поэтому {@code /catalog} и {@code /catalog?page=0&utm_source=x} - одна страница.
+ * Страница не сохраняется, если при отрисовке понадобились сессия, cookie или CSRF-токен:
+ * такие страницы зависят от посетителя. Заголовок {@code X-Page-Cache} - HIT, STALE, MISS или BYPASS.
+ */
+@RequiredArgsConstructor
+public class PageCacheFilter extends OncePerRequestFilter {
+
+    private static final String CSRF_ATTRIBUTE = "_csrf";
+
+    private static final Pattern PRODUCT_PATH = Pattern.compile("/product/\\d+");
+
+    // Параметры каталога и их значения по умолчанию (см. CatalogController.catalog)
+    private static final Map<String, String> CATALOG_PARAMS = Map.of(
+            "categoryId", "",
+            "search", "",
+            "minPrice", "",
+            "maxPrice", "",
+            "page", "0",
+            "size", "12",
+            "sortBy", "name",
+            "sortDir", "asc");
+
+    private final PageCache pageCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || cacheKey(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (!isAnonymous()) {
+            pageCache.record("bypass");
+            response.setHeader("X-Page-Cache", "BYPASS");
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String key = cacheKey(request);
+        long now = System.nanoTime();
+        PageCache.CachedPage page = pageCache.get(key, now);
+        if (page != null && page.isFresh(now)) {
+            pageCache.record("hit");
+            serve(request, response, page, "HIT", now);
+            return;
+        }
+
+        PageCache.RenderTicket ticket = pageCache.claim(key);
+        if (!ticket.leader()) {
+            if (page != null) {
+                // Страницу уже перерисовывает другой запрос - отдаём устаревшую
+                pageCache.record("stale");
+                serve(request, response, page, "STALE", now);
+                return;
+            }
+            PageCache.CachedPage rendered = pageCache.await(ticket);
+            if (rendered != null) {
+                pageCache.record("coalesced");
+                serve(request, response, rendered, "HIT", System.nanoTime());
+                return;
+            }
+        }
+
+        pageCache.record("miss");
+        render(request, response, filterChain, ticket);
+    }
+
+    private void render(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain,
+                        PageCache.RenderTicket ticket) throws ServletException, IOException {
+        long started = System.nanoTime();
+        boolean hadSession = request.getSession(false) != null;
+        TrackingCsrfToken csrfToken = TrackingCsrfToken.wrap(request);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        PageCache.CachedPage stored = null;
+        try {
+            filterChain.doFilter(request, wrapper);
+            if (ticket.leader() && isCacheable(request, wrapper, hadSession, csrfToken)) {
+                @SuppressWarnings("unchecked")
+                Set<String> tags = (Set<String>) request.getAttribute(PageCache.TAGS_ATTRIBUTE);
+                stored = pageCache.put(ticket.key(), wrapper.getContentAsByteArray(), wrapper.getContentType(),
+                        tags != null ? tags : Set.of(), started);
+            }
+        } finally {
+            pageCache.release(ticket, stored);
+            if (!wrapper.isCommitted()) {
+                wrapper.setHeader("X-Page-Cache", "MISS");
+            }
+            wrapper.copyBodyToResponse();
+        }
+    }
+
+    private boolean isCacheable(HttpServletRequest request, ContentCachingResponseWrapper response,
+                                boolean hadSession, TrackingCsrfToken csrfToken) {
+        return response.getStatus() == HttpServletResponse.SC_OK
+                && response.getContentType() != null
+                && response.getContentType().startsWith(MediaType.TEXT_HTML_VALUE)
+                && !response.containsHeader(HttpHeaders.SET_COOKIE)
+                && (hadSession || request.getSession(false) == null)
+                && (csrfToken == null || !csrfToken.isUsed());
+    }
+
+    private void serve(HttpServletRequest request, HttpServletResponse response, PageCache.CachedPage page,
+                       String state, long now) throws IOException {
+        response.setContentType(page.contentType());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.AGE, String.valueOf(TimeUnit.NANOSECONDS.toSeconds(now - page.storedAt())));
+        response.setHeader("X-Page-Cache", state);
+        byte[] body;
+        if (acceptsGzip(request)) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            body = page.gzip();
+        } else {
+            body = page.html();
+        }
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * Ключ страницы или null, если страница не кэшируется
+     */
+    static String cacheKey(HttpServletRequest request) {
+        String path = request.getServletPath();
+        if (PRODUCT_PATH.matcher(path).matches()) {
+            return request.getQueryString() == null ? path : null;
+        }
+        if (!"/catalog".equals(path)) {
+            return null;
+        }
+        Map<String, String> params = new TreeMap<>();
+        for (Map.Entry<String, String[]> entry : request.getParameterMap().entrySet()) {
+            String defaultValue = CATALOG_PARAMS.get(entry.getKey());
+            if (defaultValue == null) {
+                continue;
+            }
+            if (entry.getValue().length != 1) {
+                return null;
+            }
+            String value = entry.getValue()[0].trim();
+            if (!value.isEmpty() && !value.equals(defaultValue)) {
+                params.put(entry.getKey(), value);
+            }
+        }
+        StringBuilder key = new StringBuilder(path);
+        char separator = '?';
+        for (Map.Entry<String, String> entry : params.entrySet()) {
+            key.append(separator).append(entry.getKey()).append('=').append(entry.getValue());
+            separator = '&';
+        }
+        return key.toString();
+    }
+
+    private static boolean isAnonymous() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null || authentication instanceof AnonymousAuthenticationToken;
+    }
+
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null) {
+            return false;
+        }
+        return Arrays.stream(acceptEncoding.split(","))
+                .map(encoding -> encoding.trim().toLowerCase(Locale.ROOT).replace(" ", ""))
+                .anyMatch(encoding -> encoding.equals("gzip")
+                        || encoding.startsWith("gzip;") && !encoding.endsWith("q=0"));
+    }
+
+    /**
+     * CSRF-токен, запоминающий обращение к значению: страница с токеном принадлежит одной сессии
+     */
+    private static final class TrackingCsrfToken implements CsrfToken {
+
+        private final CsrfToken delegate;
+        private volatile boolean used;
+
+        private TrackingCsrfToken(CsrfToken delegate) {
+            this.delegate = delegate;
+        }
+
+        static TrackingCsrfToken wrap(HttpServletRequest request) {
+            if (!(request.getAttribute(CsrfToken.class.getName()) instanceof CsrfToken token)) {
+                return null;
+            }
+            TrackingCsrfToken tracking = new TrackingCsrfToken(token);
+            request.setAttribute(CsrfToken.class.getName(), tracking);
+            // Имя атрибута не берём у токена: это само по себе загрузит (и создаст) токен
+            if (request.getAttribute(CSRF_ATTRIBUTE) == token) {
+                request.setAttribute(CSRF_ATTRIBUTE, tracking);
+            }
+            return tracking;
+        }
+
+        boolean isUsed() {
+            return used;
+        }
+
+        @Override
+        public String getHeaderName() {
+            used = true;
+            return delegate.getHeaderName();
+        }
+
+        @Override
+        public String getParameterName() {
+            used = true;
+            return delegate.getParameterName();
+        }
+
+        @Override
+        public String getToken() {
+            used = true;
+            return delegate.getToken();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package com.omega.shop.cache;
+
+import com.omega.shop.entity.Category;
+import com.omega.shop.entity.Product;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Собирает суррогатные ключи страницы из модели: какие товары и категории на ней показаны.
+ * Результат - атрибут запроса {@link PageCache#TAGS_ATTRIBUTE}, его читает {@link PageCacheFilter}.
+ */
+public class PageCacheTagInterceptor implements HandlerInterceptor {
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView == null) {
+            return;
+        }
+        Map<String, Object> model = modelAndView.getModel();
+        Set<String> tags = new HashSet<>();
+
+        if (model.get("product") instanceof Product product) {
+            addProduct(tags, product);
+        }
+        if (model.get("products") instanceof Collection<?> products) {
+            products.stream()
+                    .filter(Product.class::isInstance)
+                    .forEach(product -> addProduct(tags, (Product) product));
+        }
+        if (model.get("selectedCategory") instanceof Category category) {
+            tags.add("category:" + category.getId());
+        }
+        if (model.containsKey("categories")) {
+            // Дерево категорий в боковой панели зависит от любой категории
+            tags.add(PageCache.TAG_CATEGORIES);
+        }
+        request.setAttribute(PageCache.TAGS_ATTRIBUTE, tags);
+    }
+
+    private static void addProduct(Set<String> tags, Product product) {
+        tags.add("product:" + product.getId());
+        if (product.getCategory() != null) {
+            tags.add("category:" + product.getCategory().getId());
+        }
+    }
+}
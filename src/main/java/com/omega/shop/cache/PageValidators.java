@@ -0,0 +1,125 @@
+package com.omega.shop.cache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.CsrfToken;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Условные GET-запросы (ETag / Last-Modified) для страниц одной сущности.
+ * Контроллер сначала читает только {@code updated_at} сущности и, если браузер прислал тот же ETag,
+ * отвечает 304 без загрузки сущности и рендеринга шаблона.
+ * <p>
+ * Страница зависит не только от сущности, поэтому в ETag входят также:
+ * <ul>
+ *     <li>время старта приложения - шаблоны меняются только с перезапуском;</li>
+ *     <li>время последнего изменения категорий - их названия выводятся на странице товара;</li>
+ *     <li>пользователь и его роли - от них зависит меню;</li>
+ *     <li>CSRF-токен сессии - он встроен в формы страницы.</li>
+ * </ul>
+ * Last-Modified отдаётся только страницам без сессии: дата изменения не учитывает пользователя.
+ * Ответ с flash-сообщением валидаторов не получает, иначе сообщение показывалось бы из кэша браузера повторно.
+ */
+@Component
+@RequiredArgsConstructor
+public class PageValidators {
+
+    private final HttpSessionCsrfTokenRepository csrfTokenRepository = new HttpSessionCsrfTokenRepository();
+    private final long startedAt = System.currentTimeMillis();
+    private final AtomicLong categoriesChangedAt = new AtomicLong(startedAt);
+
+    private final MeterRegistry registry;
+
+    /**
+     * Выставить валидаторы и проверить заголовки If-None-Match / If-Modified-Since
+     *
+     * @param updatedAt время изменения сущности, {@code null} - сущность не найдена или недоступна
+     * @return {@code true}, если ответ 304 уже сформирован и контроллер должен вернуть {@code null}
+     */
+    public boolean checkNotModified(ServletWebRequest webRequest, LocalDateTime updatedAt) {
+        HttpServletRequest request = webRequest.getRequest();
+        if (updatedAt == null || hasFlashAttributes(request)) {
+            record("skipped");
+            return false;
+        }
+
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        boolean authenticated = authentication != null && authentication.isAuthenticated()
+                && !(authentication instanceof AnonymousAuthenticationToken);
+        HttpSession session = request.getSession(false);
+        CsrfToken csrfToken = session != null ? csrfTokenRepository.loadToken(request) : null;
+        if (authenticated && csrfToken == null) {
+            // Токен создаст рендеринг; ETag без него не совпал бы со страницей
+            record("skipped");
+            return false;
+        }
+
+        long lastModified = Math.max(toMillis(updatedAt), Math.max(startedAt, categoriesChangedAt.get()));
+        String etag = etag(updatedAt, lastModified,
+                authenticated ? authentication.getName() + authorities(authentication) : "",
+                csrfToken != null ? csrfToken.getToken() : "");
+
+        webRequest.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
+        boolean notModified = session == null
+                ? webRequest.checkNotModified(etag, lastModified)
+                : webRequest.checkNotModified(etag);
+        record(notModified ? "not_modified" : "modified");
+        return notModified;
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (event.flushAll() || event.affects(CacheInvalidation.Entity.CATEGORY)) {
+            categoriesChangedAt.set(System.currentTimeMillis());
+        }
+    }
+
+    private static String etag(LocalDateTime updatedAt, long lastModified, String user, String csrfToken) {
+        String source = updatedAt + "|" + lastModified + "|" + user + "|" + csrfToken;
+        return "W/\"" + DigestUtils.md5DigestAsHex(source.getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    private static String authorities(Authentication authentication) {
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .sorted()
+                .collect(Collectors.joining(",", "[", "]"));
+    }
+
+    private static boolean hasFlashAttributes(HttpServletRequest request) {
+        Map<String, ?> flash = RequestContextUtils.getInputFlashMap(request);
+        return flash != null && !flash.isEmpty();
+    }
+
+    private static long toMillis(LocalDateTime value) {
+        return value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    private void record(String result) {
+        Counter.builder("omega.http.conditional")
+                .description("Условные GET-запросы страниц: 304, полный ответ или без валидаторов")
+                .tag("result", result)
+                .register(registry)
+                .increment();
+    }
+}
@@ -0,0 +1,37 @@
+package com.omega.shop.config;
+
+import com.omega.shop.cache.FragmentCache;
+import com.omega.shop.cache.FragmentCacheDialect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Кэш фрагментов шаблонов ({@code th:cache}). Диалект регистрируется всегда, чтобы атрибут
+ * не попадал в разметку; сам кэш отключается свойством {@code omega.fragment-cache.enabled=false}.
+ */
+@Configuration
+public class FragmentCacheConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "omega.fragment-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+    public FragmentCache fragmentCache(
+            @Value("${omega.fragment-cache.max-entries:20000}") int maxEntries,
+            @Value("${omega.fragment-cache.max-size:16MB}") DataSize maxSize,
+            MeterRegistry meterRegistry) {
+        // Строки Java хранят кириллицу по два байта на символ
+        return new FragmentCache(maxEntries, maxSize.toBytes() / 2, meterRegistry);
+    }
+
+    /**
+     * Spring Boot добавляет бины-диалекты в SpringTemplateEngine автоматически
+     */
+    @Bean
+    public FragmentCacheDialect fragmentCacheDialect(ObjectProvider<FragmentCache> fragmentCache) {
+        return new FragmentCacheDialect(fragmentCache.getIfAvailable());
+    }
+}
@@ -0,0 +1,30 @@
+package com.omega.shop.config;
+
+import io.swagger.v3.oas.models.Components;
+import io.swagger.v3.oas.models.OpenAPI;
+import io.swagger.v3.oas.models.info.Info;
+import io.swagger.v3.oas.models.security.SecurityRequirement;
+import io.swagger.v3.oas.models.security.SecurityScheme;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class OpenApiConfig {
+
+    private static final String BEARER = "bearer";
+
+    /**
+     * Описание JSON API для springdoc. Каталог доступен без токена,
+     * остальные методы требуют {@code Authorization: Bearer} из {@code /api/auth/token}.
+     */
+    @Bean
+    public OpenAPI omegaOpenApi() {
+        return new OpenAPI()
+                .info(new Info().title("Omega Shop API").version("v1"))
+                .components(new Components().addSecuritySchemes(BEARER, new SecurityScheme()
+                        .type(SecurityScheme.Type.HTTP)
+                        .scheme("bearer")
+                        .bearerFormat("JWT")))
+                .addSecurityItem(new SecurityRequirement().addList(BEARER));
+    }
+}
@@ -0,0 +1,52 @@
+package com.omega.shop.config;
+
+import com.omega.shop.cache.PageCache;
+import com.omega.shop.cache.PageCacheFilter;
+import com.omega.shop.cache.PageCacheTagInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.security.SecurityProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Кэш страниц каталога и товаров для анонимных посетителей.
+ * Отключается свойством {@code omega.page-cache.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "omega.page-cache", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class PageCacheConfig implements WebMvcConfigurer {
+
+    @Bean
+    public PageCache pageCache(
+            @Value("${omega.page-cache.ttl:60s}") Duration ttl,
+            @Value("${omega.page-cache.stale-while-revalidate:5m}") Duration staleWhileRevalidate,
+            @Value("${omega.page-cache.max-size:64MB}") DataSize maxSize,
+            @Value("${omega.page-cache.max-entries:10000}") int maxEntries,
+            @Value("${omega.page-cache.coalesce-timeout:5s}") Duration coalesceTimeout,
+            MeterRegistry meterRegistry) {
+        return new PageCache(ttl, staleWhileRevalidate, maxSize.toBytes(), maxEntries, coalesceTimeout, meterRegistry);
+    }
+
+    @Bean
+    public FilterRegistrationBean<PageCacheFilter> pageCacheFilter(PageCache pageCache) {
+        FilterRegistrationBean<PageCacheFilter> registration = new FilterRegistrationBean<>(new PageCacheFilter(pageCache));
+        registration.addUrlPatterns("/catalog", "/product/*");
+        // Сразу после Spring Security: аутентификация (в том числе remember-me) уже известна
+        registration.setOrder(SecurityProperties.DEFAULT_FILTER_ORDER + 1);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PageCacheTagInterceptor())
+                .addPathPatterns("/catalog", "/product/*");
+    }
+}
@@ -1,15 +1,33 @@
 package com.omega.shop.config;
 
+import com.omega.shop.security.OffloadedPasswordEncoder;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
+
 @Configuration
 public class PasswordConfig {
 
-    @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    /**
+     * BCrypt на отдельном ограниченном пуле (см. {@link OffloadedPasswordEncoder}).
+     * Хэши с меньшей стоимостью, чем {@code omega.security.password.bcrypt-strength},
+     * пересчитываются при следующем успешном входе.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public PasswordEncoder passwordEncoder(
+            @Value("${omega.security.password.bcrypt-strength:10}") int strength,
+            @Value("${omega.security.password.threads:0}") int threads,
+            @Value("${omega.security.password.queue-capacity:64}") int queueCapacity,
+            @Value("${omega.security.password.max-wait:3s}") Duration maxWait,
+            MeterRegistry meterRegistry) {
+        // По умолчанию половина ядер: вторая половина остаётся каталогу и заказам
+        int poolSize = threads > 0 ? threads : Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new OffloadedPasswordEncoder(new BCryptPasswordEncoder(strength), poolSize, queueCapacity,
+                maxWait, meterRegistry);
     }
-}
\ No newline at end of file
+}
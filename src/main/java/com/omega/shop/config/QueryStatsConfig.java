@@ -0,0 +1,47 @@
+package com.omega.shop.config;
+
+import com.omega.shop.monitoring.QueryCountingStatementInspector;
+import com.omega.shop.monitoring.QueryStatsFilter;
+import com.omega.shop.monitoring.QueryTimingSessionListener;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+
+/**
+ * Учёт SQL-запросов на HTTP-запрос и обнаружение N+1.
+ * Отключается свойством {@code omega.query-stats.enabled=false}.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "omega.query-stats", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class QueryStatsConfig {
+
+    @Bean
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    public HibernatePropertiesCustomizer queryStatsHibernateCustomizer() {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, new QueryCountingStatementInspector());
+            properties.put(AvailableSettings.AUTO_SESSION_EVENTS_LISTENER, QueryTimingSessionListener.class.getName());
+        };
+    }
+
+    @Bean
+    public FilterRegistrationBean<QueryStatsFilter> queryStatsFilter(
+            MeterRegistry meterRegistry,
+            @Value("${omega.query-stats.budget:30}") int budget,
+            @Value("${omega.query-stats.n-plus-one-threshold:5}") int nPlusOneThreshold,
+            @Value("${omega.query-stats.expose-headers:false}") boolean exposeHeaders) {
+        FilterRegistrationBean<QueryStatsFilter> registration = new FilterRegistrationBean<>(
+                new QueryStatsFilter(meterRegistry, budget, nPlusOneThreshold, exposeHeaders));
+        registration.addUrlPatterns("/*");
+        // Раньше Spring Security, чтобы учесть загрузку пользователя при аутентификации
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
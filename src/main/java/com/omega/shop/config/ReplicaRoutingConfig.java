@@ -0,0 +1,109 @@
+package com.omega.shop.config;
+
+import com.omega.shop.datasource.ReadYourWritesFilter;
+import com.omega.shop.datasource.ReplicaDataSourceProperties;
+import com.omega.shop.datasource.ReplicaLagMonitor;
+import com.omega.shop.datasource.ReplicaNode;
+import com.omega.shop.datasource.ReplicaRoutingDataSource;
+import com.omega.shop.datasource.WriteDetectingStatementInspector;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Маршрутизация read-only транзакций на реплики.
+ * Включается свойством {@code omega.datasource.replica.enabled=true}; без него приложение
+ * работает с единственным {@code spring.datasource}, как раньше.
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "omega.datasource.replica", name = "enabled", havingValue = "true")
+@EnableConfigurationProperties(ReplicaDataSourceProperties.class)
+public class ReplicaRoutingConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties dataSourceProperties) {
+        HikariDataSource dataSource = dataSourceProperties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             ReplicaDataSourceProperties properties) {
+        List<ReplicaNode> replicas = new ArrayList<>();
+        for (int i = 0; i < properties.getInstances().size(); i++) {
+            ReplicaDataSourceProperties.Instance instance = properties.getInstances().get(i);
+            HikariDataSource replica = new HikariDataSource();
+            replica.setPoolName("replica-" + i);
+            replica.setJdbcUrl(instance.getUrl());
+            replica.setUsername(instance.getUsername());
+            replica.setPassword(instance.getPassword());
+            replica.setMaximumPoolSize(properties.getMaximumPoolSize());
+            replica.setReadOnly(true);
+            // Реплика может быть недоступна при старте - это не должно мешать запуску приложения
+            replica.setInitializationFailTimeout(-1);
+            replicas.add(new ReplicaNode("replica-" + i, replica));
+        }
+
+        return new ReplicaRoutingDataSource(
+                primaryDataSource,
+                replicas,
+                properties.getMaxLag().toMillis());
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        // Соединение берётся при первом запросе, когда флаг readOnly транзакции уже известен
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(ReplicaDataSourceProperties properties) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(properties.getStickiness()));
+        registration.addUrlPatterns("/*");
+        // Раньше Spring Security: загрузка пользователя при аутентификации тоже читает с учётом записей
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 5);
+        return registration;
+    }
+
+    @Bean
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    public HibernatePropertiesCustomizer writeDetectingHibernateCustomizer() {
+        // Последним: оборачивает инспектор, уже настроенный другими (учёт запросов)
+        return properties -> {
+            Object configured = properties.get(AvailableSettings.STATEMENT_INSPECTOR);
+            if (configured != null && !(configured instanceof StatementInspector)) {
+                throw new IllegalStateException("Ожидался экземпляр StatementInspector: " + configured);
+            }
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR,
+                    new WriteDetectingStatementInspector((StatementInspector) configured));
+        };
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(ReplicaRoutingDataSource replicaRoutingDataSource,
+                                               ReplicaDataSourceProperties properties) {
+        return new ReplicaLagMonitor(replicaRoutingDataSource.getReplicas(), properties.getLagQuery());
+    }
+}
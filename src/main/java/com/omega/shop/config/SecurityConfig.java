@@ -1,35 +1,119 @@
 package com.omega.shop.config;
 
 import com.omega.shop.security.CustomUserDetailsService;
+import com.omega.shop.security.LoginThrottle;
+import com.omega.shop.security.LoginThrottleFilter;
+import com.omega.shop.security.PasswordHashingUnavailableException;
+import com.omega.shop.security.jwt.ApiAuthenticationEntryPoint;
+import com.omega.shop.security.jwt.JwtAuthenticationFilter;
+import com.omega.shop.security.jwt.JwtProperties;
+import com.omega.shop.security.jwt.JwtTokenService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.ExceptionMappingAuthenticationFailureHandler;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity(prePostEnabled = true)
+@EnableConfigurationProperties(JwtProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final CustomUserDetailsService userDetailsService;
     private final PasswordEncoder passwordEncoder;
+    private final LoginThrottle loginThrottle;
+
+    /**
+     * JSON API: без сессии, CSRF и remember-me - только {@code Authorization: Bearer}.
+     * Токены выдаёт {@code /api/auth/token}, см. {@link JwtTokenService}.
+     */
+    @Bean
+    @Order(1)
+    public SecurityFilterChain apiFilterChain(HttpSecurity http, JwtTokenService tokenService) throws Exception {
+        ApiAuthenticationEntryPoint entryPoint = new ApiAuthenticationEntryPoint();
+        http
+                .securityMatcher("/api/**")
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/api/auth/token", "/api/auth/refresh").permitAll()
+                        .requestMatchers(HttpMethod.GET, "/api/v1/products/**", "/api/v1/categories").permitAll()
+                        .anyRequest().authenticated()
+                )
+                .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                .csrf(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .formLogin(AbstractHttpConfigurer::disable)
+                .httpBasic(AbstractHttpConfigurer::disable)
+                .logout(AbstractHttpConfigurer::disable)
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint(entryPoint)
+                        .accessDeniedHandler(entryPoint)
+                )
+                // Фильтры создаются здесь, а не бинами, чтобы Boot не зарегистрировал их для всех запросов
+                .addFilterBefore(new LoginThrottleFilter(loginThrottle), UsernamePasswordAuthenticationFilter.class)
+                .addFilterBefore(new JwtAuthenticationFilter(tokenService, entryPoint),
+                        UsernamePasswordAuthenticationFilter.class);
+
+        return http.build();
+    }
 
+    /**
+     * Actuator: health и info открыты, метрики, Prometheus и JFR - только ADMIN.
+     * Кроме сессии администратора принимается HTTP Basic - им авторизуется сборщик Prometheus.
+     * Анонимный запрос получает 401 без {@code WWW-Authenticate}: браузер не предлагает
+     * ввести пароль и не запоминает его, поэтому Basic в запросе всегда задан клиентом явно.
+     */
     @Bean
+    @Order(2)
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http) throws Exception {
+        HttpStatusEntryPoint entryPoint = new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED);
+        http
+                .securityMatcher("/actuator/**")
+                .authorizeHttpRequests(auth -> auth
+                        .requestMatchers("/actuator/health", "/actuator/health/**", "/actuator/info").permitAll()
+                        .anyRequest().hasRole("ADMIN")
+                )
+                .httpBasic(basic -> basic.authenticationEntryPoint(entryPoint))
+                .formLogin(AbstractHttpConfigurer::disable)
+                .requestCache(AbstractHttpConfigurer::disable)
+                .exceptionHandling(exceptions -> exceptions.authenticationEntryPoint(entryPoint))
+                // Basic клиент передаёт явно, страница другого сайта его не подставит. Запросы
+                // с cookie сессии (старт и остановка записи JFR) проверяются на CSRF
+                .csrf(csrf -> csrf.ignoringRequestMatchers(request -> {
+                    String authorization = request.getHeader(HttpHeaders.AUTHORIZATION);
+                    return authorization != null && authorization.regionMatches(true, 0, "Basic ", 0, 6);
+                }));
+
+        return http.build();
+    }
+
+    @Bean
+    @Order(3)
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
                 .authorizeHttpRequests(auth -> auth
                         // Публичные страницы
                         .requestMatchers("/", "/register", "/login", "/test", "/health").permitAll()
                         .requestMatchers("/css/**", "/js/**", "/images/**", "/webjars/**", "/uploads/**").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
                         .requestMatchers("/swagger-ui/**", "/v3/api-docs/**").permitAll()
 
                         // Каталог и товары - доступны всем
@@ -57,7 +141,7 @@ public class SecurityConfig {
                         .loginPage("/login")
                         .loginProcessingUrl("/login")
                         .defaultSuccessUrl("/", true)
-                        .failureUrl("/login?error=true")
+                        .failureHandler(loginFailureHandler())
                         .usernameParameter("username")
                         .passwordParameter("password")
                         .permitAll()
@@ -75,8 +159,10 @@ public class SecurityConfig {
                         .rememberMeParameter("remember-me")
                 )
                 .csrf(csrf -> csrf
-                        .ignoringRequestMatchers("/actuator/**", "/cart/add", "/cart/update", "/cart/count")
-                );
+                        .ignoringRequestMatchers("/cart/add", "/cart/update", "/cart/count")
+                )
+                // Отклонённая попытка входа не доходит до БД и BCrypt
+                .addFilterBefore(new LoginThrottleFilter(loginThrottle), UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
@@ -86,9 +172,21 @@ public class SecurityConfig {
         DaoAuthenticationProvider authProvider = new DaoAuthenticationProvider();
         authProvider.setUserDetailsService(userDetailsService);
         authProvider.setPasswordEncoder(passwordEncoder);
+        // Пересчёт хэша при входе, если стоимость BCrypt была увеличена
+        authProvider.setUserDetailsPasswordService(userDetailsService);
         return authProvider;
     }
 
+    /**
+     * Перегрузка хэширования паролей - не то же самое, что неверный пароль
+     */
+    private ExceptionMappingAuthenticationFailureHandler loginFailureHandler() {
+        ExceptionMappingAuthenticationFailureHandler handler = new ExceptionMappingAuthenticationFailureHandler();
+        handler.setDefaultFailureUrl("/login?error=true");
+        handler.setExceptionMappings(Map.of(PasswordHashingUnavailableException.class.getName(), "/login?busy=true"));
+        return handler;
+    }
+
     @Bean
     public AuthenticationManager authenticationManager(
             AuthenticationConfiguration authConfig) throws Exception {
@@ -0,0 +1,44 @@
+package com.omega.shop.config;
+
+import com.omega.shop.monitoring.FileSpanExporter;
+import com.omega.shop.monitoring.TracingAspect;
+import io.micrometer.observation.ObservationPredicate;
+import io.micrometer.observation.ObservationRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.unit.DataSize;
+
+import java.nio.file.Path;
+
+/**
+ * Трассировка запросов: спаны слоёв приложения и JDBC, экспорт в локальный файл.
+ * Выборка трасс - {@code management.tracing.sampling.probability}, отправка в коллектор
+ * по OTLP включается свойством {@code management.otlp.tracing.endpoint}.
+ */
+@Configuration
+public class TracingConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "omega.tracing", name = "layers", havingValue = "true", matchIfMissing = true)
+    public TracingAspect tracingAspect(ObservationRegistry observationRegistry) {
+        return new TracingAspect(observationRegistry);
+    }
+
+    /**
+     * JDBC-запросы вне HTTP-запроса или задачи (пул соединений, Flyway) не трассируются
+     */
+    @Bean
+    public ObservationPredicate jdbcWithoutParentPredicate() {
+        return (name, context) -> !name.startsWith("jdbc.") || context.getParentObservation() != null;
+    }
+
+    @Bean
+    @ConditionalOnProperty(prefix = "omega.tracing.file", name = "enabled", havingValue = "true")
+    public FileSpanExporter fileSpanExporter(
+            @Value("${omega.tracing.file.path:logs/spans.jsonl}") Path path,
+            @Value("${omega.tracing.file.max-size:100MB}") DataSize maxSize) {
+        return new FileSpanExporter(path, maxSize.toBytes());
+    }
+}
@@ -0,0 +1,51 @@
+package com.omega.shop.config;
+
+import com.omega.shop.datasource.ConcurrencyLimitingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * Режим виртуальных потоков.
+ * Сами потоки Tomcat и исполнитель {@code @Scheduled} переключает Spring Boot
+ * по свойству {@code spring.threads.virtual.enabled}; здесь - ограничение параллельных
+ * обращений к БД, которое в этом режиме заменяет естественный предел пула потоков Tomcat.
+ */
+@Configuration
+public class VirtualThreadConfig {
+
+    @Bean
+    @ConditionalOnProperty(prefix = "omega.datasource.concurrency-limit", name = "enabled", havingValue = "true")
+    public static BeanPostProcessor concurrencyLimitingDataSourcePostProcessor(
+            @Value("${omega.datasource.concurrency-limit.permits:16}") int permits,
+            @Value("${omega.datasource.concurrency-limit.acquire-timeout:2s}") Duration acquireTimeout,
+            ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!"dataSource".equals(beanName) || !(bean instanceof DataSource dataSource)) {
+                    return bean;
+                }
+                ConcurrencyLimitingDataSource limited =
+                        new ConcurrencyLimitingDataSource(dataSource, permits, acquireTimeout);
+                meterRegistry.ifAvailable(registry -> {
+                    Gauge.builder("omega.db.concurrency.available", limited, ConcurrencyLimitingDataSource::availablePermits)
+                            .description("Свободные разрешения на обращение к БД")
+                            .register(registry);
+                    Gauge.builder("omega.db.concurrency.waiting", limited, ConcurrencyLimitingDataSource::queueLength)
+                            .description("Потоки, ожидающие разрешения на обращение к БД")
+                            .register(registry);
+                });
+                return limited;
+            }
+        };
+    }
+}
@@ -1,15 +1,27 @@
 package com.omega.shop.config;
 
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.omega.shop.security.CurrentUserArgumentResolver;
+import com.omega.shop.security.CurrentUserCache;
+import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
 import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
 import java.nio.file.Paths;
+import java.util.List;
 
 @Configuration
+@RequiredArgsConstructor
 public class WebConfig implements WebMvcConfigurer {
 
+    private final CurrentUserCache currentUserCache;
+
     @Value("${omega.upload.dir}")
     private String uploadDir;
 
@@ -22,4 +34,20 @@ public class WebConfig implements WebMvcConfigurer {
                 .addResourceHandler("/uploads/**")
                 .addResourceLocations(uploadPath);
     }
-}
\ No newline at end of file
+
+    /**
+     * CBOR для API ({@code Accept: application/cbor}) - тот же ObjectMapper, что и для JSON
+     * (модули, формат дат, {@code spring.jackson.*}), но двоичный: меньше байт в мобильной сети
+     * и дешевле разбор на слабых устройствах. Без заголовка Accept по-прежнему отдаётся JSON.
+     */
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        // @CurrentUser User - текущий пользователь без запроса к БД на каждый запрос
+        resolvers.add(new CurrentUserArgumentResolver(currentUserCache));
+    }
+}
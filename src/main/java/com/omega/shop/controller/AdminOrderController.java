@@ -2,11 +2,13 @@ package com.omega.shop.controller;
 
 import com.omega.shop.entity.Order;
 import com.omega.shop.service.OrderService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -21,39 +23,45 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class AdminOrderController {
 
     private final OrderService orderService;
+    private final StreamingListRenderer streamingListRenderer;
+
+    @Value("${omega.web.streaming.max-page-size:5000}")
+    private int maxPageSize;
 
     /**
-     * Список всех заказов
+     * Список всех заказов. Строки выводятся потоком ({@link StreamingListRenderer}),
+     * поэтому страница в несколько тысяч заказов не собирается в памяти целиком
      */
     @GetMapping
-    public String listOrders(
+    public void listOrders(
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            Model model
-    ) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Order> ordersPage;
-
+            Model model,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws Exception {
+        Order.OrderStatus orderStatus = null;
         if (status != null && !status.trim().isEmpty()) {
             try {
-                Order.OrderStatus orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
-                ordersPage = orderService.getOrdersByStatus(orderStatus, pageable);
+                orderStatus = Order.OrderStatus.valueOf(status.toUpperCase());
                 model.addAttribute("selectedStatus", orderStatus);
             } catch (IllegalArgumentException e) {
-                ordersPage = orderService.getAllOrders(pageable);
+                log.debug("Неизвестный статус заказа в фильтре: {}", status);
             }
-        } else {
-            ordersPage = orderService.getAllOrders(pageable);
         }
 
-        model.addAttribute("orders", ordersPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", ordersPage.getTotalPages());
-        model.addAttribute("totalItems", ordersPage.getTotalElements());
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), maxPageSize));
+        long totalItems = orderService.countOrders(orderStatus);
+
+        model.addAttribute("currentPage", pageable.getPageNumber());
+        model.addAttribute("totalPages", (int) ((totalItems + pageable.getPageSize() - 1) / pageable.getPageSize()));
+        model.addAttribute("totalItems", totalItems);
         model.addAttribute("statuses", Order.OrderStatus.values());
 
-        return "admin/orders/list";
+        Order.OrderStatus filter = orderStatus;
+        streamingListRenderer.render("admin/orders/list", model, "orders",
+                () -> orderService.streamOrders(filter, pageable), request, response);
     }
 
     /**
@@ -4,12 +4,14 @@ import com.omega.shop.entity.Category;
 import com.omega.shop.entity.Product;
 import com.omega.shop.service.CategoryService;
 import com.omega.shop.service.ProductService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
@@ -29,25 +31,32 @@ public class AdminProductController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final StreamingListRenderer streamingListRenderer;
+
+    @Value("${omega.web.streaming.max-page-size:5000}")
+    private int maxPageSize;
 
     /**
-     * Список всех товаров
+     * Список всех товаров, строки выводятся потоком ({@link StreamingListRenderer})
      */
     @GetMapping
-    public String listProducts(
+    public void listProducts(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
-            Model model
-    ) {
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Product> productsPage = productService.getAllActiveProducts(pageable);
-
-        model.addAttribute("products", productsPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", productsPage.getTotalPages());
-        model.addAttribute("totalItems", productsPage.getTotalElements());
-
-        return "admin/products/list";
+            Model model,
+            HttpServletRequest request,
+            HttpServletResponse response
+    ) throws Exception {
+        Pageable pageable = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), maxPageSize));
+        long totalItems = productService.countActiveProducts();
+
+        model.addAttribute("currentPage", pageable.getPageNumber());
+        model.addAttribute("size", pageable.getPageSize());
+        model.addAttribute("totalPages", (int) ((totalItems + pageable.getPageSize() - 1) / pageable.getPageSize()));
+        model.addAttribute("totalItems", totalItems);
+
+        streamingListRenderer.render("admin/products/list", model, "products",
+                () -> productService.streamActiveProducts(pageable), request, response);
     }
 
     /**
@@ -1,6 +1,7 @@
 package com.omega.shop.controller;
 
 import com.omega.shop.dto.RegistrationDto;
+import com.omega.shop.security.PasswordHashingUnavailableException;
 import com.omega.shop.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -57,7 +58,7 @@ public class AuthController {
             redirectAttributes.addFlashAttribute("successMessage",
                     "Регистрация успешна! Войдите в систему.");
             return "redirect:/login";
-        } catch (IllegalArgumentException e) {
+        } catch (IllegalArgumentException | PasswordHashingUnavailableException e) {
             log.error("Ошибка регистрации: {}", e.getMessage());
             model.addAttribute("errorMessage", e.getMessage());
             return "auth/register";
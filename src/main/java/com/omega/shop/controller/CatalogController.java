@@ -1,8 +1,10 @@
 package com.omega.shop.controller;
 
+import com.omega.shop.cache.PageValidators;
 import com.omega.shop.entity.Category;
 import com.omega.shop.entity.Product;
 import com.omega.shop.service.CategoryService;
+import com.omega.shop.service.ConcurrentModelLoader;
 import com.omega.shop.service.ProductService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
@@ -14,9 +16,9 @@ import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 
 import java.math.BigDecimal;
-import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
@@ -24,6 +26,8 @@ public class CatalogController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final ConcurrentModelLoader modelLoader;
+    private final PageValidators pageValidators;
 
     /**
      * Главная страница каталога
@@ -46,6 +50,10 @@ public class CatalogController {
                 : Sort.by(sortBy).descending();
         Pageable pageable = PageRequest.of(page, size, sort);
 
+        // Список категорий для фильтра грузится параллельно с товарами
+        ConcurrentModelLoader.Batch batch = modelLoader.into(model)
+                .add("categories", categoryService::getCategoryViews);
+
         // Получение товаров с учётом фильтров
         Page<Product> productsPage;
 
@@ -74,15 +82,13 @@ public class CatalogController {
             productsPage = productService.getAllActiveProducts(pageable);
         }
 
-        // Получение всех категорий для фильтра
-        List<Category> categories = categoryService.getAllCategories();
+        batch.join();
 
         // Добавление данных в модель
         model.addAttribute("products", productsPage.getContent());
         model.addAttribute("currentPage", page);
         model.addAttribute("totalPages", productsPage.getTotalPages());
         model.addAttribute("totalItems", productsPage.getTotalElements());
-        model.addAttribute("categories", categories);
         model.addAttribute("categoryId", categoryId);
         model.addAttribute("minPrice", minPrice);
         model.addAttribute("maxPrice", maxPrice);
@@ -93,10 +99,13 @@ public class CatalogController {
     }
 
     /**
-     * Детальная страница товара
+     * Детальная страница товара. Повторный просмотр без изменений - 304 после одного {@code SELECT updated_at}
      */
     @GetMapping("/product/{id}")
-    public String productDetails(@PathVariable Long id, Model model) {
+    public String productDetails(@PathVariable Long id, Model model, ServletWebRequest webRequest) {
+        if (pageValidators.checkNotModified(webRequest, productService.getProductUpdatedAt(id).orElse(null))) {
+            return null;
+        }
         Product product = productService.getProductById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Товар не найден"));
 
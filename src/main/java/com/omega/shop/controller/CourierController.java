@@ -1,21 +1,32 @@
 package com.omega.shop.controller;
 
+import com.omega.shop.cache.PageValidators;
 import com.omega.shop.entity.Order;
 import com.omega.shop.entity.User;
-import com.omega.shop.repository.UserRepository;
+import com.omega.shop.event.OrderPushHub;
+import com.omega.shop.security.CurrentUser;
+import com.omega.shop.security.ShopUserPrincipal;
+import com.omega.shop.service.ConcurrentModelLoader;
 import com.omega.shop.service.OrderService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.core.Authentication;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
+import java.util.List;
+
 @Controller
 @RequestMapping("/courier")
 @PreAuthorize("hasRole('COURIER')")
@@ -24,51 +35,54 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 public class CourierController {
 
     private final OrderService orderService;
-    private final UserRepository userRepository;
-
-    /**
-     * Получить текущего курьера из аутентификации
-     */
-    private User getCurrentCourier(Authentication authentication) {
-        String username = authentication.getName();
-        return userRepository.findByUsername(username)
-                .orElseThrow(() -> new IllegalStateException("Курьер не найден"));
-    }
+    private final ConcurrentModelLoader modelLoader;
+    private final PageValidators pageValidators;
+    private final OrderPushHub orderPushHub;
 
     /**
      * Главная страница курьера (дашборд)
      */
     @GetMapping
-    public String dashboard(Authentication authentication, Model model) {
-        User courier = getCurrentCourier(authentication);
+    public String dashboard(@CurrentUser User courier, Model model) {
 
         // Статистика
-        long assignedCount = orderService.getCourierOrdersByDeliveryStatus(
-                courier, Order.DeliveryStatus.ASSIGNED, PageRequest.of(0, 1)).getTotalElements();
-        long inTransitCount = orderService.getCourierOrdersByDeliveryStatus(
-                courier, Order.DeliveryStatus.IN_TRANSIT, PageRequest.of(0, 1)).getTotalElements();
-        long deliveredCount = orderService.getCourierOrdersByDeliveryStatus(
-                courier, Order.DeliveryStatus.DELIVERED, PageRequest.of(0, 1)).getTotalElements();
-
-        model.addAttribute("assignedCount", assignedCount);
-        model.addAttribute("inTransitCount", inTransitCount);
-        model.addAttribute("deliveredCount", deliveredCount);
+        modelLoader.into(model)
+                .add("assignedCount", () -> orderService.getCourierOrdersByDeliveryStatus(
+                        courier, Order.DeliveryStatus.ASSIGNED, PageRequest.of(0, 1)).getTotalElements())
+                .add("inTransitCount", () -> orderService.getCourierOrdersByDeliveryStatus(
+                        courier, Order.DeliveryStatus.IN_TRANSIT, PageRequest.of(0, 1)).getTotalElements())
+                .add("deliveredCount", () -> orderService.getCourierOrdersByDeliveryStatus(
+                        courier, Order.DeliveryStatus.DELIVERED, PageRequest.of(0, 1)).getTotalElements())
+                .join();
 
         return "courier/dashboard";
     }
 
+    /**
+     * Поток событий для открытых страниц курьера: назначения и изменения его доставок.
+     * Пользователь берётся из сессии без обращения к БД, поэтому открытое соединение не держит JDBC-соединение.
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(
+            @AuthenticationPrincipal ShopUserPrincipal courier,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
+    ) {
+        return orderPushHub.subscribe(courier.getId(), List.of(OrderPushHub.userTopic(courier.getId())), lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
+
     /**
      * Список назначенных доставок
      */
     @GetMapping("/deliveries")
     public String deliveries(
-            Authentication authentication,
+            @CurrentUser User courier,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             Model model
     ) {
-        User courier = getCurrentCourier(authentication);
         Pageable pageable = PageRequest.of(page, size);
         Page<Order> ordersPage;
 
@@ -98,13 +112,17 @@ public class CourierController {
      */
     @GetMapping("/deliveries/{id}")
     public String deliveryDetails(
-            Authentication authentication,
+            @CurrentUser User courier,
             @PathVariable Long id,
             Model model,
-            RedirectAttributes redirectAttributes
+            RedirectAttributes redirectAttributes,
+            ServletWebRequest webRequest
     ) {
+        // Курьерское приложение опрашивает страницу: пока заказ не менялся, отвечаем 304
+        if (pageValidators.checkNotModified(webRequest, orderService.getCourierOrderUpdatedAt(courier, id).orElse(null))) {
+            return null;
+        }
         try {
-            User courier = getCurrentCourier(authentication);
             Order order = orderService.getCourierOrderById(courier, id);
 
             // Загружаем связанные сущности
@@ -126,12 +144,11 @@ public class CourierController {
      */
     @PostMapping("/deliveries/{id}/start")
     public String startDelivery(
-            Authentication authentication,
+            @CurrentUser User courier,
             @PathVariable Long id,
             RedirectAttributes redirectAttributes
     ) {
         try {
-            User courier = getCurrentCourier(authentication);
             orderService.startDelivery(courier, id);
             redirectAttributes.addFlashAttribute("successMessage", "Доставка начата");
         } catch (IllegalArgumentException | IllegalStateException e) {
@@ -147,13 +164,12 @@ public class CourierController {
      */
     @PostMapping("/deliveries/{id}/complete")
     public String completeDelivery(
-            Authentication authentication,
+            @CurrentUser User courier,
             @PathVariable Long id,
             @RequestParam(required = false) String courierComment,
             RedirectAttributes redirectAttributes
     ) {
         try {
-            User courier = getCurrentCourier(authentication);
             orderService.completeDelivery(courier, id, courierComment);
             redirectAttributes.addFlashAttribute("successMessage", "Доставка завершена");
         } catch (IllegalArgumentException | IllegalStateException e) {
@@ -169,13 +185,12 @@ public class CourierController {
      */
     @PostMapping("/deliveries/{id}/problem")
     public String markDeliveryProblem(
-            Authentication authentication,
+            @CurrentUser User courier,
             @PathVariable Long id,
             @RequestParam String problemComment,
             RedirectAttributes redirectAttributes
     ) {
         try {
-            User courier = getCurrentCourier(authentication);
             orderService.markDeliveryProblem(courier, id, problemComment);
             redirectAttributes.addFlashAttribute("successMessage", "Проблема с доставкой отмечена");
         } catch (IllegalArgumentException | IllegalStateException e) {
@@ -191,12 +206,11 @@ public class CourierController {
      */
     @GetMapping("/deliveries/history")
     public String deliveryHistory(
-            Authentication authentication,
+            @CurrentUser User courier,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             Model model
     ) {
-        User courier = getCurrentCourier(authentication);
         Pageable pageable = PageRequest.of(page, size);
 
         Page<Order> ordersPage = orderService.getCourierOrdersByDeliveryStatus(
@@ -1,19 +1,18 @@
 package com.omega.shop.controller;
 
+import com.omega.shop.cache.PageValidators;
 import com.omega.shop.dto.OrderDto;
 import com.omega.shop.dto.ShoppingCart;
 import com.omega.shop.entity.Order;
 import com.omega.shop.entity.User;
+import com.omega.shop.security.CurrentUser;
 import com.omega.shop.service.CartService;
 import com.omega.shop.service.OrderService;
-import com.omega.shop.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.validation.BindingResult;
@@ -22,10 +21,10 @@ import org.springframework.web.bind.annotation.ModelAttribute;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.util.List;
-import java.util.Optional;
 
 @Controller
 @RequiredArgsConstructor
@@ -34,13 +33,13 @@ public class OrderController {
 
     private final CartService cartService;
     private final OrderService orderService;
-    private final UserService userService;
+    private final PageValidators pageValidators;
 
     /**
      * Страница оформления заказа
      */
     @GetMapping("/checkout")
-    public String checkoutPage(Model model, @AuthenticationPrincipal UserDetails userDetails) {
+    public String checkoutPage(Model model) {
         ShoppingCart cart = cartService.getCart();
 
         if (cart.isEmpty()) {
@@ -62,7 +61,7 @@ public class OrderController {
     @PostMapping("/checkout")
     public String placeOrder(@Valid @ModelAttribute("orderDto") OrderDto orderDto,
                              BindingResult bindingResult,
-                             @AuthenticationPrincipal UserDetails userDetails,
+                             @CurrentUser User user,
                              Model model,
                              RedirectAttributes redirectAttributes) {
 
@@ -80,14 +79,8 @@ public class OrderController {
             return "order/checkout";
         }
 
-        Optional<User> optionalUser = userService.findByUsername(userDetails.getUsername());
-        if (optionalUser.isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Пользователь не найден");
-            return "redirect:/cart";
-        }
-
         try {
-            Order order = orderService.createOrderFromCart(optionalUser.get(), orderDto);
+            Order order = orderService.createOrderFromCart(user, orderDto);
             redirectAttributes.addFlashAttribute("successMessage", "Заказ успешно оформлен");
             return "redirect:/orders/" + order.getId();
         } catch (IllegalArgumentException | IllegalStateException e) {
@@ -102,22 +95,13 @@ public class OrderController {
      * История заказов пользователя
      */
     @GetMapping("/orders")
-    public String ordersPage(@AuthenticationPrincipal UserDetails userDetails,
+    public String ordersPage(@CurrentUser User user,
                              @RequestParam(defaultValue = "0") int page,
                              @RequestParam(defaultValue = "10") int size,
                              Model model) {
         try {
-            Optional<User> optionalUser = userService.findByUsername(userDetails.getUsername());
-            if (optionalUser.isEmpty()) {
-                model.addAttribute("errorMessage", "Пользователь не найден");
-                model.addAttribute("orders", List.of());
-                model.addAttribute("currentPage", 0);
-                model.addAttribute("totalPages", 0);
-                return "order/orders";
-            }
-
             PageRequest pageable = PageRequest.of(page, size);
-            Page<Order> ordersPage = orderService.getUserOrders(optionalUser.get(), pageable);
+            Page<Order> ordersPage = orderService.getUserOrders(user, pageable);
 
             model.addAttribute("orders", ordersPage.getContent());
             model.addAttribute("currentPage", ordersPage.getNumber());
@@ -139,18 +123,15 @@ public class OrderController {
      */
     @GetMapping("/orders/{id}")
     public String orderDetails(@PathVariable Long id,
-                               @AuthenticationPrincipal UserDetails userDetails,
+                               @CurrentUser User user,
                                Model model,
-                               RedirectAttributes redirectAttributes) {
-
-        Optional<User> optionalUser = userService.findByUsername(userDetails.getUsername());
-        if (optionalUser.isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Пользователь не найден");
-            return "redirect:/orders";
+                               RedirectAttributes redirectAttributes,
+                               ServletWebRequest webRequest) {
+        if (pageValidators.checkNotModified(webRequest, orderService.getUserOrderUpdatedAt(user, id).orElse(null))) {
+            return null;
         }
-
         try {
-            Order order = orderService.getUserOrderById(optionalUser.get(), id);
+            Order order = orderService.getUserOrderById(user, id);
             model.addAttribute("order", order);
             return "order/details";
         } catch (IllegalArgumentException e) {
@@ -164,17 +145,10 @@ public class OrderController {
      */
     @PostMapping("/orders/{id}/cancel")
     public String cancelOrder(@PathVariable Long id,
-                              @AuthenticationPrincipal UserDetails userDetails,
+                              @CurrentUser User user,
                               RedirectAttributes redirectAttributes) {
-
-        Optional<User> optionalUser = userService.findByUsername(userDetails.getUsername());
-        if (optionalUser.isEmpty()) {
-            redirectAttributes.addFlashAttribute("errorMessage", "Пользователь не найден");
-            return "redirect:/orders";
-        }
-
         try {
-            orderService.cancelOrder(optionalUser.get(), id);
+            orderService.cancelOrder(user, id);
             redirectAttributes.addFlashAttribute("successMessage", "Заказ успешно отменён");
         } catch (IllegalArgumentException | IllegalStateException e) {
             redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
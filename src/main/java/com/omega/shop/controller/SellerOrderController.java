@@ -3,21 +3,28 @@ package com.omega.shop.controller;
 import com.omega.shop.dto.SalesReportDto;
 import com.omega.shop.entity.Order;
 import com.omega.shop.entity.User;
+import com.omega.shop.event.OrderPushHub;
+import com.omega.shop.security.CurrentUser;
+import com.omega.shop.security.ShopUserPrincipal;
+import com.omega.shop.service.ConcurrentModelLoader;
 import com.omega.shop.service.OrderService;
 import com.omega.shop.service.ProductService;
 import com.omega.shop.service.ReportService;
-import com.omega.shop.service.UserService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
 import java.time.LocalDateTime;
@@ -32,55 +39,94 @@ public class SellerOrderController {
 
     private final OrderService orderService;
     private final ProductService productService;
-    private final UserService userService;
     private final ReportService reportService;
+    private final ConcurrentModelLoader modelLoader;
+    private final OrderPushHub orderPushHub;
+
+    @Value("${omega.orders.claim.batch:5}")
+    private int claimBatch;
 
     /**
      * Главная страница продавца (дашборд)
      */
     @GetMapping
-    public String dashboard(@AuthenticationPrincipal UserDetails userDetails, Model model) {
-        User seller = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalStateException("Продавец не найден"));
-
-        // Статистика заказов (новые заказы - все, остальные - только этого продавца)
-        long newOrdersCount = orderService.getNewOrdersForSeller(seller, PageRequest.of(0, 1)).getTotalElements();
-        long inProgressCount = orderService.getSellerOrdersByStatus(
-                seller, Order.OrderStatus.IN_PROGRESS, PageRequest.of(0, 1)).getTotalElements();
-        long readyForDeliveryCount = orderService.getSellerOrdersByStatus(
-                seller, Order.OrderStatus.READY_FOR_DELIVERY, PageRequest.of(0, 1)).getTotalElements();
-
-        model.addAttribute("newOrdersCount", newOrdersCount);
-        model.addAttribute("inProgressCount", inProgressCount);
-        model.addAttribute("readyForDeliveryCount", readyForDeliveryCount);
+    public String dashboard(@CurrentUser User seller, Model model) {
+        // Статистика заказов (новые - свободные в общей очереди, остальные - только этого продавца)
+        modelLoader.into(model)
+                .add("newOrdersCount", orderService::countUnclaimedNewOrders)
+                .add("inProgressCount", () -> orderService.getSellerOrdersByStatus(
+                        seller, Order.OrderStatus.IN_PROGRESS, PageRequest.of(0, 1)).getTotalElements())
+                .add("readyForDeliveryCount", () -> orderService.getSellerOrdersByStatus(
+                        seller, Order.OrderStatus.READY_FOR_DELIVERY, PageRequest.of(0, 1)).getTotalElements())
+                .join();
 
         return "seller/dashboard";
     }
 
     /**
-     * Список новых заказов для обработки
+     * Поток событий для открытых страниц продавца: изменения его заказов и общая очередь новых заказов.
+     * Пользователь берётся из сессии без обращения к БД, поэтому открытое соединение не держит JDBC-соединение.
      */
-    @GetMapping("/orders/new")
-    public String newOrders(
-            @AuthenticationPrincipal UserDetails userDetails,
-            @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size,
-            Model model
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(
+            @AuthenticationPrincipal ShopUserPrincipal seller,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId
     ) {
-        User seller = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalStateException("Продавец не найден"));
-
-        Pageable pageable = PageRequest.of(page, size);
-        Page<Order> ordersPage = orderService.getNewOrdersForSeller(seller, pageable);
+        List<String> topics = List.of(OrderPushHub.userTopic(seller.getId()), OrderPushHub.roleTopic(User.Role.SELLER));
+        return orderPushHub.subscribe(seller.getId(), topics, lastEventId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+    }
 
-        model.addAttribute("orders", ordersPage.getContent());
-        model.addAttribute("currentPage", page);
-        model.addAttribute("totalPages", ordersPage.getTotalPages());
-        model.addAttribute("totalItems", ordersPage.getTotalElements());
+    /**
+     * Новые заказы, взятые продавцом в работу, и размер общей очереди
+     */
+    @GetMapping("/orders/new")
+    public String newOrders(@CurrentUser User seller, Model model) {
+        model.addAttribute("orders", orderService.getClaimedOrders(seller));
+        model.addAttribute("queueSize", orderService.countUnclaimedNewOrders());
+        model.addAttribute("claimBatch", claimBatch);
+        model.addAttribute("leaseMinutes", orderService.getClaimLease().toMinutes());
 
         return "seller/orders/new";
     }
 
+    /**
+     * Взять следующие свободные заказы из очереди
+     */
+    @PostMapping("/orders/claim")
+    public String claimOrders(
+            @CurrentUser User seller,
+            @RequestParam(required = false) Integer count,
+            RedirectAttributes redirectAttributes
+    ) {
+        int claimed = orderService.claimNewOrders(seller, count != null ? Math.max(count, 1) : claimBatch);
+        if (claimed > 0) {
+            redirectAttributes.addFlashAttribute("successMessage", "Взято заказов: " + claimed);
+        } else {
+            redirectAttributes.addFlashAttribute("errorMessage", "Свободных новых заказов нет или взято максимум");
+        }
+        return "redirect:/seller/orders/new";
+    }
+
+    /**
+     * Вернуть взятый заказ в очередь
+     */
+    @PostMapping("/orders/{id}/release")
+    public String releaseOrder(
+            @CurrentUser User seller,
+            @PathVariable Long id,
+            RedirectAttributes redirectAttributes
+    ) {
+        try {
+            orderService.releaseOrder(seller, id);
+            redirectAttributes.addFlashAttribute("successMessage", "Заказ #" + id + " возвращён в очередь");
+        } catch (IllegalStateException e) {
+            redirectAttributes.addFlashAttribute("errorMessage", e.getMessage());
+        }
+        return "redirect:/seller/orders/new";
+    }
+
     /**
      * Детали заказа для продавца
      */
@@ -114,12 +160,13 @@ public class SellerOrderController {
      */
     @PostMapping("/orders/{id}/confirm")
     public String confirmOrder(
+            @CurrentUser User seller,
             @PathVariable Long id,
             @RequestParam(required = false) String sellerComment,
             RedirectAttributes redirectAttributes
     ) {
         try {
-            orderService.confirmOrderBySeller(id, sellerComment);
+            orderService.confirmOrderBySeller(seller, id, sellerComment);
             redirectAttributes.addFlashAttribute("successMessage", "Заказ успешно подтверждён");
         } catch (IllegalArgumentException | IllegalStateException e) {
             log.error("Ошибка подтверждения заказа: {}", e.getMessage());
@@ -134,12 +181,13 @@ public class SellerOrderController {
      */
     @PostMapping("/orders/{id}/reject")
     public String rejectOrder(
+            @CurrentUser User seller,
             @PathVariable Long id,
             @RequestParam(required = false) String sellerComment,
             RedirectAttributes redirectAttributes
     ) {
         try {
-            orderService.rejectOrderBySeller(id, sellerComment);
+            orderService.rejectOrderBySeller(seller, id, sellerComment);
             redirectAttributes.addFlashAttribute("successMessage", "Заказ отклонён");
         } catch (IllegalArgumentException | IllegalStateException e) {
             log.error("Ошибка отклонения заказа: {}", e.getMessage());
@@ -180,17 +228,8 @@ public class SellerOrderController {
             RedirectAttributes redirectAttributes
     ) {
         try {
-            // Проверяем существование заказа
-            orderService.getOrderById(id)
-                    .orElseThrow(() -> new IllegalArgumentException("Заказ не найден"));
-
-            // Получаем курьера из списка всех курьеров
-            User courier = orderService.getAllCouriers().stream()
-                    .filter(c -> c.getId().equals(courierId))
-                    .findFirst()
-                    .orElseThrow(() -> new IllegalArgumentException("Курьер не найден"));
-
-            orderService.assignCourier(id, courier);
+            // Существование заказа проверяет assignCourier
+            orderService.assignCourier(id, orderService.getCourier(courierId));
             redirectAttributes.addFlashAttribute("successMessage", "Курьер успешно назначен");
         } catch (IllegalArgumentException | IllegalStateException e) {
             log.error("Ошибка назначения курьера: {}", e.getMessage());
@@ -205,14 +244,11 @@ public class SellerOrderController {
      */
     @GetMapping("/orders/in-progress")
     public String inProgressOrders(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @CurrentUser User seller,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             Model model
     ) {
-        User seller = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalStateException("Продавец не найден"));
-
         Pageable pageable = PageRequest.of(page, size);
         Page<Order> ordersPage = orderService.getSellerOrdersByStatus(
                 seller, Order.OrderStatus.IN_PROGRESS, pageable);
@@ -230,14 +266,11 @@ public class SellerOrderController {
      */
     @GetMapping("/orders/ready")
     public String readyOrders(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @CurrentUser User seller,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             Model model
     ) {
-        User seller = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalStateException("Продавец не найден"));
-
         Pageable pageable = PageRequest.of(page, size);
         Page<Order> ordersPage = orderService.getSellerOrdersByStatus(
                 seller, Order.OrderStatus.READY_FOR_DELIVERY, pageable);
@@ -256,15 +289,12 @@ public class SellerOrderController {
      */
     @GetMapping("/orders/history")
     public String orderHistory(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @CurrentUser User seller,
             @RequestParam(required = false) String status,
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "20") int size,
             Model model
     ) {
-        User seller = userService.findByUsername(userDetails.getUsername())
-                .orElseThrow(() -> new IllegalStateException("Продавец не найден"));
-
         Pageable pageable = PageRequest.of(page, size);
         Page<Order> ordersPage;
 
@@ -294,16 +324,13 @@ public class SellerOrderController {
      */
     @GetMapping("/sales")
     public String salesHistory(
-            @AuthenticationPrincipal UserDetails userDetails,
+            @CurrentUser User seller,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
             @RequestParam(required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
             @RequestParam(required = false) Integer days,
             Model model
     ) {
         try {
-            User seller = userService.findByUsername(userDetails.getUsername())
-                    .orElseThrow(() -> new IllegalStateException("Продавец не найден"));
-
             SalesReportDto salesReport;
 
             if (startDate != null && endDate != null) {
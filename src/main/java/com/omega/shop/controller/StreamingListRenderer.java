@@ -0,0 +1,112 @@
+package com.omega.shop.controller;
+
+import jakarta.persistence.EntityManager;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.ui.Model;
+import org.springframework.web.servlet.View;
+import org.springframework.web.servlet.support.RequestContextUtils;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+/**
+ * Вывод больших списков без сборки {@code List} в памяти.
+ * <p>
+ * Шаблон рендерится внутри read-only транзакции, а в модель вместо списка кладётся итератор
+ * поверх {@code Stream} репозитория: {@code th:each} берёт следующую строку из курсора только после
+ * того, как предыдущая записана в ответ (Thymeleaf пишет в ответ по мере обработки,
+ * {@code spring.thymeleaf.servlet.produce-partial-output-while-processing}). Каждые {@code chunk-size} строк
+ * ответ сбрасывается клиенту, а контекст персистентности очищается - в куче остаётся не больше одной порции.
+ * <p>
+ * Соединение с БД занято до конца вывода, поэтому режим предназначен для страниц администратора.
+ * В шаблоне по итератору можно пройти только один раз, пустоту списка проверяют по {@code totalItems}.
+ */
+@Component
+@Slf4j
+public class StreamingListRenderer {
+
+    private final ThymeleafViewResolver viewResolver;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
+
+    @Value("${omega.web.streaming.chunk-size:200}")
+    private int chunkSize;
+
+    public StreamingListRenderer(ThymeleafViewResolver viewResolver, PlatformTransactionManager transactionManager,
+                                 EntityManager entityManager) {
+        this.viewResolver = viewResolver;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.entityManager = entityManager;
+    }
+
+    /**
+     * Отрендерить {@code viewName}, передав строки из {@code rows} атрибутом {@code attribute}
+     */
+    public void render(String viewName, Model model, String attribute, Supplier<? extends Stream<?>> rows,
+                       HttpServletRequest request, HttpServletResponse response) throws Exception {
+        View view = viewResolver.resolveViewName(viewName, RequestContextUtils.getLocale(request));
+        if (view == null) {
+            throw new IllegalStateException("Шаблон не найден: " + viewName);
+        }
+        long started = System.nanoTime();
+        ChunkedIterator iterator = transactionTemplate.execute(status -> {
+            try (Stream<?> stream = rows.get()) {
+                ChunkedIterator chunked = new ChunkedIterator(stream.iterator(), response);
+                model.addAttribute(attribute, chunked);
+                view.render(model.asMap(), request, response);
+                return chunked;
+            } catch (Exception e) {
+                throw e instanceof RuntimeException runtime ? runtime : new IllegalStateException(e);
+            }
+        });
+        log.debug("Список {} выведен потоком: {} строк за {} мс", viewName, iterator.count,
+                (System.nanoTime() - started) / 1_000_000);
+    }
+
+    /**
+     * Итератор, который каждые {@code chunkSize} строк отдаёт клиенту накопленный вывод и отпускает
+     * уже выведенные сущности
+     */
+    private final class ChunkedIterator implements Iterator<Object> {
+
+        private final Iterator<?> delegate;
+        private final HttpServletResponse response;
+        private int count;
+
+        private ChunkedIterator(Iterator<?> delegate, HttpServletResponse response) {
+            this.delegate = delegate;
+            this.response = response;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return delegate.hasNext();
+        }
+
+        @Override
+        public Object next() {
+            if (count > 0 && count % chunkSize == 0) {
+                // Предыдущие строки уже записаны: их сущности больше не нужны
+                entityManager.clear();
+                try {
+                    response.flushBuffer();
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Клиент закрыл соединение", e);
+                }
+            }
+            count++;
+            return delegate.next();
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.omega.shop.controller.api;
+
+import com.omega.shop.dto.RefreshTokenRequest;
+import com.omega.shop.dto.TokenRequest;
+import com.omega.shop.dto.TokenResponse;
+import com.omega.shop.entity.User;
+import com.omega.shop.security.CurrentUser;
+import com.omega.shop.security.CurrentUserCache;
+import com.omega.shop.security.ShopUserPrincipal;
+import com.omega.shop.security.jwt.JwtProperties;
+import com.omega.shop.security.jwt.JwtTokenService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Выдача JWT для {@code /api/**}: вход по логину и паролю, обновление пары токенов
+ */
+@RestController
+@RequestMapping("/api/auth")
+@RequiredArgsConstructor
+@Slf4j
+public class ApiAuthController {
+
+    private final AuthenticationManager authenticationManager;
+    private final JwtTokenService tokenService;
+    private final JwtProperties jwtProperties;
+    private final CurrentUserCache currentUserCache;
+
+    /**
+     * Вход: пара access- и refresh-токенов
+     */
+    @PostMapping("/token")
+    public TokenResponse token(@Valid @RequestBody TokenRequest request) {
+        Authentication authentication = authenticationManager.authenticate(
+                UsernamePasswordAuthenticationToken.unauthenticated(request.getUsername(), request.getPassword()));
+        ShopUserPrincipal principal = (ShopUserPrincipal) authentication.getPrincipal();
+        User user = currentUserCache.get(principal.getId())
+                .orElseThrow(() -> new BadCredentialsException("Пользователь не найден"));
+        log.info("Выданы токены API пользователю {}", user.getUsername());
+        return issue(user);
+    }
+
+    /**
+     * Новая пара токенов по refresh-токену. Пользователь перечитывается,
+     * поэтому заблокированный пользователь токенов не получит, а новая роль попадёт в токен.
+     */
+    @PostMapping("/refresh")
+    public TokenResponse refresh(@Valid @RequestBody RefreshTokenRequest request) {
+        User user = currentUserCache.get(tokenService.parseRefreshToken(request.getRefreshToken()))
+                .filter(User::isActive)
+                .orElseThrow(() -> new BadCredentialsException("Пользователь не найден или заблокирован"));
+        return issue(user);
+    }
+
+    /**
+     * Текущий пользователь по access-токену
+     */
+    @GetMapping("/me")
+    public Map<String, Object> me(@CurrentUser User user) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", user.getId());
+        result.put("username", user.getUsername());
+        result.put("role", user.getRole());
+        return result;
+    }
+
+    private TokenResponse issue(User user) {
+        return new TokenResponse(
+                tokenService.createAccessToken(user),
+                tokenService.createRefreshToken(user),
+                "Bearer",
+                jwtProperties.getAccessTokenTtl().toSeconds());
+    }
+}
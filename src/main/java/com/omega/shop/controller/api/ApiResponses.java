@@ -0,0 +1,29 @@
+package com.omega.shop.controller.api;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.DigestUtils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Ответы API с валидаторами для опроса клиентами
+ */
+final class ApiResponses {
+
+    private ApiResponses() {
+    }
+
+    /**
+     * 200 со слабым ETag по {@code content}. Если ETag совпал с {@code If-None-Match}, Spring MVC
+     * отвечает 304 и тело не сериализуется. Одно тело отдаётся в JSON и CBOR, поэтому ответ зависит от Accept.
+     */
+    static <T> ResponseEntity<T> withEtag(T body, String content) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT)
+                .eTag("W/\"" + DigestUtils.md5DigestAsHex(content.getBytes(StandardCharsets.UTF_8)) + "\"")
+                .body(body);
+    }
+}
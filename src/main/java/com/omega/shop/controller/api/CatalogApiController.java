@@ -0,0 +1,174 @@
+package com.omega.shop.controller.api;
+
+import com.omega.shop.dto.CategoryView;
+import com.omega.shop.dto.ProductBatch;
+import com.omega.shop.dto.ProductPage;
+import com.omega.shop.dto.ProductView;
+import com.omega.shop.service.CategoryService;
+import com.omega.shop.service.ProductService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.json.MappingJacksonValue;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Каталог для мобильного приложения и партнёров: товары и категории в JSON или CBOR.
+ * <p>
+ * Данные читаются проекциями ({@link ProductView}, {@link CategoryView}) без загрузки сущностей.
+ * Ответы несут слабый ETag по содержимому: на повторный запрос с {@code If-None-Match}
+ * приходит 304 без тела.
+ */
+@RestController
+@RequestMapping("/api/v1")
+@RequiredArgsConstructor
+@Tag(name = "Каталог", description = "Товары и категории, доступны без токена")
+public class CatalogApiController {
+
+    private final ProductService productService;
+    private final CategoryService categoryService;
+
+    @Value("${omega.api.catalog.default-limit:50}")
+    private int defaultLimit;
+
+    @Value("${omega.api.catalog.max-limit:200}")
+    private int maxLimit;
+
+    @Value("${omega.api.catalog.max-batch:100}")
+    private int maxBatch;
+
+    /**
+     * Страница товаров с keyset-пагинацией по ID
+     */
+    @GetMapping("/products")
+    @Operation(summary = "Список товаров",
+            description = "Курсорная пагинация: nextCursor из ответа передаётся в параметр cursor")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = ProductPage.class)))
+    public ResponseEntity<MappingJacksonValue> products(
+            @Parameter(description = "Поля товара через запятую, например id,name,price")
+            @RequestParam(required = false) String fields,
+            @Parameter(description = "Только товары категории")
+            @RequestParam(required = false) Long categoryId,
+            @Parameter(description = "Курсор из nextCursor предыдущей страницы")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы")
+            @RequestParam(required = false) Integer limit
+    ) {
+        SparseFields selected = SparseFields.parse(fields, ProductView.FIELDS);
+        int pageSize = Math.min(Math.max(limit != null ? limit : defaultLimit, 1), maxLimit);
+
+        // Строка сверх страницы показывает, есть ли следующая
+        List<ProductView> rows = productService.getProductViews(decodeCursor(cursor), categoryId,
+                selected.includes("description"), pageSize + 1);
+        List<ProductView> items = rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+        String nextCursor = rows.size() > pageSize ? encodeCursor(items.get(items.size() - 1).id()) : null;
+
+        return ApiResponses.withEtag(selected.apply(new ProductPage(items, nextCursor), ProductView.FILTER),
+                selected + "|" + items + "|" + nextCursor);
+    }
+
+    /**
+     * Один товар
+     */
+    @GetMapping("/products/{id}")
+    @Operation(summary = "Товар по ID")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = ProductView.class)))
+    public ResponseEntity<MappingJacksonValue> product(
+            @PathVariable Long id,
+            @Parameter(description = "Поля товара через запятую")
+            @RequestParam(required = false) String fields
+    ) {
+        SparseFields selected = SparseFields.parse(fields, ProductView.FIELDS);
+        ProductView product = productService.getProductViews(List.of(id), selected.includes("description")).stream()
+                .findFirst()
+                .orElseThrow(() -> new NoSuchElementException("Товар не найден: " + id));
+
+        return ApiResponses.withEtag(selected.apply(product, ProductView.FILTER), selected + "|" + product);
+    }
+
+    /**
+     * Несколько товаров одним запросом
+     */
+    @GetMapping("/products/batch")
+    @Operation(summary = "Товары по списку ID", description = "Результат в порядке ids, ненайденные ID - в missing")
+    @ApiResponse(responseCode = "200", content = @Content(schema = @Schema(implementation = ProductBatch.class)))
+    public ResponseEntity<MappingJacksonValue> batch(
+            @Parameter(description = "ID товаров через запятую")
+            @RequestParam List<Long> ids,
+            @Parameter(description = "Поля товара через запятую")
+            @RequestParam(required = false) String fields
+    ) {
+        Set<Long> requested = new LinkedHashSet<>(ids);
+        if (requested.size() > maxBatch) {
+            throw new IllegalArgumentException("Не больше " + maxBatch + " ID в запросе");
+        }
+        SparseFields selected = SparseFields.parse(fields, ProductView.FIELDS);
+        Map<Long, ProductView> found = productService.getProductViews(requested, selected.includes("description"))
+                .stream()
+                .collect(Collectors.toMap(ProductView::id, Function.identity()));
+
+        List<ProductView> items = new ArrayList<>(found.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            ProductView product = found.get(id);
+            if (product != null) {
+                items.add(product);
+            } else {
+                missing.add(id);
+            }
+        }
+
+        return ApiResponses.withEtag(selected.apply(new ProductBatch(items, missing), ProductView.FILTER),
+                selected + "|" + items + "|" + missing);
+    }
+
+    /**
+     * Все категории плоским списком
+     */
+    @GetMapping("/categories")
+    @Operation(summary = "Категории", description = "Дерево строится по parentId")
+    @ApiResponse(responseCode = "200",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = CategoryView.class))))
+    public ResponseEntity<List<CategoryView>> categories() {
+        List<CategoryView> categories = categoryService.getCategoryViews();
+        return ApiResponses.withEtag(categories, categories.toString());
+    }
+
+    static String encodeCursor(long lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(Long.toString(lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    static long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0;
+        }
+        try {
+            return Long.parseLong(new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Некорректный курсор");
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.omega.shop.controller.api;
+
+import com.omega.shop.dto.DeliveryView;
+import com.omega.shop.dto.OrderChanges;
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.User;
+import com.omega.shop.security.CurrentUser;
+import com.omega.shop.service.OrderFeedService;
+import com.omega.shop.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Доставки для приложения курьера. Формат выбирается по {@code Accept}:
+ * {@code application/json} или компактный {@code application/cbor} для мобильной сети.
+ */
+@RestController
+@RequestMapping(value = "/api/v1/courier", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+@PreAuthorize("hasRole('COURIER')")
+@RequiredArgsConstructor
+@Tag(name = "Курьер", description = "Назначенные доставки")
+public class CourierApiController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+    private static final int MAX_CHANGES = 500;
+
+    private final OrderService orderService;
+    private final OrderFeedService orderFeedService;
+
+    /**
+     * Назначенные доставки, новые сверху
+     */
+    @GetMapping("/deliveries")
+    @Operation(summary = "Список доставок")
+    public ResponseEntity<List<DeliveryView>> deliveries(
+            @CurrentUser User courier,
+            @Parameter(description = "Статус доставки, например ASSIGNED или IN_TRANSIT")
+            @RequestParam(required = false) Order.DeliveryStatus status,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        List<DeliveryView> deliveries = orderService.getCourierDeliveryViews(courier, status,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+        return ApiResponses.withEtag(deliveries, deliveries.toString());
+    }
+
+    /**
+     * Изменения доставок после курсора. Без курсора ({@code reset = true}) клиент загружает
+     * {@code /deliveries} целиком и дальше запрашивает изменения с полученного {@code nextCursor}.
+     */
+    @GetMapping("/changes")
+    @Operation(summary = "Изменения доставок", description = "Дельта-синхронизация: UPSERT и TOMBSTONE после курсора")
+    public OrderChanges<DeliveryView> changes(
+            @CurrentUser User courier,
+            @Parameter(description = "nextCursor предыдущего ответа")
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return orderFeedService.getCourierChanges(courier, cursor, Math.min(Math.max(limit, 1), MAX_CHANGES));
+    }
+
+    /**
+     * Одна доставка
+     */
+    @GetMapping("/deliveries/{id}")
+    @Operation(summary = "Доставка по ID")
+    public ResponseEntity<DeliveryView> delivery(@CurrentUser User courier, @PathVariable Long id) {
+        DeliveryView delivery = orderService.getCourierDeliveryView(courier, id)
+                .orElseThrow(() -> new NoSuchElementException("Заказ не назначен вам: " + id));
+        return ApiResponses.withEtag(delivery, delivery.toString());
+    }
+}
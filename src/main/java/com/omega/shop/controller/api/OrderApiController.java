@@ -0,0 +1,54 @@
+package com.omega.shop.controller.api;
+
+import com.omega.shop.dto.OrderView;
+import com.omega.shop.entity.User;
+import com.omega.shop.security.CurrentUser;
+import com.omega.shop.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Заказы текущего пользователя для мобильного приложения, в JSON или CBOR по {@code Accept}
+ */
+@RestController
+@RequestMapping(value = "/api/v1/orders", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+@RequiredArgsConstructor
+@Tag(name = "Заказы", description = "Заказы покупателя")
+public class OrderApiController {
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderService orderService;
+
+    @GetMapping
+    @Operation(summary = "Мои заказы", description = "Новые сверху")
+    public ResponseEntity<List<OrderView>> orders(
+            @CurrentUser User user,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        List<OrderView> orders = orderService.getUserOrderViews(user,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+        return ApiResponses.withEtag(orders, orders.toString());
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Заказ по ID")
+    public ResponseEntity<OrderView> order(@CurrentUser User user, @PathVariable Long id) {
+        OrderView order = orderService.getUserOrderView(user, id)
+                .orElseThrow(() -> new NoSuchElementException("Заказ не найден: " + id));
+        return ApiResponses.withEtag(order, order.toString());
+    }
+}
@@ -0,0 +1,70 @@
+package com.omega.shop.controller.api;
+
+import com.omega.shop.dto.OrderChanges;
+import com.omega.shop.dto.OrderView;
+import com.omega.shop.entity.User;
+import com.omega.shop.security.CurrentUser;
+import com.omega.shop.service.OrderFeedService;
+import com.omega.shop.service.OrderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Синхронизация заказов с товарами продавца для его приложения
+ */
+@RestController
+@RequestMapping(value = "/api/v1/seller", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE})
+@PreAuthorize("hasRole('SELLER')")
+@RequiredArgsConstructor
+@Tag(name = "Продавец", description = "Заказы с товарами продавца")
+public class SellerApiController {
+
+    private static final int MAX_CHANGES = 500;
+
+    private static final int MAX_PAGE_SIZE = 100;
+
+    private final OrderService orderService;
+    private final OrderFeedService orderFeedService;
+
+    /**
+     * Заказы с товарами продавца, новые сверху
+     */
+    @GetMapping("/orders")
+    @Operation(summary = "Заказы продавца")
+    public ResponseEntity<List<OrderView>> orders(
+            @CurrentUser User seller,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size
+    ) {
+        List<OrderView> orders = orderService.getSellerOrderViews(seller,
+                PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE)));
+        return ApiResponses.withEtag(orders, orders.toString());
+    }
+
+    /**
+     * Изменения заказов после курсора; первый запрос без курсора возвращает {@code reset = true}
+     * и курсор, с которого продолжать после полной загрузки
+     */
+    @GetMapping("/changes")
+    @Operation(summary = "Изменения заказов", description = "Дельта-синхронизация: UPSERT и TOMBSTONE после курсора")
+    public OrderChanges<OrderView> changes(
+            @CurrentUser User seller,
+            @Parameter(description = "nextCursor предыдущего ответа")
+            @RequestParam(required = false) Long cursor,
+            @RequestParam(defaultValue = "100") int limit
+    ) {
+        return orderFeedService.getSellerChanges(seller, cursor, Math.min(Math.max(limit, 1), MAX_CHANGES));
+    }
+}
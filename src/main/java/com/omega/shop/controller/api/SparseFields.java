@@ -0,0 +1,64 @@
+package com.omega.shop.controller.api;
+
+import com.fasterxml.jackson.databind.ser.impl.SimpleBeanPropertyFilter;
+import com.fasterxml.jackson.databind.ser.impl.SimpleFilterProvider;
+import org.springframework.http.converter.json.MappingJacksonValue;
+
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Разреженный набор полей ({@code ?fields=id,name,price}) для классов с {@code @JsonFilter}.
+ * Jackson пишет отобранные поля сразу в поток ответа, промежуточных Map не строится.
+ */
+final class SparseFields {
+
+    private final Set<String> fields;
+
+    private SparseFields(Set<String> fields) {
+        this.fields = fields;
+    }
+
+    /**
+     * Разобрать параметр {@code fields}; пустой параметр - все поля. {@code id} выводится всегда.
+     */
+    static SparseFields parse(String fields, Set<String> allowed) {
+        if (fields == null || fields.isBlank()) {
+            return new SparseFields(allowed);
+        }
+        Set<String> selected = new LinkedHashSet<>();
+        selected.add("id");
+        Arrays.stream(fields.split(","))
+                .map(String::trim)
+                .filter(field -> !field.isEmpty())
+                .forEach(field -> {
+                    if (!allowed.contains(field)) {
+                        throw new IllegalArgumentException("Неизвестное поле: " + field);
+                    }
+                    selected.add(field);
+                });
+        return new SparseFields(selected);
+    }
+
+    boolean includes(String field) {
+        return fields.contains(field);
+    }
+
+    /**
+     * Ответ, в котором у классов с фильтром {@code filterId} сериализуются только выбранные поля
+     */
+    MappingJacksonValue apply(Object body, String filterId) {
+        MappingJacksonValue value = new MappingJacksonValue(body);
+        value.setFilters(new SimpleFilterProvider().addFilter(filterId, SimpleBeanPropertyFilter.filterOutAllExcept(fields)));
+        return value;
+    }
+
+    /**
+     * Часть ETag: ответы с разным набором полей различаются
+     */
+    @Override
+    public String toString() {
+        return String.join(",", fields.stream().sorted().toList());
+    }
+}
@@ -0,0 +1,132 @@
+package com.omega.shop.datasource;
+
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Ограничивает число одновременно используемых соединений семафором.
+ * <p>
+ * С виртуальными потоками число параллельных запросов почти не ограничено, и тысячи потоков
+ * выстраиваются в очередь пула соединений, каждый до истечения {@code connection-timeout}.
+ * Семафор с честной очередью и коротким таймаутом даёт предсказуемое обратное давление:
+ * лишние запросы быстро получают ошибку, а не висят в пуле.
+ * <p>
+ * Разрешение берёт поток, а не соединение: вложенная транзакция потока, уже держащего разрешение
+ * (например, {@code REQUIRES_NEW} ретранслятора outbox), получает соединение без второго разрешения.
+ * Поэтому разрешений должно быть меньше, чем соединений в пуле, - разница остаётся вложенным транзакциям.
+ */
+public class ConcurrencyLimitingDataSource extends DelegatingDataSource {
+
+    private final Semaphore permits;
+    private final long acquireTimeoutMillis;
+    // Число открытых соединений потока; разрешение берётся только для первого
+    private final ThreadLocal<int[]> openConnections = ThreadLocal.withInitial(() -> new int[1]);
+
+    public ConcurrencyLimitingDataSource(DataSource targetDataSource, int maxConcurrency, Duration acquireTimeout) {
+        super(targetDataSource);
+        this.permits = new Semaphore(maxConcurrency, true);
+        this.acquireTimeoutMillis = acquireTimeout.toMillis();
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        int[] open = openConnections.get();
+        boolean permitted = acquire(open);
+        try {
+            return releasing(super.getConnection(), open, permitted);
+        } catch (SQLException | RuntimeException e) {
+            release(open, permitted);
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        int[] open = openConnections.get();
+        boolean permitted = acquire(open);
+        try {
+            return releasing(super.getConnection(username, password), open, permitted);
+        } catch (SQLException | RuntimeException e) {
+            release(open, permitted);
+            throw e;
+        }
+    }
+
+    /**
+     * Число свободных разрешений (для метрик)
+     */
+    public int availablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Число потоков, ожидающих разрешения (для метрик)
+     */
+    public int queueLength() {
+        return permits.getQueueLength();
+    }
+
+    /**
+     * Взять разрешение, если у потока ещё нет открытых соединений. Возвращает, взято ли оно.
+     */
+    private boolean acquire(int[] open) {
+        if (open[0] > 0) {
+            open[0]++;
+            return false;
+        }
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new CannotGetJdbcConnectionException(
+                        "Превышен лимит одновременных обращений к БД, ожидание " + acquireTimeoutMillis + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CannotGetJdbcConnectionException("Ожидание соединения прервано");
+        }
+        open[0]++;
+        return true;
+    }
+
+    private void release(int[] open, boolean permitted) {
+        open[0]--;
+        if (permitted) {
+            permits.release();
+        }
+    }
+
+    /**
+     * Обернуть соединение так, чтобы close() вернул разрешение ровно один раз
+     */
+    private Connection releasing(Connection target, int[] open, boolean permitted) {
+        AtomicBoolean released = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(
+                Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && released.compareAndSet(false, true)) {
+                        try {
+                            return method.invoke(target, args);
+                        } catch (InvocationTargetException e) {
+                            throw e.getTargetException();
+                        } finally {
+                            release(open, permitted);
+                        }
+                    }
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
@@ -0,0 +1,63 @@
+package com.omega.shop.datasource;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Состояние read-your-writes одного HTTP-запроса.
+ * <p>
+ * Запрос "липкий", если клиент недавно зафиксировал запись (об этом говорит cookie, см.
+ * {@link ReadYourWritesFilter}) или записал что-то в этом же запросе: тогда его read-only транзакции
+ * идут на primary. Привязывается к потоку через {@link #bind(ReadYourWrites)}; один экземпляр можно
+ * привязать к нескольким потокам, например к задачам {@code ConcurrentModelLoader}.
+ */
+public class ReadYourWrites {
+
+    private static final ThreadLocal<ReadYourWrites> CURRENT = new ThreadLocal<>();
+
+    private final Runnable onFirstWrite;
+    private final AtomicBoolean written = new AtomicBoolean();
+    private volatile boolean sticky;
+
+    /**
+     * @param sticky       клиент писал недавно, до этого запроса
+     * @param onFirstWrite вызывается после первой зафиксированной записи запроса (запомнить её у клиента)
+     */
+    public ReadYourWrites(boolean sticky, Runnable onFirstWrite) {
+        this.sticky = sticky;
+        this.onFirstWrite = onFirstWrite;
+    }
+
+    /**
+     * Состояние, привязанное к текущему потоку, или null
+     */
+    public static ReadYourWrites current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Привязать состояние к текущему потоку. Возвращает предыдущую привязку для восстановления.
+     */
+    public static ReadYourWrites bind(ReadYourWrites readYourWrites) {
+        ReadYourWrites previous = CURRENT.get();
+        if (readYourWrites != null) {
+            CURRENT.set(readYourWrites);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    public boolean isSticky() {
+        return sticky;
+    }
+
+    /**
+     * Транзакция с изменениями зафиксирована: дальнейшие чтения запроса и клиента идут на primary
+     */
+    public void markWrite() {
+        sticky = true;
+        if (written.compareAndSet(false, true)) {
+            onFirstWrite.run();
+        }
+    }
+}
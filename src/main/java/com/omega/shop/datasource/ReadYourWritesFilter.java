@@ -0,0 +1,76 @@
+package com.omega.shop.datasource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+
+/**
+ * Хранит время последней записи у клиента, в cookie {@value #COOKIE_NAME}.
+ * <p>
+ * Состояние не зависит от узла: следующий запрос клиента может попасть на любой экземпляр приложения
+ * и всё равно прочитает свои изменения с primary. Cookie живёт {@code stickiness}, а его значение
+ * (миллисекунды эпохи) дополнительно проверяется на сервере.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ReadYourWritesFilter extends OncePerRequestFilter {
+
+    static final String COOKIE_NAME = "omega_rw";
+
+    private final Duration stickiness;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ReadYourWrites readYourWrites = new ReadYourWrites(wroteRecently(request), () -> rememberWrite(response));
+        ReadYourWrites previous = ReadYourWrites.bind(readYourWrites);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            ReadYourWrites.bind(previous);
+        }
+    }
+
+    private boolean wroteRecently(HttpServletRequest request) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies == null) {
+            return false;
+        }
+        for (Cookie cookie : cookies) {
+            if (COOKIE_NAME.equals(cookie.getName())) {
+                try {
+                    long writtenAt = Long.parseLong(cookie.getValue());
+                    // Модуль разницы: значение из будущего тоже не должно продлевать окно
+                    return Math.abs(System.currentTimeMillis() - writtenAt) <= stickiness.toMillis();
+                } catch (NumberFormatException e) {
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    private void rememberWrite(HttpServletResponse response) {
+        if (response.isCommitted()) {
+            log.debug("Ответ уже отправлен, время записи не сохранено у клиента");
+            return;
+        }
+        ResponseCookie cookie = ResponseCookie.from(COOKIE_NAME, String.valueOf(System.currentTimeMillis()))
+                .path("/")
+                .maxAge(Duration.ofSeconds(Math.max(1, (stickiness.toMillis() + 999) / 1000)))
+                .httpOnly(true)
+                .sameSite("Lax")
+                .build();
+        response.addHeader(HttpHeaders.SET_COOKIE, cookie.toString());
+    }
+}
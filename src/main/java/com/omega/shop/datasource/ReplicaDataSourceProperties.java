@@ -0,0 +1,55 @@
+package com.omega.shop.datasource;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки реплик для чтения (omega.datasource.replica.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "omega.datasource.replica")
+public class ReplicaDataSourceProperties {
+
+    /**
+     * Включить маршрутизацию read-only транзакций на реплики
+     */
+    private boolean enabled = false;
+
+    /**
+     * Реплики для чтения
+     */
+    private List<Instance> instances = new ArrayList<>();
+
+    /**
+     * Максимально допустимое отставание реплики, при превышении чтение уходит на primary
+     */
+    private Duration maxLag = Duration.ofSeconds(5);
+
+    /**
+     * Сколько времени после зафиксированной записи клиент читает только с primary (read-your-writes)
+     */
+    private Duration stickiness = Duration.ofSeconds(5);
+
+    /**
+     * Запрос, возвращающий отставание реплики в секундах.
+     * Для H2 и других баз без репликации можно указать {@code SELECT 0}.
+     */
+    private String lagQuery = "SELECT CASE WHEN pg_last_wal_receive_lsn() = pg_last_wal_replay_lsn() THEN 0 "
+            + "ELSE COALESCE(EXTRACT(EPOCH FROM (now() - pg_last_xact_replay_timestamp())), 0) END";
+
+    /**
+     * Размер пула соединений каждой реплики
+     */
+    private int maximumPoolSize = 10;
+
+    @Data
+    public static class Instance {
+        private String url;
+        private String username;
+        private String password;
+    }
+}
@@ -0,0 +1,38 @@
+package com.omega.shop.datasource;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.util.List;
+
+/**
+ * Периодически проверяет доступность и отставание реплик
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private final List<ReplicaNode> replicas;
+    private final String lagQuery;
+
+    @Scheduled(fixedDelayString = "${omega.datasource.replica.check-interval:2000}")
+    public void check() {
+        for (ReplicaNode replica : replicas) {
+            try {
+                Number lagSeconds = new JdbcTemplate(replica.getDataSource()).queryForObject(lagQuery, Number.class);
+                long lagMillis = lagSeconds != null ? Math.round(lagSeconds.doubleValue() * 1000) : 0;
+                if (!replica.isAvailable()) {
+                    log.info("Реплика {} доступна, отставание {} мс", replica.getName(), lagMillis);
+                }
+                replica.update(true, lagMillis);
+            } catch (Exception e) {
+                if (replica.isAvailable()) {
+                    log.warn("Реплика {} недоступна: {}", replica.getName(), e.getMessage());
+                }
+                replica.update(false, Long.MAX_VALUE);
+            }
+        }
+    }
+}
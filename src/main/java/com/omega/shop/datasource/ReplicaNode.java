@@ -0,0 +1,34 @@
+package com.omega.shop.datasource;
+
+import lombok.Getter;
+
+import javax.sql.DataSource;
+
+/**
+ * Реплика для чтения с текущим состоянием (доступность и отставание)
+ */
+@Getter
+public class ReplicaNode {
+
+    private final String name;
+    private final DataSource dataSource;
+    private volatile boolean available = false;
+    private volatile long lagMillis = Long.MAX_VALUE;
+
+    public ReplicaNode(String name, DataSource dataSource) {
+        this.name = name;
+        this.dataSource = dataSource;
+    }
+
+    void update(boolean available, long lagMillis) {
+        this.available = available;
+        this.lagMillis = lagMillis;
+    }
+
+    /**
+     * Можно ли читать с реплики при заданном допустимом отставании
+     */
+    public boolean isUsable(long maxLagMillis) {
+        return available && lagMillis <= maxLagMillis;
+    }
+}
@@ -0,0 +1,81 @@
+package com.omega.shop.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * DataSource, направляющий read-only транзакции на реплики, а всё остальное - на primary.
+ * <p>
+ * Решение принимается в момент получения соединения, поэтому DataSource должен быть обёрнут
+ * в {@code LazyConnectionDataSourceProxy}: к этому моменту флаг readOnly транзакции уже выставлен.
+ * Реплика выбирается по кругу среди доступных и не отстающих больше {@code maxLag};
+ * если таких нет или клиент недавно что-то записал ({@link ReadYourWrites}), чтение идёт на primary.
+ */
+@Slf4j
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource implements DisposableBean {
+
+    static final String PRIMARY = "primary";
+
+    private final List<ReplicaNode> replicas;
+    private final long maxLagMillis;
+    private final AtomicInteger counter = new AtomicInteger();
+
+    public ReplicaRoutingDataSource(DataSource primary,
+                                    List<ReplicaNode> replicas,
+                                    long maxLagMillis) {
+        this.replicas = replicas;
+        this.maxLagMillis = maxLagMillis;
+
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put(PRIMARY, primary);
+        replicas.forEach(replica -> targets.put(replica.getName(), replica.getDataSource()));
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return PRIMARY;
+        }
+
+        ReadYourWrites readYourWrites = ReadYourWrites.current();
+        if (readYourWrites != null && readYourWrites.isSticky()) {
+            return PRIMARY;
+        }
+
+        int size = replicas.size();
+        int start = Math.floorMod(counter.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            ReplicaNode replica = replicas.get((start + i) % size);
+            if (replica.isUsable(maxLagMillis)) {
+                return replica.getName();
+            }
+        }
+
+        log.debug("Нет доступных реплик, чтение идёт на primary");
+        return PRIMARY;
+    }
+
+    public List<ReplicaNode> getReplicas() {
+        return replicas;
+    }
+
+    @Override
+    public void destroy() {
+        replicas.forEach(replica -> {
+            if (replica.getDataSource() instanceof HikariDataSource hikari) {
+                hikari.close();
+            }
+        });
+    }
+}
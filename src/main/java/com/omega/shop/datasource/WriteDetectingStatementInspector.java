@@ -0,0 +1,75 @@
+package com.omega.shop.datasource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Locale;
+
+/**
+ * Замечает изменяющие SQL-запросы Hibernate (INSERT, UPDATE, DELETE, MERGE - и при flush сущностей,
+ * и в {@code @Modifying}-запросах) и после фиксации транзакции отмечает запись в {@link ReadYourWrites}.
+ * Транзакция без изменений клиента "липким" не делает. Текст запроса передаётся следующему
+ * инспектору без изменений.
+ */
+public class WriteDetectingStatementInspector implements StatementInspector {
+
+    private final StatementInspector delegate;
+
+    /**
+     * @param delegate инспектор, настроенный до этого (например, учёт запросов), или null
+     */
+    public WriteDetectingStatementInspector(StatementInspector delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String inspect(String sql) {
+        ReadYourWrites readYourWrites = ReadYourWrites.current();
+        if (readYourWrites != null && isWrite(sql)) {
+            onWrite(readYourWrites);
+        }
+        return delegate != null ? delegate.inspect(sql) : sql;
+    }
+
+    private static void onWrite(ReadYourWrites readYourWrites) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            readYourWrites.markWrite();
+            return;
+        }
+        // Одна синхронизация на транзакцию; у приостановленной внешней транзакции - своя
+        boolean registered = TransactionSynchronizationManager.getSynchronizations().stream()
+                .anyMatch(MarkWriteOnCommit.class::isInstance);
+        if (!registered) {
+            TransactionSynchronizationManager.registerSynchronization(new MarkWriteOnCommit(readYourWrites));
+        }
+    }
+
+    static boolean isWrite(String sql) {
+        String statement = sql.stripLeading();
+        // Комментарий Hibernate (hibernate.use_sql_comments) перед запросом
+        while (statement.startsWith("/*")) {
+            int end = statement.indexOf("*/");
+            if (end < 0) {
+                return false;
+            }
+            statement = statement.substring(end + 2).stripLeading();
+        }
+        int keywordEnd = 0;
+        while (keywordEnd < statement.length() && Character.isLetter(statement.charAt(keywordEnd))) {
+            keywordEnd++;
+        }
+        return switch (statement.substring(0, keywordEnd).toLowerCase(Locale.ROOT)) {
+            case "insert", "update", "delete", "merge" -> true;
+            default -> false;
+        };
+    }
+
+    private record MarkWriteOnCommit(ReadYourWrites readYourWrites) implements TransactionSynchronization {
+
+        @Override
+        public void afterCommit() {
+            readYourWrites.markWrite();
+        }
+    }
+}
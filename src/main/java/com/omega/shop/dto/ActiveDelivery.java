@@ -0,0 +1,7 @@
+package com.omega.shop.dto;
+
+/**
+ * Активная доставка курьера (назначена или в пути) для расчёта его загрузки и района
+ */
+public record ActiveDelivery(Long courierId, String deliveryAddress) {
+}
@@ -3,10 +3,13 @@ package com.omega.shop.dto;
 import com.omega.shop.entity.Product;
 import lombok.Data;
 
+import java.io.Serializable;
 import java.math.BigDecimal;
 
 @Data
-public class CartItem {
+public class CartItem implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private Long productId;
     private String productName;
@@ -0,0 +1,7 @@
+package com.omega.shop.dto;
+
+/**
+ * Категория для JSON API: плоский список, дерево строится по {@code parentId}
+ */
+public record CategoryView(Long id, String name, Long parentId) {
+}
@@ -0,0 +1,43 @@
+package com.omega.shop.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.omega.shop.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Доставка для приложения курьера: только то, что нужно в пути - адрес, телефон, статус, состав и время
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record DeliveryView(
+        Long id,
+        Order.DeliveryStatus status,
+        String customer,
+        String phone,
+        String deliveryAddress,
+        String comment,
+        BigDecimal totalAmount,
+        List<OrderItemView> items,
+        LocalDateTime assignedAt,
+        LocalDateTime startedAt,
+        LocalDateTime deliveredAt,
+        LocalDateTime updatedAt
+) {
+
+    /**
+     * Конструктор для JPQL-проекции: позиции добавляются отдельным запросом ({@link #withItems})
+     */
+    public DeliveryView(Long id, Order.DeliveryStatus status, String customer, String phone, String deliveryAddress,
+                        String comment, BigDecimal totalAmount, LocalDateTime assignedAt, LocalDateTime startedAt,
+                        LocalDateTime deliveredAt, LocalDateTime updatedAt) {
+        this(id, status, customer, phone, deliveryAddress, comment, totalAmount, List.of(),
+                assignedAt, startedAt, deliveredAt, updatedAt);
+    }
+
+    public DeliveryView withItems(List<OrderItemView> items) {
+        return new DeliveryView(id, status, customer, phone, deliveryAddress, comment, totalAmount, items,
+                assignedAt, startedAt, deliveredAt, updatedAt);
+    }
+}
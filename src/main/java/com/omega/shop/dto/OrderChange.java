@@ -0,0 +1,12 @@
+package com.omega.shop.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.omega.shop.entity.OrderFeedEntry;
+
+/**
+ * Изменение заказа в ленте: для UPSERT - текущее состояние заказа, для TOMBSTONE - только ID.
+ * В SSE-событиях {@code order} не передаётся, а у событий очереди новых заказов нет {@code seq}.
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderChange<T>(Long seq, Long orderId, OrderFeedEntry.Kind kind, T order) {
+}
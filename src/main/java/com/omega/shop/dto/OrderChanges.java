@@ -0,0 +1,10 @@
+package com.omega.shop.dto;
+
+import java.util.List;
+
+/**
+ * Порция ленты изменений. {@code nextCursor} передаётся в следующий запрос; {@code hasMore} - есть ещё записи.
+ * {@code reset} - клиенту нужно загрузить список целиком, а затем продолжить с {@code nextCursor}.
+ */
+public record OrderChanges<T>(List<OrderChange<T>> changes, long nextCursor, boolean hasMore, boolean reset) {
+}
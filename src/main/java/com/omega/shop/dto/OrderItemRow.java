@@ -0,0 +1,13 @@
+package com.omega.shop.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Строка проекции позиций для нескольких заказов сразу: {@code orderId} нужен только для группировки
+ */
+public record OrderItemRow(Long orderId, String productName, Integer quantity, BigDecimal price) {
+
+    public OrderItemView toView() {
+        return new OrderItemView(productName, quantity, price);
+    }
+}
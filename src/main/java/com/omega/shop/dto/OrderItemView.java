@@ -0,0 +1,9 @@
+package com.omega.shop.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Позиция заказа в API: название и цена на момент покупки
+ */
+public record OrderItemView(String productName, Integer quantity, BigDecimal price) {
+}
@@ -0,0 +1,39 @@
+package com.omega.shop.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.omega.shop.entity.Order;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Заказ покупателя в API
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record OrderView(
+        Long id,
+        Order.OrderStatus status,
+        Order.DeliveryStatus deliveryStatus,
+        BigDecimal totalAmount,
+        String deliveryAddress,
+        List<OrderItemView> items,
+        LocalDateTime createdAt,
+        LocalDateTime deliveredAt,
+        LocalDateTime updatedAt
+) {
+
+    /**
+     * Конструктор для JPQL-проекции: позиции добавляются отдельным запросом ({@link #withItems})
+     */
+    public OrderView(Long id, Order.OrderStatus status, Order.DeliveryStatus deliveryStatus, BigDecimal totalAmount,
+                     String deliveryAddress, LocalDateTime createdAt, LocalDateTime deliveredAt,
+                     LocalDateTime updatedAt) {
+        this(id, status, deliveryStatus, totalAmount, deliveryAddress, List.of(), createdAt, deliveredAt, updatedAt);
+    }
+
+    public OrderView withItems(List<OrderItemView> items) {
+        return new OrderView(id, status, deliveryStatus, totalAmount, deliveryAddress, items,
+                createdAt, deliveredAt, updatedAt);
+    }
+}
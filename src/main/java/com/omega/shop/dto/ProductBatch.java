@@ -0,0 +1,9 @@
+package com.omega.shop.dto;
+
+import java.util.List;
+
+/**
+ * Товары по списку ID в порядке запроса; {@code missing} - ID, которых нет или которые сняты с продажи
+ */
+public record ProductBatch(List<ProductView> items, List<Long> missing) {
+}
@@ -0,0 +1,9 @@
+package com.omega.shop.dto;
+
+import java.util.List;
+
+/**
+ * Страница товаров API. {@code nextCursor} передаётся в следующий запрос, null - страниц больше нет.
+ */
+public record ProductPage(List<ProductView> items, String nextCursor) {
+}
@@ -0,0 +1,39 @@
+package com.omega.shop.dto;
+
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Товар для JSON API: проекция JPQL ({@code SELECT new ...}), сущность и её связи не загружаются.
+ * Набор полей в ответе задаёт параметр {@code fields} (фильтр {@link #FILTER}).
+ */
+@JsonFilter(ProductView.FILTER)
+public record ProductView(
+        Long id,
+        String name,
+        String description,
+        BigDecimal price,
+        Integer quantity,
+        String imagePath,
+        Long categoryId,
+        String categoryName,
+        LocalDateTime updatedAt
+) {
+
+    public static final String FILTER = "productFields";
+
+    /**
+     * Поля, которые можно запросить через {@code fields}
+     */
+    public static final Set<String> FIELDS = Set.of("id", "name", "description", "price", "quantity", "inStock",
+            "imagePath", "categoryId", "categoryName", "updatedAt");
+
+    @JsonProperty("inStock")
+    public boolean inStock() {
+        return quantity != null && quantity > 0;
+    }
+}
@@ -0,0 +1,11 @@
+package com.omega.shop.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class RefreshTokenRequest {
+
+    @NotBlank(message = "Refresh-токен обязателен")
+    private String refreshToken;
+}
@@ -0,0 +1,14 @@
+package com.omega.shop.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+@Data
+public class TokenRequest {
+
+    @NotBlank(message = "Имя пользователя обязательно")
+    private String username;
+
+    @NotBlank(message = "Пароль обязателен")
+    private String password;
+}
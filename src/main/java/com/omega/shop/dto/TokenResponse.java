@@ -0,0 +1,18 @@
+package com.omega.shop.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class TokenResponse {
+
+    private String accessToken;
+    private String refreshToken;
+    private String tokenType;
+
+    /**
+     * Время жизни access-токена в секундах
+     */
+    private long expiresIn;
+}
@@ -54,6 +54,14 @@ public class Order {
     @JoinColumn(name = "courier_id")
     private User courier;
 
+    // Продавец, взявший новый заказ в работу, и окончание аренды
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "claimed_by")
+    private User claimedBy;
+
+    @Column(name = "claim_expires_at")
+    private LocalDateTime claimExpiresAt;
+
     // Статус доставки
     @Enumerated(EnumType.STRING)
     @Column(name = "delivery_status", length = 20)
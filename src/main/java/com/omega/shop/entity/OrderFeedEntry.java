@@ -0,0 +1,54 @@
+package com.omega.shop.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Запись ленты изменений заказов: заказ {@code orderId} изменился для курьера или продавца {@code recipientId}
+ */
+@Entity
+@Table(name = "order_feed")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderFeedEntry {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "change_seq")
+    private Long changeSeq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "recipient_type", nullable = false, length = 10)
+    private Recipient recipientType;
+
+    @Column(name = "recipient_id", nullable = false)
+    private Long recipientId;
+
+    @Column(name = "order_id", nullable = false)
+    private Long orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 10)
+    private Kind kind;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    // Кому адресовано изменение
+    public enum Recipient {
+        COURIER,
+        SELLER
+    }
+
+    // UPSERT - заказ нужно обновить у клиента, TOMBSTONE - убрать из его списка
+    public enum Kind {
+        UPSERT,
+        TOMBSTONE
+    }
+}
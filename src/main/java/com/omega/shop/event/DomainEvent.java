@@ -0,0 +1,45 @@
+package com.omega.shop.event;
+
+import com.omega.shop.entity.OutboxEvent;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Доменное событие, доставляемое подписчикам внутри процесса после фиксации транзакции.
+ * Подписчики объявляются через {@code @EventListener} и должны быть идемпотентными:
+ * доставка выполняется по схеме at-least-once, порядок гарантируется в рамках одного агрегата.
+ */
+public record DomainEvent(
+        Long id,
+        OutboxEvent.AggregateType aggregateType,
+        Long aggregateId,
+        String type,
+        Map<String, Object> payload,
+        LocalDateTime occurredAt
+) {
+
+    public boolean isOrderEvent() {
+        return aggregateType == OutboxEvent.AggregateType.ORDER;
+    }
+
+    public boolean isProductEvent() {
+        return aggregateType == OutboxEvent.AggregateType.PRODUCT;
+    }
+
+    /**
+     * Получить значение из данных события как Long (JSON-числа приходят как Integer или Long)
+     */
+    public Long getLong(String key) {
+        Object value = payload.get(key);
+        return value instanceof Number number ? number.longValue() : null;
+    }
+
+    /**
+     * Получить значение из данных события как строку
+     */
+    public String getString(String key) {
+        Object value = payload.get(key);
+        return value != null ? value.toString() : null;
+    }
+}
@@ -0,0 +1,29 @@
+package com.omega.shop.event;
+
+import com.omega.shop.monitoring.ShopMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * Подписчик доменных событий: учитывает доставленные события и их задержку
+ * ({@code omega.outbox.delivery.lag}, теги - тип агрегата и тип события).
+ * Повторная доставка того же события учитывается повторно, как и в самом outbox.
+ */
+@Component
+@RequiredArgsConstructor
+public class DomainEventMetricsListener {
+
+    private final ShopMetrics shopMetrics;
+
+    @EventListener
+    public void onDomainEvent(DomainEvent event) {
+        long lagMillis = event.occurredAt() != null
+                ? Duration.between(event.occurredAt(), LocalDateTime.now()).toMillis()
+                : 0;
+        shopMetrics.recordDomainEventDelivery(event.aggregateType().name(), event.type(), lagMillis);
+    }
+}
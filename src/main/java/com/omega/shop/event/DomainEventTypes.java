@@ -0,0 +1,22 @@
+package com.omega.shop.event;
+
+/**
+ * Типы доменных событий, записываемых в outbox
+ */
+public final class DomainEventTypes {
+
+    // Заказы
+    public static final String ORDER_CREATED = "OrderCreated";
+    public static final String ORDER_STATUS_CHANGED = "OrderStatusChanged";
+    public static final String ORDER_COURIER_ASSIGNED = "OrderCourierAssigned";
+    public static final String ORDER_DELIVERY_STATUS_CHANGED = "OrderDeliveryStatusChanged";
+
+    // Товары
+    public static final String PRODUCT_CREATED = "ProductCreated";
+    public static final String PRODUCT_UPDATED = "ProductUpdated";
+    public static final String PRODUCT_DELETED = "ProductDeleted";
+    public static final String PRODUCT_STOCK_CHANGED = "ProductStockChanged";
+
+    private DomainEventTypes() {
+    }
+}
@@ -0,0 +1,256 @@
+package com.omega.shop.event;
+
+import com.omega.shop.entity.User;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Рассылка изменений заказов открытым страницам продавцов и курьеров через Server-Sent Events.
+ * <p>
+ * Подписчик слушает темы: свою ({@link #userTopic}) и, для продавца, общую очередь новых заказов
+ * ({@link #roleTopic}). Событие публикуется после фиксации транзакции. У каждого клиента своя
+ * ограниченная очередь и виртуальный поток, который пишет из неё в соединение: медленный клиент
+ * не задерживает публикацию и остальных. Переполненная очередь сбрасывается и заменяется событием
+ * {@code reset} - клиент перечитывает страницу. Пока событий нет, поток шлёт комментарий-heartbeat,
+ * чтобы прокси не закрывали соединение.
+ * <p>
+ * ID событий растут от времени запуска узла. Клиент, переподключившийся с {@code Last-Event-ID},
+ * получает {@code reset}, если в его темах за время разрыва что-то публиковалось или ID выдан до
+ * перезапуска. Рассылка локальна для узла: события видят клиенты, подключённые к узлу, который
+ * зафиксировал изменение.
+ */
+@Component
+@Slf4j
+public class OrderPushHub {
+
+    public static final String EVENT_ORDER = "order";
+    public static final String EVENT_NEW_ORDERS = "new-orders";
+    public static final String EVENT_RESET = "reset";
+
+    private final Map<String, Set<Subscriber>> topics = new ConcurrentHashMap<>();
+    private final Map<Long, List<Subscriber>> byUser = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastPublished = new ConcurrentHashMap<>();
+    private final long startId = System.currentTimeMillis() * 1000;
+    private final AtomicLong sequence = new AtomicLong(startId);
+    private final AtomicInteger clients = new AtomicInteger();
+    private final Counter overflows;
+
+    @Value("${omega.push.buffer-size:64}")
+    private int bufferSize;
+
+    @Value("${omega.push.heartbeat:25s}")
+    private Duration heartbeat;
+
+    @Value("${omega.push.timeout:30m}")
+    private Duration timeout;
+
+    @Value("${omega.push.max-clients:10000}")
+    private int maxClients;
+
+    @Value("${omega.push.max-per-user:4}")
+    private int maxPerUser;
+
+    public OrderPushHub(MeterRegistry registry) {
+        Gauge.builder("omega.push.clients", clients, AtomicInteger::get)
+                .description("Открытые SSE-подключения продавцов и курьеров")
+                .register(registry);
+        this.overflows = Counter.builder("omega.push.overflows")
+                .description("Переполнения очереди SSE-клиента, клиенту отправлен reset")
+                .register(registry);
+    }
+
+    public static String userTopic(Long userId) {
+        return "user:" + userId;
+    }
+
+    public static String roleTopic(User.Role role) {
+        return "role:" + role.name();
+    }
+
+    /**
+     * Открыть поток событий для пользователя.
+     *
+     * @param lastEventId заголовок Last-Event-ID при переподключении
+     * @return пусто, если подключений уже {@code omega.push.max-clients}
+     */
+    public Optional<SseEmitter> subscribe(Long userId, List<String> subscriberTopics, String lastEventId) {
+        if (clients.incrementAndGet() > maxClients) {
+            clients.decrementAndGet();
+            log.warn("SSE: отказ в подключении пользователю {}, открыто {} подключений", userId, maxClients);
+            return Optional.empty();
+        }
+
+        Subscriber subscriber = new Subscriber(userId, List.copyOf(subscriberTopics), new SseEmitter(timeout.toMillis()),
+                new ArrayBlockingQueue<>(bufferSize));
+        subscriber.emitter.onCompletion(() -> remove(subscriber));
+        subscriber.emitter.onTimeout(() -> remove(subscriber));
+        subscriber.emitter.onError(e -> remove(subscriber));
+
+        // Старые вкладки пользователя сверх лимита закрываются
+        List<Subscriber> previous = byUser.compute(userId, (id, list) -> {
+            List<Subscriber> updated = list != null ? new ArrayList<>(list) : new ArrayList<>();
+            updated.add(subscriber);
+            return updated;
+        });
+        for (int i = 0; i < previous.size() - maxPerUser; i++) {
+            previous.get(i).emitter.complete();
+        }
+
+        subscriber.topics.forEach(topic -> topics.computeIfAbsent(topic, t -> ConcurrentHashMap.newKeySet()).add(subscriber));
+        if (lastEventId != null && missed(subscriber, lastEventId)) {
+            subscriber.offer(new Push(sequence.incrementAndGet(), EVENT_RESET, ""));
+        }
+        Thread.ofVirtual().name("sse-" + userId).start(() -> drain(subscriber));
+
+        log.debug("SSE: пользователь {} подключён, тем {}, всего подключений {}", userId, subscriber.topics.size(), clients.get());
+        return Optional.of(subscriber.emitter);
+    }
+
+    /**
+     * Отправить событие подписчикам темы. Внутри транзакции - после её фиксации, при откате - никогда.
+     */
+    public void publish(String topic, String name, Object data) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    dispatch(topic, name, data);
+                }
+            });
+        } else {
+            dispatch(topic, name, data);
+        }
+    }
+
+    /**
+     * Число открытых подключений
+     */
+    public int getClientCount() {
+        return clients.get();
+    }
+
+    private void dispatch(String topic, String name, Object data) {
+        long id = sequence.incrementAndGet();
+        lastPublished.put(topic, id);
+        Set<Subscriber> subscribers = topics.get(topic);
+        if (subscribers != null) {
+            Push push = new Push(id, name, data);
+            subscribers.forEach(subscriber -> subscriber.offer(push));
+        }
+    }
+
+    private boolean missed(Subscriber subscriber, String lastEventId) {
+        long lastId;
+        try {
+            lastId = Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return true;
+        }
+        if (lastId < startId || lastId > sequence.get()) {
+            return true;
+        }
+        return subscriber.topics.stream().anyMatch(topic -> lastPublished.getOrDefault(topic, 0L) > lastId);
+    }
+
+    private void drain(Subscriber subscriber) {
+        try {
+            while (!subscriber.closed) {
+                Push push = subscriber.queue.poll(heartbeat.toMillis(), TimeUnit.MILLISECONDS);
+                if (push == null) {
+                    subscriber.emitter.send(SseEmitter.event().comment("heartbeat"));
+                } else if (push != Push.CLOSE) {
+                    subscriber.emitter.send(SseEmitter.event()
+                            .id(Long.toString(push.id()))
+                            .name(push.name())
+                            .data(push.data(), MediaType.APPLICATION_JSON));
+                }
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Клиент ушёл или соединение уже завершено; ошибку записи контейнер передаст в onError
+            log.debug("SSE: соединение пользователя {} закрыто: {}", subscriber.userId, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            remove(subscriber);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscriber.closed) {
+            return;
+        }
+        synchronized (subscriber) {
+            if (subscriber.closed) {
+                return;
+            }
+            subscriber.closed = true;
+        }
+        subscriber.topics.forEach(topic -> topics.computeIfPresent(topic, (t, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        }));
+        byUser.computeIfPresent(subscriber.userId, (id, list) -> {
+            List<Subscriber> updated = new ArrayList<>(list);
+            updated.remove(subscriber);
+            return updated.isEmpty() ? null : updated;
+        });
+        clients.decrementAndGet();
+        // Будим поток, если он ждёт в очереди
+        subscriber.queue.clear();
+        subscriber.queue.offer(Push.CLOSE);
+    }
+
+    private record Push(long id, String name, Object data) {
+
+        static final Push CLOSE = new Push(0, "", "");
+    }
+
+    private final class Subscriber {
+
+        final Long userId;
+        final List<String> topics;
+        final SseEmitter emitter;
+        final BlockingQueue<Push> queue;
+        volatile boolean closed;
+
+        Subscriber(Long userId, List<String> topics, SseEmitter emitter, BlockingQueue<Push> queue) {
+            this.userId = userId;
+            this.topics = topics;
+            this.emitter = emitter;
+            this.queue = queue;
+        }
+
+        synchronized void offer(Push push) {
+            if (closed || queue.offer(push)) {
+                return;
+            }
+            // Клиент не успевает читать: отдельные события уже не помогут, нужен полный пересчёт
+            queue.clear();
+            queue.offer(new Push(push.id(), EVENT_RESET, ""));
+            overflows.increment();
+            log.debug("SSE: очередь пользователя {} переполнена, отправлен reset", userId);
+        }
+    }
+}
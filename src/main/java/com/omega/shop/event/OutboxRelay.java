@@ -0,0 +1,151 @@
+package com.omega.shop.event;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.omega.shop.entity.OutboxEvent;
+import com.omega.shop.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ретранслятор outbox: забирает неопубликованные события пачками и доставляет их
+ * подписчикам внутри процесса.
+ * <p>
+ * Пачка захватывается через {@code FOR UPDATE SKIP LOCKED}, отметки о публикации и попытках
+ * фиксируются транзакцией пачки. Если узел упадёт до фиксации, блокировки снимутся и события
+ * будут доставлены повторно (at-least-once). Каждое событие доставляется в собственной
+ * транзакции ({@code REQUIRES_NEW}): подписчик с {@code @Transactional} присоединяется к ней,
+ * и его ошибка откатывает только её, а не отметки всей пачки. На время доставки ретранслятор
+ * занимает второе соединение из пула.
+ * <p>
+ * После ошибки событие откладывается на {@code omega.outbox.retry-delay}, задержка удваивается
+ * с каждой попыткой до {@code omega.outbox.max-retry-delay}. После {@code omega.outbox.max-attempts}
+ * попыток событие переходит в FAILED.
+ */
+@Component
+@Slf4j
+public class OutboxRelay {
+
+    private static final TypeReference<Map<String, Object>> PAYLOAD_TYPE = new TypeReference<>() {
+    };
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate publishTemplate;
+
+    @Value("${omega.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${omega.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    @Value("${omega.outbox.retry-delay:1s}")
+    private Duration retryDelay;
+
+    @Value("${omega.outbox.max-retry-delay:5m}")
+    private Duration maxRetryDelay;
+
+    @Value("${omega.outbox.retention-days:7}")
+    private int retentionDays;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       ApplicationEventPublisher eventPublisher,
+                       ObjectMapper objectMapper,
+                       TransactionTemplate transactionTemplate) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.eventPublisher = eventPublisher;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.publishTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.publishTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Опрос outbox. Пачки забираются, пока очередь не опустеет.
+     */
+    @Scheduled(fixedDelayString = "${omega.outbox.poll-interval:500}")
+    public void relay() {
+        Integer relayed;
+        do {
+            relayed = transactionTemplate.execute(status -> relayBatch());
+        } while (relayed != null && relayed == batchSize);
+    }
+
+    private int relayBatch() {
+        List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(batchSize, LocalDateTime.now());
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        for (OutboxEvent event : batch) {
+            try {
+                DomainEvent domainEvent = toDomainEvent(event);
+                publishTemplate.executeWithoutResult(status -> eventPublisher.publishEvent(domainEvent));
+                event.setStatus(OutboxEvent.Status.PUBLISHED);
+                event.setPublishedAt(LocalDateTime.now());
+                event.setNextAttemptAt(null);
+                event.setLastError(null);
+            } catch (Exception e) {
+                event.setAttempts(event.getAttempts() + 1);
+                event.setLastError(e.getMessage());
+                if (event.getAttempts() >= maxAttempts) {
+                    // Событие уходит в FAILED, чтобы не блокировать остальные события агрегата
+                    event.setStatus(OutboxEvent.Status.FAILED);
+                    event.setNextAttemptAt(null);
+                    log.error("Событие #{} ({}) не доставлено после {} попыток: {}",
+                            event.getId(), event.getEventType(), event.getAttempts(), e.getMessage(), e);
+                } else {
+                    Duration delay = retryDelay(event.getAttempts());
+                    event.setNextAttemptAt(LocalDateTime.now().plus(delay));
+                    log.warn("Ошибка доставки события #{} ({}), попытка {}, повтор через {} мс: {}",
+                            event.getId(), event.getEventType(), event.getAttempts(), delay.toMillis(), e.getMessage());
+                }
+            }
+        }
+
+        log.debug("Обработано событий outbox: {}", batch.size());
+        return batch.size();
+    }
+
+    /**
+     * Задержка перед повтором после {@code attempts} неудачных попыток: retry-delay, 2 * retry-delay, ...
+     */
+    Duration retryDelay(int attempts) {
+        // Сдвиг ограничен, чтобы произведение не переполнилось
+        Duration delay = retryDelay.multipliedBy(1L << Math.min(Math.max(attempts - 1, 0), 20));
+        return delay.compareTo(maxRetryDelay) > 0 ? maxRetryDelay : delay;
+    }
+
+    private DomainEvent toDomainEvent(OutboxEvent event) throws Exception {
+        return new DomainEvent(
+                event.getId(),
+                event.getAggregateType(),
+                event.getAggregateId(),
+                event.getEventType(),
+                objectMapper.readValue(event.getPayload(), PAYLOAD_TYPE),
+                event.getCreatedAt()
+        );
+    }
+
+    /**
+     * Очистка опубликованных событий
+     */
+    @Scheduled(cron = "${omega.outbox.cleanup-cron:0 0 3 * * *}")
+    public void cleanup() {
+        LocalDateTime before = LocalDateTime.now().minusDays(retentionDays);
+        Integer deleted = transactionTemplate.execute(status -> outboxEventRepository.deleteByStatusBefore(OutboxEvent.Status.PUBLISHED, before));
+        log.info("Удалено опубликованных событий outbox: {}", deleted);
+    }
+}
@@ -0,0 +1,64 @@
+package com.omega.shop.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-событие фазы оформления заказа: проверка корзины, списание остатков, сохранение заказа.
+ * <p>
+ * Пока запись JFR не запущена, {@link #begin()} и {@link #commit()} ничего не стоят -
+ * JIT убирает их целиком, поэтому события можно оставлять в коде постоянно.
+ */
+@Name("com.omega.shop.CheckoutPhase")
+@Label("Checkout Phase")
+@Description("Фаза оформления заказа")
+@Category({"OMEGA", "Checkout"})
+@StackTrace(false)
+public class CheckoutPhaseEvent extends jdk.jfr.Event {
+
+    public static final String VALIDATE = "validate";
+    public static final String STOCK = "stock";
+    public static final String INSERT = "insert";
+
+    @Label("Phase")
+    private String phase;
+
+    @Label("Lines")
+    @Description("Позиций в корзине")
+    private int lines;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Начать фазу
+     */
+    public static CheckoutPhaseEvent start(String phase, int lines) {
+        CheckoutPhaseEvent event = new CheckoutPhaseEvent();
+        event.phase = phase;
+        event.lines = lines;
+        event.outcome = ShopMetrics.OUTCOME_ERROR;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Отметить фазу успешной; фаза без этой отметки записывается с исходом error
+     */
+    public void success() {
+        outcome = ShopMetrics.OUTCOME_SUCCESS;
+    }
+
+    /**
+     * Завершить фазу и записать событие, если оно проходит порог записи
+     */
+    public void finish() {
+        end();
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.omega.shop.monitoring;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.sdk.common.CompletableResultCode;
+import io.opentelemetry.sdk.common.InstrumentationScopeInfo;
+import io.opentelemetry.sdk.trace.data.SpanData;
+import io.opentelemetry.sdk.trace.export.SpanExporter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * Экспорт спанов в локальный файл в формате OTLP/JSON: каждая строка - один
+ * {@code ExportTraceServiceRequest}. Такой файл читает приёмник {@code otlpjsonfile}
+ * OpenTelemetry Collector, поэтому трассы, записанные без сети, можно позже загрузить
+ * в Jaeger или Tempo. При превышении {@code maxBytes} файл переименовывается в {@code *.1}.
+ */
+@Slf4j
+public class FileSpanExporter implements SpanExporter {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Path path;
+    private final long maxBytes;
+
+    private BufferedWriter writer;
+    private long written;
+
+    public FileSpanExporter(Path path, long maxBytes) {
+        this.path = path;
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public CompletableResultCode export(Collection<SpanData> spans) {
+        if (spans.isEmpty()) {
+            return CompletableResultCode.ofSuccess();
+        }
+        lock.lock();
+        try {
+            String line = objectMapper.writeValueAsString(request(spans));
+            long size = line.getBytes(StandardCharsets.UTF_8).length + 1;
+            if (writer == null) {
+                open();
+            } else if (written + size > maxBytes) {
+                writer.close();
+                Files.move(path, path.resolveSibling(path.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+                open();
+            }
+            writer.write(line);
+            writer.newLine();
+            writer.flush();
+            written += size;
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            log.warn("Не удалось записать спаны в {}: {}", path, e.getMessage());
+            return CompletableResultCode.ofFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public CompletableResultCode flush() {
+        return CompletableResultCode.ofSuccess();
+    }
+
+    @Override
+    public CompletableResultCode shutdown() {
+        lock.lock();
+        try {
+            if (writer != null) {
+                writer.close();
+                writer = null;
+            }
+            return CompletableResultCode.ofSuccess();
+        } catch (IOException e) {
+            return CompletableResultCode.ofFailure();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void open() throws IOException {
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+        writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        written = Files.size(path);
+    }
+
+    /**
+     * ExportTraceServiceRequest: спаны сгруппированы по ресурсу и библиотеке инструментирования
+     */
+    static Map<String, Object> request(Collection<SpanData> spans) {
+        List<Object> resourceSpans = new ArrayList<>();
+        spans.stream()
+                .collect(Collectors.groupingBy(SpanData::getResource, LinkedHashMap::new, Collectors.toList()))
+                .forEach((resource, resourceGroup) -> {
+                    List<Object> scopeSpans = new ArrayList<>();
+                    resourceGroup.stream()
+                            .collect(Collectors.groupingBy(SpanData::getInstrumentationScopeInfo,
+                                    LinkedHashMap::new, Collectors.toList()))
+                            .forEach((scope, scopeGroup) -> scopeSpans.add(Map.of(
+                                    "scope", scope(scope),
+                                    "spans", scopeGroup.stream().map(FileSpanExporter::span).toList())));
+                    resourceSpans.add(Map.of(
+                            "resource", Map.of("attributes", attributes(resource.getAttributes())),
+                            "scopeSpans", scopeSpans));
+                });
+        return Map.of("resourceSpans", resourceSpans);
+    }
+
+    private static Map<String, Object> scope(InstrumentationScopeInfo scope) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", scope.getName());
+        if (scope.getVersion() != null) {
+            result.put("version", scope.getVersion());
+        }
+        return result;
+    }
+
+    private static Map<String, Object> span(SpanData span) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("traceId", span.getTraceId());
+        result.put("spanId", span.getSpanId());
+        if (span.getParentSpanContext().isValid()) {
+            result.put("parentSpanId", span.getParentSpanId());
+        }
+        result.put("name", span.getName());
+        // Значения перечисления SpanKind в OTLP сдвинуты на единицу (0 - UNSPECIFIED)
+        result.put("kind", span.getKind().ordinal() + 1);
+        result.put("startTimeUnixNano", String.valueOf(span.getStartEpochNanos()));
+        result.put("endTimeUnixNano", String.valueOf(span.getEndEpochNanos()));
+        result.put("attributes", attributes(span.getAttributes()));
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("code", span.getStatus().getStatusCode().ordinal());
+        if (!span.getStatus().getDescription().isEmpty()) {
+            status.put("message", span.getStatus().getDescription());
+        }
+        result.put("status", status);
+        return result;
+    }
+
+    private static List<Object> attributes(Attributes attributes) {
+        List<Object> result = new ArrayList<>();
+        attributes.forEach((key, value) -> result.add(Map.of("key", key.getKey(), "value", value(key, value))));
+        return result;
+    }
+
+    private static Map<String, Object> value(AttributeKey<?> key, Object value) {
+        return switch (key.getType()) {
+            case BOOLEAN -> Map.of("boolValue", value);
+            // int64 в OTLP/JSON передаётся строкой
+            case LONG -> Map.of("intValue", String.valueOf(value));
+            case DOUBLE -> Map.of("doubleValue", value);
+            default -> Map.of("stringValue", String.valueOf(value));
+        };
+    }
+}
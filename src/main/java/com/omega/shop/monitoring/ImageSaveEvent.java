@@ -0,0 +1,43 @@
+package com.omega.shop.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-событие сохранения загруженного изображения
+ */
+@Name("com.omega.shop.ImageSave")
+@Label("Image Save")
+@Category({"OMEGA", "Uploads"})
+@StackTrace(false)
+public class ImageSaveEvent extends jdk.jfr.Event {
+
+    @Label("Content Type")
+    private String contentType;
+
+    @Label("Size")
+    @DataAmount
+    private long bytes;
+
+    @Label("Outcome")
+    private String outcome;
+
+    public static ImageSaveEvent start(String contentType, long bytes) {
+        ImageSaveEvent event = new ImageSaveEvent();
+        event.contentType = contentType;
+        event.bytes = bytes;
+        event.begin();
+        return event;
+    }
+
+    public void finish(String outcome) {
+        end();
+        if (shouldCommit()) {
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
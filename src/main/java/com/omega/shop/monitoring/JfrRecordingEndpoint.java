@@ -0,0 +1,191 @@
+package com.omega.shop.monitoring;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Запись Java Flight Recorder по требованию: {@code /actuator/jfr} (только ADMIN).
+ * <ul>
+ *     <li>{@code GET} - состояние текущей записи;</li>
+ *     <li>{@code POST {"settings": "profile", "maxDuration": "5m"}} - начать запись
+ *     с профилем {@code default} (около 1% накладных расходов) или {@code profile} (подробнее, около 2%);</li>
+ *     <li>{@code DELETE} - остановить запись и скачать {@code .jfr}-файл.</li>
+ * </ul>
+ * Одновременно ведётся не больше одной записи. Запись останавливается сама через {@code maxDuration},
+ * файл после этого всё ещё можно забрать через {@code DELETE}.
+ */
+@Component
+@WebEndpoint(id = "jfr")
+@Slf4j
+public class JfrRecordingEndpoint implements DisposableBean {
+
+    private static final String RECORDING_NAME = "omega-on-demand";
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    @Value("${omega.jfr.max-duration:10m}")
+    private Duration defaultMaxDuration;
+
+    @Value("${omega.jfr.max-size:256MB}")
+    private DataSize maxSize;
+
+    private Recording recording;
+    private String settings;
+
+    @ReadOperation
+    public Map<String, Object> status() {
+        lock.lock();
+        try {
+            Map<String, Object> status = new LinkedHashMap<>();
+            if (recording == null) {
+                status.put("state", "NONE");
+                return status;
+            }
+            status.put("state", recording.getState().name());
+            status.put("settings", settings);
+            status.put("startTime", recording.getStartTime());
+            status.put("maxDuration", recording.getDuration());
+            status.put("size", recording.getSize());
+            return status;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Начать запись
+     *
+     * @param settings    встроенная конфигурация JFR: default или profile
+     * @param maxDuration предельная длительность записи (по умолчанию {@code omega.jfr.max-duration})
+     */
+    @WriteOperation
+    public Map<String, Object> start(@Nullable String settings, @Nullable Duration maxDuration) {
+        String name = settings != null ? settings : "default";
+        Configuration configuration;
+        try {
+            configuration = Configuration.getConfiguration(name);
+        } catch (IOException | ParseException e) {
+            throw new IllegalArgumentException("Неизвестная конфигурация JFR: " + name);
+        }
+
+        lock.lock();
+        try {
+            if (recording != null && recording.getState() == RecordingState.RUNNING) {
+                throw new IllegalStateException("Запись JFR уже идёт с " + recording.getStartTime());
+            }
+            closeRecording();
+
+            Recording started = new Recording(configuration);
+            started.setName(RECORDING_NAME);
+            started.setToDisk(true);
+            started.setDuration(maxDuration != null ? maxDuration : defaultMaxDuration);
+            started.setMaxSize(maxSize.toBytes());
+            started.start();
+
+            recording = started;
+            this.settings = name;
+            log.info("Запись JFR начата: конфигурация {}, не дольше {}", name, started.getDuration());
+            return status();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Остановить запись и вернуть файл
+     */
+    @DeleteOperation(produces = "application/octet-stream")
+    public WebEndpointResponse<Resource> stop() throws IOException {
+        lock.lock();
+        try {
+            if (recording == null) {
+                return new WebEndpointResponse<>(WebEndpointResponse.STATUS_NOT_FOUND);
+            }
+            if (recording.getState() == RecordingState.RUNNING) {
+                recording.stop();
+            }
+            Path file = Files.createTempFile("omega-" + Instant.now().getEpochSecond() + "-", ".jfr");
+            recording.dump(file);
+            closeRecording();
+            log.info("Запись JFR остановлена, {} байт", Files.size(file));
+            return new WebEndpointResponse<>(new TemporaryFileResource(file.toFile()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        lock.lock();
+        try {
+            closeRecording();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void closeRecording() {
+        if (recording != null) {
+            recording.close();
+            recording = null;
+            settings = null;
+        }
+    }
+
+    /**
+     * Файл, удаляемый после того как ответ прочитан
+     */
+    private static final class TemporaryFileResource extends FileSystemResource {
+
+        private TemporaryFileResource(File file) {
+            super(file);
+        }
+
+        @Override
+        public InputStream getInputStream() throws IOException {
+            return new FilterInputStream(super.getInputStream()) {
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        Files.deleteIfExists(getFile().toPath());
+                    }
+                }
+            };
+        }
+
+        @Override
+        public boolean isFile() {
+            // Иначе контейнер может отдать файл напрямую (zero-copy), минуя getInputStream
+            return false;
+        }
+    }
+}
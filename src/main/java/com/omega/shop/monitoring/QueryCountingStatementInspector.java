@@ -0,0 +1,19 @@
+package com.omega.shop.monitoring;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+
+/**
+ * Учитывает каждый SQL-запрос Hibernate в статистике текущего потока.
+ * Текст запроса не изменяется.
+ */
+public class QueryCountingStatementInspector implements StatementInspector {
+
+    @Override
+    public String inspect(String sql) {
+        QueryStats stats = QueryStats.current();
+        if (stats != null) {
+            stats.recordStatement(sql);
+        }
+        return sql;
+    }
+}
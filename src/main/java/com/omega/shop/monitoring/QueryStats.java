@@ -0,0 +1,94 @@
+package com.omega.shop.monitoring;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Статистика SQL-запросов одного HTTP-запроса (или другого ограниченного участка кода).
+ * <p>
+ * Привязывается к потоку через {@link #bind(QueryStats)}; заполняется
+ * {@link QueryCountingStatementInspector} (число и текст запросов) и
+ * {@link QueryTimingSessionListener} (время выполнения в JDBC). Один экземпляр можно
+ * привязать к нескольким потокам, например к задачам {@code ConcurrentModelLoader}.
+ */
+public class QueryStats {
+
+    private static final ThreadLocal<QueryStats> CURRENT = new ThreadLocal<>();
+
+    private final AtomicInteger statements = new AtomicInteger();
+    private final AtomicLong jdbcNanos = new AtomicLong();
+    private final Map<String, AtomicInteger> bySql = new ConcurrentHashMap<>();
+
+    /**
+     * Статистика, привязанная к текущему потоку, или null
+     */
+    public static QueryStats current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Привязать статистику к текущему потоку. Возвращает предыдущую привязку для восстановления.
+     */
+    public static QueryStats bind(QueryStats stats) {
+        QueryStats previous = CURRENT.get();
+        if (stats != null) {
+            CURRENT.set(stats);
+        } else {
+            CURRENT.remove();
+        }
+        return previous;
+    }
+
+    void recordStatement(String sql) {
+        statements.incrementAndGet();
+        bySql.computeIfAbsent(normalize(sql), key -> new AtomicInteger()).incrementAndGet();
+    }
+
+    void recordJdbcTime(long nanos) {
+        jdbcNanos.addAndGet(nanos);
+    }
+
+    public int getStatementCount() {
+        return statements.get();
+    }
+
+    public long getJdbcTimeMillis() {
+        return jdbcNanos.get() / 1_000_000;
+    }
+
+    public long getJdbcTimeNanos() {
+        return jdbcNanos.get();
+    }
+
+    /**
+     * Одинаковые запросы, выполненные не меньше {@code threshold} раз - признак N+1
+     */
+    public Map<String, Integer> getRepeatedStatements(int threshold) {
+        Map<String, Integer> repeated = new LinkedHashMap<>();
+        bySql.entrySet().stream()
+                .filter(entry -> entry.getValue().get() >= threshold)
+                .sorted((a, b) -> Integer.compare(b.getValue().get(), a.getValue().get()))
+                .forEach(entry -> repeated.put(entry.getKey(), entry.getValue().get()));
+        return repeated;
+    }
+
+    public boolean hasNPlusOne(int threshold) {
+        return bySql.values().stream().anyMatch(count -> count.get() >= threshold);
+    }
+
+    /**
+     * Hibernate генерирует параметризованный SQL, поэтому достаточно свернуть пробелы:
+     * запросы одной ленивой коллекции для разных владельцев дают одинаковый текст
+     */
+    static String normalize(String sql) {
+        return sql.trim().replaceAll("\\s+", " ");
+    }
+
+    @Override
+    public String toString() {
+        return statements.get() + " запросов, " + getJdbcTimeMillis() + " мс в JDBC";
+    }
+}
@@ -0,0 +1,145 @@
+package com.omega.shop.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Считает SQL-запросы каждого HTTP-запроса.
+ * <p>
+ * Пишет метрики {@code omega.request.queries}, {@code omega.request.jdbc} и
+ * {@code omega.request.n_plus_one} с тегом шаблона URI, предупреждает в лог о превышении
+ * бюджета и о повторяющихся запросах. В dev-профиле добавляет заголовки
+ * {@code X-Query-Count} и {@code X-Query-Time}.
+ */
+@RequiredArgsConstructor
+@Slf4j
+public class QueryStatsFilter extends OncePerRequestFilter {
+
+    private final MeterRegistry registry;
+    private final int budget;
+    private final int nPlusOneThreshold;
+    private final boolean exposeHeaders;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        if (QueryStats.current() != null) {
+            // Статистику уже собирает внешний код (например, тест с QueryBudget)
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        QueryStats stats = new QueryStats();
+        QueryStats previous = QueryStats.bind(stats);
+        // Поток событий нельзя буферизовать до конца запроса
+        boolean eventStream = MediaType.TEXT_EVENT_STREAM_VALUE.equals(request.getHeader(HttpHeaders.ACCEPT));
+        QueryHeadersResponse wrapper = exposeHeaders && !eventStream
+                ? new QueryHeadersResponse(response, stats) : null;
+        try {
+            filterChain.doFilter(request, wrapper != null ? wrapper : response);
+        } finally {
+            QueryStats.bind(previous);
+            report(request, stats);
+            if (wrapper != null) {
+                wrapper.complete(request.isAsyncStarted());
+            }
+        }
+    }
+
+    private void report(HttpServletRequest request, QueryStats stats) {
+        if (stats.getStatementCount() == 0) {
+            return;
+        }
+
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+        DistributionSummary.builder("omega.request.queries")
+                .description("SQL-запросов на HTTP-запрос")
+                .tag("uri", uri)
+                .register(registry)
+                .record(stats.getStatementCount());
+        Timer.builder("omega.request.jdbc")
+                .description("Время в JDBC на HTTP-запрос")
+                .tag("uri", uri)
+                .register(registry)
+                .record(stats.getJdbcTimeNanos(), TimeUnit.NANOSECONDS);
+
+        if (stats.getStatementCount() > budget) {
+            log.warn("{} {}: превышен бюджет запросов ({} > {}), {}",
+                    request.getMethod(), uri, stats.getStatementCount(), budget, stats);
+        }
+
+        Map<String, Integer> repeated = stats.getRepeatedStatements(nPlusOneThreshold);
+        if (!repeated.isEmpty()) {
+            Counter.builder("omega.request.n_plus_one")
+                    .description("HTTP-запросы с повторяющимися SQL-запросами (N+1)")
+                    .tag("uri", uri)
+                    .register(registry)
+                    .increment();
+            repeated.forEach((sql, count) ->
+                    log.warn("{} {}: возможный N+1, запрос выполнен {} раз: {}",
+                            request.getMethod(), uri, count, sql));
+        }
+    }
+
+    /**
+     * Буфер ответа для заголовков {@code X-Query-*}. Обычный ответ копируется клиенту целиком в конце
+     * запроса. Потоковый (список из курсора, асинхронный ответ) сбрасывается клиенту при каждом
+     * {@code flushBuffer()}: заголовки тогда отражают запросы до первой отправки.
+     */
+    static final class QueryHeadersResponse extends ContentCachingResponseWrapper {
+
+        private final QueryStats stats;
+
+        QueryHeadersResponse(HttpServletResponse response, QueryStats stats) {
+            super(response);
+            this.stats = stats;
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            writeHeaders();
+            copyBodyToResponse(false);
+            getResponse().flushBuffer();
+        }
+
+        /**
+         * Завершение обработки в потоке запроса. Асинхронный ответ продолжит писать и сбрасывать
+         * вывод после этого, поэтому длина ответа не выставляется.
+         */
+        void complete(boolean async) throws IOException {
+            writeHeaders();
+            if (async) {
+                flushBuffer();
+            } else {
+                copyBodyToResponse(!getResponse().isCommitted());
+            }
+        }
+
+        private void writeHeaders() {
+            HttpServletResponse response = (HttpServletResponse) getResponse();
+            if (!response.isCommitted()) {
+                response.setHeader("X-Query-Count", String.valueOf(stats.getStatementCount()));
+                response.setHeader("X-Query-Time", String.valueOf(stats.getJdbcTimeMillis()));
+            }
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.omega.shop.monitoring;
+
+import org.hibernate.SessionEventListener;
+
+/**
+ * Замеряет время выполнения запросов в JDBC.
+ * Создаётся Hibernate на каждую сессию (свойство {@code hibernate.session.events.auto}),
+ * поэтому хранит время начала в поле без синхронизации.
+ */
+public class QueryTimingSessionListener implements SessionEventListener {
+
+    private long statementStart;
+
+    @Override
+    public void jdbcExecuteStatementStart() {
+        statementStart = System.nanoTime();
+    }
+
+    @Override
+    public void jdbcExecuteStatementEnd() {
+        QueryStats stats = QueryStats.current();
+        if (stats != null && statementStart != 0) {
+            stats.recordJdbcTime(System.nanoTime() - statementStart);
+        }
+        statementStart = 0;
+    }
+}
@@ -0,0 +1,48 @@
+package com.omega.shop.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-событие генерации отчёта о продажах
+ */
+@Name("com.omega.shop.ReportGeneration")
+@Label("Report Generation")
+@Description("Генерация отчёта о продажах")
+@Category({"OMEGA", "Reports"})
+@StackTrace(false)
+public class ReportGenerationEvent extends jdk.jfr.Event {
+
+    @Label("Report")
+    private String report;
+
+    @Label("Period Start")
+    private String periodStart;
+
+    @Label("Period End")
+    private String periodEnd;
+
+    @Label("Rows")
+    @Description("Строк, полученных из БД")
+    private long rows;
+
+    public static ReportGenerationEvent start(String report, Object periodStart, Object periodEnd) {
+        ReportGenerationEvent event = new ReportGenerationEvent();
+        event.report = report;
+        event.periodStart = String.valueOf(periodStart);
+        event.periodEnd = String.valueOf(periodEnd);
+        event.begin();
+        return event;
+    }
+
+    public void finish(long rows) {
+        end();
+        if (shouldCommit()) {
+            this.rows = rows;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.omega.shop.monitoring;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.MDC;
+import org.slf4j.Marker;
+
+/**
+ * Выборочное DEBUG-логирование: сообщения уровня DEBUG и TRACE пропускаются только для
+ * {@code percent}% запросов, остальные отбрасываются до форматирования сообщения.
+ * <p>
+ * Решение принимается по {@code traceId} из MDC, поэтому запрос попадает в выборку целиком -
+ * все его DEBUG-сообщения видны вместе. Сообщения вне запроса (нет {@code traceId}) отбрасываются.
+ * Фильтр подключается в профиле {@code prod} (logback-spring.xml).
+ */
+public class SampledDebugTurboFilter extends TurboFilter {
+
+    private int percent = 1;
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params, Throwable t) {
+        if (level == null || level.isGreaterOrEqual(Level.INFO)) {
+            return FilterReply.NEUTRAL;
+        }
+        String traceId = MDC.get("traceId");
+        if (traceId == null || percent <= 0) {
+            return FilterReply.DENY;
+        }
+        return Math.floorMod(traceId.hashCode(), 100) < percent ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    public void setPercent(int percent) {
+        this.percent = percent;
+    }
+}
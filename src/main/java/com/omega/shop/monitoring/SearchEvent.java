@@ -0,0 +1,51 @@
+package com.omega.shop.monitoring;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR-событие поиска товаров. В отличие от метрик, запись содержит сам запрос -
+ * по нему видно, какие строки поиска работают медленно.
+ */
+@Name("com.omega.shop.Search")
+@Label("Product Search")
+@Description("Поиск товаров по ключевому слову")
+@Category({"OMEGA", "Catalog"})
+@StackTrace(false)
+public class SearchEvent extends jdk.jfr.Event {
+
+    private static final int MAX_KEYWORD_LENGTH = 100;
+
+    @Label("Keyword")
+    private String keyword;
+
+    @Label("Page")
+    private int page;
+
+    @Label("Results")
+    @Description("Всего найдено товаров")
+    private long results;
+
+    public static SearchEvent start(String keyword, int page) {
+        SearchEvent event = new SearchEvent();
+        event.begin();
+        if (event.isEnabled()) {
+            event.keyword = keyword != null && keyword.length() > MAX_KEYWORD_LENGTH
+                    ? keyword.substring(0, MAX_KEYWORD_LENGTH)
+                    : keyword;
+            event.page = page;
+        }
+        return event;
+    }
+
+    public void finish(long results) {
+        end();
+        if (shouldCommit()) {
+            this.results = results;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package com.omega.shop.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Бизнес-метрики магазина.
+ * <p>
+ * Все теги имеют ограниченный набор значений (операция, исход, статус) - идентификаторы
+ * пользователей, товаров и поисковые запросы в теги не попадают. Границы гистограмм
+ * задаются в {@code management.metrics.distribution} (application.yaml).
+ */
+@Component
+@RequiredArgsConstructor
+public class ShopMetrics {
+
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_REJECTED = "rejected";
+    public static final String OUTCOME_STOCK_CONFLICT = "stock_conflict";
+    public static final String OUTCOME_ERROR = "error";
+
+    private final MeterRegistry registry;
+
+    /**
+     * Начать замер времени операции
+     */
+    public Timer.Sample start() {
+        return Timer.start(registry);
+    }
+
+    /**
+     * Оформление заказа целиком
+     */
+    public void recordCheckout(Timer.Sample sample, String outcome, int lines) {
+        sample.stop(Timer.builder("omega.checkout.duration")
+                .description("Время оформления заказа")
+                .tag("outcome", outcome)
+                .register(registry));
+        if (OUTCOME_STOCK_CONFLICT.equals(outcome)) {
+            Counter.builder("omega.checkout.stock.conflicts")
+                    .description("Заказы, отклонённые из-за нехватки товара")
+                    .register(registry)
+                    .increment();
+        }
+        if (OUTCOME_SUCCESS.equals(outcome)) {
+            DistributionSummary.builder("omega.checkout.lines")
+                    .description("Количество позиций в заказе")
+                    .register(registry)
+                    .record(lines);
+        }
+    }
+
+    /**
+     * Обработка одной позиции заказа (загрузка товара и списание остатка)
+     */
+    public void recordCheckoutLine(long nanos) {
+        Timer.builder("omega.checkout.line.duration")
+                .description("Время обработки одной позиции заказа")
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Операция с корзиной: add, update, remove, clear, validate
+     */
+    public void recordCartOperation(Timer.Sample sample, String operation, String outcome) {
+        sample.stop(Timer.builder("omega.cart.operation")
+                .description("Время операции с корзиной")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .register(registry));
+    }
+
+    /**
+     * Поиск товаров: время и доля пустых результатов
+     */
+    public void recordSearch(Timer.Sample sample, long results) {
+        boolean empty = results == 0;
+        sample.stop(Timer.builder("omega.search.duration")
+                .description("Время поиска товаров")
+                .tag("result", empty ? "empty" : "found")
+                .register(registry));
+        if (empty) {
+            Counter.builder("omega.search.zero.results")
+                    .description("Поисковые запросы без результатов")
+                    .register(registry)
+                    .increment();
+        }
+    }
+
+    /**
+     * Генерация отчёта: время и число строк, полученных из БД
+     */
+    public void recordReport(Timer.Sample sample, String report, long rows) {
+        sample.stop(Timer.builder("omega.report.duration")
+                .description("Время генерации отчёта")
+                .tag("report", report)
+                .register(registry));
+        DistributionSummary.builder("omega.report.rows")
+                .description("Строк, просканированных при генерации отчёта")
+                .tag("report", report)
+                .register(registry)
+                .record(rows);
+    }
+
+    /**
+     * Сохранение загруженного файла
+     */
+    public void recordFileSave(Timer.Sample sample, String outcome, long bytes) {
+        sample.stop(Timer.builder("omega.upload.duration")
+                .description("Время сохранения загруженного файла")
+                .tag("outcome", outcome)
+                .register(registry));
+        if (OUTCOME_SUCCESS.equals(outcome)) {
+            DistributionSummary.builder("omega.upload.size")
+                    .description("Размер сохранённых файлов")
+                    .baseUnit("bytes")
+                    .register(registry)
+                    .record(bytes);
+        }
+    }
+
+    /**
+     * Доставка доменного события подписчикам: задержка от записи в outbox до доставки.
+     * Рост задержки - признак отставания ретранслятора или повторов после ошибок подписчиков.
+     */
+    public void recordDomainEventDelivery(String aggregate, String type, long lagMillis) {
+        Timer.builder("omega.outbox.delivery.lag")
+                .description("Задержка доставки доменного события")
+                .tag("aggregate", aggregate)
+                .tag("type", type)
+                .register(registry)
+                .record(Math.max(lagMillis, 0), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Переход заказа между статусами.
+     * {@code kind} - order или delivery, статусы - имена значений перечислений.
+     */
+    public void recordTransition(String kind, Enum<?> from, Enum<?> to) {
+        Counter.builder("omega.order.transitions")
+                .description("Переходы заказов между статусами")
+                .tag("kind", kind)
+                .tag("from", from != null ? from.name() : "NONE")
+                .tag("to", to != null ? to.name() : "NONE")
+                .register(registry)
+                .increment();
+    }
+}
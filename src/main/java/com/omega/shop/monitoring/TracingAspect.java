@@ -0,0 +1,75 @@
+package com.omega.shop.monitoring;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Спаны вокруг обработчиков контроллеров, методов сервисов и вызовов репозиториев.
+ * <p>
+ * Спаны создаются через Micrometer Observation и попадают в OpenTelemetry через мост
+ * {@code micrometer-tracing-bridge-otel} - так они вкладываются в спан HTTP-запроса, а спаны
+ * JDBC-запросов ({@code jdbc.query}) - в спан вызвавшего их репозитория. Вне запроса
+ * или задачи по расписанию (нет текущего наблюдения) метод вызывается без спана,
+ * чтобы фоновые опросы не порождали отдельных трасс.
+ * <p>
+ * Класс и метод записываются только в атрибуты спана; в метрику {@code omega.layer}
+ * попадает лишь слой (controller, service, repository), поэтому число таймеров не растёт.
+ */
+@Aspect
+@RequiredArgsConstructor
+public class TracingAspect {
+
+    public static final String OBSERVATION_NAME = "omega.layer";
+
+    private final ObservationRegistry registry;
+    private final Map<Class<?>, String> typeNames = new ConcurrentHashMap<>();
+
+    @Around("within(com.omega.shop.controller..*) && execution(public * *(..))")
+    public Object controller(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "controller");
+    }
+
+    @Around("within(com.omega.shop.service..*) && execution(public * *(..))")
+    public Object service(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "service");
+    }
+
+    @Around("execution(public * org.springframework.data.repository.Repository+.*(..))")
+    public Object repository(ProceedingJoinPoint joinPoint) throws Throwable {
+        return observe(joinPoint, "repository");
+    }
+
+    private Object observe(ProceedingJoinPoint joinPoint, String layer) throws Throwable {
+        if (registry.getCurrentObservation() == null) {
+            return joinPoint.proceed();
+        }
+        String type = typeNames.computeIfAbsent(joinPoint.getTarget().getClass(), key -> typeName(joinPoint.getTarget()));
+        String method = joinPoint.getSignature().getName();
+        return Observation.createNotStarted(OBSERVATION_NAME, registry)
+                .contextualName(type + "." + method)
+                .lowCardinalityKeyValue("layer", layer)
+                .highCardinalityKeyValue("code.namespace", type)
+                .highCardinalityKeyValue("code.function", method)
+                .observeChecked((Observation.CheckedCallable<Object, Throwable>) joinPoint::proceed);
+    }
+
+    /**
+     * Имя типа для спана: для репозиториев Spring Data - имя интерфейса, а не прокси
+     */
+    private static String typeName(Object target) {
+        for (Class<?> candidate : target.getClass().getInterfaces()) {
+            if (candidate.getName().startsWith("com.omega.shop.")) {
+                return candidate.getSimpleName();
+            }
+        }
+        return AopProxyUtils.ultimateTargetClass(target).getSimpleName();
+    }
+}
@@ -0,0 +1,82 @@
+package com.omega.shop.monitoring;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Обнаружение закрепления (pinning) виртуальных потоков на несущих потоках.
+ * <p>
+ * Слушает JFR-событие {@code jdk.VirtualThreadPinned}: оно возникает, когда виртуальный поток
+ * блокируется внутри {@code synchronized} или нативного вызова (часто - в JDBC-драйвере)
+ * и не может освободить несущий поток. Каждое такое событие пишется в лог с верхними
+ * кадрами стека и учитывается в метрике {@code omega.virtual.pinned}.
+ */
+@Component
+@ConditionalOnProperty(prefix = "spring.threads.virtual", name = "enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class VirtualThreadPinningMonitor implements SmartLifecycle {
+
+    private static final int STACK_DEPTH = 8;
+
+    private final MeterRegistry meterRegistry;
+
+    @Value("${omega.virtual-threads.pinning-threshold:20ms}")
+    private Duration threshold;
+
+    private RecordingStream stream;
+
+    @Override
+    public void start() {
+        Counter pinned = Counter.builder("omega.virtual.pinned")
+                .description("Закрепления виртуальных потоков дольше порога")
+                .register(meterRegistry);
+
+        stream = new RecordingStream();
+        stream.enable("jdk.VirtualThreadPinned").withThreshold(threshold).withStackTrace();
+        stream.onEvent("jdk.VirtualThreadPinned", event -> {
+            pinned.increment();
+            log.warn("Виртуальный поток закреплён на {} мс:\n{}", event.getDuration().toMillis(), topFrames(event));
+        });
+        stream.startAsync();
+        log.info("Мониторинг закрепления виртуальных потоков запущен (порог {})", threshold);
+    }
+
+    private String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "    <стек недоступен>";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(STACK_DEPTH)
+                .map(frame -> "    at " + frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining("\n"));
+    }
+
+    @Override
+    public void stop() {
+        if (stream != null) {
+            stream.close();
+            stream = null;
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return stream != null;
+    }
+}
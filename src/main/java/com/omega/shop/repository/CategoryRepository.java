@@ -1,11 +1,13 @@
 package com.omega.shop.repository;
 
+import com.omega.shop.dto.CategoryView;
 import com.omega.shop.entity.Category;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -32,17 +34,24 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
      * Найти все корневые категории (без родителя)
      */
     @Query("SELECT c FROM Category c WHERE c.parent IS NULL ORDER BY c.name")
-    java.util.List<Category> findRootCategories();
+    List<Category> findRootCategories();
 
     /**
      * Найти все дочерние категории для родителя
      */
     @Query("SELECT c FROM Category c WHERE c.parent.id = :parentId ORDER BY c.name")
-    java.util.List<Category> findByParentId(@Param("parentId") Long parentId);
+    List<Category> findByParentId(@Param("parentId") Long parentId);
 
     /**
      * Подсчитать количество товаров в категории
      */
     @Query("SELECT COUNT(p) FROM Product p WHERE p.category.id = :categoryId")
     long countProductsByCategoryId(@Param("categoryId") Long categoryId);
+
+    /**
+     * Все категории проекцией (для JSON API)
+     */
+    @Query("SELECT new com.omega.shop.dto.CategoryView(c.id, c.name, p.id) " +
+           "FROM Category c LEFT JOIN c.parent p ORDER BY c.id")
+    List<CategoryView> findAllViews();
 }
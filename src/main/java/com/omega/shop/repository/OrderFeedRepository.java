@@ -0,0 +1,51 @@
+package com.omega.shop.repository;
+
+import com.omega.shop.entity.OrderFeedEntry;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface OrderFeedRepository extends JpaRepository<OrderFeedEntry, Long> {
+
+    /**
+     * Блокировка ленты получателя до конца транзакции. Записи одного получателя вставляются по очереди,
+     * поэтому фиксируются в порядке change_seq, и клиент с курсором не пропустит запись, зафиксированную позже
+     * записи с большим номером.
+     *
+     * @param key ключ получателя, см. {@code OrderFeedService#lockKey}
+     */
+    @Query(value = "SELECT 1 FROM (SELECT pg_advisory_xact_lock(:key)) l", nativeQuery = true)
+    Integer lockRecipient(@Param("key") long key);
+
+    /**
+     * Изменения для получателя после курсора
+     */
+    @Query("SELECT e FROM OrderFeedEntry e WHERE e.recipientType = :type AND e.recipientId = :recipientId " +
+           "AND e.changeSeq > :after ORDER BY e.changeSeq")
+    List<OrderFeedEntry> findChanges(@Param("type") OrderFeedEntry.Recipient type,
+                                     @Param("recipientId") Long recipientId,
+                                     @Param("after") long after,
+                                     Limit limit);
+
+    /**
+     * Последняя запись получателя - курсор для клиента, который загружает список целиком
+     */
+    @Query("SELECT MAX(e.changeSeq) FROM OrderFeedEntry e WHERE e.recipientType = :type AND e.recipientId = :recipientId")
+    Optional<Long> findHead(@Param("type") OrderFeedEntry.Recipient type, @Param("recipientId") Long recipientId);
+
+    /**
+     * Самая старая сохранённая запись: курсор до неё указывает на удалённую часть ленты
+     */
+    @Query("SELECT MIN(e.changeSeq) FROM OrderFeedEntry e")
+    Optional<Long> findTail();
+
+    @Modifying
+    @Query("DELETE FROM OrderFeedEntry e WHERE e.createdAt < :before")
+    int deleteCreatedBefore(@Param("before") LocalDateTime before);
+}
@@ -1,5 +1,7 @@
 package com.omega.shop.repository;
 
+import com.omega.shop.dto.OrderItemRow;
+import com.omega.shop.dto.OrderItemView;
 import com.omega.shop.entity.OrderItem;
 import com.omega.shop.entity.Order;
 import com.omega.shop.entity.Product;
@@ -9,12 +11,41 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     boolean existsByProduct(Product product);
 
+    /**
+     * Позиции нескольких заказов одним запросом (для проекций API)
+     */
+    @Query("SELECT new com.omega.shop.dto.OrderItemRow(i.order.id, i.productName, i.quantity, i.price) " +
+           "FROM OrderItem i WHERE i.order.id IN :orderIds ORDER BY i.id")
+    List<OrderItemRow> findRowsByOrderIds(@Param("orderIds") Collection<Long> orderIds);
+
+    /**
+     * Позиции заказов, сгруппированные по ID заказа
+     */
+    default Map<Long, List<OrderItemView>> findViewsByOrderIds(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return Map.of();
+        }
+        return findRowsByOrderIds(orderIds).stream()
+                .collect(Collectors.groupingBy(OrderItemRow::orderId,
+                        Collectors.mapping(OrderItemRow::toView, Collectors.toList())));
+    }
+
+    /**
+     * Продавцы товаров заказа
+     */
+    @Query("SELECT DISTINCT p.seller.id FROM OrderItem i JOIN i.product p " +
+           "WHERE i.order.id = :orderId AND p.seller IS NOT NULL")
+    List<Long> findSellerIdsByOrderId(@Param("orderId") Long orderId);
+
     /**
      * Получить статистику продаж по продавцам за период
      * Возвращает информацию о продавце, общее количество проданных товаров и сумму продаж
@@ -1,20 +1,45 @@
 package com.omega.shop.repository;
 
+import com.omega.shop.dto.ActiveDelivery;
+import com.omega.shop.dto.DeliveryView;
+import com.omega.shop.dto.OrderView;
 import com.omega.shop.entity.Order;
 import com.omega.shop.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
+    /**
+     * Проекция доставки для API курьера
+     */
+    String DELIVERY_VIEW = "SELECT new com.omega.shop.dto.DeliveryView(o.id, o.deliveryStatus, u.username, " +
+            "o.phone, o.deliveryAddress, o.comment, o.totalAmount, " +
+            "o.courierAssignedAt, o.deliveryStartedAt, o.deliveredAt, o.updatedAt) " +
+            "FROM Order o JOIN o.user u ";
+
+    /**
+     * Проекция заказа для API покупателя
+     */
+    String ORDER_VIEW = "SELECT new com.omega.shop.dto.OrderView(o.id, o.status, o.deliveryStatus, " +
+            "o.totalAmount, o.deliveryAddress, o.createdAt, o.deliveredAt, o.updatedAt) FROM Order o ";
+
     /**
      * Найти заказы пользователя
      */
@@ -64,9 +89,63 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     );
 
     /**
-     * Найти новые заказы (для продавца)
+     * Захватить до limit свободных новых заказов: без продавца или с истёкшей арендой.
+     * Строки, заблокированные параллельным захватом, пропускаются (SKIP LOCKED): продавцы получают
+     * разные заказы и не ждут друг друга.
+     */
+    @Query(value = "SELECT o.id FROM orders o " +
+            "WHERE o.status = 'NEW' " +
+            "AND (o.claimed_by IS NULL OR o.claim_expires_at < :now) " +
+            "ORDER BY o.created_at " +
+            "LIMIT :limit " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockUnclaimedNew(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Выдать заказы продавцу (или продлить аренду уже выданных)
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.claimedBy = :seller, o.claimExpiresAt = :expiresAt WHERE o.id IN :ids")
+    int claim(@Param("ids") Collection<Long> ids, @Param("seller") User seller,
+              @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Взять новый заказ продавцом перед действием с ним. Обновляется 0 строк, если заказ уже не новый
+     * или его держит другой продавец с неистёкшей арендой.
+     */
+    @Modifying
+    @Query("UPDATE Order o SET o.claimedBy = :seller, o.claimExpiresAt = :expiresAt " +
+           "WHERE o.id = :id AND o.status = com.omega.shop.entity.Order$OrderStatus.NEW " +
+           "AND (o.claimedBy IS NULL OR o.claimedBy = :seller OR o.claimExpiresAt < :now)")
+    int claimForAction(@Param("id") Long id, @Param("seller") User seller,
+                       @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    /**
+     * Вернуть заказ в очередь
      */
-    Page<Order> findByStatusOrderByCreatedAtAsc(Order.OrderStatus status, Pageable pageable);
+    @Modifying
+    @Query("UPDATE Order o SET o.claimedBy = NULL, o.claimExpiresAt = NULL " +
+           "WHERE o.id = :id AND o.claimedBy = :seller AND o.status = com.omega.shop.entity.Order$OrderStatus.NEW")
+    int release(@Param("id") Long id, @Param("seller") User seller);
+
+    /**
+     * Новые заказы, которые держит продавец
+     */
+    @EntityGraph(attributePaths = {"user", "items"})
+    @Query("SELECT o FROM Order o WHERE o.status = com.omega.shop.entity.Order$OrderStatus.NEW " +
+           "AND o.claimedBy = :seller AND o.claimExpiresAt >= :now ORDER BY o.createdAt")
+    List<Order> findClaimed(@Param("seller") User seller, @Param("now") LocalDateTime now);
+
+    @Query("SELECT o.id FROM Order o WHERE o.status = com.omega.shop.entity.Order$OrderStatus.NEW " +
+           "AND o.claimedBy = :seller AND o.claimExpiresAt >= :now")
+    List<Long> findClaimedIds(@Param("seller") User seller, @Param("now") LocalDateTime now);
+
+    /**
+     * Размер очереди: новые заказы, которые сейчас никто не держит
+     */
+    @Query("SELECT COUNT(o) FROM Order o WHERE o.status = com.omega.shop.entity.Order$OrderStatus.NEW " +
+           "AND (o.claimedBy IS NULL OR o.claimExpiresAt < :now)")
+    long countUnclaimed(@Param("now") LocalDateTime now);
 
     /**
      * Найти заказы готовые к отправке
@@ -78,6 +157,31 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             Pageable pageable
     );
 
+    /**
+     * Активные доставки всех курьеров: загрузка и районы для автоназначения
+     */
+    @Query("SELECT new com.omega.shop.dto.ActiveDelivery(o.courier.id, o.deliveryAddress) FROM Order o " +
+           "WHERE o.courier IS NOT NULL AND o.deliveryStatus IN :statuses")
+    List<ActiveDelivery> findActiveDeliveries(@Param("statuses") Collection<Order.DeliveryStatus> statuses);
+
+    /**
+     * Назначить курьера, если заказ всё ещё ждёт его. 0 строк - курьер уже назначен (например, продавцом
+     * вручную после чтения пачки) или заказ больше не готов к отправке
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Order o SET o.courier = :courier, " +
+           "o.deliveryStatus = com.omega.shop.entity.Order$DeliveryStatus.ASSIGNED, " +
+           "o.courierAssignedAt = :now, o.updatedAt = :now " +
+           "WHERE o.id = :id AND o.status = com.omega.shop.entity.Order$OrderStatus.READY_FOR_DELIVERY " +
+           "AND o.deliveryStatus = com.omega.shop.entity.Order$DeliveryStatus.READY")
+    int assignIfReady(@Param("id") Long id, @Param("courier") User courier, @Param("now") LocalDateTime now);
+
+    /**
+     * Взять блокировку автоназначения до конца транзакции; false, если её держит другой узел
+     */
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryLockDispatch(@Param("key") long key);
+
     /**
      * Подсчитать количество заказов курьера
      */
@@ -128,4 +232,69 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
             @Param("seller") User seller,
             @Param("status") Order.OrderStatus status,
             Pageable pageable);
-}
\ No newline at end of file
+
+    /**
+     * Время изменения заказа, если он принадлежит пользователю
+     */
+    @Query("SELECT o.updatedAt FROM Order o WHERE o.id = :id AND o.user.id = :userId")
+    Optional<LocalDateTime> findUpdatedAtByIdAndUserId(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Время изменения заказа или его покупателя, если заказ назначен курьеру
+     */
+    @Query("SELECT GREATEST(o.updatedAt, u.updatedAt) FROM Order o JOIN o.user u " +
+           "WHERE o.id = :id AND o.courier.id = :courierId")
+    Optional<LocalDateTime> findUpdatedAtByIdAndCourierId(@Param("id") Long id, @Param("courierId") Long courierId);
+
+    /**
+     * Заказы с покупателем и курьером для потокового вывода списка: строки читаются курсором
+     * порциями по 200, вызывать только внутри транзакции
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.courier ORDER BY o.createdAt DESC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "200"))
+    Stream<Order> streamAllWithCustomer(Pageable pageable);
+
+    /**
+     * То же с фильтром по статусу
+     */
+    @Query("SELECT o FROM Order o JOIN FETCH o.user LEFT JOIN FETCH o.courier " +
+           "WHERE o.status = :status ORDER BY o.createdAt DESC")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "200"))
+    Stream<Order> streamByStatusWithCustomer(@Param("status") Order.OrderStatus status, Pageable pageable);
+
+    long countByStatus(Order.OrderStatus status);
+
+    /**
+     * Доставки курьера, новые сверху; {@code status = null} - все
+     */
+    @Query(DELIVERY_VIEW + "WHERE o.courier.id = :courierId " +
+           "AND (:status IS NULL OR o.deliveryStatus = :status) ORDER BY o.createdAt DESC")
+    List<DeliveryView> findDeliveryViews(@Param("courierId") Long courierId,
+                                         @Param("status") Order.DeliveryStatus status,
+                                         Pageable pageable);
+
+    @Query(DELIVERY_VIEW + "WHERE o.id = :id AND o.courier.id = :courierId")
+    Optional<DeliveryView> findDeliveryView(@Param("id") Long id, @Param("courierId") Long courierId);
+
+    @Query(DELIVERY_VIEW + "WHERE o.id IN :ids AND o.courier.id = :courierId")
+    List<DeliveryView> findDeliveryViewsByIds(@Param("ids") Collection<Long> ids, @Param("courierId") Long courierId);
+
+    /**
+     * Заказы покупателя, новые сверху
+     */
+    @Query(ORDER_VIEW + "WHERE o.user.id = :userId ORDER BY o.createdAt DESC")
+    List<OrderView> findOrderViews(@Param("userId") Long userId, Pageable pageable);
+
+    @Query(ORDER_VIEW + "WHERE o.id = :id AND o.user.id = :userId")
+    Optional<OrderView> findOrderView(@Param("id") Long id, @Param("userId") Long userId);
+
+    @Query(ORDER_VIEW + "WHERE o.id IN :ids")
+    List<OrderView> findOrderViewsByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Заказы с товарами продавца, новые сверху (полная загрузка перед синхронизацией по ленте)
+     */
+    @Query(ORDER_VIEW + "WHERE EXISTS (SELECT 1 FROM OrderItem oi JOIN oi.product p " +
+           "WHERE oi.order = o AND p.seller.id = :sellerId) ORDER BY o.createdAt DESC")
+    List<OrderView> findSellerOrderViews(@Param("sellerId") Long sellerId, Pageable pageable);
+}
@@ -0,0 +1,48 @@
+package com.omega.shop.repository;
+
+import com.omega.shop.entity.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    /**
+     * Захватить пачку неопубликованных событий.
+     * Берётся только самое раннее событие каждого агрегата, поэтому порядок внутри агрегата
+     * сохраняется даже при нескольких параллельных ретрансляторах: пока первое событие
+     * заблокировано одним узлом, следующее за ним не видно другим (SKIP LOCKED).
+     * Событие, отложенное после ошибки ({@code next_attempt_at > now}), задерживает
+     * и все следующие события своего агрегата.
+     */
+    @Query(value = "SELECT * FROM outbox o " +
+            "WHERE o.status = 'PENDING' " +
+            "AND (o.next_attempt_at IS NULL OR o.next_attempt_at <= :now) " +
+            "AND NOT EXISTS (SELECT 1 FROM outbox p " +
+            "                WHERE p.status = 'PENDING' " +
+            "                AND p.aggregate_type = o.aggregate_type " +
+            "                AND p.aggregate_id = o.aggregate_id " +
+            "                AND p.id < o.id) " +
+            "ORDER BY o.id " +
+            "LIMIT :batchSize " +
+            "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxEvent> lockNextBatch(@Param("batchSize") int batchSize, @Param("now") LocalDateTime now);
+
+    /**
+     * Удалить события в статусе status старше указанной даты
+     */
+    @Modifying
+    @Query("DELETE FROM OutboxEvent e WHERE e.status = :status AND e.publishedAt < :before")
+    int deleteByStatusBefore(@Param("status") OutboxEvent.Status status, @Param("before") LocalDateTime before);
+
+    /**
+     * Подсчитать события по статусу
+     */
+    long countByStatus(OutboxEvent.Status status);
+}
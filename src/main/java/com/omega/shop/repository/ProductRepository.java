@@ -1,40 +1,62 @@
 package com.omega.shop.repository;
 
+import com.omega.shop.dto.ProductView;
 import com.omega.shop.entity.Category;
 import com.omega.shop.entity.Product;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
 
     /**
-     * Найти все активные товары
+     * Проекция товара для JSON API. Описание (TEXT) читается, только если его запросили
      */
+    String PRODUCT_VIEW = "SELECT new com.omega.shop.dto.ProductView(p.id, p.name, " +
+            "CASE WHEN :withDescription = true THEN p.description ELSE NULL END, " +
+            "p.price, p.quantity, p.imagePath, c.id, c.name, p.updatedAt) " +
+            "FROM Product p JOIN p.category c ";
+
+    /**
+     * Найти все активные товары. Здесь и в остальных страницах каталога категория загружается
+     * тем же запросом: карточка товара выводит её название
+     */
+    @EntityGraph(attributePaths = {"category"})
     Page<Product> findByIsActiveTrue(Pageable pageable);
 
     /**
      * Найти товары по категории
      */
+    @EntityGraph(attributePaths = {"category"})
     Page<Product> findByCategoryAndIsActiveTrue(Category category, Pageable pageable);
 
     /**
      * Поиск товаров по имени (регистронезависимый)
      */
+    @EntityGraph(attributePaths = {"category"})
     @Query("SELECT p FROM Product p WHERE LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) AND p.isActive = true")
     Page<Product> searchByName(@Param("keyword") String keyword, Pageable pageable);
 
     /**
      * Фильтрация по категории и диапазону цен
      */
+    @EntityGraph(attributePaths = {"category"})
     @Query("SELECT p FROM Product p WHERE p.category = :category " +
             "AND p.price BETWEEN :minPrice AND :maxPrice " +
             "AND p.isActive = true")
@@ -48,6 +70,7 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     /**
      * Фильтрация только по диапазону цен
      */
+    @EntityGraph(attributePaths = {"category"})
     @Query("SELECT p FROM Product p WHERE p.price BETWEEN :minPrice AND :maxPrice AND p.isActive = true")
     Page<Product> findByPriceRange(
             @Param("minPrice") BigDecimal minPrice,
@@ -70,4 +93,43 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
      */
     @EntityGraph(attributePaths = {"category"})
     List<Product> findTop5ByOrderByCreatedAtDesc();
+
+    /**
+     * Время последнего изменения товара - без загрузки самого товара (для ETag)
+     */
+    @Query("SELECT p.updatedAt FROM Product p WHERE p.id = :id")
+    Optional<LocalDateTime> findUpdatedAtById(@Param("id") Long id);
+
+    /**
+     * Активные товары с категорией для потокового вывода списка (курсор, порции по 200)
+     */
+    @Query("SELECT p FROM Product p JOIN FETCH p.category WHERE p.isActive = true ORDER BY p.id")
+    @QueryHints(@QueryHint(name = AvailableHints.HINT_FETCH_SIZE, value = "200"))
+    Stream<Product> streamActiveWithCategory(Pageable pageable);
+
+    long countByIsActiveTrue();
+
+    /**
+     * Страница активных товаров после {@code afterId} (keyset-пагинация по первичному ключу)
+     */
+    @Query(PRODUCT_VIEW + "WHERE p.isActive = true AND p.id > :afterId ORDER BY p.id")
+    List<ProductView> findViewsAfter(@Param("afterId") long afterId,
+                                     @Param("withDescription") boolean withDescription,
+                                     Limit limit);
+
+    /**
+     * Страница активных товаров категории после {@code afterId}
+     */
+    @Query(PRODUCT_VIEW + "WHERE p.isActive = true AND p.id > :afterId AND c.id = :categoryId ORDER BY p.id")
+    List<ProductView> findViewsAfterInCategory(@Param("afterId") long afterId,
+                                               @Param("categoryId") Long categoryId,
+                                               @Param("withDescription") boolean withDescription,
+                                               Limit limit);
+
+    /**
+     * Активные товары по списку ID
+     */
+    @Query(PRODUCT_VIEW + "WHERE p.isActive = true AND p.id IN :ids")
+    List<ProductView> findViewsByIds(@Param("ids") Collection<Long> ids,
+                                     @Param("withDescription") boolean withDescription);
 }
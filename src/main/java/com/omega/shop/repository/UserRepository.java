@@ -2,6 +2,8 @@ package com.omega.shop.repository;
 
 import com.omega.shop.entity.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
@@ -33,4 +35,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
      * Найти всех пользователей по роли
      */
     java.util.List<User> findByRole(User.Role role);
+
+    /**
+     * ID активных пользователей с ролью
+     */
+    @Query("SELECT u.id FROM User u WHERE u.role = :role AND u.isActive = true")
+    java.util.List<Long> findActiveIdsByRole(@Param("role") User.Role role);
 }
@@ -0,0 +1,19 @@
+package com.omega.shop.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Параметр обработчика контроллера, в который подставляется текущий пользователь
+ * ({@link com.omega.shop.entity.User}). Пользователь берётся из {@link CurrentUserCache}
+ * по идентификатору из {@link ShopUserPrincipal}, без запроса к БД при попадании в кэш.
+ * Если пользователь не аутентифицирован или удалён, выбрасывается {@link IllegalStateException}.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
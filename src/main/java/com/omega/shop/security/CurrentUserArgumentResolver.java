@@ -0,0 +1,48 @@
+package com.omega.shop.security;
+
+import com.omega.shop.entity.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Подставляет текущего пользователя в параметры, отмеченные {@link CurrentUser}
+ */
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private final CurrentUserCache currentUserCache;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+                && User.class.isAssignableFrom(parameter.getParameterType());
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || authentication instanceof AnonymousAuthenticationToken) {
+            throw new IllegalStateException("Пользователь не аутентифицирован");
+        }
+
+        User user = authentication.getPrincipal() instanceof ShopUserPrincipal principal
+                ? currentUserCache.get(principal.getId())
+                        .orElseThrow(() -> new IllegalStateException("Пользователь не найден"))
+                : currentUserCache.getByUsername(authentication.getName())
+                        .orElseThrow(() -> new IllegalStateException("Пользователь не найден"));
+        // Сессия и access-токен переживают блокировку; кэш сбрасывается при её изменении
+        if (!user.isActive()) {
+            throw new AccessDeniedException("Пользователь заблокирован");
+        }
+        return user;
+    }
+}
@@ -0,0 +1,107 @@
+package com.omega.shop.security;
+
+import com.omega.shop.cache.CacheInvalidation;
+import com.omega.shop.cache.CacheInvalidationEvent;
+import com.omega.shop.entity.User;
+import com.omega.shop.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Небольшой кэш пользователей по идентификатору с ограниченным временем жизни.
+ * <p>
+ * Запись удаляется по {@link CacheInvalidationEvent} для сущности USER (в том числе
+ * пришедшему с другого узла) и по истечении {@code omega.security.user-cache.ttl}.
+ * Кэш хранит отсоединённую копию сущности и выдаёт каждому запросу собственную копию:
+ * один экземпляр не разделяется между потоками, а изменения копии не попадают в кэш.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CurrentUserCache {
+
+    private final UserRepository userRepository;
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+
+    // Увеличивается при каждой инвалидации: загрузка, начатая до неё, не попадёт в кэш
+    private final AtomicLong generation = new AtomicLong();
+
+    @Value("${omega.security.user-cache.ttl:60s}")
+    private Duration ttl;
+
+    @Value("${omega.security.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private LongSupplier nanoTime = System::nanoTime;
+
+    /**
+     * Пользователь по идентификатору: из кэша или из БД
+     */
+    public Optional<User> get(Long id) {
+        long now = nanoTime.getAsLong();
+        Entry entry = entries.get(id);
+        if (entry != null && entry.expiresAt() - now > 0) {
+            return Optional.of(copyOf(entry.user()));
+        }
+
+        long loadGeneration = generation.get();
+        Optional<User> loaded = userRepository.findById(id);
+        loaded.ifPresent(user -> {
+            if (entries.size() >= maxSize) {
+                evictExpired(now);
+            }
+            if (generation.get() == loadGeneration && entries.size() < maxSize) {
+                entries.put(id, new Entry(copyOf(user), now + ttl.toNanos()));
+            }
+        });
+        return loaded.map(CurrentUserCache::copyOf);
+    }
+
+    /**
+     * Пользователь по имени - для аутентификаций без {@link ShopUserPrincipal}
+     */
+    public Optional<User> getByUsername(String username) {
+        return userRepository.findByUsername(username).map(CurrentUserCache::copyOf);
+    }
+
+    @EventListener
+    public void onInvalidation(CacheInvalidationEvent event) {
+        if (!event.affects(CacheInvalidation.Entity.USER)) {
+            return;
+        }
+        generation.incrementAndGet();
+        if (event.flushAll()) {
+            entries.clear();
+            return;
+        }
+        event.invalidations().stream()
+                .filter(invalidation -> invalidation.entity() == CacheInvalidation.Entity.USER)
+                .forEach(invalidation -> entries.remove(invalidation.id()));
+    }
+
+    private void evictExpired(long now) {
+        entries.values().removeIf(entry -> entry.expiresAt() - now <= 0);
+        if (entries.size() >= maxSize) {
+            log.debug("Кэш пользователей заполнен ({} записей), очистка", entries.size());
+            entries.clear();
+        }
+    }
+
+    private static User copyOf(User user) {
+        return new User(user.getId(), user.getUsername(), user.getEmail(), user.getPhone(), user.getPassword(),
+                user.getRole(), user.isActive(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+
+    private record Entry(User user, long expiresAt) {
+    }
+}
@@ -1,23 +1,25 @@
 package com.omega.shop.security;
 
+import com.omega.shop.cache.CacheInvalidation;
+import com.omega.shop.cache.CacheInvalidationBus;
 import com.omega.shop.entity.User;
 import com.omega.shop.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
-
-import java.util.Collection;
-import java.util.Collections;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
 @RequiredArgsConstructor
-public class CustomUserDetailsService implements UserDetailsService {
+@Slf4j
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     private final UserRepository userRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -25,20 +27,23 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .orElseThrow(() -> new UsernameNotFoundException(
                         "Пользователь не найден: " + username));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getUsername(),
-                user.getPassword(),
-                user.isActive(),
-                true, // accountNonExpired
-                true, // credentialsNonExpired
-                true, // accountNonLocked
-                getAuthorities(user)
-        );
+        return new ShopUserPrincipal(user);
     }
 
-    private Collection<? extends GrantedAuthority> getAuthorities(User user) {
-        return Collections.singletonList(
-                new SimpleGrantedAuthority("ROLE_" + user.getRole().name())
-        );
+    /**
+     * Сохранить пересчитанный хэш пароля. Вызывается после успешного входа, если хэш
+     * посчитан с меньшей стоимостью BCrypt, чем задана сейчас.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+        User user = userRepository.findByUsername(userDetails.getUsername())
+                .orElseThrow(() -> new UsernameNotFoundException(
+                        "Пользователь не найден: " + userDetails.getUsername()));
+        user.setPassword(newPassword);
+        User saved = userRepository.saveAndFlush(user);
+        cacheInvalidationBus.invalidate(CacheInvalidation.Entity.USER, saved.getId());
+        log.info("Хэш пароля пользователя {} пересчитан с новой стоимостью BCrypt", saved.getUsername());
+        return new ShopUserPrincipal(saved);
     }
-}
\ No newline at end of file
+}
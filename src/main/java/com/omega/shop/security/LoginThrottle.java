@@ -0,0 +1,183 @@
+package com.omega.shop.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Ограничение частоты попыток входа и регистрации: token bucket на IP-адрес и на имя пользователя.
+ * <p>
+ * Корзина IP вмещает {@code ip.capacity} попыток и пополняется на {@code ip.refill-per-minute}
+ * в минуту; корзина имени - аналогично. Корзина имени защищает одну учётную запись от подбора
+ * с многих адресов, корзина IP - все учётные записи от подбора с одного адреса.
+ * Пополнившиеся до конца корзины удаляются раз в минуту, поэтому память занимают только
+ * недавно активные ключи. Если ключей больше {@code max-keys} и удалить нечего, попытки с новыми
+ * ключами отклоняются: активные корзины, в том числе атакуемые, никогда не сбрасываются.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class LoginThrottle {
+
+    // Через сколько повторить попытку с новым ключом, когда места нет: период удаления полных корзин
+    private static final long OVERFLOW_RETRY_AFTER_SECONDS = 60;
+
+    private static final long OVERFLOW_EVICTION_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong lastOverflowEviction = new AtomicLong(Long.MIN_VALUE);
+
+    @Value("${omega.security.login-throttle.enabled:true}")
+    private boolean enabled;
+
+    @Value("${omega.security.login-throttle.ip.capacity:30}")
+    private int ipCapacity;
+
+    @Value("${omega.security.login-throttle.ip.refill-per-minute:30}")
+    private int ipRefillPerMinute;
+
+    @Value("${omega.security.login-throttle.username.capacity:10}")
+    private int usernameCapacity;
+
+    @Value("${omega.security.login-throttle.username.refill-per-minute:5}")
+    private int usernameRefillPerMinute;
+
+    @Value("${omega.security.login-throttle.max-keys:100000}")
+    private int maxKeys;
+
+    private LongSupplier nanoTime = System::nanoTime;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Списать попытку
+     *
+     * @param ip       адрес клиента
+     * @param username имя пользователя из формы или null, если его нет
+     * @return 0, если попытка разрешена, иначе через сколько секунд повторить
+     */
+    public long tryAcquire(String ip, String username) {
+        long now = nanoTime.getAsLong();
+        TokenBucket ipBucket = bucket("ip:" + ip, ipCapacity, ipRefillPerMinute, now);
+        if (ipBucket == null) {
+            rejected("overflow");
+            return OVERFLOW_RETRY_AFTER_SECONDS;
+        }
+        long retryAfter = ipBucket.tryConsume(now);
+        if (retryAfter > 0) {
+            rejected("ip");
+            return retryAfter;
+        }
+        if (username != null && !username.isBlank()) {
+            String key = "user:" + username.trim().toLowerCase(Locale.ROOT);
+            TokenBucket usernameBucket = bucket(key, usernameCapacity, usernameRefillPerMinute, now);
+            if (usernameBucket == null) {
+                rejected("overflow");
+                return OVERFLOW_RETRY_AFTER_SECONDS;
+            }
+            retryAfter = usernameBucket.tryConsume(now);
+            if (retryAfter > 0) {
+                rejected("username");
+                return retryAfter;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Удалить полные корзины - по ним давно не было попыток
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdle() {
+        long now = nanoTime.getAsLong();
+        buckets.values().removeIf(bucket -> bucket.isFull(now));
+    }
+
+    /**
+     * Корзина ключа или null, если ключ новый, а места для него нет
+     */
+    private TokenBucket bucket(String key, int capacity, int refillPerMinute, long now) {
+        TokenBucket bucket = buckets.get(key);
+        if (bucket != null) {
+            return bucket;
+        }
+        if (buckets.size() >= maxKeys) {
+            // Защита от переполнения памяти при переборе адресов или имён. Обход всех корзин -
+            // не чаще раза в секунду, иначе каждая попытка с новым ключом обходила бы всю карту
+            long last = lastOverflowEviction.get();
+            boolean due = last == Long.MIN_VALUE || now - last >= OVERFLOW_EVICTION_INTERVAL_NANOS;
+            if (due && lastOverflowEviction.compareAndSet(last, now)) {
+                evictIdle();
+                if (buckets.size() >= maxKeys) {
+                    log.warn("Слишком много ключей ограничения входа ({}), новые ключи отклоняются", buckets.size());
+                }
+            }
+            if (buckets.size() >= maxKeys) {
+                return null;
+            }
+        }
+        return buckets.computeIfAbsent(key, k -> new TokenBucket(capacity, refillPerMinute, now));
+    }
+
+    private void rejected(String by) {
+        Counter.builder("omega.login.throttled")
+                .description("Попытки входа и регистрации, отклонённые ограничением частоты")
+                .tag("by", by)
+                .register(meterRegistry)
+                .increment();
+    }
+
+    /**
+     * Корзина токенов; время - в наносекундах {@link System#nanoTime()}
+     */
+    static final class TokenBucket {
+
+        private final int capacity;
+        private final double tokensPerNano;
+        private double tokens;
+        private long updatedAt;
+
+        TokenBucket(int capacity, int refillPerMinute, long now) {
+            this.capacity = capacity;
+            this.tokensPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+            this.tokens = capacity;
+            this.updatedAt = now;
+        }
+
+        /**
+         * @return 0 при успехе, иначе секунды до появления токена
+         */
+        synchronized long tryConsume(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerNano / TimeUnit.SECONDS.toNanos(1)));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (now - updatedAt) * tokensPerNano);
+            updatedAt = now;
+        }
+    }
+}
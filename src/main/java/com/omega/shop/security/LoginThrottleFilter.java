@@ -0,0 +1,61 @@
+package com.omega.shop.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+
+/**
+ * Ограничение частоты POST {@code /login}, {@code /register} и {@code /api/auth/token}
+ * (см. {@link LoginThrottle}). Стоит перед аутентификацией, поэтому отклонённая попытка
+ * не доходит ни до БД, ни до BCrypt. Форма получает редирект на свою страницу
+ * с параметром {@code throttled}, API - 429 с {@code Retry-After}.
+ * Имя пользователя берётся из параметров формы; для JSON API действует только ограничение по IP.
+ */
+@RequiredArgsConstructor
+public class LoginThrottleFilter extends OncePerRequestFilter {
+
+    private static final Set<String> PATHS = Set.of("/login", "/register", "/api/auth/token");
+
+    private final LoginThrottle throttle;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !throttle.isEnabled()
+                || !HttpMethod.POST.matches(request.getMethod())
+                || !PATHS.contains(request.getServletPath());
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String path = request.getServletPath();
+        String username = path.startsWith("/api/") ? null : request.getParameter("username");
+        long retryAfter = throttle.tryAcquire(request.getRemoteAddr(), username);
+        if (retryAfter == 0) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+        if (path.startsWith("/api/")) {
+            response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+            response.getWriter().write("{\"success\":false,\"message\":\"Слишком много попыток, повторите через "
+                    + retryAfter + " с\"}");
+            return;
+        }
+        response.sendRedirect(request.getContextPath() + path + "?throttled=" + retryAfter);
+    }
+}
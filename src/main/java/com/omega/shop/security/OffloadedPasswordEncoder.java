@@ -0,0 +1,142 @@
+package com.omega.shop.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Хэширование и проверка паролей на отдельном ограниченном пуле потоков.
+ * <p>
+ * BCrypt занимает процессор на десятки миллисекунд. Если выполнять его в потоках запросов,
+ * всплеск регистраций или подбор паролей займёт все ядра и остановит каталог. Здесь одновременно
+ * работает не больше {@code threads} хэширований, ещё {@code queueCapacity} ждут в очереди.
+ * Когда очередь полна или ожидание дольше {@code maxWait}, выбрасывается
+ * {@link PasswordHashingUnavailableException}: запрос сразу получает отказ и не ждёт.
+ */
+@Slf4j
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final Duration maxWait;
+
+    private final Timer queueTimer;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedTimeout;
+
+    public OffloadedPasswordEncoder(PasswordEncoder delegate, int threads, int queueCapacity,
+                                    Duration maxWait, MeterRegistry registry) {
+        this.delegate = delegate;
+        this.maxWait = maxWait;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.queueTimer = Timer.builder("omega.password.queue.wait")
+                .description("Ожидание в очереди хэширования паролей")
+                .register(registry);
+        this.encodeTimer = Timer.builder("omega.password.hash.duration")
+                .description("Время хэширования или проверки пароля")
+                .tag("operation", "encode")
+                .register(registry);
+        this.matchesTimer = Timer.builder("omega.password.hash.duration")
+                .description("Время хэширования или проверки пароля")
+                .tag("operation", "matches")
+                .register(registry);
+        this.rejectedQueueFull = Counter.builder("omega.password.rejected")
+                .description("Операции с паролем, отклонённые из-за перегрузки")
+                .tag("reason", "queue_full")
+                .register(registry);
+        this.rejectedTimeout = Counter.builder("omega.password.rejected")
+                .description("Операции с паролем, отклонённые из-за перегрузки")
+                .tag("reason", "timeout")
+                .register(registry);
+        Gauge.builder("omega.password.queue.size", executor, pool -> pool.getQueue().size())
+                .description("Операции с паролем в очереди")
+                .register(registry);
+        Gauge.builder("omega.password.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Выполняемые сейчас операции с паролем")
+                .register(registry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return submit(() -> delegate.encode(rawPassword), encodeTimer);
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(() -> delegate.matches(rawPassword, encodedPassword), matchesTimer);
+    }
+
+    /**
+     * Дешёвая проверка по префиксу хэша - в пул не отправляется
+     */
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T submit(Callable<T> task, Timer timer) {
+        long submitted = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long started = System.nanoTime();
+                queueTimer.record(started - submitted, TimeUnit.NANOSECONDS);
+                T result = task.call();
+                timer.record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+                return result;
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            log.warn("Очередь хэширования паролей заполнена ({} задач)", executor.getQueue().size());
+            throw new PasswordHashingUnavailableException("Сервер перегружен, повторите попытку позже");
+        }
+
+        try {
+            return future.get(maxWait.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // Задача ещё в очереди - убираем её, чтобы не тратить процессор на ответ, который никто не ждёт
+            future.cancel(false);
+            rejectedTimeout.increment();
+            throw new PasswordHashingUnavailableException("Сервер перегружен, повторите попытку позже");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException("Проверка пароля прервана");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.omega.shop.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Очередь хэширования паролей переполнена или ожидание в ней слишком долгое
+ */
+public class PasswordHashingUnavailableException extends AuthenticationServiceException {
+
+    public PasswordHashingUnavailableException(String message) {
+        super(message);
+    }
+}
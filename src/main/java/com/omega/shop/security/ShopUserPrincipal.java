@@ -0,0 +1,43 @@
+package com.omega.shop.security;
+
+import com.omega.shop.entity.User;
+import lombok.Getter;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+
+/**
+ * Аутентифицированный пользователь магазина.
+ * Помимо имени и ролей хранит идентификатор и роль {@link User}, поэтому контроллерам
+ * не нужно искать пользователя по имени на каждом запросе (см. {@link CurrentUser}).
+ * Хранится в HTTP-сессии, для {@code /api/**} восстанавливается из access-токена.
+ */
+@Getter
+public class ShopUserPrincipal extends org.springframework.security.core.userdetails.User {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Long id;
+    private final User.Role role;
+
+    public ShopUserPrincipal(User user) {
+        super(user.getUsername(),
+                user.getPassword(),
+                user.isActive(),
+                true, // accountNonExpired
+                true, // credentialsNonExpired
+                true, // accountNonLocked
+                List.of(new SimpleGrantedAuthority("ROLE_" + user.getRole().name())));
+        this.id = user.getId();
+        this.role = user.getRole();
+    }
+
+    /**
+     * Пользователь, восстановленный из JWT: без пароля и без обращения к БД
+     */
+    public ShopUserPrincipal(Long id, String username, User.Role role) {
+        super(username, "", List.of(new SimpleGrantedAuthority("ROLE_" + role.name())));
+        this.id = id;
+        this.role = role;
+    }
+}
@@ -0,0 +1,58 @@
+package com.omega.shop.security.jwt;
+
+import com.omega.shop.security.ShopUserPrincipal;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Аутентификация по заголовку {@code Authorization: Bearer <access-токен>}.
+ * Запрос без заголовка проходит дальше анонимным; недействительный токен сразу
+ * получает 401 - без обращения к сессии и к БД.
+ */
+@RequiredArgsConstructor
+public class JwtAuthenticationFilter extends OncePerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    private final JwtTokenService tokenService;
+    private final AuthenticationEntryPoint entryPoint;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.regionMatches(true, 0, BEARER, 0, BEARER.length())) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        try {
+            ShopUserPrincipal principal = tokenService.parseAccessToken(header.substring(BEARER.length()).trim());
+            UsernamePasswordAuthenticationToken authentication = UsernamePasswordAuthenticationToken.authenticated(
+                    principal, null, principal.getAuthorities());
+            authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+            SecurityContext context = SecurityContextHolder.createEmptyContext();
+            context.setAuthentication(authentication);
+            SecurityContextHolder.setContext(context);
+        } catch (AuthenticationException e) {
+            SecurityContextHolder.clearContext();
+            entryPoint.commence(request, response, e);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+}
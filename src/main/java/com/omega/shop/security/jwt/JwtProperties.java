@@ -0,0 +1,62 @@
+package com.omega.shop.security.jwt;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Настройки JWT для {@code /api/**} (omega.jwt.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "omega.jwt")
+public class JwtProperties {
+
+    /**
+     * Издатель токенов (claim {@code iss})
+     */
+    private String issuer = "omega-shop";
+
+    /**
+     * Время жизни access-токена
+     */
+    private Duration accessTokenTtl = Duration.ofMinutes(15);
+
+    /**
+     * Время жизни refresh-токена
+     */
+    private Duration refreshTokenTtl = Duration.ofDays(14);
+
+    /**
+     * Допустимое расхождение часов между узлами
+     */
+    private Duration clockSkew = Duration.ofSeconds(30);
+
+    /**
+     * Идентификатор ключа, которым подписываются новые токены
+     */
+    private String activeKey;
+
+    /**
+     * Ключи подписи HMAC-SHA256. Проверка принимает любой из них, поэтому при ротации
+     * новый ключ сначала добавляется на все узлы, затем становится активным, а старый
+     * удаляется не раньше, чем истечёт refresh-токен, подписанный им.
+     */
+    private List<Key> keys = new ArrayList<>();
+
+    @Data
+    public static class Key {
+
+        /**
+         * Идентификатор ключа (заголовок {@code kid})
+         */
+        private String id;
+
+        /**
+         * Секрет в Base64, не короче 256 бит
+         */
+        private String secret;
+    }
+}
@@ -0,0 +1,152 @@
+package com.omega.shop.security.jwt;
+
+import com.omega.shop.entity.User;
+import com.omega.shop.security.ShopUserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import javax.crypto.SecretKey;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Выпуск и проверка JWT для {@code /api/**}.
+ * <p>
+ * Access-токен короткий и проверяется без обращения к БД: идентификатор и роль
+ * пользователя берутся из claims {@code uid} и {@code role}. Refresh-токен живёт дольше
+ * и годится только для {@code /api/auth/refresh}, где пользователь перечитывается -
+ * так до нового access-токена доходят блокировка и смена роли.
+ * Заголовок {@code kid} указывает, каким из ключей {@link JwtProperties#getKeys()} подписан токен.
+ */
+@Component
+@Slf4j
+public class JwtTokenService {
+
+    public static final String ACCESS = "access";
+    public static final String REFRESH = "refresh";
+
+    private static final String CLAIM_USER_ID = "uid";
+    private static final String CLAIM_ROLE = "role";
+    private static final String CLAIM_TOKEN_TYPE = "token_type";
+
+    private final JwtProperties properties;
+    private final Clock clock;
+    private final Map<String, SecretKey> keys = new LinkedHashMap<>();
+    private final String activeKeyId;
+    private final JwtParser parser;
+
+    @Autowired
+    public JwtTokenService(JwtProperties properties) {
+        this(properties, Clock.systemUTC());
+    }
+
+    JwtTokenService(JwtProperties properties, Clock clock) {
+        this.properties = properties;
+        this.clock = clock;
+
+        for (JwtProperties.Key key : properties.getKeys()) {
+            if (key.getId() == null || key.getSecret() == null) {
+                throw new IllegalArgumentException("У ключа JWT должны быть указаны id и secret");
+            }
+            keys.put(key.getId(), Keys.hmacShaKeyFor(Decoders.BASE64.decode(key.getSecret())));
+        }
+        if (keys.isEmpty()) {
+            log.warn("Ключи JWT (omega.jwt.keys) не заданы - используется временный ключ: "
+                    + "токены не переживут перезапуск и не будут приняты другими узлами");
+            keys.put("ephemeral", Jwts.SIG.HS256.key().build());
+        }
+
+        this.activeKeyId = StringUtils.hasText(properties.getActiveKey())
+                ? properties.getActiveKey()
+                : keys.keySet().iterator().next();
+        if (!keys.containsKey(activeKeyId)) {
+            throw new IllegalArgumentException("Активный ключ JWT не найден среди omega.jwt.keys: " + activeKeyId);
+        }
+
+        this.parser = Jwts.parser()
+                .keyLocator(header -> header instanceof JwsHeader jws ? keys.get(jws.getKeyId()) : null)
+                .requireIssuer(properties.getIssuer())
+                .clockSkewSeconds(properties.getClockSkew().toSeconds())
+                .clock(() -> Date.from(clock.instant()))
+                .build();
+    }
+
+    public String createAccessToken(User user) {
+        return create(user, ACCESS, properties.getAccessTokenTtl().toSeconds());
+    }
+
+    public String createRefreshToken(User user) {
+        return create(user, REFRESH, properties.getRefreshTokenTtl().toSeconds());
+    }
+
+    /**
+     * Проверить access-токен и восстановить по нему пользователя
+     *
+     * @throws BadCredentialsException если токен недействителен, просрочен или не является access-токеном
+     */
+    public ShopUserPrincipal parseAccessToken(String token) {
+        Claims claims = parse(token, ACCESS);
+        User.Role role;
+        try {
+            role = User.Role.valueOf(claims.get(CLAIM_ROLE, String.class));
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new BadCredentialsException("Неизвестная роль в токене");
+        }
+        return new ShopUserPrincipal(claims.get(CLAIM_USER_ID, Long.class), claims.getSubject(), role);
+    }
+
+    /**
+     * Проверить refresh-токен
+     *
+     * @return идентификатор пользователя
+     * @throws BadCredentialsException если токен недействителен, просрочен или не является refresh-токеном
+     */
+    public Long parseRefreshToken(String token) {
+        return parse(token, REFRESH).get(CLAIM_USER_ID, Long.class);
+    }
+
+    private String create(User user, String type, long ttlSeconds) {
+        Instant now = clock.instant();
+        return Jwts.builder()
+                .header().keyId(activeKeyId).and()
+                .id(UUID.randomUUID().toString())
+                .issuer(properties.getIssuer())
+                .subject(user.getUsername())
+                .issuedAt(Date.from(now))
+                .expiration(Date.from(now.plusSeconds(ttlSeconds)))
+                .claim(CLAIM_USER_ID, user.getId())
+                .claim(CLAIM_ROLE, user.getRole().name())
+                .claim(CLAIM_TOKEN_TYPE, type)
+                .signWith(keys.get(activeKeyId))
+                .compact();
+    }
+
+    private Claims parse(String token, String expectedType) {
+        Claims claims;
+        try {
+            claims = parser.parseSignedClaims(token).getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            log.debug("Отклонён JWT: {}", e.getMessage());
+            throw new BadCredentialsException("Недействительный токен", e);
+        }
+        if (!expectedType.equals(claims.get(CLAIM_TOKEN_TYPE, String.class))
+                || claims.get(CLAIM_USER_ID, Long.class) == null) {
+            throw new BadCredentialsException("Недействительный токен");
+        }
+        return claims;
+    }
+}
@@ -3,6 +3,8 @@ package com.omega.shop.service;
 import com.omega.shop.dto.CartItem;
 import com.omega.shop.dto.ShoppingCart;
 import com.omega.shop.entity.Product;
+import com.omega.shop.monitoring.ShopMetrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -14,11 +16,16 @@ public class CartService {
 
     private final ShoppingCart shoppingCart;
     private final ProductService productService;
+    private final ShopMetrics shopMetrics;
 
     /**
      * Добавить товар в корзину Бека топ
      */
     public void addToCart(Long productId, int quantity) {
+        measured("add", () -> add(productId, quantity));
+    }
+
+    private void add(Long productId, int quantity) {
         log.info("Добавление товара {} в корзину, количество: {}", productId, quantity);
 
         // Проверка количества
@@ -60,6 +67,10 @@ public class CartService {
      * Удалить товар из корзины
      */
     public void removeFromCart(Long productId) {
+        measured("remove", () -> remove(productId));
+    }
+
+    private void remove(Long productId) {
         log.info("Удаление товара {} из корзины", productId);
         shoppingCart.removeItem(productId);
     }
@@ -68,10 +79,15 @@ public class CartService {
      * Обновить количество товара в корзине
      */
     public void updateQuantity(Long productId, int quantity) {
+        measured("update", () -> update(productId, quantity));
+    }
+
+    private void update(Long productId, int quantity) {
         log.info("Обновление количества товара {} до {}", productId, quantity);
 
         if (quantity <= 0) {
-            removeFromCart(productId);
+            // Через закрытый метод: операция замеряется один раз, как update
+            remove(productId);
             return;
         }
 
@@ -93,6 +109,10 @@ public class CartService {
      * Очистить корзину
      */
     public void clearCart() {
+        measured("clear", this::clear);
+    }
+
+    private void clear() {
         log.info("Очистка корзины");
         shoppingCart.clear();
     }
@@ -108,6 +128,10 @@ public class CartService {
      * Проверить доступность всех товаров в корзине
      */
     public void validateCart() {
+        measured("validate", this::validate);
+    }
+
+    private void validate() {
         for (CartItem item : shoppingCart.getItems()) {
             Product product = productService.getProductById(item.getProductId())
                     .orElseThrow(() -> new IllegalArgumentException(
@@ -128,4 +152,25 @@ public class CartService {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Выполнить операцию с корзиной с замером времени.
+     * Нехватка товара на складе (IllegalStateException) учитывается отдельно от некорректных запросов.
+     */
+    private void measured(String operation, Runnable action) {
+        Timer.Sample sample = shopMetrics.start();
+        String outcome = ShopMetrics.OUTCOME_ERROR;
+        try {
+            action.run();
+            outcome = ShopMetrics.OUTCOME_SUCCESS;
+        } catch (IllegalStateException e) {
+            outcome = ShopMetrics.OUTCOME_STOCK_CONFLICT;
+            throw e;
+        } catch (IllegalArgumentException e) {
+            outcome = ShopMetrics.OUTCOME_REJECTED;
+            throw e;
+        } finally {
+            shopMetrics.recordCartOperation(sample, operation, outcome);
+        }
+    }
+}
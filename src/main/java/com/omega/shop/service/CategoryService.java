@@ -1,5 +1,8 @@
 package com.omega.shop.service;
 
+import com.omega.shop.cache.CacheInvalidation;
+import com.omega.shop.cache.CacheInvalidationBus;
+import com.omega.shop.dto.CategoryView;
 import com.omega.shop.entity.Category;
 import com.omega.shop.repository.CategoryRepository;
 import lombok.RequiredArgsConstructor;
@@ -16,6 +19,7 @@ import java.util.Optional;
 public class CategoryService {
 
     private final CategoryRepository categoryRepository;
+    private final CacheInvalidationBus cacheInvalidationBus;
 
     /**
      * Получить все категории (плоский список)
@@ -34,6 +38,14 @@ public class CategoryService {
         return categories;
     }
 
+    /**
+     * Все категории проекцией, без загрузки сущностей (JSON API и боковое меню каталога)
+     */
+    @Transactional(readOnly = true)
+    public List<CategoryView> getCategoryViews() {
+        return categoryRepository.findAllViews();
+    }
+
     /**
      * Получить все корневые категории (для построения дерева)
      */
@@ -53,6 +65,7 @@ public class CategoryService {
     /**
      * Найти категорию по ID
      */
+    @Transactional(readOnly = true)
     public Optional<Category> getCategoryById(Long id) {
         return categoryRepository.findById(id);
     }
@@ -60,6 +73,7 @@ public class CategoryService {
     /**
      * Найти категорию по имени
      */
+    @Transactional(readOnly = true)
     public Optional<Category> getCategoryByName(String name) {
         return categoryRepository.findByName(name);
     }
@@ -83,7 +97,9 @@ public class CategoryService {
             throw new IllegalArgumentException("Категория не может быть родителем самой себя");
         }
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        invalidateCache(savedCategory.getId());
+        return savedCategory;
     }
 
     /**
@@ -122,7 +138,9 @@ public class CategoryService {
         category.setDescription(categoryDetails.getDescription());
         category.setParent(categoryDetails.getParent());
 
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        invalidateCache(id);
+        return savedCategory;
     }
 
     /**
@@ -166,12 +184,21 @@ public class CategoryService {
         }
 
         categoryRepository.delete(category);
+        invalidateCache(id);
     }
 
     /**
      * Подсчёт товаров в категории
      */
+    @Transactional(readOnly = true)
     public long countProductsInCategory(Long categoryId) {
         return categoryRepository.countProductsByCategoryId(categoryId);
     }
+
+    /**
+     * Сообщить другим узлам об изменении категории (у категорий нет updated_at, версия - текущее время)
+     */
+    private void invalidateCache(Long categoryId) {
+        cacheInvalidationBus.invalidate(CacheInvalidation.Entity.CATEGORY, categoryId);
+    }
 }
@@ -0,0 +1,148 @@
+package com.omega.shop.service;
+
+import com.omega.shop.datasource.ReadYourWrites;
+import com.omega.shop.monitoring.QueryStats;
+import io.micrometer.context.ContextSnapshot;
+import io.micrometer.context.ContextSnapshotFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.ui.Model;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Параллельная загрузка независимых данных страницы.
+ * <p>
+ * Каждый запрос выполняется в отдельном виртуальном потоке и в собственной read-only транзакции,
+ * результаты собираются в {@link Model} в {@link Batch#join()}. Время страницы становится равным
+ * самому долгому запросу, а не их сумме. Если общий срок {@code omega.web.model-deadline} истёк,
+ * незавершённые задачи отменяются и выбрасывается {@link IllegalStateException}.
+ * <p>
+ * Задачи должны возвращать уже инициализированные данные: сессия Hibernate закрывается вместе
+ * с транзакцией задачи, ленивые связи во view будут недоступны.
+ */
+@Component
+@Slf4j
+public class ConcurrentModelLoader implements DisposableBean {
+
+    private static final ContextSnapshotFactory CONTEXT_SNAPSHOTS = ContextSnapshotFactory.builder().build();
+
+    private final TransactionTemplate readOnlyTemplate;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${omega.web.model-deadline:2s}")
+    private Duration deadline;
+
+    public ConcurrentModelLoader(PlatformTransactionManager transactionManager) {
+        this.readOnlyTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Начать загрузку данных для модели
+     */
+    public Batch into(Model model) {
+        return new Batch(model, System.nanoTime() + deadline.toNanos());
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Набор задач одной страницы. Задача запускается сразу при добавлении,
+     * поэтому между {@link #add} и {@link #join()} можно выполнять работу в потоке запроса.
+     */
+    public final class Batch {
+
+        private final Model model;
+        private final long deadlineNanos;
+        private final Map<String, Future<?>> tasks = new LinkedHashMap<>();
+
+        private Batch(Model model, long deadlineNanos) {
+            this.model = model;
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /**
+         * Запустить задачу, результат которой попадёт в атрибут модели {@code attribute}
+         */
+        public Batch add(String attribute, Supplier<?> supplier) {
+            if (tasks.containsKey(attribute)) {
+                throw new IllegalArgumentException("Атрибут уже загружается: " + attribute);
+            }
+            // Контекст безопасности нужен сервисам, read-your-writes - маршрутизации на реплики,
+            // статистика запросов - чтобы запросы задачи учитывались в HTTP-запросе,
+            // текущее наблюдение - чтобы спаны задачи вошли в трассу запроса
+            SecurityContext securityContext = SecurityContextHolder.getContext();
+            ReadYourWrites readYourWrites = ReadYourWrites.current();
+            QueryStats queryStats = QueryStats.current();
+            ContextSnapshot snapshot = CONTEXT_SNAPSHOTS.captureAll();
+            tasks.put(attribute, executor.submit(() -> {
+                SecurityContextHolder.setContext(securityContext);
+                ReadYourWrites.bind(readYourWrites);
+                QueryStats.bind(queryStats);
+                try (ContextSnapshot.Scope scope = snapshot.setThreadLocals()) {
+                    return readOnlyTemplate.execute(status -> supplier.get());
+                } finally {
+                    QueryStats.bind(null);
+                    ReadYourWrites.bind(null);
+                    SecurityContextHolder.clearContext();
+                }
+            }));
+            return this;
+        }
+
+        /**
+         * Дождаться всех задач и добавить результаты в модель.
+         * При ошибке или превышении срока оставшиеся задачи отменяются.
+         */
+        public void join() {
+            try {
+                for (Map.Entry<String, Future<?>> entry : tasks.entrySet()) {
+                    long remaining = deadlineNanos - System.nanoTime();
+                    Object value = entry.getValue().get(Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+                    model.addAttribute(entry.getKey(), value);
+                }
+            } catch (TimeoutException e) {
+                cancelAll();
+                log.warn("Загрузка данных страницы не уложилась в {} мс: {}", deadline.toMillis(), tasks.keySet());
+                throw new IllegalStateException("Превышено время загрузки страницы");
+            } catch (InterruptedException e) {
+                cancelAll();
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Загрузка страницы прервана");
+            } catch (CancellationException e) {
+                cancelAll();
+                throw new IllegalStateException("Загрузка страницы отменена");
+            } catch (ExecutionException e) {
+                cancelAll();
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new IllegalStateException("Ошибка загрузки данных страницы", e.getCause());
+            }
+        }
+
+        private void cancelAll() {
+            tasks.values().forEach(task -> task.cancel(true));
+        }
+    }
+}
@@ -0,0 +1,194 @@
+package com.omega.shop.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * Распределение готовых к отправке заказов между курьерами (без обращения к БД).
+ * <p>
+ * Заказы группируются по району - адресу без номера дома, то есть по улице. Группа целиком
+ * отдаётся одному курьеру, пока у него есть место: сначала тому, кто уже везёт заказы на эту улицу,
+ * иначе наименее загруженному. Наименее загруженный берётся из кучи по (загрузка, ID); после
+ * назначения курьер возвращается в кучу с новой загрузкой, а устаревшая запись отбрасывается
+ * при извлечении. План на пачку из n заказов и k курьеров строится за O((n + k) log k).
+ */
+public class DispatchPlanner {
+
+    private static final Set<String> HOUSE_WORDS = Set.of("д", "д.", "дом", "кв", "кв.", "корп", "корп.");
+
+    private final int capacity;
+
+    /**
+     * @param capacity сколько активных доставок (назначена и в пути) может быть у курьера
+     */
+    public DispatchPlanner(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Вместимость курьера должна быть положительной");
+        }
+        this.capacity = capacity;
+    }
+
+    /**
+     * Построить назначения.
+     *
+     * @param couriers текущая загрузка курьеров
+     * @param orders   заказы в порядке готовности: раньше готовые получают курьера первыми
+     * @return назначения; заказы, на которые не хватило курьеров, остаются до следующего прохода
+     */
+    public List<Assignment> plan(Collection<CourierLoad> couriers, List<PendingOrder> orders) {
+        PriorityQueue<Slot> free = new PriorityQueue<>(Comparator.comparingInt(Slot::load).thenComparing(Slot::courierId));
+        Map<String, List<CourierState>> byArea = new HashMap<>();
+        for (CourierLoad courier : couriers) {
+            CourierState state = new CourierState(courier.courierId(), courier.activeDeliveries());
+            for (String address : courier.activeAddresses()) {
+                addArea(byArea, state, areaOf(address));
+            }
+            offer(free, state);
+        }
+
+        Map<String, List<Long>> groups = new LinkedHashMap<>();
+        for (PendingOrder order : orders) {
+            groups.computeIfAbsent(areaOf(order.deliveryAddress()), a -> new ArrayList<>()).add(order.orderId());
+        }
+
+        List<Assignment> assignments = new ArrayList<>(orders.size());
+        for (Map.Entry<String, List<Long>> group : groups.entrySet()) {
+            List<Long> pending = group.getValue();
+            int next = 0;
+            while (next < pending.size()) {
+                CourierState courier = nearest(byArea.get(group.getKey()));
+                if (courier == null) {
+                    courier = poll(free);
+                }
+                if (courier == null) {
+                    // Свободных курьеров не осталось
+                    return assignments;
+                }
+                int take = Math.min(capacity - courier.load, pending.size() - next);
+                for (int i = 0; i < take; i++) {
+                    assignments.add(new Assignment(pending.get(next++), courier.courierId));
+                }
+                courier.load += take;
+                addArea(byArea, courier, group.getKey());
+                offer(free, courier);
+            }
+        }
+        return assignments;
+    }
+
+    /**
+     * Район адреса: текст до номера дома в нижнем регистре, без запятых.
+     * "г. Бишкек, ул. Киевская, д. 12" и "г. Бишкек ул. Киевская 40" - один район.
+     */
+    public static String areaOf(String address) {
+        if (address == null) {
+            return "";
+        }
+        // Разбор без регулярных выражений: вызывается для каждого адреса пачки и активных доставок
+        List<String> words = new ArrayList<>(8);
+        int length = address.length();
+        int i = 0;
+        while (i < length) {
+            while (i < length && isSeparator(address.charAt(i))) {
+                i++;
+            }
+            int start = i;
+            boolean digit = false;
+            while (i < length && !isSeparator(address.charAt(i))) {
+                digit |= Character.isDigit(address.charAt(i));
+                i++;
+            }
+            if (start == i || digit) {
+                break;
+            }
+            words.add(address.substring(start, i).toLowerCase(Locale.ROOT));
+        }
+        while (!words.isEmpty() && HOUSE_WORDS.contains(words.get(words.size() - 1))) {
+            words.remove(words.size() - 1);
+        }
+        return String.join(" ", words);
+    }
+
+    private static boolean isSeparator(char c) {
+        return c == ',' || Character.isWhitespace(c);
+    }
+
+    private CourierState nearest(List<CourierState> inArea) {
+        if (inArea == null) {
+            return null;
+        }
+        CourierState best = null;
+        for (CourierState courier : inArea) {
+            if (courier.load < capacity && (best == null || courier.load < best.load)) {
+                best = courier;
+            }
+        }
+        return best;
+    }
+
+    private void offer(PriorityQueue<Slot> free, CourierState courier) {
+        if (courier.load < capacity) {
+            free.add(new Slot(courier, courier.load));
+        }
+    }
+
+    private CourierState poll(PriorityQueue<Slot> free) {
+        Slot slot;
+        while ((slot = free.poll()) != null) {
+            // Запись устарела, если курьеру с тех пор назначили заказы
+            if (slot.load() == slot.courier().load && slot.load() < capacity) {
+                return slot.courier();
+            }
+        }
+        return null;
+    }
+
+    private static void addArea(Map<String, List<CourierState>> byArea, CourierState courier, String area) {
+        if (courier.areas.add(area)) {
+            byArea.computeIfAbsent(area, a -> new ArrayList<>()).add(courier);
+        }
+    }
+
+    /**
+     * Курьер и его активные доставки
+     */
+    public record CourierLoad(Long courierId, int activeDeliveries, Collection<String> activeAddresses) {
+    }
+
+    /**
+     * Заказ, ожидающий курьера
+     */
+    public record PendingOrder(Long orderId, String deliveryAddress) {
+    }
+
+    public record Assignment(Long orderId, Long courierId) {
+    }
+
+    private record Slot(CourierState courier, int load) {
+
+        Long courierId() {
+            return courier.courierId;
+        }
+    }
+
+    private static final class CourierState {
+
+        final Long courierId;
+        final Set<String> areas = new HashSet<>();
+        int load;
+
+        CourierState(Long courierId, int load) {
+            this.courierId = courierId;
+            this.load = load;
+        }
+    }
+}
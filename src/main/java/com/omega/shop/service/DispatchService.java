@@ -0,0 +1,188 @@
+package com.omega.shop.service;
+
+import com.omega.shop.dto.ActiveDelivery;
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.User;
+import com.omega.shop.repository.OrderRepository;
+import com.omega.shop.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Автоматическое назначение курьеров на заказы, готовые к отправке.
+ * <p>
+ * Проход берёт пачку самых давно готовых заказов ({@link OrderRepository#findReadyForDelivery}),
+ * одним запросом читает активные доставки всех курьеров и строит план в памяти
+ * ({@link DispatchPlanner}). Каждое назначение - отдельная транзакция
+ * {@link OrderService#assignReadyOrder} с outbox, лентой изменений и SSE: ошибка одного заказа
+ * не откатывает остальные, заказ остаётся готовым к отправке до следующего прохода. Назначение -
+ * условный UPDATE, поэтому заказ, которому продавец назначил курьера вручную после чтения пачки,
+ * не перезаписывается. Проход держит advisory-блокировку транзакции: на нескольких узлах пачку
+ * распределяет только один.
+ */
+@Service
+@Slf4j
+public class DispatchService {
+
+    /**
+     * Ключ advisory-блокировки автоназначения
+     */
+    private static final long DISPATCH_LOCK = 0x6f6d656761L;
+
+    private static final Set<Order.DeliveryStatus> ACTIVE =
+            Set.of(Order.DeliveryStatus.ASSIGNED, Order.DeliveryStatus.IN_TRANSIT);
+
+    private final OrderRepository orderRepository;
+    private final UserRepository userRepository;
+    private final OrderService orderService;
+    private final TransactionTemplate passTemplate;
+    private final TransactionTemplate assignmentTemplate;
+    private final Counter assigned;
+    private final Counter conflicts;
+    private final Counter missingCouriers;
+    private final Counter failures;
+    private final Timer passTimer;
+
+    @Value("${omega.dispatch.enabled:true}")
+    private boolean enabled;
+
+    @Value("${omega.dispatch.batch-size:200}")
+    private int batchSize;
+
+    @Value("${omega.dispatch.courier-capacity:5}")
+    private int courierCapacity;
+
+    public DispatchService(OrderRepository orderRepository, UserRepository userRepository,
+                           OrderService orderService, PlatformTransactionManager transactionManager,
+                           MeterRegistry registry) {
+        this.orderRepository = orderRepository;
+        this.userRepository = userRepository;
+        this.orderService = orderService;
+        this.passTemplate = new TransactionTemplate(transactionManager);
+        this.assignmentTemplate = new TransactionTemplate(transactionManager);
+        this.assignmentTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.assigned = Counter.builder("omega.dispatch.assigned")
+                .description("Заказы, на которые курьер назначен автоматически")
+                .register(registry);
+        this.conflicts = skipped(registry, "conflict");
+        this.missingCouriers = skipped(registry, "courier");
+        this.failures = skipped(registry, "error");
+        this.passTimer = Timer.builder("omega.dispatch.pass")
+                .description("Проход автоназначения: чтение пачки, план и назначения")
+                .register(registry);
+    }
+
+    /**
+     * Проходы повторяются, пока пачки заполняются целиком и в них что-то назначается
+     */
+    @Scheduled(fixedDelayString = "${omega.dispatch.interval:5000}")
+    public void dispatchScheduled() {
+        if (!enabled) {
+            return;
+        }
+        Integer dispatched;
+        do {
+            dispatched = passTimer.record(() -> passTemplate.execute(status -> dispatch()));
+        } while (dispatched != null && dispatched == batchSize);
+    }
+
+    /**
+     * Один проход автоназначения в текущей транзакции
+     *
+     * @return число назначенных заказов
+     */
+    int dispatch() {
+        if (!orderRepository.tryLockDispatch(DISPATCH_LOCK)) {
+            log.debug("Автоназначение выполняет другой узел");
+            return 0;
+        }
+        List<Order> ready = orderRepository.findReadyForDelivery(Order.OrderStatus.READY_FOR_DELIVERY,
+                Order.DeliveryStatus.READY, PageRequest.of(0, batchSize)).getContent();
+        if (ready.isEmpty()) {
+            return 0;
+        }
+
+        Map<Long, List<String>> active = new HashMap<>();
+        for (Long courierId : userRepository.findActiveIdsByRole(User.Role.COURIER)) {
+            active.put(courierId, new ArrayList<>());
+        }
+        for (ActiveDelivery delivery : orderRepository.findActiveDeliveries(ACTIVE)) {
+            // Заблокированный курьер новых заказов не получает
+            List<String> addresses = active.get(delivery.courierId());
+            if (addresses != null) {
+                addresses.add(delivery.deliveryAddress());
+            }
+        }
+        List<DispatchPlanner.CourierLoad> loads = active.entrySet().stream()
+                .map(e -> new DispatchPlanner.CourierLoad(e.getKey(), e.getValue().size(), e.getValue()))
+                .toList();
+        List<DispatchPlanner.PendingOrder> pending = ready.stream()
+                .map(order -> new DispatchPlanner.PendingOrder(order.getId(), order.getDeliveryAddress()))
+                .toList();
+
+        List<DispatchPlanner.Assignment> plan = new DispatchPlanner(courierCapacity).plan(loads, pending);
+        if (plan.isEmpty()) {
+            log.debug("Автоназначение: {} заказов ждут, свободных курьеров нет", ready.size());
+            return 0;
+        }
+
+        Set<Long> courierIds = new HashSet<>();
+        plan.forEach(assignment -> courierIds.add(assignment.courierId()));
+        // Курьер мог быть удалён или заблокирован после чтения загрузки
+        Map<Long, User> couriers = userRepository.findAllById(courierIds).stream()
+                .filter(user -> user.getRole() == User.Role.COURIER && user.isActive())
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        int done = 0;
+        for (DispatchPlanner.Assignment assignment : plan) {
+            User courier = couriers.get(assignment.courierId());
+            if (courier == null) {
+                missingCouriers.increment();
+                continue;
+            }
+            try {
+                Boolean ok = assignmentTemplate.execute(
+                        status -> orderService.assignReadyOrder(assignment.orderId(), courier));
+                if (Boolean.TRUE.equals(ok)) {
+                    done++;
+                } else {
+                    conflicts.increment();
+                }
+            } catch (RuntimeException e) {
+                failures.increment();
+                log.warn("Автоназначение: заказ #{} не назначен курьеру {}: {}",
+                        assignment.orderId(), assignment.courierId(), e.getMessage(), e);
+            }
+        }
+        assigned.increment(done);
+        log.info("Автоназначение: назначено {} из {} готовых заказов, курьеров {}",
+                done, ready.size(), courierIds.size());
+        // Полная пачка, в которой не всем хватило курьеров, повторно не запрашивается
+        return plan.size() == ready.size() ? done : 0;
+    }
+
+    private static Counter skipped(MeterRegistry registry, String reason) {
+        return Counter.builder("omega.dispatch.skipped")
+                .description("Назначения из плана, не выполненные автоназначением")
+                .tag("reason", reason)
+                .register(registry);
+    }
+}
@@ -1,5 +1,8 @@
 package com.omega.shop.service;
 
+import com.omega.shop.monitoring.ImageSaveEvent;
+import com.omega.shop.monitoring.ShopMetrics;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -17,9 +20,11 @@ import java.util.UUID;
 public class FileStorageService {
 
     private final Path uploadPath;
+    private final ShopMetrics shopMetrics;
 
-    public FileStorageService(@Value("${omega.upload.dir}") String uploadDir) {
+    public FileStorageService(@Value("${omega.upload.dir}") String uploadDir, ShopMetrics shopMetrics) {
         this.uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
+        this.shopMetrics = shopMetrics;
 
         try {
             Files.createDirectories(this.uploadPath);
@@ -34,20 +39,26 @@ public class FileStorageService {
      * Сохранить файл и вернуть путь к нему
      */
     public String saveFile(MultipartFile file) {
+        Timer.Sample sample = shopMetrics.start();
+        ImageSaveEvent event = ImageSaveEvent.start(file.getContentType(), file.getSize());
+        String outcome = ShopMetrics.OUTCOME_ERROR;
         try {
             // Проверка на пустой файл
             if (file.isEmpty()) {
+                outcome = ShopMetrics.OUTCOME_REJECTED;
                 throw new IllegalArgumentException("Файл пустой");
             }
 
             // Проверка формата файла
             String contentType = file.getContentType();
             if (contentType == null || !isImageFile(contentType)) {
+                outcome = ShopMetrics.OUTCOME_REJECTED;
                 throw new IllegalArgumentException("Разрешены только изображения (JPEG, PNG, WEBP)");
             }
 
             // Проверка размера файла (макс 5MB)
             if (file.getSize() > 5 * 1024 * 1024) {
+                outcome = ShopMetrics.OUTCOME_REJECTED;
                 throw new IllegalArgumentException("Размер файла не должен превышать 5MB");
             }
 
@@ -63,11 +74,15 @@ public class FileStorageService {
             Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
 
             log.info("Файл успешно сохранён: {}", filename);
+            outcome = ShopMetrics.OUTCOME_SUCCESS;
             return filename;
 
         } catch (IOException e) {
             log.error("Ошибка при сохранении файла", e);
             throw new RuntimeException("Не удалось сохранить файл", e);
+        } finally {
+            event.finish(outcome);
+            shopMetrics.recordFileSave(sample, outcome, file.getSize());
         }
     }
 
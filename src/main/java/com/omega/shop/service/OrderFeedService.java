@@ -0,0 +1,197 @@
+package com.omega.shop.service;
+
+import com.omega.shop.dto.DeliveryView;
+import com.omega.shop.dto.OrderChange;
+import com.omega.shop.dto.OrderChanges;
+import com.omega.shop.dto.OrderItemView;
+import com.omega.shop.dto.OrderView;
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.OrderFeedEntry;
+import com.omega.shop.entity.User;
+import com.omega.shop.event.OrderPushHub;
+import com.omega.shop.repository.OrderFeedRepository;
+import com.omega.shop.repository.OrderItemRepository;
+import com.omega.shop.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Лента изменений заказов для синхронизации приложений курьеров и продавцов.
+ * <p>
+ * Каждое изменение заказа записывается в {@code order_feed} в той же транзакции - по строке на курьера
+ * и на каждого продавца товаров заказа. Клиент хранит у себя копию списка и запрашивает
+ * "что изменилось для меня после курсора". Переназначенный курьеру другой заказ и отменённый заказ
+ * приходят как TOMBSTONE: клиент удаляет их у себя.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderFeedService {
+
+    private final OrderFeedRepository orderFeedRepository;
+    private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
+    private final OrderPushHub orderPushHub;
+
+    @Value("${omega.order-feed.retention:14d}")
+    private Duration retention;
+
+    /**
+     * Записать изменение заказа для его курьера и продавцов и после фиксации разослать его открытым страницам.
+     *
+     * @param previousStatus    статус до изменения (null для нового заказа)
+     * @param previousCourierId курьер до изменения: если он сменился, прежний получает TOMBSTONE
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordChange(Order order, Order.OrderStatus previousStatus, Long previousCourierId) {
+        boolean cancelled = order.getStatus() == Order.OrderStatus.CANCELLED;
+        OrderFeedEntry.Kind kind = cancelled ? OrderFeedEntry.Kind.TOMBSTONE : OrderFeedEntry.Kind.UPSERT;
+        Long courierId = order.getCourier() != null ? order.getCourier().getId() : null;
+
+        // Ключ (тип, ID) упорядочен, блокировки берутся в одном порядке во всех транзакциях
+        Map<List<Long>, OrderFeedEntry> entries = new TreeMap<>(
+                Comparator.<List<Long>, Long>comparing(key -> key.get(0)).thenComparing(key -> key.get(1)));
+        if (previousCourierId != null && !previousCourierId.equals(courierId)) {
+            put(entries, order, OrderFeedEntry.Recipient.COURIER, previousCourierId, OrderFeedEntry.Kind.TOMBSTONE);
+        }
+        if (courierId != null) {
+            put(entries, order, OrderFeedEntry.Recipient.COURIER, courierId, kind);
+        }
+        for (Long sellerId : orderItemRepository.findSellerIdsByOrderId(order.getId())) {
+            put(entries, order, OrderFeedEntry.Recipient.SELLER, sellerId, kind);
+        }
+
+        for (OrderFeedEntry entry : entries.values()) {
+            orderFeedRepository.lockRecipient(lockKey(entry.getRecipientType(), entry.getRecipientId()));
+            orderFeedRepository.save(entry);
+            orderPushHub.publish(OrderPushHub.userTopic(entry.getRecipientId()), OrderPushHub.EVENT_ORDER,
+                    new OrderChange<>(entry.getChangeSeq(), order.getId(), entry.getKind(), null));
+        }
+        // Новые заказы видят все продавцы: заказ появился в очереди или ушёл из неё
+        if (order.getStatus() == Order.OrderStatus.NEW || previousStatus == Order.OrderStatus.NEW) {
+            OrderFeedEntry.Kind queueKind = order.getStatus() == Order.OrderStatus.NEW
+                    ? OrderFeedEntry.Kind.UPSERT : OrderFeedEntry.Kind.TOMBSTONE;
+            orderPushHub.publish(OrderPushHub.roleTopic(User.Role.SELLER), OrderPushHub.EVENT_NEW_ORDERS,
+                    new OrderChange<>(null, order.getId(), queueKind, null));
+        }
+        log.debug("Заказ #{}: записей в ленте изменений {}", order.getId(), entries.size());
+    }
+
+    /**
+     * Изменения доставок курьера после курсора (null - начать синхронизацию)
+     */
+    @Transactional(readOnly = true)
+    public OrderChanges<DeliveryView> getCourierChanges(User courier, Long cursor, int limit) {
+        return changes(OrderFeedEntry.Recipient.COURIER, courier.getId(), cursor, limit,
+                ids -> orderRepository.findDeliveryViewsByIds(ids, courier.getId()),
+                DeliveryView::id, DeliveryView::withItems);
+    }
+
+    /**
+     * Изменения заказов с товарами продавца после курсора (null - начать синхронизацию)
+     */
+    @Transactional(readOnly = true)
+    public OrderChanges<OrderView> getSellerChanges(User seller, Long cursor, int limit) {
+        return changes(OrderFeedEntry.Recipient.SELLER, seller.getId(), cursor, limit,
+                orderRepository::findOrderViewsByIds, OrderView::id, OrderView::withItems);
+    }
+
+    /**
+     * Удаление старых записей; клиент с более старым курсором получит {@code reset}
+     */
+    @Scheduled(cron = "${omega.order-feed.cleanup-cron:0 30 3 * * *}")
+    @Transactional
+    public void cleanup() {
+        int deleted = orderFeedRepository.deleteCreatedBefore(LocalDateTime.now().minus(retention));
+        log.info("Удалено записей ленты изменений заказов: {}", deleted);
+    }
+
+    private <T> OrderChanges<T> changes(OrderFeedEntry.Recipient type, Long recipientId, Long cursor, int limit,
+                                        Function<Collection<Long>, List<T>> loader,
+                                        Function<T, Long> idOf,
+                                        BiFunction<T, List<OrderItemView>, T> withItems) {
+        Long tail = orderFeedRepository.findTail().orElse(null);
+        if (cursor == null || tail != null && cursor + 1 < tail) {
+            // Клиент загружает список целиком; всё, что изменится после этой записи, придёт в ленте.
+            // Без своих записей - позиция перед самой старой записью ленты
+            long head = orderFeedRepository.findHead(type, recipientId).orElse(tail != null ? tail - 1 : 0L);
+            return new OrderChanges<>(List.of(), head, false, true);
+        }
+
+        List<OrderFeedEntry> entries = orderFeedRepository.findChanges(type, recipientId, cursor, Limit.of(limit + 1));
+        boolean hasMore = entries.size() > limit;
+        if (hasMore) {
+            entries = entries.subList(0, limit);
+        }
+        if (entries.isEmpty()) {
+            return new OrderChanges<>(List.of(), cursor, false, false);
+        }
+
+        // Клиенту нужно только последнее состояние заказа
+        Map<Long, OrderFeedEntry> latest = new LinkedHashMap<>();
+        for (OrderFeedEntry entry : entries) {
+            latest.remove(entry.getOrderId());
+            latest.put(entry.getOrderId(), entry);
+        }
+        List<Long> upserts = latest.values().stream()
+                .filter(entry -> entry.getKind() == OrderFeedEntry.Kind.UPSERT)
+                .map(OrderFeedEntry::getOrderId)
+                .toList();
+        Map<Long, T> views = upserts.isEmpty() ? Map.of() : loader.apply(upserts).stream()
+                .collect(Collectors.toMap(idOf, Function.identity()));
+        Map<Long, List<OrderItemView>> items = orderItemRepository.findViewsByOrderIds(views.keySet());
+
+        List<OrderChange<T>> changes = new ArrayList<>(latest.size());
+        for (OrderFeedEntry entry : latest.values()) {
+            T view = views.get(entry.getOrderId());
+            // Заказ мог уйти от получателя после записи: тогда он уже не его
+            OrderFeedEntry.Kind kind = view != null ? entry.getKind() : OrderFeedEntry.Kind.TOMBSTONE;
+            T order = view != null
+                    ? withItems.apply(view, items.getOrDefault(entry.getOrderId(), List.of()))
+                    : null;
+            changes.add(new OrderChange<>(entry.getChangeSeq(), entry.getOrderId(), kind, order));
+        }
+        return new OrderChanges<>(changes, entries.get(entries.size() - 1).getChangeSeq(), hasMore, false);
+    }
+
+    private static void put(Map<List<Long>, OrderFeedEntry> entries, Order order,
+                            OrderFeedEntry.Recipient type, Long recipientId, OrderFeedEntry.Kind kind) {
+        OrderFeedEntry entry = new OrderFeedEntry();
+        entry.setRecipientType(type);
+        entry.setRecipientId(Objects.requireNonNull(recipientId));
+        entry.setOrderId(order.getId());
+        entry.setKind(kind);
+        entries.put(List.of((long) type.ordinal(), recipientId), entry);
+    }
+
+    /**
+     * Ключ advisory-блокировки ленты получателя: старший байт - тип получателя (с единицы, чтобы не пересекаться
+     * с ключами других блокировок вида 0x00...), младшие 56 бит - ID. Ключи растут в порядке (тип, ID).
+     */
+    static long lockKey(OrderFeedEntry.Recipient type, long recipientId) {
+        if (recipientId < 0 || recipientId >= 1L << 56) {
+            throw new IllegalArgumentException("ID получателя вне диапазона ключа блокировки: " + recipientId);
+        }
+        return (long) (type.ordinal() + 1) << 56 | recipientId;
+    }
+}
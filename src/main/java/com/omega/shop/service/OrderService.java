@@ -1,22 +1,42 @@
 package com.omega.shop.service;
 
 import com.omega.shop.dto.CartItem;
+import com.omega.shop.dto.DeliveryView;
+import com.omega.shop.dto.OrderItemView;
 import com.omega.shop.dto.OrderDto;
+import com.omega.shop.dto.OrderView;
 import com.omega.shop.dto.ShoppingCart;
 import com.omega.shop.entity.Order;
 import com.omega.shop.entity.OrderItem;
 import com.omega.shop.entity.Product;
 import com.omega.shop.entity.User;
+import com.omega.shop.event.DomainEventTypes;
+import com.omega.shop.monitoring.CheckoutPhaseEvent;
+import com.omega.shop.monitoring.ShopMetrics;
+import com.omega.shop.repository.OrderItemRepository;
 import com.omega.shop.repository.OrderRepository;
 import com.omega.shop.repository.UserRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
-
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -24,59 +44,113 @@ import java.util.Optional;
 public class OrderService {
 
     private final OrderRepository orderRepository;
+    private final OrderItemRepository orderItemRepository;
     private final ProductService productService;
     private final CartService cartService;
     private final UserRepository userRepository;
+    private final OutboxService outboxService;
+    private final OrderFeedService orderFeedService;
+    private final ShopMetrics shopMetrics;
+
+    @Value("${omega.orders.claim.lease:10m}")
+    private Duration claimLease;
+
+    @Value("${omega.orders.claim.max-held:20}")
+    private int maxClaimsPerSeller;
 
     @Transactional
     public Order createOrder(User user, OrderDto orderDto) {
         log.info("Создание заказа для пользователя: {}", user.getUsername());
 
-        ShoppingCart cart = cartService.getCart();
-
-        if (cart.isEmpty()) {
-            throw new IllegalStateException("Корзина пуста");
-        }
-
-        cartService.validateCart();
+        Timer.Sample sample = shopMetrics.start();
+        String outcome = ShopMetrics.OUTCOME_ERROR;
+        int lines = 0;
+        try {
+            ShoppingCart cart = cartService.getCart();
 
-        // Логируем оплату (данные не сохраняются в БД для безопасности)
-        String cardNumber = orderDto.getCardNumber();
-        if (cardNumber != null && !cardNumber.trim().isEmpty()) {
-            // Удаляем пробелы для логирования
-            String cleanCardNumber = cardNumber.replaceAll("\\s+", "").replaceAll("\\D", "");
-            if (cleanCardNumber.length() >= 4) {
-                String maskedCardNumber = "**** **** **** " + cleanCardNumber.substring(Math.max(0, cleanCardNumber.length() - 4));
-                log.info("Оплата картой {} обработана", maskedCardNumber);
-            } else {
-                log.info("Оплата картой обработана");
+            if (cart.isEmpty()) {
+                outcome = ShopMetrics.OUTCOME_REJECTED;
+                throw new IllegalStateException("Корзина пуста");
             }
-        }
 
-        Order order = new Order();
-        order.setUser(user);
-        order.setPhone(orderDto.getPhone());
-        order.setDeliveryAddress(orderDto.getDeliveryAddress());
-        order.setComment(orderDto.getComment());
-        order.setStatus(Order.OrderStatus.NEW);
+            CheckoutPhaseEvent validation = CheckoutPhaseEvent.start(CheckoutPhaseEvent.VALIDATE, cart.getItems().size());
+            try {
+                cartService.validateCart();
+                validation.success();
+            } catch (IllegalStateException e) {
+                outcome = ShopMetrics.OUTCOME_STOCK_CONFLICT;
+                throw e;
+            } finally {
+                validation.finish();
+            }
 
-        for (CartItem cartItem : cart.getItems()) {
-            Product product = productService.getProductById(cartItem.getProductId())
-                    .orElseThrow(() -> new IllegalArgumentException("Товар не найден"));
+            // Логируем оплату (данные не сохраняются в БД для безопасности)
+            String cardNumber = orderDto.getCardNumber();
+            if (cardNumber != null && !cardNumber.trim().isEmpty()) {
+                // Удаляем пробелы для логирования
+                String cleanCardNumber = cardNumber.replaceAll("\\s+", "").replaceAll("\\D", "");
+                if (cleanCardNumber.length() >= 4) {
+                    String maskedCardNumber = "**** **** **** " + cleanCardNumber.substring(Math.max(0, cleanCardNumber.length() - 4));
+                    log.info("Оплата картой {} обработана", maskedCardNumber);
+                } else {
+                    log.info("Оплата картой обработана");
+                }
+            }
 
-            OrderItem orderItem = OrderItem.fromProduct(product, cartItem.getQuantity());
-            order.addItem(orderItem);
+            Order order = new Order();
+            order.setUser(user);
+            order.setPhone(orderDto.getPhone());
+            order.setDeliveryAddress(orderDto.getDeliveryAddress());
+            order.setComment(orderDto.getComment());
+            order.setStatus(Order.OrderStatus.NEW);
 
-            productService.decreaseQuantity(product.getId(), cartItem.getQuantity());
-        }
+            CheckoutPhaseEvent stock = CheckoutPhaseEvent.start(CheckoutPhaseEvent.STOCK, cart.getItems().size());
+            try {
+                for (CartItem cartItem : cart.getItems()) {
+                    long lineStart = System.nanoTime();
+                    Product product = productService.getProductById(cartItem.getProductId())
+                            .orElseThrow(() -> new IllegalArgumentException("Товар не найден"));
+
+                    OrderItem orderItem = OrderItem.fromProduct(product, cartItem.getQuantity());
+                    order.addItem(orderItem);
+
+                    try {
+                        productService.decreaseQuantity(product.getId(), cartItem.getQuantity());
+                    } catch (IllegalArgumentException e) {
+                        // Остаток успел уменьшиться после проверки корзины
+                        outcome = ShopMetrics.OUTCOME_STOCK_CONFLICT;
+                        throw e;
+                    }
+                    shopMetrics.recordCheckoutLine(System.nanoTime() - lineStart);
+                    lines++;
+                }
+                stock.success();
+            } finally {
+                stock.finish();
+            }
 
-        order.calculateTotalAmount();
-        Order savedOrder = orderRepository.save(order);
-        cartService.clearCart();
+            CheckoutPhaseEvent insert = CheckoutPhaseEvent.start(CheckoutPhaseEvent.INSERT, lines);
+            Order savedOrder;
+            try {
+                order.calculateTotalAmount();
+                savedOrder = orderRepository.save(order);
+                outboxService.recordOrderEvent(savedOrder, DomainEventTypes.ORDER_CREATED, null);
+                orderFeedService.recordChange(savedOrder, null, null);
+                insert.success();
+            } finally {
+                insert.finish();
+            }
+            cartService.clearCart();
 
-        log.info("Заказ #{} успешно создан на сумму {}", savedOrder.getId(), savedOrder.getTotalAmount());
+            Order.OrderStatus createdStatus = savedOrder.getStatus();
+            afterCommit(() -> shopMetrics.recordTransition("order", null, createdStatus));
+            log.info("Заказ #{} успешно создан на сумму {}", savedOrder.getId(), savedOrder.getTotalAmount());
 
-        return savedOrder;
+            outcome = ShopMetrics.OUTCOME_SUCCESS;
+            return savedOrder;
+        } finally {
+            recordCheckout(sample, outcome, lines);
+        }
     }
 
     /**
@@ -141,6 +215,24 @@ public class OrderService {
         return ordersPage;
     }
 
+    /**
+     * Заказы (для админа) потоком: страница читается курсором по мере вывода.
+     * Поток нужно закрыть до конца транзакции, которую открывает вызывающий
+     *
+     * @param status фильтр по статусу или null
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Order> streamOrders(Order.OrderStatus status, Pageable pageable) {
+        return status != null
+                ? orderRepository.streamByStatusWithCustomer(status, pageable)
+                : orderRepository.streamAllWithCustomer(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public long countOrders(Order.OrderStatus status) {
+        return status != null ? orderRepository.countByStatus(status) : orderRepository.count();
+    }
+
     @Transactional
     public Order updateOrderStatus(Long orderId, Order.OrderStatus newStatus) {
         log.info("Обновление статуса заказа #{} на {}", orderId, newStatus);
@@ -155,7 +247,7 @@ public class OrderService {
         }
 
         order.setStatus(newStatus);
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_STATUS_CHANGED, oldStatus, order.getDeliveryStatus());
     }
 
     @Transactional
@@ -165,6 +257,8 @@ public class OrderService {
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Заказ не найден"));
 
+        Order.OrderStatus oldStatus = order.getStatus();
+
         if (order.getStatus() == Order.OrderStatus.DELIVERED) {
             throw new IllegalStateException("Нельзя отменить доставленный заказ");
         }
@@ -178,7 +272,7 @@ public class OrderService {
         }
 
         order.setStatus(Order.OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_STATUS_CHANGED, oldStatus, order.getDeliveryStatus());
     }
 
     /**
@@ -195,6 +289,8 @@ public class OrderService {
             throw new IllegalArgumentException("Вы не можете отменить чужой заказ");
         }
 
+        Order.OrderStatus oldStatus = order.getStatus();
+
         if (order.getStatus() == Order.OrderStatus.DELIVERED) {
             throw new IllegalStateException("Нельзя отменить доставленный заказ");
         }
@@ -208,7 +304,15 @@ public class OrderService {
         }
 
         order.setStatus(Order.OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_STATUS_CHANGED, oldStatus, order.getDeliveryStatus());
+    }
+
+    /**
+     * Время изменения заказа пользователя; пусто, если заказа нет или он чужой
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getUserOrderUpdatedAt(User user, Long orderId) {
+        return orderRepository.findUpdatedAtByIdAndUserId(orderId, user.getId());
     }
 
     /**
@@ -230,29 +334,35 @@ public class OrderService {
         return order;
     }
 
-    public long countUserOrders(User user) {
-        return orderRepository.countByUser(user);
+    /**
+     * Заказы пользователя проекцией для API (два запроса: заказы и их позиции)
+     */
+    @Transactional(readOnly = true)
+    public List<OrderView> getUserOrderViews(User user, Pageable pageable) {
+        List<OrderView> orders = orderRepository.findOrderViews(user.getId(), pageable);
+        Map<Long, List<OrderItemView>> items =
+                orderItemRepository.findViewsByOrderIds(orders.stream().map(OrderView::id).toList());
+        return orders.stream()
+                .map(order -> order.withItems(items.getOrDefault(order.id(), List.of())))
+                .toList();
     }
 
-    // ========== Методы для ПРОДАВЦА ==========
-
     /**
-     * Получить новые заказы для обработки продавцом
-     * Показывает все новые заказы (для обработки), фильтрация по продавцу используется только в отчетах и истории
+     * Заказ пользователя проекцией; пусто, если заказа нет или он чужой
      */
     @Transactional(readOnly = true)
-    public Page<Order> getNewOrdersForSeller(User seller, Pageable pageable) {
-        // Показываем все новые заказы для обработки продавцом
-        // Фильтрация по продавцу применяется только в отчетах и истории продаж
-        Page<Order> ordersPage = orderRepository.findByStatusOrderByCreatedAtAsc(
-                Order.OrderStatus.NEW, pageable);
-        ordersPage.getContent().forEach(order -> {
-            order.getItems().size();
-            order.getUser().getUsername();
-        });
-        return ordersPage;
+    public Optional<OrderView> getUserOrderView(User user, Long orderId) {
+        return orderRepository.findOrderView(orderId, user.getId())
+                .map(order -> order.withItems(orderItemRepository.findViewsByOrderIds(List.of(order.id()))
+                        .getOrDefault(order.id(), List.of())));
+    }
+
+    public long countUserOrders(User user) {
+        return orderRepository.countByUser(user);
     }
 
+    // ========== Методы для ПРОДАВЦА ==========
+
     /**
      * Получить все заказы продавца
      */
@@ -291,34 +401,78 @@ public class OrderService {
     }
 
     /**
-     * Получить новые заказы для обработки продавцом (старый метод для обратной совместимости)
-     * @deprecated Используйте getNewOrdersForSeller(User seller, Pageable pageable)
+     * Взять в работу до count свободных новых заказов из очереди.
+     * Аренда уже взятых продавцом заказов продлевается; всего продавец держит не больше
+     * {@code omega.orders.claim.max-held} заказов.
+     *
+     * @return сколько заказов добавлено
+     */
+    @Transactional
+    public int claimNewOrders(User seller, int count) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Long> held = orderRepository.findClaimedIds(seller, now);
+        int wanted = Math.min(count, maxClaimsPerSeller - held.size());
+
+        List<Long> ids = new ArrayList<>(held);
+        if (wanted > 0) {
+            ids.addAll(orderRepository.lockUnclaimedNew(now, wanted));
+        }
+        if (!ids.isEmpty()) {
+            orderRepository.claim(ids, seller, now.plus(claimLease));
+        }
+        int claimed = ids.size() - held.size();
+        log.info("Продавец {} взял новых заказов: {}, всего в работе: {}", seller.getUsername(), claimed, ids.size());
+        return claimed;
+    }
+
+    /**
+     * Вернуть взятый заказ в очередь
+     */
+    @Transactional
+    public void releaseOrder(User seller, Long orderId) {
+        if (orderRepository.release(orderId, seller) == 0) {
+            throw new IllegalStateException("Заказ не взят вами в работу");
+        }
+        log.info("Продавец {} вернул заказ #{} в очередь", seller.getUsername(), orderId);
+    }
+
+    /**
+     * Новые заказы, взятые продавцом
      */
-    @Deprecated
     @Transactional(readOnly = true)
-    public Page<Order> getNewOrdersForSeller(Pageable pageable) {
-        Page<Order> ordersPage = orderRepository.findByStatusOrderByCreatedAtAsc(
-                Order.OrderStatus.NEW, pageable);
-        ordersPage.getContent().forEach(order -> {
-            order.getItems().size();
-            order.getUser().getUsername();
-        });
-        return ordersPage;
+    public List<Order> getClaimedOrders(User seller) {
+        return orderRepository.findClaimed(seller, LocalDateTime.now());
+    }
+
+    /**
+     * Новые заказы, которые сейчас никто не держит
+     */
+    @Transactional(readOnly = true)
+    public long countUnclaimedNewOrders() {
+        return orderRepository.countUnclaimed(LocalDateTime.now());
+    }
+
+    public Duration getClaimLease() {
+        return claimLease;
     }
 
     /**
      * Подтвердить заказ продавцом (перевести в обработку)
      */
     @Transactional
-    public Order confirmOrderBySeller(Long orderId, String sellerComment) {
-        log.info("Подтверждение заказа #{} продавцом", orderId);
+    public Order confirmOrderBySeller(User seller, Long orderId, String sellerComment) {
+        log.info("Подтверждение заказа #{} продавцом {}", orderId, seller.getUsername());
 
+        boolean claimed = claimForAction(seller, orderId);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Заказ не найден"));
 
         if (order.getStatus() != Order.OrderStatus.NEW) {
             throw new IllegalStateException("Можно подтверждать только новые заказы");
         }
+        if (!claimed) {
+            throw new IllegalStateException("Заказ взят в работу другим продавцом");
+        }
 
         // Проверка наличия товаров на складе
         for (OrderItem item : order.getItems()) {
@@ -334,35 +488,42 @@ public class OrderService {
             order.setSellerComment(sellerComment);
         }
 
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_STATUS_CHANGED,
+                Order.OrderStatus.NEW, order.getDeliveryStatus());
     }
 
     /**
      * Отклонить заказ продавцом
      */
     @Transactional
-    public Order rejectOrderBySeller(Long orderId, String sellerComment) {
-        log.info("Отклонение заказа #{} продавцом", orderId);
+    public Order rejectOrderBySeller(User seller, Long orderId, String sellerComment) {
+        log.info("Отклонение заказа #{} продавцом {}", orderId, seller.getUsername());
 
+        boolean claimed = claimForAction(seller, orderId);
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Заказ не найден"));
 
         if (order.getStatus() != Order.OrderStatus.NEW) {
             throw new IllegalStateException("Можно отклонять только новые заказы");
         }
+        if (!claimed) {
+            throw new IllegalStateException("Заказ взят в работу другим продавцом");
+        }
 
         // Возвращаем товары на склад
         for (OrderItem item : order.getItems()) {
             productService.increaseQuantity(item.getProduct().getId(), item.getQuantity());
         }
 
+        Order.DeliveryStatus oldDeliveryStatus = order.getDeliveryStatus();
         order.setStatus(Order.OrderStatus.CANCELLED);
         order.setDeliveryStatus(Order.DeliveryStatus.CANCELLED);
         if (sellerComment != null && !sellerComment.trim().isEmpty()) {
             order.setSellerComment(sellerComment);
         }
 
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_STATUS_CHANGED,
+                Order.OrderStatus.NEW, oldDeliveryStatus);
     }
 
     /**
@@ -379,6 +540,7 @@ public class OrderService {
             throw new IllegalStateException("Можно подготовить к отправке только заказы в обработке");
         }
 
+        Order.DeliveryStatus oldDeliveryStatus = order.getDeliveryStatus();
         order.setStatus(Order.OrderStatus.READY_FOR_DELIVERY);
         order.setDeliveryStatus(Order.DeliveryStatus.READY);
         order.setReadyForDeliveryAt(java.time.LocalDateTime.now());
@@ -391,7 +553,8 @@ public class OrderService {
             order.setSellerComment(sellerComment);
         }
 
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_STATUS_CHANGED,
+                Order.OrderStatus.IN_PROGRESS, oldDeliveryStatus);
     }
 
     /**
@@ -412,11 +575,51 @@ public class OrderService {
             throw new IllegalStateException("Курьера можно назначить только на заказы готовые к отправке");
         }
 
+        Long previousCourierId = order.getCourier() != null ? order.getCourier().getId() : null;
+        Order.DeliveryStatus oldDeliveryStatus = order.getDeliveryStatus();
+
         order.setCourier(courier);
         order.setDeliveryStatus(Order.DeliveryStatus.ASSIGNED);
         order.setCourierAssignedAt(java.time.LocalDateTime.now());
 
-        return orderRepository.save(order);
+        Order savedOrder = orderRepository.save(order);
+        publishCourierAssigned(savedOrder, previousCourierId, oldDeliveryStatus);
+        return savedOrder;
+    }
+
+    /**
+     * Назначить курьера на заказ, который ещё ждёт курьера (автоназначение).
+     * В отличие от {@link #assignCourier}, не переназначает: назначение - условный UPDATE, и заказ,
+     * которому продавец уже назначил курьера, остаётся как есть.
+     *
+     * @return false, если курьер уже назначен или заказ больше не готов к отправке
+     */
+    @Transactional
+    public boolean assignReadyOrder(Long orderId, User courier) {
+        if (courier.getRole() != User.Role.COURIER) {
+            throw new IllegalArgumentException("Пользователь не является курьером");
+        }
+        if (orderRepository.assignIfReady(orderId, courier, LocalDateTime.now()) == 0) {
+            log.debug("Заказ #{} уже не ждёт курьера, автоназначение пропущено", orderId);
+            return false;
+        }
+
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new IllegalArgumentException("Заказ не найден"));
+        log.info("Назначение курьера {} на заказ #{}", courier.getUsername(), orderId);
+        publishCourierAssigned(order, null, Order.DeliveryStatus.READY);
+        return true;
+    }
+
+    private void publishCourierAssigned(Order order, Long previousCourierId,
+                                        Order.DeliveryStatus previousDeliveryStatus) {
+        Order.DeliveryStatus deliveryStatus = order.getDeliveryStatus();
+        afterCommit(() -> shopMetrics.recordTransition("delivery", previousDeliveryStatus, deliveryStatus));
+        Map<String, Object> extra = new HashMap<>();
+        extra.put("previousCourierId", previousCourierId);
+        extra.put("previousDeliveryStatus", previousDeliveryStatus);
+        outboxService.recordOrderEvent(order, DomainEventTypes.ORDER_COURIER_ASSIGNED, extra);
+        orderFeedService.recordChange(order, order.getStatus(), previousCourierId);
     }
 
     // ========== Методы для КУРЬЕРА ==========
@@ -482,10 +685,12 @@ public class OrderService {
             throw new IllegalStateException("Нельзя начать доставку с текущим статусом");
         }
 
+        Order.DeliveryStatus oldDeliveryStatus = order.getDeliveryStatus();
         order.setDeliveryStatus(Order.DeliveryStatus.IN_TRANSIT);
         order.setDeliveryStartedAt(java.time.LocalDateTime.now());
 
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_DELIVERY_STATUS_CHANGED,
+                order.getStatus(), oldDeliveryStatus);
     }
 
     /**
@@ -510,6 +715,7 @@ public class OrderService {
             throw new IllegalStateException("Заказ должен быть в статусе 'В пути'");
         }
 
+        Order.OrderStatus oldStatus = order.getStatus();
         order.setDeliveryStatus(Order.DeliveryStatus.DELIVERED);
         order.setStatus(Order.OrderStatus.DELIVERED);
         order.setDeliveredAt(java.time.LocalDateTime.now());
@@ -518,7 +724,8 @@ public class OrderService {
             order.setCourierComment(courierComment);
         }
 
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_STATUS_CHANGED,
+                oldStatus, Order.DeliveryStatus.IN_TRANSIT);
     }
 
     /**
@@ -539,12 +746,22 @@ public class OrderService {
             throw new IllegalArgumentException("Заказ не назначен вам");
         }
 
+        Order.DeliveryStatus oldDeliveryStatus = order.getDeliveryStatus();
         order.setDeliveryStatus(Order.DeliveryStatus.FAILED);
         if (problemComment != null && !problemComment.trim().isEmpty()) {
             order.setCourierComment(problemComment);
         }
 
-        return orderRepository.save(order);
+        return saveAndPublish(order, DomainEventTypes.ORDER_DELIVERY_STATUS_CHANGED,
+                order.getStatus(), oldDeliveryStatus);
+    }
+
+    /**
+     * Время изменения заказа курьера (с учётом данных покупателя); пусто, если заказ не назначен курьеру
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getCourierOrderUpdatedAt(User courier, Long orderId) {
+        return orderRepository.findUpdatedAtByIdAndCourierId(orderId, courier.getId());
     }
 
     /**
@@ -569,6 +786,48 @@ public class OrderService {
         return order;
     }
 
+    /**
+     * Заказы с товарами продавца проекцией для API
+     */
+    @Transactional(readOnly = true)
+    public List<OrderView> getSellerOrderViews(User seller, Pageable pageable) {
+        List<OrderView> orders = orderRepository.findSellerOrderViews(seller.getId(), pageable);
+        Map<Long, List<OrderItemView>> items =
+                orderItemRepository.findViewsByOrderIds(orders.stream().map(OrderView::id).toList());
+        return orders.stream()
+                .map(order -> order.withItems(items.getOrDefault(order.id(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Доставки курьера проекцией для API; {@code deliveryStatus = null} - все
+     */
+    @Transactional(readOnly = true)
+    public List<DeliveryView> getCourierDeliveryViews(User courier, Order.DeliveryStatus deliveryStatus,
+                                                      Pageable pageable) {
+        if (courier.getRole() != User.Role.COURIER) {
+            throw new IllegalArgumentException("Пользователь не является курьером");
+        }
+
+        List<DeliveryView> deliveries = orderRepository.findDeliveryViews(courier.getId(), deliveryStatus, pageable);
+        Map<Long, List<OrderItemView>> items =
+                orderItemRepository.findViewsByOrderIds(deliveries.stream().map(DeliveryView::id).toList());
+        return deliveries.stream()
+                .map(delivery -> delivery.withItems(items.getOrDefault(delivery.id(), List.of())))
+                .toList();
+    }
+
+    /**
+     * Доставка курьера проекцией; пусто, если заказ не назначен этому курьеру
+     */
+    @Transactional(readOnly = true)
+    public Optional<DeliveryView> getCourierDeliveryView(User courier, Long orderId) {
+        return orderRepository.findDeliveryView(orderId, courier.getId())
+                .map(delivery -> delivery.withItems(
+                        orderItemRepository.findViewsByOrderIds(List.of(delivery.id()))
+                                .getOrDefault(delivery.id(), List.of())));
+    }
+
     /**
      * Получить список всех курьеров
      */
@@ -576,4 +835,87 @@ public class OrderService {
     public java.util.List<User> getAllCouriers() {
         return userRepository.findByRole(User.Role.COURIER);
     }
-}
\ No newline at end of file
+
+    /**
+     * Получить курьера по ID
+     */
+    @Transactional(readOnly = true)
+    public User getCourier(Long courierId) {
+        return userRepository.findById(courierId)
+                .filter(user -> user.getRole() == User.Role.COURIER)
+                .orElseThrow(() -> new IllegalArgumentException("Курьер не найден"));
+    }
+
+    /**
+     * Взять заказ до загрузки: одно условное UPDATE вместо проверки статуса после чтения.
+     * Параллельное действие с тем же заказом ждёт фиксации первого и получает 0 строк,
+     * а не выясняет конфликт после проверки остатков.
+     */
+    private boolean claimForAction(User seller, Long orderId) {
+        LocalDateTime now = LocalDateTime.now();
+        return orderRepository.claimForAction(orderId, seller, now, now.plus(claimLease)) > 0;
+    }
+
+    /**
+     * Сохранить заказ и записать событие об изменении статуса в outbox (в той же транзакции)
+     */
+    private Order saveAndPublish(Order order, String eventType,
+                                 Order.OrderStatus previousStatus,
+                                 Order.DeliveryStatus previousDeliveryStatus) {
+        Order savedOrder = orderRepository.save(order);
+        Order.OrderStatus status = savedOrder.getStatus();
+        Order.DeliveryStatus deliveryStatus = savedOrder.getDeliveryStatus();
+        afterCommit(() -> {
+            if (previousStatus != status) {
+                shopMetrics.recordTransition("order", previousStatus, status);
+            }
+            if (previousDeliveryStatus != deliveryStatus) {
+                shopMetrics.recordTransition("delivery", previousDeliveryStatus, deliveryStatus);
+            }
+        });
+        Map<String, Object> extra = new HashMap<>();
+        extra.put("previousStatus", previousStatus);
+        extra.put("previousDeliveryStatus", previousDeliveryStatus);
+        outboxService.recordOrderEvent(savedOrder, eventType, extra);
+        orderFeedService.recordChange(savedOrder, previousStatus, null);
+        return savedOrder;
+    }
+
+    /**
+     * Учесть оформление заказа. Успех учитывается только после фиксации транзакции:
+     * если заказ откатился при commit, оформление считается ошибкой.
+     */
+    private void recordCheckout(Timer.Sample sample, String outcome, int lines) {
+        if (!ShopMetrics.OUTCOME_SUCCESS.equals(outcome)) {
+            shopMetrics.recordCheckout(sample, outcome, lines);
+            return;
+        }
+        afterCompletion(committed -> shopMetrics.recordCheckout(sample,
+                committed ? ShopMetrics.OUTCOME_SUCCESS : ShopMetrics.OUTCOME_ERROR, lines));
+    }
+
+    /**
+     * Выполнить действие после фиксации текущей транзакции (вне транзакции - сразу),
+     * чтобы метрики не учитывали откатившиеся изменения
+     */
+    private static void afterCommit(Runnable action) {
+        afterCompletion(committed -> {
+            if (committed) {
+                action.run();
+            }
+        });
+    }
+
+    private static void afterCompletion(Consumer<Boolean> action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    action.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            action.accept(true);
+        }
+    }
+}
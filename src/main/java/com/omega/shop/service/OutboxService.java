@@ -0,0 +1,87 @@
+package com.omega.shop.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.OutboxEvent;
+import com.omega.shop.entity.Product;
+import com.omega.shop.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Запись доменных событий в outbox.
+ * Событие сохраняется в той же транзакции, что и изменение агрегата, поэтому оно
+ * либо фиксируется вместе с изменением, либо откатывается вместе с ним.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    /**
+     * Записать событие заказа
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordOrderEvent(Order order, String eventType, Map<String, Object> extra) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("orderId", order.getId());
+        payload.put("userId", order.getUser() != null ? order.getUser().getId() : null);
+        payload.put("courierId", order.getCourier() != null ? order.getCourier().getId() : null);
+        payload.put("status", order.getStatus());
+        payload.put("deliveryStatus", order.getDeliveryStatus());
+        payload.put("totalAmount", order.getTotalAmount());
+        if (extra != null) {
+            payload.putAll(extra);
+        }
+        record(OutboxEvent.AggregateType.ORDER, order.getId(), eventType, payload);
+    }
+
+    /**
+     * Записать событие товара
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void recordProductEvent(Product product, String eventType) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("productId", product.getId());
+        payload.put("categoryId", product.getCategory() != null ? product.getCategory().getId() : null);
+        payload.put("sellerId", product.getSeller() != null ? product.getSeller().getId() : null);
+        payload.put("price", product.getPrice());
+        payload.put("quantity", product.getQuantity());
+        payload.put("active", product.isActive());
+        record(OutboxEvent.AggregateType.PRODUCT, product.getId(), eventType, payload);
+    }
+
+    /**
+     * Записать произвольное событие
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void record(OutboxEvent.AggregateType aggregateType, Long aggregateId,
+                       String eventType, Map<String, Object> payload) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(aggregateType);
+        event.setAggregateId(aggregateId);
+        event.setEventType(eventType);
+        event.setPayload(toJson(payload));
+        outboxEventRepository.save(event);
+
+        log.debug("Событие {} для {} #{} записано в outbox", eventType, aggregateType, aggregateId);
+    }
+
+    private String toJson(Map<String, Object> payload) {
+        try {
+            return objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Не удалось сериализовать данные события", e);
+        }
+    }
+}
@@ -1,19 +1,32 @@
 package com.omega.shop.service;
 
+import com.omega.shop.cache.CacheInvalidation;
+import com.omega.shop.cache.CacheInvalidationBus;
+import com.omega.shop.dto.ProductView;
 import com.omega.shop.entity.Category;
 import com.omega.shop.entity.Product;
+import com.omega.shop.event.DomainEventTypes;
+import com.omega.shop.monitoring.SearchEvent;
+import com.omega.shop.monitoring.ShopMetrics;
 import com.omega.shop.repository.OrderItemRepository;
 import com.omega.shop.repository.ProductRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
@@ -23,17 +36,58 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final FileStorageService fileStorageService;
     private final OrderItemRepository orderItemRepository;
+    private final OutboxService outboxService;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final ShopMetrics shopMetrics;
 
     /**
      * Получить все активные товары с пагинацией
      */
+    @Transactional(readOnly = true)
     public Page<Product> getAllActiveProducts(Pageable pageable) {
         return productRepository.findByIsActiveTrue(pageable);
     }
 
+    /**
+     * Активные товары потоком (для админа): поток закрывается внутри транзакции вызывающего
+     */
+    @Transactional(readOnly = true, propagation = Propagation.MANDATORY)
+    public Stream<Product> streamActiveProducts(Pageable pageable) {
+        return productRepository.streamActiveWithCategory(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public long countActiveProducts() {
+        return productRepository.countByIsActiveTrue();
+    }
+
+    /**
+     * Проекции активных товаров с ID больше {@code afterId}, по возрастанию ID
+     */
+    @Transactional(readOnly = true)
+    public List<ProductView> getProductViews(long afterId, Long categoryId, boolean withDescription, int limit) {
+        // Два запроса вместо "(:categoryId IS NULL OR ...)": тип NULL-параметра выводится не во всех БД
+        if (categoryId == null) {
+            return productRepository.findViewsAfter(afterId, withDescription, Limit.of(limit));
+        }
+        return productRepository.findViewsAfterInCategory(afterId, categoryId, withDescription, Limit.of(limit));
+    }
+
+    /**
+     * Проекции активных товаров по списку ID (порядок не гарантируется)
+     */
+    @Transactional(readOnly = true)
+    public List<ProductView> getProductViews(Collection<Long> ids, boolean withDescription) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return productRepository.findViewsByIds(ids, withDescription);
+    }
+
     /**
      * Получить все товары (для админки)
      */
+    @Transactional(readOnly = true)
     public Page<Product> getAllProducts(Pageable pageable) {
         return productRepository.findAll(pageable);
     }
@@ -41,21 +95,37 @@ public class ProductService {
     /**
      * Получить товар по ID
      */
+    @Transactional(readOnly = true)
     public Optional<Product> getProductById(Long id) {
         return productRepository.findById(id);
     }
 
+    /**
+     * Время последнего изменения товара (для условных запросов)
+     */
+    @Transactional(readOnly = true)
+    public Optional<LocalDateTime> getProductUpdatedAt(Long id) {
+        return productRepository.findUpdatedAtById(id);
+    }
+
     /**
      * Поиск товаров по ключевому слову
      */
+    @Transactional(readOnly = true)
     public Page<Product> searchProducts(String keyword, Pageable pageable) {
         log.info("Поиск товаров по запросу: {}", keyword);
-        return productRepository.searchByName(keyword, pageable);
+        Timer.Sample sample = shopMetrics.start();
+        SearchEvent event = SearchEvent.start(keyword, pageable.getPageNumber());
+        Page<Product> result = productRepository.searchByName(keyword, pageable);
+        event.finish(result.getTotalElements());
+        shopMetrics.recordSearch(sample, result.getTotalElements());
+        return result;
     }
 
     /**
      * Фильтрация по категории
      */
+    @Transactional(readOnly = true)
     public Page<Product> getProductsByCategory(Category category, Pageable pageable) {
         return productRepository.findByCategoryAndIsActiveTrue(category, pageable);
     }
@@ -63,6 +133,7 @@ public class ProductService {
     /**
      * Фильтрация по категории и диапазону цен
      */
+    @Transactional(readOnly = true)
     public Page<Product> getProductsByCategoryAndPriceRange(
             Category category,
             BigDecimal minPrice,
@@ -74,6 +145,7 @@ public class ProductService {
     /**
      * Фильтрация только по диапазону цен
      */
+    @Transactional(readOnly = true)
     public Page<Product> getProductsByPriceRange(
             BigDecimal minPrice,
             BigDecimal maxPrice,
@@ -95,7 +167,10 @@ public class ProductService {
                 product.setImagePath(imagePath);
             }
 
-            return productRepository.save(product);
+            Product savedProduct = productRepository.save(product);
+            outboxService.recordProductEvent(savedProduct, DomainEventTypes.PRODUCT_CREATED);
+            invalidateCache(savedProduct);
+            return savedProduct;
         } catch (IllegalArgumentException e) {
             log.error("Ошибка валидации при создании товара: {}", e.getMessage());
             throw e;
@@ -135,7 +210,10 @@ public class ProductService {
             product.setImagePath(imagePath);
         }
 
-        return productRepository.save(product);
+        Product savedProduct = productRepository.save(product);
+        outboxService.recordProductEvent(savedProduct, DomainEventTypes.PRODUCT_UPDATED);
+        invalidateCache(savedProduct);
+        return savedProduct;
     }
 
     /**
@@ -157,7 +235,9 @@ public class ProductService {
             fileStorageService.deleteFile(product.getImagePath());
         }
 
+        outboxService.recordProductEvent(product, DomainEventTypes.PRODUCT_DELETED);
         productRepository.delete(product);
+        cacheInvalidationBus.invalidate(CacheInvalidation.Entity.PRODUCT, id);
     }
 
     /**
@@ -170,6 +250,8 @@ public class ProductService {
 
         product.decreaseQuantity(quantity);
         productRepository.save(product);
+        outboxService.recordProductEvent(product, DomainEventTypes.PRODUCT_STOCK_CHANGED);
+        invalidateCache(product);
     }
 
     /**
@@ -182,5 +264,14 @@ public class ProductService {
 
         product.increaseQuantity(quantity);
         productRepository.save(product);
+        outboxService.recordProductEvent(product, DomainEventTypes.PRODUCT_STOCK_CHANGED);
+        invalidateCache(product);
+    }
+
+    /**
+     * Сообщить другим узлам об изменении товара
+     */
+    private void invalidateCache(Product product) {
+        cacheInvalidationBus.invalidate(CacheInvalidation.Entity.PRODUCT, product.getId());
     }
 }
\ No newline at end of file
@@ -2,7 +2,10 @@ package com.omega.shop.service;
 
 import com.omega.shop.dto.SalesReportDto;
 import com.omega.shop.entity.Order;
+import com.omega.shop.monitoring.ReportGenerationEvent;
+import com.omega.shop.monitoring.ShopMetrics;
 import com.omega.shop.repository.OrderItemRepository;
+import io.micrometer.core.instrument.Timer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
@@ -18,6 +21,7 @@ import java.util.stream.Collectors;
 public class ReportService {
 
     private final OrderItemRepository orderItemRepository;
+    private final ShopMetrics shopMetrics;
 
     /**
      * Получить отчет о продажах по продавцам за период
@@ -26,12 +30,16 @@ public class ReportService {
     public List<SalesReportDto> getSalesReport(LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Генерация отчета о продажах по продавцам с {} по {}", startDate, endDate);
 
+        Timer.Sample sample = shopMetrics.start();
+        ReportGenerationEvent event = ReportGenerationEvent.start("sales", startDate, endDate);
+        long rows = 0;
         try {
             List<Object[]> results = orderItemRepository.getSalesReportBySeller(
                     startDate, 
                     endDate, 
                     Order.OrderStatus.DELIVERED
             );
+            rows = results.size();
 
             log.info("Получено {} записей продавцов из БД для отчета (только завершенные заказы)", results.size());
             
@@ -40,61 +48,7 @@ public class ReportService {
             }
 
             List<SalesReportDto> report = results.stream()
-                    .map(row -> {
-                        SalesReportDto dto = new SalesReportDto();
-                        
-                        // Информация о продавце
-                        if (row[0] != null) {
-                            try {
-                                Number sellerId = (Number) row[0];
-                                if (sellerId != null && sellerId.longValue() > 0) {
-                                    dto.setSellerId(sellerId.longValue());
-                                }
-                            } catch (Exception e) {
-                                log.warn("Ошибка получения sellerId: {}", e.getMessage());
-                            }
-                        }
-                        
-                        if (row[1] != null && !row[1].toString().isEmpty()) {
-                            dto.setSellerName((String) row[1]);
-                        } else {
-                            dto.setSellerName("Без продавца");
-                        }
-                        
-                        if (row[2] != null) {
-                            dto.setSellerEmail((String) row[2]);
-                        }
-                        
-                        // Количество проданных товаров
-                        if (row[3] != null) {
-                            dto.setTotalSold(((Number) row[3]).longValue());
-                        } else {
-                            dto.setTotalSold(0L);
-                        }
-                        
-                        // Сумма продаж
-                        if (row[4] != null) {
-                            if (row[4] instanceof java.math.BigDecimal) {
-                                dto.setTotalSalesAmount((java.math.BigDecimal) row[4]);
-                            } else if (row[4] instanceof Number) {
-                                dto.setTotalSalesAmount(java.math.BigDecimal.valueOf(((Number) row[4]).doubleValue()));
-                            }
-                        } else {
-                            dto.setTotalSalesAmount(java.math.BigDecimal.ZERO);
-                        }
-                        
-                        // Расчет зарплаты (10% от суммы продаж)
-                        if (dto.getTotalSalesAmount() != null) {
-                            java.math.BigDecimal salary = dto.getTotalSalesAmount()
-                                    .multiply(java.math.BigDecimal.valueOf(0.10))
-                                    .setScale(2, java.math.RoundingMode.HALF_UP);
-                            dto.setSalary(salary);
-                        } else {
-                            dto.setSalary(java.math.BigDecimal.ZERO);
-                        }
-                        
-                        return dto;
-                    })
+                    .map(ReportService::mapSellerRow)
                     .collect(Collectors.toList());
 
             log.info("Сформирован отчет с {} продавцами", report.size());
@@ -103,7 +57,69 @@ public class ReportService {
             log.error("Ошибка при генерации отчета: {}", e.getMessage(), e);
             // Возвращаем пустой список вместо выбрасывания исключения
             return List.of();
+        } finally {
+            event.finish(rows);
+            shopMetrics.recordReport(sample, "sales", rows);
+        }
+    }
+
+    /**
+     * Преобразовать строку агрегирующего запроса (sellerId, имя, email, количество, сумма) в строку отчёта
+     */
+    public static SalesReportDto mapSellerRow(Object[] row) {
+        SalesReportDto dto = new SalesReportDto();
+        
+        // Информация о продавце
+        if (row[0] != null) {
+            try {
+                Number sellerId = (Number) row[0];
+                if (sellerId != null && sellerId.longValue() > 0) {
+                    dto.setSellerId(sellerId.longValue());
+                }
+            } catch (Exception e) {
+                log.warn("Ошибка получения sellerId: {}", e.getMessage());
+            }
+        }
+        
+        if (row[1] != null && !row[1].toString().isEmpty()) {
+            dto.setSellerName((String) row[1]);
+        } else {
+            dto.setSellerName("Без продавца");
+        }
+        
+        if (row[2] != null) {
+            dto.setSellerEmail((String) row[2]);
+        }
+        
+        // Количество проданных товаров
+        if (row[3] != null) {
+            dto.setTotalSold(((Number) row[3]).longValue());
+        } else {
+            dto.setTotalSold(0L);
+        }
+        
+        // Сумма продаж
+        if (row[4] != null) {
+            if (row[4] instanceof java.math.BigDecimal) {
+                dto.setTotalSalesAmount((java.math.BigDecimal) row[4]);
+            } else if (row[4] instanceof Number) {
+                dto.setTotalSalesAmount(java.math.BigDecimal.valueOf(((Number) row[4]).doubleValue()));
+            }
+        } else {
+            dto.setTotalSalesAmount(java.math.BigDecimal.ZERO);
+        }
+        
+        // Расчет зарплаты (10% от суммы продаж)
+        if (dto.getTotalSalesAmount() != null) {
+            java.math.BigDecimal salary = dto.getTotalSalesAmount()
+                    .multiply(java.math.BigDecimal.valueOf(0.10))
+                    .setScale(2, java.math.RoundingMode.HALF_UP);
+            dto.setSalary(salary);
+        } else {
+            dto.setSalary(java.math.BigDecimal.ZERO);
         }
+        
+        return dto;
     }
 
     /**
@@ -133,6 +149,9 @@ public class ReportService {
     public SalesReportDto getSellerSalesReport(com.omega.shop.entity.User seller, LocalDateTime startDate, LocalDateTime endDate) {
         log.info("Генерация отчета о продажах для продавца {} с {} по {}", seller.getUsername(), startDate, endDate);
 
+        Timer.Sample sample = shopMetrics.start();
+        ReportGenerationEvent event = ReportGenerationEvent.start("seller", startDate, endDate);
+        long rows = 0;
         try {
             // Сначала пробуем получить только завершенные заказы (DELIVERED)
             List<Object[]> resultsDelivered = orderItemRepository.getSalesReportForSeller(
@@ -141,6 +160,7 @@ public class ReportService {
                     endDate,
                     Order.OrderStatus.DELIVERED
             );
+            rows = resultsDelivered.size();
             
             // Если нет завершенных заказов, получаем все заказы продавца для информации
             List<Object[]> results = resultsDelivered;
@@ -153,6 +173,7 @@ public class ReportService {
                         endDate,
                         Order.OrderStatus.CANCELLED
                 );
+                rows += results.size();
             }
 
             SalesReportDto sellerReport = results.stream()
@@ -215,6 +236,9 @@ public class ReportService {
             dto.setTotalSalesAmount(java.math.BigDecimal.ZERO);
             dto.setSalary(java.math.BigDecimal.ZERO);
             return dto;
+        } finally {
+            event.finish(rows);
+            shopMetrics.recordReport(sample, "seller", rows);
         }
     }
 
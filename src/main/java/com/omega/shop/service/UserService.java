@@ -1,13 +1,16 @@
 package com.omega.shop.service;
 
+import com.omega.shop.cache.CacheInvalidation;
+import com.omega.shop.cache.CacheInvalidationBus;
 import com.omega.shop.dto.RegistrationDto;
 import com.omega.shop.entity.User;
 import com.omega.shop.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.Optional;
 
@@ -16,23 +19,30 @@ import java.util.Optional;
 @Slf4j
 public class UserService {
 
+    private static final String USERNAME_TAKEN = "Пользователь с таким именем уже существует";
+    private static final String EMAIL_TAKEN = "Пользователь с таким email уже существует";
+
     private final UserRepository userRepository;
     private final PasswordEncoder passwordEncoder;
+    private final CacheInvalidationBus cacheInvalidationBus;
+    private final TransactionTemplate transactionTemplate;
 
     /**
-     * Регистрация нового пользователя
+     * Регистрация нового пользователя.
+     * Пароль хэшируется до транзакции: хэширование ждёт очереди BCrypt, и всё это время
+     * соединение с БД было бы занято. Вставка - отдельная короткая транзакция; гонку двух
+     * регистраций с одним именем или email разрешает уникальный индекс.
      */
-    @Transactional
     public User registerUser(RegistrationDto registrationDto) {
         log.info("Регистрация нового пользователя: {}", registrationDto.getUsername());
 
         // Проверка на существование пользователя
         if (userRepository.existsByUsername(registrationDto.getUsername())) {
-            throw new IllegalArgumentException("Пользователь с таким именем уже существует");
+            throw new IllegalArgumentException(USERNAME_TAKEN);
         }
 
         if (userRepository.existsByEmail(registrationDto.getEmail())) {
-            throw new IllegalArgumentException("Пользователь с таким email уже существует");
+            throw new IllegalArgumentException(EMAIL_TAKEN);
         }
 
         // Проверка совпадения паролей
@@ -49,7 +59,20 @@ public class UserService {
         user.setRole(User.Role.CLIENT);
         user.setActive(true);
 
-        User savedUser = userRepository.save(user);
+        User savedUser;
+        try {
+            savedUser = transactionTemplate.execute(status -> {
+                User saved = userRepository.saveAndFlush(user);
+                cacheInvalidationBus.invalidate(CacheInvalidation.Entity.USER, saved.getId());
+                return saved;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Параллельная регистрация успела занять имя или email после проверки
+            log.warn("Регистрация {} отклонена уникальным индексом: {}", registrationDto.getUsername(),
+                    e.getMostSpecificCause().getMessage());
+            throw new IllegalArgumentException(
+                    userRepository.existsByEmail(registrationDto.getEmail()) ? EMAIL_TAKEN : USERNAME_TAKEN);
+        }
         log.info("Пользователь успешно зарегистрирован: {}", savedUser.getUsername());
 
         return savedUser;
@@ -0,0 +1,24 @@
+-- Таблица исходящих доменных событий (transactional outbox)
+CREATE TABLE IF NOT EXISTS outbox (
+    id              BIGSERIAL PRIMARY KEY,
+    aggregate_type  VARCHAR(30)  NOT NULL,
+    aggregate_id    BIGINT       NOT NULL,
+    event_type      VARCHAR(50)  NOT NULL,
+    payload         TEXT         NOT NULL,
+    status          VARCHAR(20)  NOT NULL DEFAULT 'PENDING',
+    attempts        INTEGER      NOT NULL DEFAULT 0,
+    last_error      TEXT,
+    created_at      TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    published_at    TIMESTAMP
+);
+
+-- Индекс для выборки очередного события каждого агрегата
+CREATE INDEX IF NOT EXISTS idx_outbox_pending_aggregate
+    ON outbox(aggregate_type, aggregate_id, id)
+    WHERE status = 'PENDING';
+
+-- Индекс для очистки опубликованных событий
+CREATE INDEX IF NOT EXISTS idx_outbox_published_at ON outbox(published_at);
+
+COMMENT ON TABLE outbox IS 'Доменные события, записанные в одной транзакции с изменением агрегата';
+COMMENT ON COLUMN outbox.status IS 'Статус доставки: PENDING, PUBLISHED, FAILED';
@@ -0,0 +1,18 @@
+-- Лента изменений заказов для синхронизации приложений курьеров и продавцов по курсору
+CREATE TABLE IF NOT EXISTS order_feed (
+    change_seq        BIGSERIAL    PRIMARY KEY,
+    recipient_type    VARCHAR(10)  NOT NULL,
+    recipient_id      BIGINT       NOT NULL,
+    order_id          BIGINT       NOT NULL,
+    kind              VARCHAR(10)  NOT NULL,
+    created_at        TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- "Что изменилось для меня после курсора": (COURIER, courier_id, change_seq) и (SELLER, seller_id, change_seq)
+CREATE INDEX IF NOT EXISTS idx_order_feed_recipient ON order_feed(recipient_type, recipient_id, change_seq);
+
+-- Индекс для очистки старых записей
+CREATE INDEX IF NOT EXISTS idx_order_feed_created_at ON order_feed(created_at);
+
+COMMENT ON TABLE order_feed IS 'Изменения заказов по получателям; change_seq - курсор клиента';
+COMMENT ON COLUMN order_feed.kind IS 'UPSERT - обновить заказ у клиента, TOMBSTONE - удалить (переназначен или отменён)';
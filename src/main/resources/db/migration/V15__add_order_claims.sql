@@ -0,0 +1,23 @@
+-- Очередь новых заказов для продавцов: заказ берётся в работу с арендой до claim_expires_at
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS claimed_by BIGINT;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS claim_expires_at TIMESTAMP;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM information_schema.table_constraints WHERE constraint_name = 'fk_orders_claimed_by') THEN
+        ALTER TABLE orders
+            ADD CONSTRAINT fk_orders_claimed_by
+            FOREIGN KEY (claimed_by)
+            REFERENCES users(id)
+            ON DELETE SET NULL;
+    END IF;
+END $$;
+
+-- Выборка очереди (status = 'NEW' ORDER BY created_at) читает только новые заказы, а не всю таблицу
+CREATE INDEX IF NOT EXISTS idx_orders_new_queue ON orders(created_at) WHERE status = 'NEW';
+
+-- Заказы, взятые продавцом
+CREATE INDEX IF NOT EXISTS idx_orders_claimed_by ON orders(claimed_by) WHERE status = 'NEW';
+
+COMMENT ON COLUMN orders.claimed_by IS 'Продавец, взявший новый заказ в работу';
+COMMENT ON COLUMN orders.claim_expires_at IS 'Окончание аренды: после него заказ снова доступен другим продавцам';
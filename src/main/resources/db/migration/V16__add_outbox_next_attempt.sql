@@ -0,0 +1,5 @@
+-- Время следующей попытки доставки события: после ошибки подписчика событие откладывается
+-- с экспоненциально растущей задержкой. NULL - событие можно доставлять сразу.
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS next_attempt_at TIMESTAMP;
+
+COMMENT ON COLUMN outbox.next_attempt_at IS 'Не доставлять событие раньше этого времени (повтор после ошибки)';
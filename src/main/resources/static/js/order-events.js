@@ -0,0 +1,32 @@
+// Уведомления об изменении заказов через Server-Sent Events вместо периодической перезагрузки страницы.
+// Блок <div id="order-events" data-url="..." data-events="order new-orders"> показывается при первом событии.
+(function () {
+    var notice = document.getElementById('order-events');
+    if (!notice || !window.EventSource) {
+        return;
+    }
+
+    var changed = 0;
+    var source = new EventSource(notice.dataset.url);
+
+    function show(text) {
+        notice.querySelector('[data-role="text"]').textContent = text;
+        notice.classList.remove('d-none');
+    }
+
+    notice.dataset.events.split(' ').forEach(function (name) {
+        source.addEventListener(name, function () {
+            changed++;
+            show('Заказы изменились: ' + changed);
+        });
+    });
+
+    // Часть событий потеряна: данные на странице могли устареть
+    source.addEventListener('reset', function () {
+        show('Список заказов мог измениться');
+    });
+
+    window.addEventListener('beforeunload', function () {
+        source.close();
+    });
+})();
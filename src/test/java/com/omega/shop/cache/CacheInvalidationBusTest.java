@@ -0,0 +1,88 @@
+package com.omega.shop.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class CacheInvalidationBusTest {
+
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private final CacheInvalidationBus bus = new CacheInvalidationBus(publisher, mock(JdbcTemplate.class),
+            new DataSourceProperties());
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void changeIsPublishedAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        bus.invalidate(CacheInvalidation.Entity.PRODUCT, 7L);
+        verify(publisher, never()).publishEvent(any(Object.class));
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+        ArgumentCaptor<CacheInvalidationEvent> event = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertEquals(new CacheInvalidation(CacheInvalidation.Entity.PRODUCT, 7L),
+                event.getValue().invalidations().get(0));
+    }
+
+    @Test
+    void rolledBackChangeIsNotPublished() {
+        TransactionSynchronizationManager.initSynchronization();
+        bus.invalidate(CacheInvalidation.Entity.PRODUCT, 7L);
+
+        TransactionSynchronizationManager.getSynchronizations()
+                .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+        verify(publisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void outsideTransactionIsPublishedImmediately() {
+        bus.invalidate(CacheInvalidation.Entity.USER, 3L);
+
+        ArgumentCaptor<CacheInvalidationEvent> event = ArgumentCaptor.forClass(CacheInvalidationEvent.class);
+        verify(publisher).publishEvent(event.capture());
+        assertEquals(new CacheInvalidation(CacheInvalidation.Entity.USER, 3L),
+                event.getValue().invalidations().get(0));
+    }
+
+    @Test
+    void messageFromPreviousVersionIsAccepted() {
+        assertEquals(new CacheInvalidation(CacheInvalidation.Entity.PRODUCT, 42L), CacheInvalidation.decode("p:42"));
+        assertEquals(new CacheInvalidation(CacheInvalidation.Entity.PRODUCT, 42L),
+                CacheInvalidation.decode("p:42:1697712000000"));
+        assertThrows(IllegalArgumentException.class, () -> CacheInvalidation.decode("p:x"));
+    }
+
+    @Test
+    void channelMustBePlainIdentifier() {
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:postgresql://localhost:5432/shop");
+        CacheInvalidationBus remote = new CacheInvalidationBus(publisher, mock(JdbcTemplate.class), properties);
+        ReflectionTestUtils.setField(remote, "enabled", true);
+        ReflectionTestUtils.setField(remote, "channel", "shop; DROP TABLE users");
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, remote::start);
+
+        assertEquals("Некорректное имя канала инвалидации кэшей: shop; DROP TABLE users", e.getMessage());
+    }
+}
@@ -0,0 +1,88 @@
+package com.omega.shop.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.thymeleaf.TemplateEngine;
+import org.thymeleaf.context.Context;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.templatemode.TemplateMode;
+import org.thymeleaf.templateresolver.StringTemplateResolver;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FragmentCacheDialectTest {
+
+    private static final String TEMPLATE = """
+            <ul><li th:each="p : ${products}" th:cache="'card:' + ${p.id} + ':' + ${p.version}"
+                    th:if="${p.id > 0}"><b th:text="${p.name}">name</b></li></ul>""";
+
+    private final FragmentCache cache = new FragmentCache(100, 100_000, new SimpleMeterRegistry());
+
+    @Test
+    void rendersOncePerKeyAndMatchesUncachedOutput() {
+        List<Map<String, Object>> products = List.of(product(1, 1, "Фен"), product(2, 1, "Пылесос"));
+        String cached = render(engine(cache), TEMPLATE, products);
+
+        assertEquals(render(engine(null), TEMPLATE, products), cached);
+        assertEquals("<ul><li><b>Фен</b></li><li><b>Пылесос</b></li></ul>", cached);
+        assertEquals(2, cache.size());
+
+        // Тот же ключ - HTML из кэша, новая версия - новый рендер
+        String next = render(engine(cache), TEMPLATE, List.of(product(1, 1, "другое"), product(2, 2, "Пылесос 2")));
+        assertEquals("<ul><li><b>Фен</b></li><li><b>Пылесос 2</b></li></ul>", next);
+    }
+
+    @Test
+    void cachedHtmlIsNotInlinedAgain() {
+        String first = render(engine(cache), TEMPLATE, List.of(product(1, 1, "[[${1 + 1}]]")));
+        String second = render(engine(cache), TEMPLATE, List.of(product(1, 1, "[[${1 + 1}]]")));
+
+        assertEquals(first, second);
+        assertTrue(second.contains("[[${1 + 1}]]"));
+    }
+
+    @Test
+    void fragmentsWithCsrfTokenAreNotCached() {
+        String template = """
+                <div th:cache="'form'"><form method="post"><input type="hidden" name="_csrf" th:value="${token}"></form></div>""";
+        Context context = new Context();
+        context.setVariable("token", "abc");
+        engine(cache).process(template, context);
+
+        assertEquals(0, cache.size());
+        assertFalse(engine(null).process(template, context).contains("th:cache"));
+    }
+
+    @Test
+    void categoryChangeClearsCache() {
+        render(engine(cache), TEMPLATE, List.of(product(1, 1, "Фен")));
+        cache.onInvalidation(new CacheInvalidationEvent(
+                List.of(new CacheInvalidation(CacheInvalidation.Entity.CATEGORY, 3L)), false, false));
+
+        assertEquals(0, cache.size());
+    }
+
+    private static TemplateEngine engine(FragmentCache cache) {
+        StringTemplateResolver resolver = new StringTemplateResolver();
+        resolver.setTemplateMode(TemplateMode.HTML);
+        TemplateEngine engine = new SpringTemplateEngine();
+        engine.setTemplateResolver(resolver);
+        engine.addDialect(new FragmentCacheDialect(cache));
+        return engine;
+    }
+
+    private static String render(TemplateEngine engine, String template, List<Map<String, Object>> products) {
+        Context context = new Context();
+        context.setVariable("products", products);
+        return engine.process(template, context);
+    }
+
+    private static Map<String, Object> product(long id, long version, String name) {
+        return Map.of("id", id, "version", version, "name", name);
+    }
+}
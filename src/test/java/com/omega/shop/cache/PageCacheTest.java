@@ -0,0 +1,109 @@
+package com.omega.shop.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageCacheTest {
+
+    private static final byte[] HTML = "<html>товар</html>".getBytes(StandardCharsets.UTF_8);
+
+    private final PageCache cache = new PageCache(Duration.ofSeconds(60), Duration.ofSeconds(300),
+            1024 * 1024, 100, Duration.ofMillis(100), new SimpleMeterRegistry());
+
+    @Test
+    void productInvalidationPurgesOnlyPagesShowingTheProduct() {
+        cache.put("/product/1", HTML, "text/html", Set.of("product:1", "category:5"), System.nanoTime());
+        cache.put("/catalog", HTML, "text/html", Set.of("product:1", "product:2", "categories"), System.nanoTime());
+        cache.put("/product/2", HTML, "text/html", Set.of("product:2", "category:5"), System.nanoTime());
+
+        cache.onInvalidation(new CacheInvalidationEvent(
+                List.of(new CacheInvalidation(CacheInvalidation.Entity.PRODUCT, 1L)), false, false));
+
+        long now = System.nanoTime();
+        assertNull(cache.get("/product/1", now));
+        assertNull(cache.get("/catalog", now));
+        assertNotNull(cache.get("/product/2", now));
+    }
+
+    @Test
+    void categoryInvalidationPurgesCategoryTreePages() {
+        cache.put("/catalog?page=3", HTML, "text/html", Set.of("product:9", "categories"), System.nanoTime());
+        cache.put("/product/9", HTML, "text/html", Set.of("product:9", "category:2"), System.nanoTime());
+
+        cache.onInvalidation(new CacheInvalidationEvent(
+                List.of(new CacheInvalidation(CacheInvalidation.Entity.CATEGORY, 7L)), false, true));
+
+        assertNull(cache.get("/catalog?page=3", System.nanoTime()));
+        assertNotNull(cache.get("/product/9", System.nanoTime()));
+    }
+
+    @Test
+    void renderStartedBeforePurgeIsNotStored() {
+        long renderStarted = System.nanoTime();
+        cache.purge(Set.of("product:1"));
+
+        assertNull(cache.put("/product/1", HTML, "text/html", Set.of("product:1"), renderStarted));
+        assertNotNull(cache.put("/product/1", HTML, "text/html", Set.of("product:1"), System.nanoTime()));
+    }
+
+    @Test
+    void stalePageIsServedUntilStaleWindowEnds() {
+        PageCache.CachedPage page = cache.put("/catalog", HTML, "text/html", Set.of(), System.nanoTime());
+        long stale = page.freshUntil() + 1;
+
+        assertSame(page, cache.get("/catalog", stale));
+        assertFalse(page.isFresh(stale));
+        assertNull(cache.get("/catalog", page.staleUntil() + 1));
+        assertArrayEquals(HTML, page.html());
+    }
+
+    @Test
+    void concurrentMissesShareOneRender() {
+        PageCache.RenderTicket leader = cache.claim("/catalog");
+        PageCache.RenderTicket follower = cache.claim("/catalog");
+        assertTrue(leader.leader());
+        assertFalse(follower.leader());
+
+        PageCache.CachedPage page = cache.put("/catalog", HTML, "text/html", Set.of(), System.nanoTime());
+        cache.release(leader, page);
+
+        assertSame(page, cache.await(follower));
+        assertTrue(cache.claim("/catalog").leader());
+    }
+
+    @Test
+    void cacheKeyIgnoresDefaultsOrderAndUnknownParameters() {
+        assertEquals("/catalog", PageCacheFilter.cacheKey(catalog("page", "0", "utm_source", "mail", "sortDir", "asc")));
+        assertEquals("/catalog?categoryId=3&page=2",
+                PageCacheFilter.cacheKey(catalog("page", "2", "categoryId", " 3 ")));
+        assertEquals(PageCacheFilter.cacheKey(catalog("search", "Фен", "page", "1")),
+                PageCacheFilter.cacheKey(catalog("page", "1", "search", "Фен")));
+
+        MockHttpServletRequest product = new MockHttpServletRequest("GET", "/product/42");
+        product.setServletPath("/product/42");
+        assertEquals("/product/42", PageCacheFilter.cacheKey(product));
+    }
+
+    private static MockHttpServletRequest catalog(String... params) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/catalog");
+        request.setServletPath("/catalog");
+        for (int i = 0; i < params.length; i += 2) {
+            request.addParameter(params[i], params[i + 1]);
+        }
+        return request;
+    }
+}
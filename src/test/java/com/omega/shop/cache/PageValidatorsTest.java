@@ -0,0 +1,115 @@
+package com.omega.shop.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.csrf.HttpSessionCsrfTokenRepository;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.FlashMap;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PageValidatorsTest {
+
+    private static final LocalDateTime UPDATED_AT = LocalDateTime.of(2024, 3, 1, 12, 0, 0, 123_000_000);
+
+    private final PageValidators validators = new PageValidators(new SimpleMeterRegistry());
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void repeatedViewOfUnchangedEntityIsNotModified() {
+        MockHttpServletResponse first = new MockHttpServletResponse();
+        assertFalse(validators.checkNotModified(webRequest(get(), first), UPDATED_AT));
+        String etag = first.getHeader(HttpHeaders.ETAG);
+        assertNotNull(etag);
+        assertNotNull(first.getHeader(HttpHeaders.LAST_MODIFIED));
+
+        MockHttpServletRequest repeat = get();
+        repeat.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        MockHttpServletResponse second = new MockHttpServletResponse();
+        assertTrue(validators.checkNotModified(webRequest(repeat, second), UPDATED_AT));
+        assertEquals(304, second.getStatus());
+
+        MockHttpServletRequest changed = get();
+        changed.addHeader(HttpHeaders.IF_NONE_MATCH, etag);
+        assertFalse(validators.checkNotModified(webRequest(changed, new MockHttpServletResponse()),
+                UPDATED_AT.plusNanos(1000)));
+    }
+
+    @Test
+    void categoryChangeInvalidatesEtag() {
+        MockHttpServletResponse before = new MockHttpServletResponse();
+        validators.checkNotModified(webRequest(get(), before), UPDATED_AT);
+
+        validators.onInvalidation(new CacheInvalidationEvent(
+                List.of(new CacheInvalidation(CacheInvalidation.Entity.CATEGORY, 1L)), false, true));
+
+        MockHttpServletResponse after = new MockHttpServletResponse();
+        validators.checkNotModified(webRequest(get(), after), UPDATED_AT);
+        assertNotEquals(before.getHeader(HttpHeaders.ETAG), after.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void etagDependsOnSessionCsrfTokenAndOmitsLastModified() {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "client", null, List.of(new SimpleGrantedAuthority("ROLE_CLIENT"))));
+        HttpSessionCsrfTokenRepository repository = new HttpSessionCsrfTokenRepository();
+
+        MockHttpServletRequest withoutToken = get();
+        withoutToken.setSession(new MockHttpSession());
+        MockHttpServletResponse skipped = new MockHttpServletResponse();
+        assertFalse(validators.checkNotModified(webRequest(withoutToken, skipped), UPDATED_AT));
+        assertNull(skipped.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse[] responses = new MockHttpServletResponse[2];
+        for (int i = 0; i < responses.length; i++) {
+            MockHttpServletRequest request = get();
+            request.setSession(new MockHttpSession());
+            repository.saveToken(repository.generateToken(request), request, new MockHttpServletResponse());
+            responses[i] = new MockHttpServletResponse();
+            validators.checkNotModified(webRequest(request, responses[i]), UPDATED_AT);
+            assertNull(responses[i].getHeader(HttpHeaders.LAST_MODIFIED));
+        }
+        assertNotEquals(responses[0].getHeader(HttpHeaders.ETAG), responses[1].getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void flashMessageDisablesValidators() {
+        MockHttpServletRequest request = get();
+        FlashMap flash = new FlashMap();
+        flash.put("successMessage", "Доставка начата");
+        request.setAttribute(DispatcherServlet.INPUT_FLASH_MAP_ATTRIBUTE, flash);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        assertFalse(validators.checkNotModified(webRequest(request, response), UPDATED_AT));
+        assertNull(response.getHeader(HttpHeaders.ETAG));
+    }
+
+    private static MockHttpServletRequest get() {
+        return new MockHttpServletRequest("GET", "/product/1");
+    }
+
+    private static ServletWebRequest webRequest(MockHttpServletRequest request, MockHttpServletResponse response) {
+        return new ServletWebRequest(request, response);
+    }
+}
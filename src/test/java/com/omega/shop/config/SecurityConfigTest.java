@@ -0,0 +1,150 @@
+package com.omega.shop.config;
+
+import com.omega.shop.security.CustomUserDetailsService;
+import com.omega.shop.security.LoginThrottle;
+import com.omega.shop.security.jwt.JwtTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.context.junit.jupiter.web.SpringJUnitWebConfig;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.httpBasic;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.security.test.web.servlet.setup.SecurityMockMvcConfigurers.springSecurity;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringJUnitWebConfig(SecurityConfigTest.Config.class)
+class SecurityConfigTest {
+
+    @Autowired
+    private WebApplicationContext context;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(context)
+                .apply(springSecurity())
+                .build();
+    }
+
+    @Test
+    void anonymousScrapeIsUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().doesNotExist("WWW-Authenticate"));
+        mockMvc.perform(get("/actuator/metrics")).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void healthAndInfoArePublic() throws Exception {
+        mockMvc.perform(get("/actuator/health")).andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/info")).andExpect(status().isOk());
+    }
+
+    @Test
+    void metricsAreForbiddenForNonAdmin() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(user("client").roles("CLIENT")))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void adminScrapesWithBasicAuth() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/prometheus").with(httpBasic("admin", "wrong")))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void jfrWithAdminSessionRequiresCsrfToken() throws Exception {
+        mockMvc.perform(post("/actuator/jfr").with(user("admin").roles("ADMIN")))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/actuator/jfr").with(user("admin").roles("ADMIN")).with(csrf()))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void jfrWithBasicAuthNeedsNoCsrfToken() throws Exception {
+        mockMvc.perform(post("/actuator/jfr").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+        mockMvc.perform(delete("/actuator/jfr").with(httpBasic("admin", "secret")))
+                .andExpect(status().isOk());
+    }
+
+    @Configuration
+    @EnableWebMvc
+    @Import(SecurityConfig.class)
+    static class Config {
+
+        @Bean
+        PasswordEncoder passwordEncoder() {
+            return new BCryptPasswordEncoder(4);
+        }
+
+        @Bean
+        CustomUserDetailsService userDetailsService(PasswordEncoder passwordEncoder) {
+            CustomUserDetailsService service = mock(CustomUserDetailsService.class);
+            String hash = passwordEncoder.encode("secret");
+            // Новый объект на каждый вход: после аутентификации пароль в нём стирается
+            when(service.loadUserByUsername("admin")).thenAnswer(invocation -> User.withUsername("admin")
+                    .password(hash)
+                    .roles("ADMIN")
+                    .build());
+            return service;
+        }
+
+        @Bean
+        LoginThrottle loginThrottle() {
+            return mock(LoginThrottle.class);
+        }
+
+        @Bean
+        JwtTokenService jwtTokenService() {
+            return mock(JwtTokenService.class);
+        }
+
+        @Bean
+        ActuatorStub actuatorStub() {
+            return new ActuatorStub();
+        }
+    }
+
+    /**
+     * Заглушка эндпоинтов actuator: проверяется только цепочка фильтров
+     */
+    @RestController
+    static class ActuatorStub {
+
+        @GetMapping({"/actuator/health", "/actuator/info", "/actuator/metrics", "/actuator/prometheus"})
+        String ok() {
+            return "ok";
+        }
+
+        @RequestMapping(path = "/actuator/jfr", method = {RequestMethod.POST, RequestMethod.DELETE})
+        String jfr() {
+            return "ok";
+        }
+    }
+}
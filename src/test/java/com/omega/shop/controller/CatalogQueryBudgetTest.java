@@ -0,0 +1,107 @@
+package com.omega.shop.controller;
+
+import com.omega.shop.entity.Category;
+import com.omega.shop.entity.Product;
+import com.omega.shop.entity.User;
+import com.omega.shop.monitoring.QueryBudget;
+import com.omega.shop.repository.CategoryRepository;
+import com.omega.shop.repository.ProductRepository;
+import com.omega.shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Бюджет SQL-запросов страниц каталога на H2. Товары страницы лежат в шести разных категориях:
+ * загрузка категории на каждый товар (N+1) выходит за бюджет и за порог повторов.
+ * Кэш страниц отключён, чтобы запросы доходили до контроллера.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:catalog-budget;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "omega.page-cache.enabled=false"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class CatalogQueryBudgetTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private Product product;
+
+    @BeforeEach
+    void setUp() {
+        User seller = new User();
+        seller.setUsername("seller");
+        seller.setEmail("seller@omega.test");
+        seller.setPhone("+79990000000");
+        seller.setPassword("password");
+        seller.setRole(User.Role.SELLER);
+        seller = userRepository.save(seller);
+
+        List<Product> products = new ArrayList<>();
+        for (int c = 0; c < 6; c++) {
+            Category category = new Category();
+            category.setName("Категория " + c);
+            category = categoryRepository.save(category);
+            for (int p = 0; p < 2; p++) {
+                Product item = new Product();
+                item.setName("Товар " + c + "-" + p);
+                item.setPrice(BigDecimal.valueOf(100 + p));
+                item.setQuantity(5);
+                item.setCategory(category);
+                item.setSeller(seller);
+                products.add(item);
+            }
+        }
+        product = productRepository.saveAll(products).get(0);
+    }
+
+    @AfterEach
+    void tearDown() {
+        productRepository.deleteAll();
+        categoryRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void catalogPageIsWithinBudget() throws Exception {
+        // Список категорий, страница товаров с категориями, число товаров
+        QueryBudget.assertWithin(4, () -> mockMvc.perform(get("/catalog"))
+                .andExpect(status().isOk()));
+        QueryBudget.assertWithin(4, () -> mockMvc.perform(get("/catalog")
+                        .param("categoryId", String.valueOf(product.getCategory().getId())))
+                .andExpect(status().isOk()));
+    }
+
+    @Test
+    void productPageIsWithinBudget() throws Exception {
+        // Время изменения для ETag, товар, его категория
+        QueryBudget.assertWithin(4, () -> mockMvc.perform(get("/product/{id}", product.getId()))
+                .andExpect(status().isOk()));
+    }
+}
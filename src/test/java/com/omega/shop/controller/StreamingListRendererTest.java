@@ -0,0 +1,68 @@
+package com.omega.shop.controller;
+
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.ui.ExtendedModelMap;
+import org.springframework.ui.Model;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class StreamingListRendererTest {
+
+    private final ThymeleafViewResolver viewResolver = mock(ThymeleafViewResolver.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final EntityManager entityManager = mock(EntityManager.class);
+    private final StreamingListRenderer renderer =
+            new StreamingListRenderer(viewResolver, transactionManager, entityManager);
+
+    StreamingListRendererTest() {
+        ReflectionTestUtils.setField(renderer, "chunkSize", 10);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+    }
+
+    @Test
+    void rowsAreRenderedInsideTransactionAndFlushedByChunks() throws Exception {
+        List<Object> rendered = new ArrayList<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        View view = (model, request, written) -> {
+            Iterator<?> rows = (Iterator<?>) model.get("orders");
+            while (rows.hasNext()) {
+                rendered.add(rows.next());
+            }
+        };
+        when(viewResolver.resolveViewName(eq("admin/orders/list"), any())).thenReturn(view);
+        AtomicBoolean closed = new AtomicBoolean();
+
+        Model model = new ExtendedModelMap();
+        renderer.render("admin/orders/list", model, "orders",
+                () -> IntStream.range(0, 25).boxed().onClose(() -> closed.set(true)),
+                new MockHttpServletRequest(), response);
+
+        assertEquals(25, rendered.size());
+        assertTrue(closed.get());
+        assertTrue(response.isCommitted());
+        // После 10-й и 20-й строки
+        verify(entityManager, times(2)).clear();
+        verify(transactionManager).commit(any());
+    }
+}
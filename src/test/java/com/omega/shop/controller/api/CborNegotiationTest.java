@@ -0,0 +1,53 @@
+package com.omega.shop.controller.api;
+
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.omega.shop.config.WebConfig;
+import com.omega.shop.dto.DeliveryView;
+import com.omega.shop.dto.OrderItemView;
+import com.omega.shop.entity.Order;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CborNegotiationTest {
+
+    private static final LocalDateTime ASSIGNED_AT = LocalDateTime.of(2024, 3, 1, 12, 0);
+
+    private static final DeliveryView DELIVERY = new DeliveryView(42L, Order.DeliveryStatus.IN_TRANSIT, "client",
+            "(+996)-555-123-456", "Бишкек, ул. Киевская, 1", null, new BigDecimal("52900.00"),
+            List.of(new OrderItemView("LG GA-B509CLSL", 1, new BigDecimal("52900.00")),
+                    new OrderItemView("Фильтр для воды", 2, new BigDecimal("0.00"))),
+            ASSIGNED_AT, ASSIGNED_AT.plusHours(1), null, ASSIGNED_AT.plusHours(1));
+
+    @Test
+    void cborRoundTripsAndIsSmallerThanJson() throws IOException {
+        MappingJackson2CborHttpMessageConverter cbor = new WebConfig(null).cborHttpMessageConverter(builder());
+        MappingJackson2HttpMessageConverter json = new MappingJackson2HttpMessageConverter(builder().build());
+
+        MockHttpOutputMessage cborBody = new MockHttpOutputMessage();
+        cbor.write(DELIVERY, MediaType.APPLICATION_CBOR, cborBody);
+        MockHttpOutputMessage jsonBody = new MockHttpOutputMessage();
+        json.write(DELIVERY, MediaType.APPLICATION_JSON, jsonBody);
+
+        assertEquals(MediaType.APPLICATION_CBOR, cborBody.getHeaders().getContentType());
+        assertTrue(cborBody.getBodyAsBytes().length < jsonBody.getBodyAsBytes().length);
+        assertEquals(DELIVERY, cbor.read(DeliveryView.class, new MockHttpInputMessage(cborBody.getBodyAsBytes())));
+    }
+
+    private static Jackson2ObjectMapperBuilder builder() {
+        // Как JacksonAutoConfiguration: даты строками ISO
+        return Jackson2ObjectMapperBuilder.json().featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    }
+}
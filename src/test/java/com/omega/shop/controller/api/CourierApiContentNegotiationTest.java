@@ -0,0 +1,98 @@
+package com.omega.shop.controller.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.omega.shop.entity.User;
+import com.omega.shop.repository.UserRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.MockMvcPrint;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.List;
+
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Выбор формата ответа API курьера по {@code Accept} в полной конфигурации Spring MVC
+ * (порядок конвертеров Spring Boot, CBOR-конвертер из {@code WebConfig}) на H2
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:courier-api;DB_CLOSE_DELAY=-1",
+        "spring.datasource.driver-class-name=org.h2.Driver",
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+        "omega.page-cache.enabled=false"
+})
+@AutoConfigureMockMvc(print = MockMvcPrint.NONE)
+class CourierApiContentNegotiationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @BeforeEach
+    void setUp() {
+        User courier = new User();
+        courier.setUsername("courier");
+        courier.setEmail("courier@omega.test");
+        courier.setPhone("+79990000001");
+        courier.setPassword("password");
+        courier.setRole(User.Role.COURIER);
+        userRepository.save(courier);
+    }
+
+    @AfterEach
+    void tearDown() {
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void cborIsReturnedWhenRequested() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/v1/courier/deliveries")
+                        .with(user("courier").roles("COURIER"))
+                        .accept(MediaType.APPLICATION_CBOR))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_CBOR))
+                .andExpect(header().stringValues(HttpHeaders.VARY, hasItem(HttpHeaders.ACCEPT)))
+                .andReturn();
+
+        byte[] body = result.getResponse().getContentAsByteArray();
+        assertEquals(List.of(), new ObjectMapper(new CBORFactory()).readValue(body, List.class));
+    }
+
+    @Test
+    void wildcardAcceptGetsJson() throws Exception {
+        mockMvc.perform(get("/api/v1/courier/deliveries")
+                        .with(user("courier").roles("COURIER"))
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[]"));
+    }
+
+    @Test
+    void missingAcceptGetsJson() throws Exception {
+        mockMvc.perform(get("/api/v1/courier/deliveries")
+                        .with(user("courier").roles("COURIER")))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(content().json("[]"));
+    }
+}
@@ -0,0 +1,62 @@
+package com.omega.shop.controller.api;
+
+import com.omega.shop.dto.ProductPage;
+import com.omega.shop.dto.ProductView;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SparseFieldsTest {
+
+    private static final ProductView PRODUCT = new ProductView(7L, "Фен", null, new BigDecimal("1990.00"), 3,
+            "a.jpg", 2L, "Техника", LocalDateTime.of(2024, 3, 1, 12, 0));
+
+    private final MappingJackson2HttpMessageConverter converter =
+            new MappingJackson2HttpMessageConverter(Jackson2ObjectMapperBuilder.json().build());
+
+    @Test
+    void onlySelectedFieldsAreWrittenAndIdIsAlwaysIncluded() throws IOException {
+        SparseFields fields = SparseFields.parse("name, price", ProductView.FIELDS);
+
+        String json = write(fields.apply(new ProductPage(List.of(PRODUCT), "Nw"), ProductView.FILTER));
+
+        assertEquals("{\"items\":[{\"id\":7,\"name\":\"Фен\",\"price\":1990.00}],\"nextCursor\":\"Nw\"}", json);
+    }
+
+    @Test
+    void emptyParameterSelectsAllFields() throws IOException {
+        String json = write(SparseFields.parse(null, ProductView.FIELDS).apply(PRODUCT, ProductView.FILTER));
+
+        assertTrue(json.contains("\"inStock\":true"));
+        assertTrue(json.contains("\"categoryName\":\"Техника\""));
+    }
+
+    @Test
+    void unknownFieldIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> SparseFields.parse("id,password", ProductView.FIELDS));
+    }
+
+    @Test
+    void cursorRoundTrip() {
+        assertEquals(12345L, CatalogApiController.decodeCursor(CatalogApiController.encodeCursor(12345L)));
+        assertEquals(0L, CatalogApiController.decodeCursor(null));
+        assertThrows(IllegalArgumentException.class, () -> CatalogApiController.decodeCursor("!!"));
+    }
+
+    private String write(Object value) throws IOException {
+        MockHttpOutputMessage message = new MockHttpOutputMessage();
+        converter.write(value, MediaType.APPLICATION_JSON, message);
+        return message.getBodyAsString();
+    }
+}
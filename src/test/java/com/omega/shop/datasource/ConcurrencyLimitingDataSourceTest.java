@@ -0,0 +1,98 @@
+package com.omega.shop.datasource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrencyLimitingDataSourceTest {
+
+    private final DataSource target = mock(DataSource.class);
+    private final ConcurrencyLimitingDataSource dataSource =
+            new ConcurrencyLimitingDataSource(target, 2, Duration.ofMillis(50));
+
+    @Test
+    void closeReturnsPermitExactlyOnce() throws Exception {
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+
+        Connection limited = dataSource.getConnection();
+        assertEquals(1, dataSource.availablePermits());
+
+        limited.close();
+        limited.close();
+        assertEquals(2, dataSource.availablePermits());
+        verify(connection, times(2)).close();
+    }
+
+    @Test
+    void otherThreadsFailFastWhenPermitsAreTaken() throws Exception {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        Connection first = onOtherThread();
+        Connection second = onOtherThread();
+
+        CannotGetJdbcConnectionException e = assertThrows(CannotGetJdbcConnectionException.class,
+                dataSource::getConnection);
+        assertEquals("Превышен лимит одновременных обращений к БД, ожидание 50 мс", e.getMessage());
+
+        first.close();
+        dataSource.getConnection().close();
+        second.close();
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    @Test
+    void nestedConnectionOfSameThreadTakesNoSecondPermit() throws Exception {
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+
+        Connection outer = dataSource.getConnection();
+        Connection nested = dataSource.getConnection();
+        assertEquals(1, dataSource.availablePermits());
+
+        nested.close();
+        assertEquals(1, dataSource.availablePermits());
+        outer.close();
+        assertEquals(2, dataSource.availablePermits());
+
+        // После закрытия всех соединений поток снова берёт разрешение
+        Connection next = dataSource.getConnection();
+        assertEquals(1, dataSource.availablePermits());
+        next.close();
+    }
+
+    @Test
+    void permitIsReturnedWhenPoolFails() throws Exception {
+        when(target.getConnection()).thenThrow(new SQLTransientConnectionException("пул исчерпан"));
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+
+        assertEquals(2, dataSource.availablePermits());
+        doReturn(mock(Connection.class)).when(target).getConnection();
+        dataSource.getConnection().close();
+        assertEquals(2, dataSource.availablePermits());
+    }
+
+    private Connection onOtherThread() throws Exception {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return dataSource.getConnection();
+            } catch (SQLException e) {
+                throw new IllegalStateException(e);
+            }
+        }).get(5, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,69 @@
+package com.omega.shop.datasource;
+
+import jakarta.servlet.http.Cookie;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReadYourWritesFilterTest {
+
+    private final ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(5));
+
+    @Test
+    void writeIsRememberedInCookieOnce() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            ReadYourWrites.current().markWrite();
+            ReadYourWrites.current().markWrite();
+        });
+
+        assertEquals(1, response.getHeaders(HttpHeaders.SET_COOKIE).size());
+        Cookie cookie = response.getCookie(ReadYourWritesFilter.COOKIE_NAME);
+        assertEquals(5, cookie.getMaxAge());
+        assertTrue(cookie.isHttpOnly());
+        assertNull(ReadYourWrites.current());
+    }
+
+    @Test
+    void requestWithoutWritesSetsNoCookie() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Boolean> sticky = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest(), response,
+                (req, res) -> sticky.set(ReadYourWrites.current().isSticky()));
+
+        assertFalse(sticky.get());
+        assertNull(response.getCookie(ReadYourWritesFilter.COOKIE_NAME));
+    }
+
+    @Test
+    void recentWriteMakesRequestSticky() throws Exception {
+        assertTrue(stickyWithCookie(String.valueOf(System.currentTimeMillis() - 1000)));
+    }
+
+    @Test
+    void oldOrInvalidCookieIsIgnored() throws Exception {
+        assertFalse(stickyWithCookie(String.valueOf(System.currentTimeMillis() - 60_000)));
+        assertFalse(stickyWithCookie(String.valueOf(System.currentTimeMillis() + 60_000)));
+        assertFalse(stickyWithCookie("abc"));
+    }
+
+    private boolean stickyWithCookie(String value) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setCookies(new Cookie(ReadYourWritesFilter.COOKIE_NAME, value));
+        AtomicReference<Boolean> sticky = new AtomicReference<>();
+        filter.doFilter(request, new MockHttpServletResponse(),
+                (req, res) -> sticky.set(ReadYourWrites.current().isSticky()));
+        return sticky.get();
+    }
+}
@@ -0,0 +1,146 @@
+package com.omega.shop.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Маршрутизация на двух экземплярах H2: primary и реплика помечены разными значениями в таблице node
+ */
+class ReplicaRoutingDataSourceTest {
+
+    private ReplicaNode replica;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate readOnlyTx;
+    private TransactionTemplate writeTx;
+    private final WriteDetectingStatementInspector inspector = new WriteDetectingStatementInspector(null);
+
+    @BeforeEach
+    void setUp() {
+        DataSource primary = h2("primary");
+        replica = new ReplicaNode("replica-0", h2("replica"));
+        replica.update(true, 0);
+
+        ReplicaRoutingDataSource routing = new ReplicaRoutingDataSource(
+                primary, List.of(replica), 1000);
+        routing.afterPropertiesSet();
+
+        DataSource dataSource = new LazyConnectionDataSourceProxy(routing);
+        DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        readOnlyTx = new TransactionTemplate(transactionManager);
+        readOnlyTx.setReadOnly(true);
+        writeTx = new TransactionTemplate(transactionManager);
+    }
+
+    @AfterEach
+    void tearDown() {
+        ReadYourWrites.bind(null);
+    }
+
+    @Test
+    void readOnlyTransactionGoesToReplica() {
+        assertEquals("replica", readOnlyTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void writeTransactionGoesToPrimary() {
+        assertEquals("primary", writeTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void laggingReplicaFallsBackToPrimary() {
+        replica.update(true, 5000);
+        assertEquals("primary", readOnlyTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void unavailableReplicaFallsBackToPrimary() {
+        replica.update(false, Long.MAX_VALUE);
+        assertEquals("primary", readOnlyTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void clientReadsOwnWritesFromPrimary() {
+        AtomicInteger remembered = new AtomicInteger();
+        ReadYourWrites.bind(new ReadYourWrites(false, remembered::incrementAndGet));
+
+        writeTx.execute(status -> write());
+
+        assertEquals(1, remembered.get());
+        assertEquals("primary", readOnlyTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void transactionWithoutChangesDoesNotStick() {
+        AtomicInteger remembered = new AtomicInteger();
+        ReadYourWrites.bind(new ReadYourWrites(false, remembered::incrementAndGet));
+
+        writeTx.execute(status -> inspector.inspect("select name from node"));
+
+        assertEquals(0, remembered.get());
+        assertEquals("replica", readOnlyTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void rolledBackWriteDoesNotStick() {
+        ReadYourWrites.bind(new ReadYourWrites(false, () -> {
+        }));
+
+        writeTx.executeWithoutResult(status -> {
+            write();
+            status.setRollbackOnly();
+        });
+
+        assertEquals("replica", readOnlyTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void recentWriteFromCookieGoesToPrimary() {
+        ReadYourWrites.bind(new ReadYourWrites(true, () -> {
+        }));
+
+        assertEquals("primary", readOnlyTx.execute(status -> currentNode()));
+    }
+
+    @Test
+    void writeStatementsAreRecognized() {
+        assertTrue(WriteDetectingStatementInspector.isWrite("insert into orders (id) values (?)"));
+        assertTrue(WriteDetectingStatementInspector.isWrite("/* update com.omega.shop.entity.Product */ update products set stock=?"));
+        assertTrue(WriteDetectingStatementInspector.isWrite("  DELETE FROM cart_items WHERE id=?"));
+        assertFalse(WriteDetectingStatementInspector.isWrite("select p1_0.id from products p1_0 for update"));
+        assertFalse(WriteDetectingStatementInspector.isWrite("select pg_advisory_xact_lock(?)"));
+        assertFalse(WriteDetectingStatementInspector.isWrite("updated"));
+    }
+
+    // Инспектор вызывается Hibernate перед каждым запросом; здесь запрос идёт через JdbcTemplate
+    private int write() {
+        return jdbcTemplate.update(inspector.inspect("UPDATE node SET name = name"));
+    }
+
+    private String currentNode() {
+        return jdbcTemplate.queryForObject("SELECT name FROM node", String.class);
+    }
+
+    private static DataSource h2(String name) {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:" + name + "-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.execute("CREATE TABLE node (name VARCHAR(20))");
+        jdbc.update("INSERT INTO node VALUES (?)", name);
+        return dataSource;
+    }
+}
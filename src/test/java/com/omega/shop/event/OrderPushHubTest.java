@@ -0,0 +1,124 @@
+package com.omega.shop.event;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class OrderPushHubTest {
+
+    private final OrderPushHub hub = new OrderPushHub(new SimpleMeterRegistry());
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(hub, "bufferSize", 16);
+        ReflectionTestUtils.setField(hub, "heartbeat", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(hub, "timeout", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(hub, "maxClients", 10);
+        ReflectionTestUtils.setField(hub, "maxPerUser", 4);
+        mockMvc = MockMvcBuilders.standaloneSetup(new EventsController(hub)).build();
+    }
+
+    @Test
+    void eventReachesOnlyTopicSubscribersAfterCommit() throws Exception {
+        MockHttpServletResponse seller = subscribe(1L, "role:SELLER", null);
+        MockHttpServletResponse courier = subscribe(2L, "user:2", null);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            hub.publish("role:SELLER", OrderPushHub.EVENT_NEW_ORDERS, Map.of("orderId", 5));
+            assertEquals("", seller.getContentAsString());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        String body = await(seller, "orderId");
+        assertTrue(body.contains("event:new-orders"));
+        assertTrue(body.contains("data:{\"orderId\":5}"));
+        assertEquals("", courier.getContentAsString());
+    }
+
+    @Test
+    void reconnectAfterMissedEventGetsReset() throws Exception {
+        MockHttpServletResponse first = subscribe(2L, "user:2", null);
+        hub.publish("user:2", OrderPushHub.EVENT_ORDER, Map.of("orderId", 5));
+        String lastId = await(first, "orderId").lines()
+                .filter(line -> line.startsWith("id:"))
+                .findFirst().orElseThrow().substring(3);
+
+        // Ничего не пропущено - reset не нужен
+        MockHttpServletResponse upToDate = subscribe(2L, "user:2", lastId);
+        hub.publish("user:3", OrderPushHub.EVENT_ORDER, Map.of("orderId", 6));
+        Thread.sleep(100);
+        assertFalse(upToDate.getContentAsString().contains("reset"));
+
+        hub.publish("user:2", OrderPushHub.EVENT_ORDER, Map.of("orderId", 7));
+        assertTrue(await(subscribe(2L, "user:2", lastId), "reset").contains("event:reset"));
+    }
+
+    @Test
+    void connectionsOverLimitAreRejected() throws Exception {
+        ReflectionTestUtils.setField(hub, "maxClients", 2);
+        subscribe(1L, "user:1", null);
+        subscribe(2L, "user:2", null);
+
+        mockMvc.perform(get("/events").param("user", "3").param("topic", "user:3"))
+                .andExpect(status().isServiceUnavailable());
+        assertEquals(2, hub.getClientCount());
+    }
+
+    private MockHttpServletResponse subscribe(Long userId, String topic, String lastEventId) throws Exception {
+        var builder = get("/events").param("user", userId.toString()).param("topic", topic);
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return mockMvc.perform(builder)
+                .andExpect(request().asyncStarted())
+                .andReturn()
+                .getResponse();
+    }
+
+    private static String await(MockHttpServletResponse response, String text) throws Exception {
+        for (int i = 0; i < 100 && !response.getContentAsString().contains(text); i++) {
+            Thread.sleep(20);
+        }
+        return response.getContentAsString();
+    }
+
+    @RestController
+    record EventsController(OrderPushHub hub) {
+
+        @GetMapping("/events")
+        ResponseEntity<SseEmitter> events(@RequestParam Long user, @RequestParam String topic,
+                                          @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+            return hub.subscribe(user, List.of(topic), lastEventId)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.omega.shop.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.omega.shop.entity.OutboxEvent;
+import com.omega.shop.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OutboxRelayTest {
+
+    private final OutboxEventRepository repository = mock(OutboxEventRepository.class);
+    private final ApplicationEventPublisher publisher = mock(ApplicationEventPublisher.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final OutboxRelay relay = new OutboxRelay(repository, publisher, new ObjectMapper(),
+            new TransactionTemplate(transactionManager));
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "retryDelay", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(relay, "maxRetryDelay", Duration.ofSeconds(5));
+        ReflectionTestUtils.setField(relay, "retentionDays", 7);
+    }
+
+    @Test
+    void deliveredEventIsMarkedPublished() {
+        OutboxEvent event = event(1L);
+        when(repository.lockNextBatch(eq(10), any())).thenReturn(List.of(event));
+
+        relay.relay();
+
+        verify(publisher).publishEvent(argThat((Object e) -> e instanceof DomainEvent domain
+                && domain.aggregateId().equals(5L) && domain.getLong("orderId") == 5L));
+        assertEquals(OutboxEvent.Status.PUBLISHED, event.getStatus());
+        assertNotNull(event.getPublishedAt());
+        assertNull(event.getLastError());
+        // Подписчики работают в отдельной транзакции, а не в транзакции пачки
+        verify(transactionManager).getTransaction(argThat(definition ->
+                definition.getPropagationBehavior() == TransactionDefinition.PROPAGATION_REQUIRES_NEW));
+    }
+
+    @Test
+    void failedEventIsRetriedUntilAttemptCeiling() {
+        OutboxEvent event = event(1L);
+        when(repository.lockNextBatch(anyInt(), any())).thenReturn(List.of(event));
+        doThrow(new IllegalStateException("подписчик недоступен")).when(publisher).publishEvent(any(Object.class));
+
+        LocalDateTime start = LocalDateTime.now();
+        relay.relay();
+        relay.relay();
+        assertEquals(2, event.getAttempts());
+        assertEquals(OutboxEvent.Status.PENDING, event.getStatus());
+        // Вторая ошибка откладывает событие на 2 * retry-delay
+        assertTrue(event.getNextAttemptAt().isAfter(start.plus(Duration.ofMillis(1900))));
+        assertTrue(event.getNextAttemptAt().isBefore(LocalDateTime.now().plusSeconds(3)));
+
+        relay.relay();
+        assertEquals(3, event.getAttempts());
+        assertEquals(OutboxEvent.Status.FAILED, event.getStatus());
+        assertEquals("подписчик недоступен", event.getLastError());
+        assertNull(event.getPublishedAt());
+        assertNull(event.getNextAttemptAt());
+    }
+
+    @Test
+    void retryDelayDoublesUpToCeiling() {
+        assertEquals(Duration.ofSeconds(1), relay.retryDelay(1));
+        assertEquals(Duration.ofSeconds(2), relay.retryDelay(2));
+        assertEquals(Duration.ofSeconds(4), relay.retryDelay(3));
+        assertEquals(Duration.ofSeconds(5), relay.retryDelay(4));
+        assertEquals(Duration.ofSeconds(5), relay.retryDelay(200));
+    }
+
+    @Test
+    void fullBatchIsFollowedByNextBatch() {
+        ReflectionTestUtils.setField(relay, "batchSize", 1);
+        when(repository.lockNextBatch(eq(1), any())).thenReturn(List.of(event(1L)), List.of(event(2L)), List.of());
+
+        relay.relay();
+
+        verify(repository, times(3)).lockNextBatch(eq(1), any());
+    }
+
+    @Test
+    void cleanupKeepsRetentionWindow() {
+        LocalDateTime start = LocalDateTime.now();
+
+        relay.cleanup();
+
+        verify(repository).deleteByStatusBefore(eq(OutboxEvent.Status.PUBLISHED), argThat(before ->
+                !before.isBefore(start.minusDays(7)) && before.isBefore(start.minusDays(6))));
+    }
+
+    private static OutboxEvent event(Long id) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setAggregateType(OutboxEvent.AggregateType.ORDER);
+        event.setAggregateId(5L);
+        event.setEventType(DomainEventTypes.ORDER_CREATED);
+        event.setPayload("{\"orderId\":5}");
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+}
@@ -0,0 +1,95 @@
+package com.omega.shop.event;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.omega.shop.entity.OutboxEvent;
+import com.omega.shop.monitoring.ShopMetrics;
+import com.omega.shop.repository.OutboxEventRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ретранслятор с настоящим менеджером транзакций на H2: транзакционный подписчик с ошибкой
+ * не откатывает отметки пачки.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxRelayTransactionTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void failingTransactionalSubscriberDoesNotRollBackBatch() {
+        OutboxEvent failing = event(1L);
+        OutboxEvent delivered = event(2L);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        DomainEventMetricsListener metricsListener = new DomainEventMetricsListener(new ShopMetrics(registry));
+
+        // Подписчик с @Transactional: ошибка внутри его транзакции помечает её rollback-only
+        ApplicationEventPublisher publisher = published -> new TransactionTemplate(transactionManager)
+                .executeWithoutResult(status -> {
+                    DomainEvent event = (DomainEvent) published;
+                    if (event.aggregateId() == 1L) {
+                        throw new IllegalStateException("ошибка подписчика");
+                    }
+                    metricsListener.onDomainEvent(event);
+                });
+        OutboxRelay relay = new OutboxRelay(outboxEventRepository, publisher, new ObjectMapper(),
+                new TransactionTemplate(transactionManager));
+        ReflectionTestUtils.setField(relay, "batchSize", 10);
+        ReflectionTestUtils.setField(relay, "maxAttempts", 3);
+        ReflectionTestUtils.setField(relay, "retryDelay", Duration.ofSeconds(1));
+        ReflectionTestUtils.setField(relay, "maxRetryDelay", Duration.ofMinutes(5));
+
+        LocalDateTime start = LocalDateTime.now();
+        relay.relay();
+
+        OutboxEvent retried = outboxEventRepository.findById(failing.getId()).orElseThrow();
+        assertEquals(OutboxEvent.Status.PENDING, retried.getStatus());
+        assertEquals(1, retried.getAttempts());
+        assertEquals("ошибка подписчика", retried.getLastError());
+        assertTrue(retried.getNextAttemptAt().isAfter(start));
+
+        OutboxEvent published = outboxEventRepository.findById(delivered.getId()).orElseThrow();
+        assertEquals(OutboxEvent.Status.PUBLISHED, published.getStatus());
+        assertNull(published.getNextAttemptAt());
+        assertEquals(1, registry.get("omega.outbox.delivery.lag").tag("aggregate", "ORDER").timer().count());
+    }
+
+    private OutboxEvent event(Long aggregateId) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(OutboxEvent.AggregateType.ORDER);
+        event.setAggregateId(aggregateId);
+        event.setEventType(DomainEventTypes.ORDER_CREATED);
+        event.setPayload("{\"orderId\":" + aggregateId + "}");
+        return outboxEventRepository.save(event);
+    }
+}
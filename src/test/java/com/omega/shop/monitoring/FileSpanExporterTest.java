@@ -0,0 +1,68 @@
+package com.omega.shop.monitoring;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import io.opentelemetry.sdk.trace.SdkTracerProvider;
+import io.opentelemetry.sdk.trace.export.SimpleSpanProcessor;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileSpanExporterTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void writesOtlpJsonLinesAndRotates() throws Exception {
+        Path file = directory.resolve("spans.jsonl");
+        SdkTracerProvider provider = SdkTracerProvider.builder()
+                .addSpanProcessor(SimpleSpanProcessor.create(new FileSpanExporter(file, 1500)))
+                .build();
+        Tracer tracer = provider.get("test");
+
+        Span request = tracer.spanBuilder("GET /catalog").setSpanKind(SpanKind.SERVER).startSpan();
+        try (Scope ignored = request.makeCurrent()) {
+            tracer.spanBuilder("ProductRepository.findAll")
+                    .setAttribute("layer", "repository")
+                    .setAttribute("rows", 20L)
+                    .startSpan()
+                    .end();
+        }
+        request.end();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(2, lines.size());
+        ObjectMapper mapper = new ObjectMapper();
+        JsonNode child = mapper.readTree(lines.get(0)).at("/resourceSpans/0/scopeSpans/0/spans/0");
+        JsonNode parent = mapper.readTree(lines.get(1)).at("/resourceSpans/0/scopeSpans/0/spans/0");
+        assertEquals("ProductRepository.findAll", child.get("name").asText());
+        assertEquals(parent.get("spanId").asText(), child.get("parentSpanId").asText());
+        assertEquals(parent.get("traceId").asText(), child.get("traceId").asText());
+        assertEquals(2, parent.get("kind").asInt());
+        JsonNode rows = null;
+        for (JsonNode attribute : child.get("attributes")) {
+            if (attribute.get("key").asText().equals("rows")) {
+                rows = attribute.get("value");
+            }
+        }
+        assertEquals("20", rows.get("intValue").asText());
+
+        for (int i = 0; i < 10; i++) {
+            tracer.spanBuilder("span-" + i).startSpan().end();
+        }
+        provider.shutdown();
+        assertTrue(Files.exists(directory.resolve("spans.jsonl.1")));
+        assertTrue(Files.size(file) <= 1500);
+    }
+}
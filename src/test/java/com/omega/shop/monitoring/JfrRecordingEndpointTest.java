@@ -0,0 +1,73 @@
+package com.omega.shop.monitoring;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.core.io.Resource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JfrRecordingEndpointTest {
+
+    private final JfrRecordingEndpoint endpoint = new JfrRecordingEndpoint();
+
+    JfrRecordingEndpointTest() {
+        ReflectionTestUtils.setField(endpoint, "defaultMaxDuration", Duration.ofMinutes(1));
+        ReflectionTestUtils.setField(endpoint, "maxSize", DataSize.ofMegabytes(16));
+    }
+
+    @AfterEach
+    void tearDown() {
+        endpoint.destroy();
+    }
+
+    @Test
+    void recordsCustomEventsIntoDownloadedFile() throws Exception {
+        endpoint.start("default", null);
+        assertEquals("RUNNING", endpoint.status().get("state"));
+        assertThrows(IllegalStateException.class, () -> endpoint.start("default", null));
+
+        CheckoutPhaseEvent phase = CheckoutPhaseEvent.start(CheckoutPhaseEvent.STOCK, 3);
+        phase.success();
+        phase.finish();
+
+        WebEndpointResponse<Resource> response = endpoint.stop();
+        assertEquals(200, response.getStatus());
+
+        Path copy = Files.createTempFile("jfr-test-", ".jfr");
+        try (InputStream in = response.getBody().getInputStream()) {
+            Files.copy(in, copy, StandardCopyOption.REPLACE_EXISTING);
+        }
+        assertFalse(response.getBody().exists(), "временный файл удаляется после чтения");
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(copy).stream()
+                .filter(event -> event.getEventType().getName().equals("com.omega.shop.CheckoutPhase"))
+                .toList();
+        Files.delete(copy);
+        assertEquals(1, events.size());
+        assertEquals("stock", events.get(0).getString("phase"));
+        assertEquals("success", events.get(0).getString("outcome"));
+        assertEquals("NONE", endpoint.status().get("state"));
+    }
+
+    @Test
+    void rejectsUnknownSettingsAndMissingRecording() throws Exception {
+        assertThrows(IllegalArgumentException.class, () -> endpoint.start("no-such-profile", null));
+        assertEquals(404, endpoint.stop().getStatus());
+        assertTrue(endpoint.status().containsKey("state"));
+    }
+}
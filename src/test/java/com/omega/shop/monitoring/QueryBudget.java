@@ -0,0 +1,63 @@
+package com.omega.shop.monitoring;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * Проверки бюджета SQL-запросов для тестов.
+ * <pre>
+ * QueryBudget.assertWithin(10, () -> mockMvc.perform(get("/catalog")));
+ * </pre>
+ * Код выполняется в текущем потоке с привязанной {@link QueryStats}; фильтр
+ * {@link QueryStatsFilter} в этом случае не создаёт собственную статистику.
+ */
+public final class QueryBudget {
+
+    public static final int DEFAULT_N_PLUS_ONE_THRESHOLD = 5;
+
+    @FunctionalInterface
+    public interface Action {
+        void run() throws Exception;
+    }
+
+    private QueryBudget() {
+    }
+
+    /**
+     * Выполнить действие и вернуть статистику его запросов
+     */
+    public static QueryStats capture(Action action) throws Exception {
+        QueryStats stats = new QueryStats();
+        QueryStats previous = QueryStats.bind(stats);
+        try {
+            action.run();
+        } finally {
+            QueryStats.bind(previous);
+        }
+        return stats;
+    }
+
+    /**
+     * Выполнить действие и проверить, что оно уложилось в бюджет и не содержит N+1
+     */
+    public static QueryStats assertWithin(int maxQueries, Action action) throws Exception {
+        QueryStats stats = capture(action);
+        assertMaxQueries(stats, maxQueries);
+        assertNoNPlusOne(stats, DEFAULT_N_PLUS_ONE_THRESHOLD);
+        return stats;
+    }
+
+    public static void assertMaxQueries(QueryStats stats, int maxQueries) {
+        if (stats.getStatementCount() > maxQueries) {
+            fail("Превышен бюджет запросов: " + stats.getStatementCount() + " > " + maxQueries);
+        }
+    }
+
+    public static void assertNoNPlusOne(QueryStats stats, int threshold) {
+        if (stats.hasNPlusOne(threshold)) {
+            StringBuilder message = new StringBuilder("Обнаружены повторяющиеся запросы (N+1):");
+            stats.getRepeatedStatements(threshold).forEach((sql, count) ->
+                    message.append("\n  ").append(count).append("x ").append(sql));
+            fail(message.toString());
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.omega.shop.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class QueryStatsFilterTest {
+
+    private final QueryCountingStatementInspector inspector = new QueryCountingStatementInspector();
+    private final QueryStatsFilter filter = new QueryStatsFilter(new SimpleMeterRegistry(), 30, 5, true);
+
+    @Test
+    void bufferedResponseGetsQueryHeaders() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/catalog"), response, chain((req, res) -> {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+            res.getWriter().write("page");
+        }));
+
+        assertEquals("2", response.getHeader("X-Query-Count"));
+        assertEquals("page", response.getContentAsString());
+        assertEquals(4, response.getContentLength());
+    }
+
+    @Test
+    void streamedResponseReachesClientOnEveryFlush() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<String> sentBeforeEnd = new AtomicReference<>();
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/admin/orders"), response, chain((req, res) -> {
+            inspector.inspect("select 1");
+            res.getWriter().write("chunk1;");
+            res.flushBuffer();
+            sentBeforeEnd.set(response.getContentAsString());
+            inspector.inspect("select 2");
+            res.getWriter().write("chunk2");
+        }));
+
+        // Первая порция ушла клиенту до конца рендера, заголовки - по запросам до неё
+        assertEquals("chunk1;", sentBeforeEnd.get());
+        assertEquals("chunk1;chunk2", response.getContentAsString());
+        assertEquals("1", response.getHeader("X-Query-Count"));
+        assertNull(response.getHeader("Content-Length"));
+    }
+
+    @Test
+    void eventStreamIsNotWrapped() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/courier/events");
+        request.addHeader("Accept", "text/event-stream");
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        AtomicReference<Object> seen = new AtomicReference<>();
+
+        filter.doFilter(request, response, chain((req, res) -> seen.set(res)));
+
+        assertSame(response, seen.get());
+        assertNull(response.getHeader("X-Query-Count"));
+    }
+
+    private static MockFilterChain chain(Handler handler) {
+        return new MockFilterChain(new HttpServlet() {
+            @Override
+            protected void service(HttpServletRequest req, HttpServletResponse res) throws IOException {
+                handler.handle(req, res);
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        void handle(HttpServletRequest request, HttpServletResponse response) throws IOException;
+    }
+}
@@ -0,0 +1,53 @@
+package com.omega.shop.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class QueryStatsTest {
+
+    private static final String LOAD_PRODUCTS =
+            "select p1_0.category_id,p1_0.id from products p1_0 where p1_0.category_id=?";
+
+    private final QueryCountingStatementInspector inspector = new QueryCountingStatementInspector();
+
+    @Test
+    void countsStatementsOnlyWhileBound() throws Exception {
+        inspector.inspect("select 1");
+
+        QueryStats stats = QueryBudget.capture(() -> {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+        });
+
+        assertEquals(2, stats.getStatementCount());
+        assertNull(QueryStats.current());
+    }
+
+    @Test
+    void detectsRepeatedStatementsAsNPlusOne() throws Exception {
+        QueryStats stats = QueryBudget.capture(() -> {
+            inspector.inspect("select c1_0.id from categories c1_0");
+            for (int i = 0; i < 5; i++) {
+                inspector.inspect(LOAD_PRODUCTS + (i % 2 == 0 ? "" : "\n"));
+            }
+        });
+
+        assertTrue(stats.hasNPlusOne(5));
+        assertEquals(5, stats.getRepeatedStatements(5).get(LOAD_PRODUCTS));
+        assertFalse(stats.hasNPlusOne(6));
+        assertThrows(AssertionError.class, () -> QueryBudget.assertNoNPlusOne(stats, 5));
+    }
+
+    @Test
+    void failsWhenBudgetExceeded() {
+        assertThrows(AssertionError.class, () -> QueryBudget.assertWithin(1, () -> {
+            inspector.inspect("select 1");
+            inspector.inspect("select 2");
+        }));
+    }
+}
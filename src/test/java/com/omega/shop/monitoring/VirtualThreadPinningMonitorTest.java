@@ -0,0 +1,58 @@
+package com.omega.shop.monitoring;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadPinningMonitorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final VirtualThreadPinningMonitor monitor = new VirtualThreadPinningMonitor(registry);
+    private final Object lock = new Object();
+
+    @AfterEach
+    void tearDown() {
+        monitor.stop();
+    }
+
+    @Test
+    void sleepInsideSynchronizedIsCountedAsPinning() throws Exception {
+        ReflectionTestUtils.setField(monitor, "threshold", Duration.ofMillis(5));
+        monitor.start();
+        assertTrue(monitor.isRunning());
+
+        Thread.ofVirtual().start(() -> {
+            synchronized (lock) {
+                sleep(Duration.ofMillis(50));
+            }
+        }).join();
+
+        // JFR отдаёт события потоку записи с задержкой около секунды
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (pinned() == 0 && System.nanoTime() < deadline) {
+            Thread.sleep(100);
+        }
+        assertTrue(pinned() >= 1);
+
+        monitor.stop();
+        assertFalse(monitor.isRunning());
+    }
+
+    private double pinned() {
+        return registry.get("omega.virtual.pinned").counter().count();
+    }
+
+    private static void sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.omega.shop.repository;
+
+import com.omega.shop.dto.ActiveDelivery;
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Запросы автоназначения курьеров на H2. Транзакции фиксируются явно: проверяется чередование
+ * автоназначения с ручным назначением продавцом.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OrderDispatchQueriesTest {
+
+    private static final Set<Order.DeliveryStatus> ACTIVE =
+            Set.of(Order.DeliveryStatus.ASSIGNED, Order.DeliveryStatus.IN_TRANSIT);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll();
+        userRepository.deleteAll();
+    }
+
+    @Test
+    void activeCouriersAndTheirDeliveries() {
+        User client = user("client", User.Role.CLIENT, true);
+        User courier = user("courier", User.Role.COURIER, true);
+        User blocked = user("blocked", User.Role.COURIER, false);
+        order(client, courier, Order.DeliveryStatus.ASSIGNED, "ул. Киевская 1");
+        order(client, courier, Order.DeliveryStatus.IN_TRANSIT, "ул. Токтогула 2");
+        order(client, courier, Order.DeliveryStatus.DELIVERED, "ул. Киевская 3");
+        order(client, blocked, Order.DeliveryStatus.ASSIGNED, "ул. Ахунбаева 4");
+        order(client, null, Order.DeliveryStatus.READY, "ул. Киевская 5");
+
+        assertEquals(List.of(courier.getId()), userRepository.findActiveIdsByRole(User.Role.COURIER));
+
+        List<ActiveDelivery> active = orderRepository.findActiveDeliveries(ACTIVE);
+        assertEquals(3, active.size());
+        assertTrue(active.contains(new ActiveDelivery(courier.getId(), "ул. Киевская 1")));
+        assertTrue(active.contains(new ActiveDelivery(courier.getId(), "ул. Токтогула 2")));
+        assertTrue(active.contains(new ActiveDelivery(blocked.getId(), "ул. Ахунбаева 4")));
+    }
+
+    @Test
+    void manualAssignmentAfterBatchReadIsNotOverwritten() {
+        User client = user("client", User.Role.CLIENT, true);
+        User auto = user("auto", User.Role.COURIER, true);
+        User manual = user("manual", User.Role.COURIER, true);
+        Long orderId = order(client, null, Order.DeliveryStatus.READY, "ул. Киевская 1").getId();
+
+        TransactionTemplate pass = new TransactionTemplate(transactionManager);
+        TransactionTemplate separate = new TransactionTemplate(transactionManager);
+        separate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        int updated = pass.execute(status -> {
+            List<Order> batch = orderRepository.findReadyForDelivery(Order.OrderStatus.READY_FOR_DELIVERY,
+                    Order.DeliveryStatus.READY, PageRequest.of(0, 10)).getContent();
+            assertEquals(1, batch.size());
+
+            // Продавец назначает курьера, пока проход строит план
+            separate.executeWithoutResult(manualStatus -> {
+                Order order = orderRepository.findById(orderId).orElseThrow();
+                order.setCourier(manual);
+                order.setDeliveryStatus(Order.DeliveryStatus.ASSIGNED);
+                orderRepository.save(order);
+            });
+
+            return separate.execute(assignStatus ->
+                    orderRepository.assignIfReady(orderId, auto, LocalDateTime.now()));
+        });
+
+        assertEquals(0, updated);
+        assertEquals(manual.getId(), orderRepository.findActiveDeliveries(ACTIVE).get(0).courierId());
+    }
+
+    @Test
+    void readyOrderIsAssignedOnce() {
+        User client = user("client", User.Role.CLIENT, true);
+        User first = user("first", User.Role.COURIER, true);
+        User second = user("second", User.Role.COURIER, true);
+        Long orderId = order(client, null, Order.DeliveryStatus.READY, "ул. Киевская 1").getId();
+
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+        int firstUpdate = tx.execute(status -> orderRepository.assignIfReady(orderId, first, LocalDateTime.now()));
+        int secondUpdate = tx.execute(status -> orderRepository.assignIfReady(orderId, second, LocalDateTime.now()));
+
+        assertEquals(1, firstUpdate);
+        assertEquals(0, secondUpdate);
+
+        List<ActiveDelivery> active = orderRepository.findActiveDeliveries(ACTIVE);
+        assertEquals(List.of(new ActiveDelivery(first.getId(), "ул. Киевская 1")), active);
+    }
+
+    private User user(String username, User.Role role, boolean active) {
+        User user = new User();
+        user.setUsername(username);
+        user.setEmail(username + "@omega.test");
+        user.setPhone("(+996)-555-000-000");
+        user.setPassword("bcrypt-hash");
+        user.setRole(role);
+        user.setActive(active);
+        return userRepository.save(user);
+    }
+
+    private Order order(User client, User courier, Order.DeliveryStatus deliveryStatus, String address) {
+        Order order = new Order();
+        order.setUser(client);
+        order.setCourier(courier);
+        order.setStatus(Order.OrderStatus.READY_FOR_DELIVERY);
+        order.setDeliveryStatus(deliveryStatus);
+        order.setReadyForDeliveryAt(LocalDateTime.now());
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setPhone("(+996)-555-000-000");
+        order.setDeliveryAddress(address);
+        return orderRepository.save(order);
+    }
+}
@@ -0,0 +1,142 @@
+package com.omega.shop.repository;
+
+import com.omega.shop.entity.OutboxEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Захват пачек outbox и очистка на H2. Транзакции фиксируются явно: второй ретранслятор
+ * работает в отдельном потоке, пока первый держит блокировку.
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class OutboxEventRepositoryTest {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void tearDown() {
+        outboxEventRepository.deleteAll();
+    }
+
+    @Test
+    void onlyHeadEventOfEachAggregateIsClaimed() {
+        OutboxEvent first = event(1L, OutboxEvent.Status.PENDING);
+        event(1L, OutboxEvent.Status.PENDING);
+        OutboxEvent other = event(2L, OutboxEvent.Status.PENDING);
+        event(3L, OutboxEvent.Status.FAILED);
+
+        List<Long> claimed = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.lockNextBatch(10, LocalDateTime.now()).stream().map(OutboxEvent::getId).toList());
+
+        assertEquals(List.of(first.getId(), other.getId()), claimed);
+    }
+
+    @Test
+    void deferredEventHoldsBackItsAggregateUntilRetryTime() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent deferred = event(1L, OutboxEvent.Status.PENDING);
+        deferred.setAttempts(1);
+        deferred.setNextAttemptAt(now.plusSeconds(30));
+        outboxEventRepository.save(deferred);
+        event(1L, OutboxEvent.Status.PENDING);
+        OutboxEvent other = event(2L, OutboxEvent.Status.PENDING);
+
+        List<Long> claimed = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.lockNextBatch(10, now).stream().map(OutboxEvent::getId).toList());
+        assertEquals(List.of(other.getId()), claimed);
+
+        List<Long> later = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.lockNextBatch(10, now.plusMinutes(1)).stream().map(OutboxEvent::getId).toList());
+        assertEquals(List.of(deferred.getId(), other.getId()), later);
+    }
+
+    @Test
+    void lockedEventsAreSkippedByAnotherRelay() throws Exception {
+        OutboxEvent first = event(1L, OutboxEvent.Status.PENDING);
+        event(1L, OutboxEvent.Status.PENDING);
+        OutboxEvent other = event(2L, OutboxEvent.Status.PENDING);
+
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<List<OutboxEvent>> holder = CompletableFuture.supplyAsync(() ->
+                new TransactionTemplate(transactionManager).execute(status -> {
+                    List<OutboxEvent> batch = outboxEventRepository.lockNextBatch(1, LocalDateTime.now());
+                    locked.countDown();
+                    await(release);
+                    return batch;
+                }));
+        try {
+            assertTrue(locked.await(10, TimeUnit.SECONDS));
+
+            // Голова агрегата 1 заблокирована, следующее за ней событие не видно до публикации
+            List<Long> claimed = new TransactionTemplate(transactionManager).execute(status ->
+                    outboxEventRepository.lockNextBatch(10, LocalDateTime.now()).stream().map(OutboxEvent::getId).toList());
+            assertEquals(List.of(other.getId()), claimed);
+        } finally {
+            release.countDown();
+        }
+        assertEquals(first.getId(), holder.get(10, TimeUnit.SECONDS).get(0).getId());
+    }
+
+    @Test
+    void cleanupDeletesOnlyOldPublishedEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        OutboxEvent old = event(1L, OutboxEvent.Status.PUBLISHED);
+        old.setPublishedAt(now.minusDays(10));
+        outboxEventRepository.save(old);
+        OutboxEvent recent = event(2L, OutboxEvent.Status.PUBLISHED);
+        recent.setPublishedAt(now.minusDays(1));
+        outboxEventRepository.save(recent);
+        OutboxEvent pending = event(3L, OutboxEvent.Status.PENDING);
+        OutboxEvent failed = event(4L, OutboxEvent.Status.FAILED);
+
+        int deleted = new TransactionTemplate(transactionManager).execute(status ->
+                outboxEventRepository.deleteByStatusBefore(OutboxEvent.Status.PUBLISHED, now.minusDays(7)));
+
+        assertEquals(1, deleted);
+        assertEquals(List.of(recent.getId(), pending.getId(), failed.getId()),
+                outboxEventRepository.findAll().stream().map(OutboxEvent::getId).sorted().toList());
+    }
+
+    private OutboxEvent event(Long aggregateId, OutboxEvent.Status status) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(OutboxEvent.AggregateType.ORDER);
+        event.setAggregateId(aggregateId);
+        event.setEventType("OrderCreated");
+        event.setPayload("{\"orderId\":" + aggregateId + "}");
+        event.setStatus(status);
+        return outboxEventRepository.save(event);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.omega.shop.repository;
+
+import com.omega.shop.dto.CategoryView;
+import com.omega.shop.dto.ProductView;
+import com.omega.shop.entity.Category;
+import com.omega.shop.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Limit;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Проекции каталожного API на H2: запросы не должны зависеть от диалекта PostgreSQL
+ */
+@DataJpaTest(properties = {
+        "spring.flyway.enabled=false",
+        "spring.jpa.hibernate.ddl-auto=create-drop",
+        "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect"
+})
+class ProductViewQueriesTest {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private Category phones;
+    private Category laptops;
+    private Product first;
+    private Product second;
+    private Product third;
+
+    @BeforeEach
+    void setUp() {
+        Category electronics = category("Электроника", null);
+        phones = category("Телефоны", electronics);
+        laptops = category("Ноутбуки", electronics);
+        first = product("Телефон А", phones, true);
+        second = product("Ноутбук Б", laptops, true);
+        product("Телефон скрытый", phones, false);
+        third = product("Телефон В", phones, true);
+    }
+
+    @Test
+    void pageWithoutCategoryFollowsKeyset() {
+        List<ProductView> page = productRepository.findViewsAfter(0L, false, Limit.of(2));
+        assertEquals(List.of(first.getId(), second.getId()), ids(page));
+        assertNull(page.get(0).description());
+
+        List<ProductView> next = productRepository.findViewsAfter(second.getId(), true, Limit.of(2));
+        assertEquals(List.of(third.getId()), ids(next));
+        assertEquals("Описание Телефон В", next.get(0).description());
+    }
+
+    @Test
+    void pageInCategorySkipsOtherCategoriesAndInactive() {
+        List<ProductView> page = productRepository.findViewsAfterInCategory(0L, phones.getId(), false, Limit.of(10));
+
+        assertEquals(List.of(first.getId(), third.getId()), ids(page));
+        assertEquals("Телефоны", page.get(0).categoryName());
+        assertEquals(List.of(), productRepository.findViewsAfterInCategory(third.getId(), phones.getId(), false,
+                Limit.of(10)));
+    }
+
+    @Test
+    void categoryViewsCarryParentId() {
+        List<CategoryView> views = categoryRepository.findAllViews();
+
+        assertEquals(3, views.size());
+        assertNull(views.get(0).parentId());
+        assertEquals(views.get(0).id(), views.get(1).parentId());
+        assertEquals(laptops.getId(), views.get(2).id());
+    }
+
+    private Category category(String name, Category parent) {
+        Category category = new Category();
+        category.setName(name);
+        category.setParent(parent);
+        return categoryRepository.save(category);
+    }
+
+    private Product product(String name, Category category, boolean active) {
+        Product product = new Product();
+        product.setName(name);
+        product.setDescription("Описание " + name);
+        product.setPrice(new BigDecimal("100.00"));
+        product.setQuantity(5);
+        product.setCategory(category);
+        product.setActive(active);
+        return productRepository.save(product);
+    }
+
+    private static List<Long> ids(List<ProductView> views) {
+        return views.stream().map(ProductView::id).toList();
+    }
+}
@@ -0,0 +1,91 @@
+package com.omega.shop.security;
+
+import com.omega.shop.entity.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CurrentUserArgumentResolverTest {
+
+    private final CurrentUserCache cache = mock(CurrentUserCache.class);
+    private final CurrentUserArgumentResolver resolver = new CurrentUserArgumentResolver(cache);
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void anonymousRequestHasNoCurrentUser() {
+        assertThrows(IllegalStateException.class, this::resolve);
+
+        SecurityContextHolder.getContext().setAuthentication(new AnonymousAuthenticationToken("key",
+                "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS")));
+        assertThrows(IllegalStateException.class, this::resolve);
+    }
+
+    @Test
+    void principalIsResolvedByIdFromCache() {
+        User user = user(5L, true);
+        when(cache.get(5L)).thenReturn(Optional.of(user));
+        authenticate(new ShopUserPrincipal(5L, "courier", User.Role.COURIER));
+
+        assertSame(user, resolve());
+    }
+
+    @Test
+    void otherPrincipalIsResolvedByUsername() {
+        User user = user(5L, true);
+        when(cache.getByUsername("courier")).thenReturn(Optional.of(user));
+        authenticate("courier");
+
+        assertSame(user, resolve());
+    }
+
+    @Test
+    void deactivatedUserIsDeniedWhileSessionIsAlive() {
+        when(cache.get(5L)).thenReturn(Optional.of(user(5L, false)));
+        authenticate(new ShopUserPrincipal(5L, "courier", User.Role.COURIER));
+
+        AccessDeniedException e = assertThrows(AccessDeniedException.class, this::resolve);
+        assertEquals("Пользователь заблокирован", e.getMessage());
+    }
+
+    @Test
+    void deletedUserIsNotResolved() {
+        when(cache.get(5L)).thenReturn(Optional.empty());
+        authenticate(new ShopUserPrincipal(5L, "courier", User.Role.COURIER));
+
+        assertThrows(IllegalStateException.class, this::resolve);
+    }
+
+    private Object resolve() {
+        return resolver.resolveArgument(null, null, null, null);
+    }
+
+    private static void authenticate(Object principal) {
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, AuthorityUtils.NO_AUTHORITIES));
+    }
+
+    private static User user(Long id, boolean active) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("courier");
+        user.setRole(User.Role.COURIER);
+        user.setActive(active);
+        return user;
+    }
+}
@@ -0,0 +1,128 @@
+package com.omega.shop.security;
+
+import com.omega.shop.cache.CacheInvalidation;
+import com.omega.shop.cache.CacheInvalidationEvent;
+import com.omega.shop.entity.User;
+import com.omega.shop.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CurrentUserCacheTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final CurrentUserCache cache = new CurrentUserCache(userRepository);
+
+    CurrentUserCacheTest() {
+        ReflectionTestUtils.setField(cache, "ttl", Duration.ofSeconds(60));
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "nanoTime", (LongSupplier) now::get);
+    }
+
+    @Test
+    void hitReturnsOwnCopyWithoutQuery() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "hash", User.Role.CLIENT, true)));
+
+        User first = cache.get(1L).orElseThrow();
+        first.setRole(User.Role.ADMIN);
+        User second = cache.get(1L).orElseThrow();
+
+        verify(userRepository, times(1)).findById(1L);
+        assertNotSame(first, second);
+        // Изменение копии одного запроса не попадает в кэш
+        assertEquals(User.Role.CLIENT, second.getRole());
+    }
+
+    @Test
+    void entryExpiresAfterTtl() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "hash", User.Role.CLIENT, true)));
+
+        cache.get(1L);
+        now.addAndGet(TimeUnit.SECONDS.toNanos(59));
+        cache.get(1L);
+        verify(userRepository, times(1)).findById(1L);
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        cache.get(1L);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void passwordRoleAndActiveChangesAreSeenAfterInvalidation() {
+        when(userRepository.findById(1L)).thenReturn(
+                Optional.of(user(1L, "hash", User.Role.CLIENT, true)),
+                Optional.of(user(1L, "rehashed", User.Role.CLIENT, true)),
+                Optional.of(user(1L, "rehashed", User.Role.SELLER, false)));
+
+        assertEquals("hash", cache.get(1L).orElseThrow().getPassword());
+
+        // Пересчёт хэша на этом узле
+        cache.onInvalidation(local(CacheInvalidation.Entity.USER, 1L));
+        assertEquals("rehashed", cache.get(1L).orElseThrow().getPassword());
+
+        // Смена роли и блокировка на другом узле
+        cache.onInvalidation(new CacheInvalidationEvent(
+                List.of(new CacheInvalidation(CacheInvalidation.Entity.USER, 1L)), false, true));
+        User changed = cache.get(1L).orElseThrow();
+        assertEquals(User.Role.SELLER, changed.getRole());
+        assertFalse(changed.isActive());
+    }
+
+    @Test
+    void otherEntitiesAndUsersKeepEntries() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user(1L, "hash", User.Role.CLIENT, true)));
+        cache.get(1L);
+
+        cache.onInvalidation(local(CacheInvalidation.Entity.PRODUCT, 1L));
+        cache.onInvalidation(local(CacheInvalidation.Entity.USER, 2L));
+        cache.get(1L);
+        verify(userRepository, times(1)).findById(1L);
+
+        cache.onInvalidation(CacheInvalidationEvent.flush());
+        cache.get(1L);
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void loadRacingWithInvalidationIsNotCached() {
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            // Пользователь изменён, пока загружалась прежняя версия
+            cache.onInvalidation(local(CacheInvalidation.Entity.USER, 1L));
+            return Optional.of(user(1L, "hash", User.Role.CLIENT, true));
+        });
+
+        cache.get(1L);
+        cache.get(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    private static CacheInvalidationEvent local(CacheInvalidation.Entity entity, Long id) {
+        return new CacheInvalidationEvent(List.of(new CacheInvalidation(entity, id)), false, false);
+    }
+
+    private static User user(Long id, String password, User.Role role, boolean active) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setPassword(password);
+        user.setRole(role);
+        user.setActive(active);
+        return user;
+    }
+}
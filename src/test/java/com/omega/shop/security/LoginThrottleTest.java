@@ -0,0 +1,74 @@
+package com.omega.shop.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoginThrottleTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private final LoginThrottle throttle = new LoginThrottle(new SimpleMeterRegistry());
+
+    LoginThrottleTest() {
+        ReflectionTestUtils.setField(throttle, "ipCapacity", 5);
+        ReflectionTestUtils.setField(throttle, "ipRefillPerMinute", 60);
+        ReflectionTestUtils.setField(throttle, "usernameCapacity", 2);
+        ReflectionTestUtils.setField(throttle, "usernameRefillPerMinute", 6);
+        ReflectionTestUtils.setField(throttle, "maxKeys", 1000);
+        ReflectionTestUtils.setField(throttle, "nanoTime", (LongSupplier) now::get);
+    }
+
+    @Test
+    void usernameBucketLimitsAttemptsFromManyAddresses() {
+        assertEquals(0, throttle.tryAcquire("10.0.0.1", "Alice"));
+        assertEquals(0, throttle.tryAcquire("10.0.0.2", "alice"));
+        // Имя сравнивается без учёта регистра; токен появится через 10 секунд
+        assertEquals(10, throttle.tryAcquire("10.0.0.3", "ALICE"));
+
+        now.addAndGet(TimeUnit.SECONDS.toNanos(10));
+        assertEquals(0, throttle.tryAcquire("10.0.0.4", "alice"));
+    }
+
+    @Test
+    void ipBucketLimitsAttemptsForManyUsernames() {
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, throttle.tryAcquire("10.0.0.1", "user" + i));
+        }
+        assertEquals(1, throttle.tryAcquire("10.0.0.1", "user5"));
+        assertEquals(0, throttle.tryAcquire("10.0.0.2", "user5"));
+    }
+
+    @Test
+    void refilledBucketsAreEvicted() {
+        throttle.tryAcquire("10.0.0.1", "alice");
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        throttle.evictIdle();
+
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(throttle, "buckets")).isEmpty());
+    }
+
+    @Test
+    void fullTableRejectsNewKeysButKeepsActiveBuckets() {
+        ReflectionTestUtils.setField(throttle, "maxKeys", 2);
+        // Атакуемое имя: оба токена израсходованы
+        throttle.tryAcquire("10.0.0.1", "alice");
+        throttle.tryAcquire("10.0.0.1", "alice");
+
+        // Таблица заполнена, полных корзин нет: новый адрес отклоняется
+        assertEquals(60, throttle.tryAcquire("10.0.0.2", "alice"));
+        // Корзина атакуемого имени не сброшена
+        assertEquals(10, throttle.tryAcquire("10.0.0.1", "alice"));
+
+        // Корзины пополнились - их место освобождается для новых ключей
+        now.addAndGet(TimeUnit.MINUTES.toNanos(1));
+        assertEquals(0, throttle.tryAcquire("10.0.0.2", "bob"));
+    }
+}
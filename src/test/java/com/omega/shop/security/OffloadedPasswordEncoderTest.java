@@ -0,0 +1,98 @@
+package com.omega.shop.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OffloadedPasswordEncoderTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private OffloadedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        encoder.shutdown();
+    }
+
+    @Test
+    void hashesOnPoolAndUpgradesWeakerHashes() {
+        encoder = new OffloadedPasswordEncoder(new BCryptPasswordEncoder(5), 1, 1, Duration.ofSeconds(5), registry);
+
+        String hash = encoder.encode("secret");
+        assertTrue(encoder.matches("secret", hash));
+        assertFalse(encoder.matches("wrong", hash));
+        assertEquals(1, registry.get("omega.password.hash.duration").tag("operation", "encode").timer().count());
+
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("secret")));
+        assertFalse(encoder.upgradeEncoding(hash));
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws Exception {
+        encoder = new OffloadedPasswordEncoder(blocking(), 1, 1, Duration.ofSeconds(5), registry);
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            callers.submit(() -> encoder.encode("running"));
+            waitUntil(() -> registry.get("omega.password.active").gauge().value() == 1);
+            callers.submit(() -> encoder.encode("queued"));
+            waitUntil(() -> registry.get("omega.password.queue.size").gauge().value() == 1);
+
+            assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("rejected"));
+            assertEquals(1, registry.get("omega.password.rejected").tag("reason", "queue_full").counter().count());
+        } finally {
+            release.countDown();
+            callers.shutdown();
+            callers.awaitTermination(5, TimeUnit.SECONDS);
+        }
+    }
+
+    @Test
+    void rejectsWhenWaitIsTooLong() {
+        encoder = new OffloadedPasswordEncoder(blocking(), 1, 1, Duration.ofMillis(50), registry);
+
+        assertThrows(PasswordHashingUnavailableException.class, () -> encoder.encode("slow"));
+        assertEquals(1, registry.get("omega.password.rejected").tag("reason", "timeout").counter().count());
+    }
+
+    private PasswordEncoder blocking() {
+        return new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return rawPassword.toString().equals(encodedPassword);
+            }
+        };
+    }
+
+    private static void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+    }
+}
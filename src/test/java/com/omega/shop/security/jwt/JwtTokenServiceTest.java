@@ -0,0 +1,84 @@
+package com.omega.shop.security.jwt;
+
+import com.omega.shop.entity.User;
+import com.omega.shop.security.ShopUserPrincipal;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class JwtTokenServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-01T12:00:00Z");
+
+    @Test
+    void accessTokenCarriesIdAndRole() {
+        JwtTokenService service = service(Clock.fixed(NOW, ZoneOffset.UTC), "k1", "k1");
+
+        ShopUserPrincipal principal = service.parseAccessToken(service.createAccessToken(courier()));
+
+        assertEquals(7L, principal.getId());
+        assertEquals("courier", principal.getUsername());
+        assertEquals(User.Role.COURIER, principal.getRole());
+        assertEquals("ROLE_COURIER", principal.getAuthorities().iterator().next().getAuthority());
+    }
+
+    @Test
+    void tokenTypesAreNotInterchangeable() {
+        JwtTokenService service = service(Clock.fixed(NOW, ZoneOffset.UTC), "k1", "k1");
+
+        assertThrows(BadCredentialsException.class,
+                () -> service.parseAccessToken(service.createRefreshToken(courier())));
+        assertThrows(BadCredentialsException.class,
+                () -> service.parseRefreshToken(service.createAccessToken(courier())));
+        assertEquals(7L, service.parseRefreshToken(service.createRefreshToken(courier())));
+    }
+
+    @Test
+    void expiredAccessTokenIsRejected() {
+        String token = service(Clock.fixed(NOW, ZoneOffset.UTC), "k1", "k1").createAccessToken(courier());
+        JwtTokenService later = service(Clock.fixed(NOW.plus(Duration.ofMinutes(20)), ZoneOffset.UTC), "k1", "k1");
+
+        assertThrows(BadCredentialsException.class, () -> later.parseAccessToken(token));
+    }
+
+    @Test
+    void tokensSignedWithPreviousKeyStayValidAfterRotation() {
+        Clock clock = Clock.fixed(NOW, ZoneOffset.UTC);
+        String oldToken = service(clock, "k1", "k1").createAccessToken(courier());
+
+        JwtTokenService rotated = service(clock, "k2", "k1", "k2");
+        assertEquals(7L, rotated.parseAccessToken(oldToken).getId());
+
+        JwtTokenService retired = service(clock, "k2", "k2");
+        assertThrows(BadCredentialsException.class, () -> retired.parseAccessToken(oldToken));
+    }
+
+    private static JwtTokenService service(Clock clock, String activeKey, String... keyIds) {
+        JwtProperties properties = new JwtProperties();
+        properties.setActiveKey(activeKey);
+        for (String keyId : List.of(keyIds)) {
+            JwtProperties.Key key = new JwtProperties.Key();
+            key.setId(keyId);
+            key.setSecret(Base64.getEncoder().encodeToString(("secret-for-" + keyId + "-0123456789abcdef0123456789").getBytes()));
+            properties.getKeys().add(key);
+        }
+        return new JwtTokenService(properties, clock);
+    }
+
+    private static User courier() {
+        User user = new User();
+        user.setId(7L);
+        user.setUsername("courier");
+        user.setRole(User.Role.COURIER);
+        return user;
+    }
+}
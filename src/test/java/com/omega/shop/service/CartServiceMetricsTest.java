@@ -0,0 +1,68 @@
+package com.omega.shop.service;
+
+import com.omega.shop.dto.CartItem;
+import com.omega.shop.dto.ShoppingCart;
+import com.omega.shop.entity.Product;
+import com.omega.shop.monitoring.ShopMetrics;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class CartServiceMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ShoppingCart cart = new ShoppingCart();
+    private final ProductService productService = mock(ProductService.class);
+    private final CartService service = new CartService(cart, productService, new ShopMetrics(registry));
+
+    @Test
+    void updateToZeroIsOneUpdateOperation() {
+        Product product = product(1L, 10);
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product));
+        cart.addItem(new CartItem(product, 2));
+
+        service.updateQuantity(1L, 0);
+
+        assertTrue(cart.getItems().isEmpty());
+        assertEquals(1, registry.get("omega.cart.operation").timers().stream().mapToLong(Timer::count).sum());
+        assertEquals(1, timer("update", ShopMetrics.OUTCOME_SUCCESS).count());
+    }
+
+    @Test
+    void outcomesAreTaggedPerOperation() {
+        when(productService.getProductById(1L)).thenReturn(Optional.of(product(1L, 1)));
+        when(productService.getProductById(2L)).thenReturn(Optional.empty());
+
+        service.addToCart(1L, 1);
+        assertThrows(IllegalStateException.class, () -> service.addToCart(1L, 1));
+        assertThrows(IllegalArgumentException.class, () -> service.updateQuantity(2L, 1));
+        service.removeFromCart(1L);
+
+        assertEquals(1, timer("add", ShopMetrics.OUTCOME_SUCCESS).count());
+        assertEquals(1, timer("add", ShopMetrics.OUTCOME_STOCK_CONFLICT).count());
+        assertEquals(1, timer("update", ShopMetrics.OUTCOME_REJECTED).count());
+        assertEquals(1, timer("remove", ShopMetrics.OUTCOME_SUCCESS).count());
+    }
+
+    private Timer timer(String operation, String outcome) {
+        return registry.get("omega.cart.operation").tag("operation", operation).tag("outcome", outcome).timer();
+    }
+
+    private static Product product(Long id, int quantity) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Товар " + id);
+        product.setPrice(BigDecimal.TEN);
+        product.setQuantity(quantity);
+        return product;
+    }
+}
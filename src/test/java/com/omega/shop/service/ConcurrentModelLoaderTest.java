@@ -0,0 +1,156 @@
+package com.omega.shop.service;
+
+import com.omega.shop.datasource.ReadYourWrites;
+import com.omega.shop.monitoring.QueryStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.ui.ExtendedModelMap;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ConcurrentModelLoaderTest {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final ConcurrentModelLoader loader = new ConcurrentModelLoader(transactionManager);
+    private final ExtendedModelMap model = new ExtendedModelMap();
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        ReflectionTestUtils.setField(loader, "deadline", Duration.ofSeconds(2));
+    }
+
+    @AfterEach
+    void tearDown() {
+        loader.destroy();
+        SecurityContextHolder.clearContext();
+        ReadYourWrites.bind(null);
+        QueryStats.bind(null);
+    }
+
+    @Test
+    void resultsAreAddedToModelInReadOnlyTransactions() {
+        loader.into(model)
+                .add("first", () -> 1)
+                .add("second", () -> List.of("a", "b"))
+                .join();
+
+        assertEquals(1, model.getAttribute("first"));
+        assertEquals(List.of("a", "b"), model.getAttribute("second"));
+        verify(transactionManager, atLeastOnce()).getTransaction(argThat(TransactionDefinition::isReadOnly));
+    }
+
+    @Test
+    void duplicateAttributeIsRejected() {
+        ConcurrentModelLoader.Batch batch = loader.into(model).add("first", () -> 1);
+
+        assertThrows(IllegalArgumentException.class, () -> batch.add("first", () -> 2));
+        batch.join();
+    }
+
+    @Test
+    void deadlineCancelsPendingTasks() throws InterruptedException {
+        ReflectionTestUtils.setField(loader, "deadline", Duration.ofMillis(100));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        ConcurrentModelLoader.Batch batch = loader.into(model)
+                .add("fast", () -> 1)
+                .add("slow", () -> blockUntilInterrupted(started, interrupted));
+        // Отмена ещё не начатой задачи не прерывает её - дожидаемся старта
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, batch::join);
+
+        assertEquals("Превышено время загрузки страницы", e.getMessage());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertFalse(model.containsAttribute("slow"));
+    }
+
+    @Test
+    void failedTaskCancelsOthersAndIsRethrown() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        IllegalArgumentException failure = new IllegalArgumentException("Категория не найдена");
+        ConcurrentModelLoader.Batch batch = loader.into(model)
+                .add("failing", () -> {
+                    // Отмена ещё не начатой задачи не прерывает её - дожидаемся старта
+                    awaitQuietly(started);
+                    throw failure;
+                })
+                .add("slow", () -> blockUntilInterrupted(started, interrupted));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, batch::join);
+
+        assertSame(failure, e);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertTrue(model.asMap().isEmpty());
+    }
+
+    @Test
+    void requestContextIsPropagatedToTasks() {
+        Authentication authentication = new TestingAuthenticationToken("seller", "secret", "ROLE_SELLER");
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        QueryStats stats = new QueryStats();
+        QueryStats.bind(stats);
+        ReadYourWrites readYourWrites = new ReadYourWrites(true, () -> {
+        });
+        ReadYourWrites.bind(readYourWrites);
+
+        loader.into(model)
+                .add("authentication", () -> SecurityContextHolder.getContext().getAuthentication())
+                .add("readYourWrites", ReadYourWrites::current)
+                .add("stats", QueryStats::current)
+                .add("thread", Thread::currentThread)
+                .join();
+
+        assertSame(authentication, model.getAttribute("authentication"));
+        assertSame(stats, model.getAttribute("stats"));
+        assertSame(readYourWrites, model.getAttribute("readYourWrites"));
+        assertTrue(((Thread) model.getAttribute("thread")).isVirtual());
+        // Поток запроса сохраняет свой контекст
+        assertSame(authentication, SecurityContextHolder.getContext().getAuthentication());
+        assertSame(stats, QueryStats.current());
+    }
+
+    private static Object blockUntilInterrupted(CountDownLatch started, CountDownLatch interrupted) {
+        started.countDown();
+        try {
+            Thread.sleep(Duration.ofSeconds(30));
+            return "late";
+        } catch (InterruptedException e) {
+            interrupted.countDown();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
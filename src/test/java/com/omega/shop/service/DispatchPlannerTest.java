@@ -0,0 +1,66 @@
+package com.omega.shop.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class DispatchPlannerTest {
+
+    private final DispatchPlanner planner = new DispatchPlanner(3);
+
+    @Test
+    void areaIsAddressWithoutHouseNumber() {
+        assertEquals("г. бишкек ул. киевская", DispatchPlanner.areaOf("г. Бишкек, ул. Киевская, д. 12"));
+        assertEquals("г. бишкек ул. киевская", DispatchPlanner.areaOf("г. Бишкек ул. Киевская 40, кв. 3"));
+        assertEquals("", DispatchPlanner.areaOf(null));
+    }
+
+    @Test
+    void sameStreetGoesToOneCourierAndRestToLeastLoaded() {
+        List<DispatchPlanner.Assignment> plan = planner.plan(
+                List.of(courier(1L, 1), courier(2L, 0), courier(3L, 2)),
+                List.of(order(10L, "ул. Киевская 1"), order(11L, "ул. Токтогула 5"),
+                        order(12L, "ул. Киевская 7")));
+
+        // Киевская - курьеру без заказов, Токтогула - следующему по загрузке
+        assertEquals(Map.of(10L, 2L, 12L, 2L, 11L, 1L), byOrder(plan));
+    }
+
+    @Test
+    void courierAlreadyOnStreetIsPreferredUntilFull() {
+        List<DispatchPlanner.Assignment> plan = planner.plan(
+                List.of(courier(1L, 0), courier(2L, 1, "ул. Киевская 3")),
+                List.of(order(10L, "ул. Киевская 1"), order(11L, "ул. Киевская 2"),
+                        order(12L, "ул. Киевская 9")));
+
+        assertEquals(Map.of(10L, 2L, 11L, 2L, 12L, 1L), byOrder(plan));
+    }
+
+    @Test
+    void ordersBeyondCapacityWaitForNextPass() {
+        List<DispatchPlanner.Assignment> plan = planner.plan(
+                List.of(courier(1L, 3), courier(2L, 2)),
+                List.of(order(10L, "ул. Киевская 1"), order(11L, "ул. Токтогула 2")));
+
+        assertEquals(List.of(new DispatchPlanner.Assignment(10L, 2L)), plan);
+        assertThrows(IllegalArgumentException.class, () -> new DispatchPlanner(0));
+    }
+
+    private static DispatchPlanner.CourierLoad courier(Long id, int load, String... addresses) {
+        return new DispatchPlanner.CourierLoad(id, load, List.of(addresses));
+    }
+
+    private static DispatchPlanner.PendingOrder order(Long id, String address) {
+        return new DispatchPlanner.PendingOrder(id, address);
+    }
+
+    private static Map<Long, Long> byOrder(List<DispatchPlanner.Assignment> plan) {
+        return plan.stream().collect(Collectors.toMap(DispatchPlanner.Assignment::orderId,
+                DispatchPlanner.Assignment::courierId));
+    }
+}
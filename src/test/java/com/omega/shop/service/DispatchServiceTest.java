@@ -0,0 +1,122 @@
+package com.omega.shop.service;
+
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.User;
+import com.omega.shop.repository.OrderRepository;
+import com.omega.shop.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DispatchServiceTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final OrderService orderService = mock(OrderService.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final DispatchService service = new DispatchService(orderRepository, userRepository, orderService,
+            transactionManager, registry);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "batchSize", 200);
+        ReflectionTestUtils.setField(service, "courierCapacity", 5);
+        when(orderRepository.tryLockDispatch(anyLong())).thenReturn(true);
+        when(orderRepository.findActiveDeliveries(any())).thenReturn(List.of());
+    }
+
+    @Test
+    void failedAssignmentDoesNotRollBackOthers() {
+        ready(order(1L, "ул. Киевская 1"), order(2L, "ул. Киевская 2"), order(3L, "ул. Киевская 3"));
+        couriers(courier(7L, true));
+        when(orderService.assignReadyOrder(eq(1L), any())).thenReturn(true);
+        when(orderService.assignReadyOrder(eq(2L), any())).thenThrow(new IllegalStateException("сбой"));
+        when(orderService.assignReadyOrder(eq(3L), any())).thenReturn(true);
+
+        assertEquals(2, service.dispatch());
+
+        // Каждое назначение в своей транзакции: откатывается только упавшее
+        verify(transactionManager).rollback(any());
+        assertEquals(1, skipped("error"));
+        assertEquals(2, registry.get("omega.dispatch.assigned").counter().count());
+    }
+
+    @Test
+    void courierRemovedAfterPlanningIsSkipped() {
+        ready(order(1L, "ул. Киевская 1"), order(2L, "ул. Токтогула 2"));
+        when(userRepository.findActiveIdsByRole(User.Role.COURIER)).thenReturn(List.of(7L, 8L));
+        // Курьера 8 заблокировали между чтением загрузки и назначением
+        when(userRepository.findAllById(any())).thenReturn(List.of(courier(7L, true), courier(8L, false)));
+        when(orderService.assignReadyOrder(eq(1L), any())).thenReturn(true);
+
+        assertEquals(1, service.dispatch());
+
+        verify(orderService, never()).assignReadyOrder(eq(2L), any());
+        assertEquals(1, skipped("courier"));
+    }
+
+    @Test
+    void orderAssignedManuallyMeanwhileCountsAsConflict() {
+        ready(order(1L, "ул. Киевская 1"));
+        couriers(courier(7L, true));
+        when(orderService.assignReadyOrder(eq(1L), any())).thenReturn(false);
+
+        assertEquals(0, service.dispatch());
+        assertEquals(1, skipped("conflict"));
+    }
+
+    @Test
+    void passIsSkippedWhenAnotherNodeHoldsLock() {
+        when(orderRepository.tryLockDispatch(anyLong())).thenReturn(false);
+
+        assertEquals(0, service.dispatch());
+        verify(orderRepository, never()).findReadyForDelivery(any(), any(), any());
+    }
+
+    private void ready(Order... orders) {
+        when(orderRepository.findReadyForDelivery(eq(Order.OrderStatus.READY_FOR_DELIVERY),
+                eq(Order.DeliveryStatus.READY), any())).thenReturn(new PageImpl<>(List.of(orders)));
+    }
+
+    private void couriers(User... couriers) {
+        when(userRepository.findActiveIdsByRole(User.Role.COURIER))
+                .thenReturn(Arrays.stream(couriers).map(User::getId).toList());
+        when(userRepository.findAllById(any())).thenReturn(List.of(couriers));
+    }
+
+    private double skipped(String reason) {
+        return registry.get("omega.dispatch.skipped").tag("reason", reason).counter().count();
+    }
+
+    private static Order order(Long id, String address) {
+        Order order = new Order();
+        order.setId(id);
+        order.setDeliveryAddress(address);
+        return order;
+    }
+
+    private static User courier(Long id, boolean active) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("courier" + id);
+        user.setRole(User.Role.COURIER);
+        user.setActive(active);
+        return user;
+    }
+}
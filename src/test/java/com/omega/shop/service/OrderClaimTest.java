@@ -0,0 +1,91 @@
+package com.omega.shop.service;
+
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.User;
+import com.omega.shop.monitoring.ShopMetrics;
+import com.omega.shop.repository.OrderItemRepository;
+import com.omega.shop.repository.OrderRepository;
+import com.omega.shop.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderClaimTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final ProductService productService = mock(ProductService.class);
+    private final OrderService service = new OrderService(orderRepository, mock(OrderItemRepository.class),
+            productService, mock(CartService.class), mock(UserRepository.class), mock(OutboxService.class),
+            mock(OrderFeedService.class), mock(ShopMetrics.class));
+    private final User seller = new User();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(service, "claimLease", Duration.ofMinutes(10));
+        ReflectionTestUtils.setField(service, "maxClaimsPerSeller", 5);
+        seller.setId(3L);
+        seller.setUsername("seller");
+    }
+
+    @Test
+    void claimTopsUpToLimitAndRenewsHeldOrders() {
+        when(orderRepository.findClaimedIds(eq(seller), any())).thenReturn(List.of(1L, 2L, 3L));
+        when(orderRepository.lockUnclaimedNew(any(), eq(2))).thenReturn(List.of(10L, 11L));
+
+        assertEquals(2, service.claimNewOrders(seller, 5));
+
+        verify(orderRepository).claim(eq(List.of(1L, 2L, 3L, 10L, 11L)), eq(seller), any());
+    }
+
+    @Test
+    void sellerAtLimitDoesNotLockQueue() {
+        when(orderRepository.findClaimedIds(eq(seller), any())).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+
+        assertEquals(0, service.claimNewOrders(seller, 5));
+
+        verify(orderRepository, never()).lockUnclaimedNew(any(), anyInt());
+    }
+
+    @Test
+    void orderHeldByAnotherSellerIsRejectedBeforeStockCheck() {
+        Order order = new Order();
+        order.setId(7L);
+        order.setStatus(Order.OrderStatus.NEW);
+        when(orderRepository.claimForAction(eq(7L), eq(seller), any(), any())).thenReturn(0);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.confirmOrderBySeller(seller, 7L, null));
+
+        assertEquals("Заказ взят в работу другим продавцом", e.getMessage());
+        verify(orderRepository, never()).save(any());
+    }
+
+    @Test
+    void alreadyProcessedOrderKeepsStatusMessage() {
+        Order order = new Order();
+        order.setId(7L);
+        order.setStatus(Order.OrderStatus.IN_PROGRESS);
+        when(orderRepository.claimForAction(eq(7L), eq(seller), any(), any())).thenReturn(0);
+        when(orderRepository.findById(7L)).thenReturn(Optional.of(order));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> service.rejectOrderBySeller(seller, 7L, null));
+
+        assertEquals("Можно отклонять только новые заказы", e.getMessage());
+    }
+}
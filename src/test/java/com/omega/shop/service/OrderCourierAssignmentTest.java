@@ -0,0 +1,130 @@
+package com.omega.shop.service;
+
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.User;
+import com.omega.shop.event.DomainEventTypes;
+import com.omega.shop.monitoring.ShopMetrics;
+import com.omega.shop.repository.OrderItemRepository;
+import com.omega.shop.repository.OrderRepository;
+import com.omega.shop.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderCourierAssignmentTest {
+
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final OutboxService outboxService = mock(OutboxService.class);
+    private final OrderFeedService orderFeedService = mock(OrderFeedService.class);
+    private final ShopMetrics shopMetrics = mock(ShopMetrics.class);
+    private final OrderService service = new OrderService(orderRepository, mock(OrderItemRepository.class),
+            mock(ProductService.class), mock(CartService.class), userRepository, outboxService,
+            orderFeedService, shopMetrics);
+
+    @Test
+    void getCourierAcceptsOnlyCouriers() {
+        User courier = user(7L, User.Role.COURIER);
+        when(userRepository.findById(7L)).thenReturn(Optional.of(courier));
+        when(userRepository.findById(8L)).thenReturn(Optional.of(user(8L, User.Role.SELLER)));
+
+        assertSame(courier, service.getCourier(7L));
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> service.getCourier(8L));
+        assertEquals("Курьер не найден", e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> service.getCourier(9L));
+    }
+
+    @Test
+    void orderNoLongerReadyIsNotReassigned() {
+        User courier = user(7L, User.Role.COURIER);
+        when(orderRepository.assignIfReady(eq(1L), eq(courier), any())).thenReturn(0);
+
+        assertFalse(service.assignReadyOrder(1L, courier));
+
+        verify(orderRepository, never()).save(any());
+        verify(outboxService, never()).recordOrderEvent(any(), any(), anyMap());
+        verify(orderFeedService, never()).recordChange(any(), any(), any());
+    }
+
+    @Test
+    void readyOrderAssignmentIsPublished() {
+        User courier = user(7L, User.Role.COURIER);
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(Order.OrderStatus.READY_FOR_DELIVERY);
+        order.setDeliveryStatus(Order.DeliveryStatus.ASSIGNED);
+        order.setCourier(courier);
+        when(orderRepository.assignIfReady(eq(1L), eq(courier), any())).thenReturn(1);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        assertTrue(service.assignReadyOrder(1L, courier));
+
+        verify(outboxService).recordOrderEvent(eq(order), eq(DomainEventTypes.ORDER_COURIER_ASSIGNED),
+                argThat(extra -> extra.get("previousDeliveryStatus") == Order.DeliveryStatus.READY
+                        && extra.get("previousCourierId") == null));
+        verify(orderFeedService).recordChange(order, Order.OrderStatus.READY_FOR_DELIVERY, null);
+    }
+
+    @Test
+    void transitionIsCountedOnlyAfterCommit() {
+        User courier = user(7L, User.Role.COURIER);
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(Order.OrderStatus.READY_FOR_DELIVERY);
+        order.setDeliveryStatus(Order.DeliveryStatus.ASSIGNED);
+        when(orderRepository.assignIfReady(eq(1L), eq(courier), any())).thenReturn(1);
+        when(orderRepository.findById(1L)).thenReturn(Optional.of(order));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.assignReadyOrder(1L, courier);
+            verify(shopMetrics, never()).recordTransition(any(), any(), any());
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            verify(shopMetrics, never()).recordTransition(any(), any(), any());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.assignReadyOrder(1L, courier);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        verify(shopMetrics).recordTransition("delivery", Order.DeliveryStatus.READY, Order.DeliveryStatus.ASSIGNED);
+    }
+
+    @Test
+    void autoAssignmentRejectsNonCourier() {
+        assertThrows(IllegalArgumentException.class,
+                () -> service.assignReadyOrder(1L, user(8L, User.Role.SELLER)));
+        verify(orderRepository, never()).assignIfReady(any(), any(), any());
+    }
+
+    private static User user(Long id, User.Role role) {
+        User user = new User();
+        user.setId(id);
+        user.setUsername("user" + id);
+        user.setRole(role);
+        return user;
+    }
+}
@@ -0,0 +1,146 @@
+package com.omega.shop.service;
+
+import com.omega.shop.dto.DeliveryView;
+import com.omega.shop.dto.OrderChange;
+import com.omega.shop.dto.OrderChanges;
+import com.omega.shop.entity.Order;
+import com.omega.shop.entity.OrderFeedEntry;
+import com.omega.shop.entity.User;
+import com.omega.shop.event.OrderPushHub;
+import com.omega.shop.repository.OrderFeedRepository;
+import com.omega.shop.repository.OrderItemRepository;
+import com.omega.shop.repository.OrderRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class OrderFeedServiceTest {
+
+    private final OrderFeedRepository feedRepository = mock(OrderFeedRepository.class);
+    private final OrderRepository orderRepository = mock(OrderRepository.class);
+    private final OrderItemRepository itemRepository = mock(OrderItemRepository.class);
+    private final OrderPushHub pushHub = mock(OrderPushHub.class);
+    private final OrderFeedService service =
+            new OrderFeedService(feedRepository, orderRepository, itemRepository, pushHub);
+
+    @Test
+    void reassignmentSendsTombstoneToPreviousCourierAndLocksRecipientsInOrder() {
+        Order order = order(Order.OrderStatus.READY_FOR_DELIVERY, user(7L));
+        when(itemRepository.findSellerIdsByOrderId(1L)).thenReturn(List.of(30L, 20L));
+
+        service.recordChange(order, Order.OrderStatus.READY_FOR_DELIVERY, 9L);
+
+        ArgumentCaptor<OrderFeedEntry> saved = ArgumentCaptor.forClass(OrderFeedEntry.class);
+        verify(feedRepository, times(4)).save(saved.capture());
+        List<String> entries = saved.getAllValues().stream()
+                .map(e -> e.getRecipientType() + ":" + e.getRecipientId() + ":" + e.getKind())
+                .toList();
+        assertEquals(List.of("COURIER:7:UPSERT", "COURIER:9:TOMBSTONE", "SELLER:20:UPSERT", "SELLER:30:UPSERT"),
+                entries);
+
+        InOrder locks = inOrder(feedRepository);
+        locks.verify(feedRepository).lockRecipient(OrderFeedService.lockKey(OrderFeedEntry.Recipient.COURIER, 7L));
+        locks.verify(feedRepository).lockRecipient(OrderFeedService.lockKey(OrderFeedEntry.Recipient.COURIER, 9L));
+        locks.verify(feedRepository).lockRecipient(OrderFeedService.lockKey(OrderFeedEntry.Recipient.SELLER, 20L));
+        locks.verify(feedRepository).lockRecipient(OrderFeedService.lockKey(OrderFeedEntry.Recipient.SELLER, 30L));
+    }
+
+    @Test
+    void cancelledOrderIsTombstoneForEveryone() {
+        when(itemRepository.findSellerIdsByOrderId(1L)).thenReturn(List.of(20L));
+
+        service.recordChange(order(Order.OrderStatus.CANCELLED, user(7L)), Order.OrderStatus.NEW, null);
+
+        ArgumentCaptor<OrderFeedEntry> saved = ArgumentCaptor.forClass(OrderFeedEntry.class);
+        verify(feedRepository, times(2)).save(saved.capture());
+        assertTrue(saved.getAllValues().stream().allMatch(e -> e.getKind() == OrderFeedEntry.Kind.TOMBSTONE));
+        // Отклонённый новый заказ уходит из общей очереди продавцов
+        verify(pushHub).publish(OrderPushHub.roleTopic(User.Role.SELLER), OrderPushHub.EVENT_NEW_ORDERS,
+                new OrderChange<>(null, 1L, OrderFeedEntry.Kind.TOMBSTONE, null));
+        verify(pushHub).publish(eq(OrderPushHub.userTopic(7L)), eq(OrderPushHub.EVENT_ORDER), any());
+    }
+
+    @Test
+    void firstRequestResetsAndStartsFromRecipientHead() {
+        when(feedRepository.findTail()).thenReturn(Optional.of(5L));
+        when(feedRepository.findHead(OrderFeedEntry.Recipient.COURIER, 7L)).thenReturn(Optional.of(42L));
+
+        OrderChanges<DeliveryView> changes = service.getCourierChanges(user(7L), null, 100);
+
+        assertTrue(changes.reset());
+        assertEquals(42L, changes.nextCursor());
+        assertTrue(changes.changes().isEmpty());
+    }
+
+    @Test
+    void changesKeepLatestEntryPerOrder() {
+        when(feedRepository.findTail()).thenReturn(Optional.of(1L));
+        when(feedRepository.findChanges(eq(OrderFeedEntry.Recipient.COURIER), eq(7L), eq(10L), any()))
+                .thenReturn(List.of(entry(11L, 100L, OrderFeedEntry.Kind.UPSERT),
+                        entry(12L, 200L, OrderFeedEntry.Kind.UPSERT),
+                        entry(13L, 100L, OrderFeedEntry.Kind.UPSERT),
+                        entry(14L, 300L, OrderFeedEntry.Kind.TOMBSTONE)));
+        // Заказ 200 уже переназначен другому курьеру: проекция по курьеру его не вернёт
+        when(orderRepository.findDeliveryViewsByIds(anyCollection(), eq(7L))).thenReturn(List.of(delivery(100L)));
+        when(itemRepository.findViewsByOrderIds(anyCollection())).thenReturn(Map.of());
+
+        OrderChanges<DeliveryView> changes = service.getCourierChanges(user(7L), 10L, 100);
+
+        assertFalse(changes.reset());
+        assertFalse(changes.hasMore());
+        assertEquals(14L, changes.nextCursor());
+        assertEquals(List.of("200:TOMBSTONE", "100:UPSERT", "300:TOMBSTONE"), changes.changes().stream()
+                .map(change -> change.orderId() + ":" + change.kind())
+                .toList());
+        assertEquals(100L, changes.changes().get(1).order().id());
+        assertNull(changes.changes().get(2).order());
+    }
+
+    private static Order order(Order.OrderStatus status, User courier) {
+        Order order = new Order();
+        order.setId(1L);
+        order.setStatus(status);
+        order.setCourier(courier);
+        return order;
+    }
+
+    private static User user(Long id) {
+        User user = new User();
+        user.setId(id);
+        user.setRole(User.Role.COURIER);
+        return user;
+    }
+
+    private static OrderFeedEntry entry(Long seq, Long orderId, OrderFeedEntry.Kind kind) {
+        OrderFeedEntry entry = new OrderFeedEntry();
+        entry.setChangeSeq(seq);
+        entry.setRecipientType(OrderFeedEntry.Recipient.COURIER);
+        entry.setRecipientId(7L);
+        entry.setOrderId(orderId);
+        entry.setKind(kind);
+        return entry;
+    }
+
+    private static DeliveryView delivery(Long id) {
+        return new DeliveryView(id, Order.DeliveryStatus.ASSIGNED, "client", "(+996)-555-000-000", "Бишкек",
+                null, BigDecimal.TEN, null, null, null, null);
+    }
+}
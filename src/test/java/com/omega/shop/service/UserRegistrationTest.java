@@ -0,0 +1,88 @@
+package com.omega.shop.service;
+
+import com.omega.shop.cache.CacheInvalidationBus;
+import com.omega.shop.dto.RegistrationDto;
+import com.omega.shop.entity.User;
+import com.omega.shop.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserRegistrationTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final PasswordEncoder passwordEncoder = mock(PasswordEncoder.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private final UserService service = new UserService(userRepository, passwordEncoder,
+            mock(CacheInvalidationBus.class), new TransactionTemplate(transactionManager));
+
+    @Test
+    void passwordIsHashedBeforeTransactionOpens() {
+        when(passwordEncoder.encode("secret1")).thenReturn("hash");
+        when(userRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            User user = invocation.getArgument(0);
+            user.setId(5L);
+            user.setUpdatedAt(LocalDateTime.now());
+            return user;
+        });
+
+        User saved = service.registerUser(registration());
+
+        assertEquals("hash", saved.getPassword());
+        InOrder order = inOrder(passwordEncoder, transactionManager, userRepository);
+        order.verify(passwordEncoder).encode("secret1");
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(userRepository).saveAndFlush(any());
+        order.verify(transactionManager).commit(any());
+    }
+
+    @Test
+    void concurrentRegistrationOfSameUsernameIsValidationError() {
+        when(passwordEncoder.encode("secret1")).thenReturn("hash");
+        // Проверка прошла, но параллельная регистрация вставила то же имя раньше
+        when(userRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("users_username_key"));
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.registerUser(registration()));
+
+        assertEquals("Пользователь с таким именем уже существует", e.getMessage());
+        verify(transactionManager).rollback(any());
+    }
+
+    @Test
+    void concurrentRegistrationOfSameEmailIsValidationError() {
+        when(passwordEncoder.encode("secret1")).thenReturn("hash");
+        when(userRepository.saveAndFlush(any()))
+                .thenThrow(new DataIntegrityViolationException("users_email_key"));
+        when(userRepository.existsByEmail("new@omega.test")).thenReturn(false, true);
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> service.registerUser(registration()));
+
+        assertEquals("Пользователь с таким email уже существует", e.getMessage());
+    }
+
+    private static RegistrationDto registration() {
+        RegistrationDto dto = new RegistrationDto();
+        dto.setUsername("newuser");
+        dto.setEmail("new@omega.test");
+        dto.setPhone("(+996)-555-000-000");
+        dto.setPassword("secret1");
+        dto.setConfirmPassword("secret1");
+        return dto;
+    }
+}